@@ -0,0 +1,126 @@
+package com.nasroul.bench;
+
+import com.nasroul.dao.DatabaseManager;
+import com.nasroul.util.DeviceIdGenerator;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory SQLite database for microbenchmarks, filled by DatasetGenerator
+ *
+ * The application is pointed at a shared-cache memory database, so DAOs and SyncManager open their
+ * own connections to it as usual; one connection is held open to keep it alive until close().
+ * Every row is marked SYNCED and mapped in sync_metadata to remote id = local id + REMOTE_ID_OFFSET,
+ * as after a first sync.
+ */
+public class BenchDatabase implements AutoCloseable {
+
+    public static final int REMOTE_ID_OFFSET = 100_000;
+
+    // Small enough to build in a second or two per fork, with avatars in the same share as production
+    public static final DatasetGenerator.Volumes MICRO_VOLUMES = new DatasetGenerator.Volumes(600, 15, 12, 3, 3000, 600, 180);
+
+    private static final String DEVICE_ID = "bench-jmh";
+    private static final AtomicInteger OPENED = new AtomicInteger();
+
+    private final Connection keepAlive;
+    private final Map<String, Integer> rows;
+
+    private BenchDatabase(Connection keepAlive, Map<String, Integer> rows) {
+        this.keepAlive = keepAlive;
+        this.rows = rows;
+    }
+
+    /**
+     * Create and fill the database with MICRO_VOLUMES and a fixed seed
+     */
+    public static BenchDatabase open(String name) throws SQLException {
+        return open(name, MICRO_VOLUMES, 42L);
+    }
+
+    /**
+     * Create and fill a new database, even when one opened earlier in the JVM is still alive
+     */
+    public static BenchDatabase open(String name, DatasetGenerator.Volumes volumes, long seed) throws SQLException {
+        String path = "file:" + name + "-" + OPENED.incrementAndGet() + "?mode=memory&cache=shared";
+        System.setProperty("db.sqlite.path", path);
+        System.setProperty("sync.device.id", DEVICE_ID);
+        Connection keepAlive = DriverManager.getConnection("jdbc:sqlite:" + path);
+
+        try {
+            DatabaseManager.reset();
+            DeviceIdGenerator.reset();
+            DatabaseManager.getInstance();
+
+            Map<String, Integer> rows = new DatasetGenerator(seed).generate(keepAlive, volumes, "SYNCED", DEVICE_ID);
+            mapRemoteIds(keepAlive);
+            return new BenchDatabase(keepAlive, rows);
+        } catch (SQLException | RuntimeException e) {
+            keepAlive.close();
+            throw e;
+        }
+    }
+
+    private static void mapRemoteIds(Connection conn) throws SQLException {
+        String[] tables = {"groups", "members", "events", "projects", "expenses", "contributions", "payment_groups"};
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            for (String table : tables) {
+                stmt.executeUpdate("INSERT OR REPLACE INTO sync_metadata (table_name, record_id, remote_id, sync_version, " +
+                    "sync_status) SELECT '" + table + "', id, id + " + REMOTE_ID_OFFSET + ", 1, 'SYNCED' FROM `" + table + "`");
+            }
+            conn.commit();
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Rows generated per table
+     */
+    public Map<String, Integer> getRows() {
+        return rows;
+    }
+
+    /**
+     * Pass exactly count rows of the query to the consumer, running it again when it has fewer rows,
+     * so a benchmark measures the same number of rows whatever the table size
+     */
+    public static void forRows(PreparedStatement query, int count, RowConsumer consumer) throws SQLException {
+        int seen = 0;
+        while (seen < count) {
+            int before = seen;
+            try (ResultSet rs = query.executeQuery()) {
+                while (seen < count && rs.next()) {
+                    consumer.accept(rs);
+                    seen++;
+                }
+            }
+            if (seen == before) {
+                throw new SQLException("Benchmark query returned no rows");
+            }
+        }
+    }
+
+    public Connection connect() throws SQLException {
+        return DatabaseManager.getInstance().getSQLiteConnection();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        DatabaseManager.reset();
+        keepAlive.close();
+    }
+
+    public interface RowConsumer {
+        void accept(ResultSet rs) throws SQLException;
+    }
+}
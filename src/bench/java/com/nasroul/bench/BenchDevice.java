@@ -0,0 +1,118 @@
+package com.nasroul.bench;
+
+import com.nasroul.dao.DatabaseManager;
+import com.nasroul.dao.RemoteTrafficMeter;
+import com.nasroul.sync.SyncManager;
+import com.nasroul.util.DeviceIdGenerator;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One device of a benchmark run: its own SQLite file and device id, sharing the remote stand-in
+ *
+ * Devices take turns in the same process; activate() points ConfigManager, DatabaseManager and
+ * DeviceIdGenerator at this device before anything runs on its behalf.
+ */
+class BenchDevice {
+
+    private static BenchDevice active;
+
+    private final String name;
+    private final Path databasePath;
+
+    BenchDevice(String name, Path directory) {
+        this.name = name;
+        this.databasePath = directory.resolve(name + ".db");
+    }
+
+    String getName() {
+        return name;
+    }
+
+    void activate() {
+        if (active == this) {
+            return;
+        }
+        active = this;
+        System.setProperty("db.sqlite.path", databasePath.toAbsolutePath().toString());
+        System.setProperty("sync.device.id", "bench-" + name);
+        DatabaseManager.reset();
+        DeviceIdGenerator.reset();
+        DatabaseManager.getInstance();
+    }
+
+    /**
+     * Run one SyncManager.synchronize() on this device and measure it
+     */
+    BenchResult sync(String scenario) throws SQLException {
+        activate();
+        SyncManager syncManager = new SyncManager();
+
+        RemoteTrafficMeter.Snapshot before = RemoteTrafficMeter.snapshot();
+        long startNanos = System.nanoTime();
+        SyncManager.SyncResult result = syncManager.synchronize();
+        long elapsedNanos = System.nanoTime() - startNanos;
+        RemoteTrafficMeter.Snapshot traffic = RemoteTrafficMeter.snapshot().since(before);
+
+        return new BenchResult(scenario, name, elapsedNanos, traffic, result);
+    }
+
+    /**
+     * Edit local rows the way the DAOs do (new version, PENDING), picked by remote id so every
+     * device edits the same rows; change capture queues them for the next push
+     *
+     * @return number of rows edited
+     */
+    int editRows(String table, String column, String value, List<Integer> remoteIds) throws SQLException {
+        activate();
+        String sql = "UPDATE `" + table + "` SET " + column + " = ?, updated_at = datetime('now'), " +
+                     "last_modified_by = ?, sync_status = 'PENDING', sync_version = sync_version + 1 " +
+                     "WHERE id = (SELECT record_id FROM sync_metadata WHERE table_name = ? AND remote_id = ?)";
+
+        int edited = 0;
+        try (Connection conn = DatabaseManager.getInstance().getSQLiteConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            conn.setAutoCommit(false);
+            for (int remoteId : remoteIds) {
+                pstmt.setString(1, value);
+                pstmt.setString(2, DeviceIdGenerator.getDeviceId());
+                pstmt.setString(3, table);
+                pstmt.setInt(4, remoteId);
+                edited += pstmt.executeUpdate();
+            }
+            conn.commit();
+        }
+        return edited;
+    }
+
+    /**
+     * Local value of a column for rows picked by remote id, as editRows picks them
+     */
+    Map<Integer, String> readValues(String table, String column, List<Integer> remoteIds) throws SQLException {
+        activate();
+        String sql = "SELECT m.remote_id, t." + column + " FROM `" + table + "` t " +
+                     "JOIN sync_metadata m ON m.table_name = ? AND m.record_id = t.id WHERE m.remote_id = ?";
+
+        Map<Integer, String> values = new HashMap<>();
+        try (Connection conn = DatabaseManager.getInstance().getSQLiteConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int remoteId : remoteIds) {
+                pstmt.setString(1, table);
+                pstmt.setInt(2, remoteId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        values.put(rs.getInt(1), rs.getString(2));
+                    }
+                }
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,72 @@
+package com.nasroul.bench;
+
+import com.nasroul.dao.RemoteTrafficMeter;
+import com.nasroul.sync.SyncManager;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measurement of one synchronize() call
+ */
+class BenchResult {
+
+    static final String CSV_HEADER = "scenario,device,wall_ms,round_trips,bytes_sent,bytes_received,"
+        + "rows_pulled,rows_pushed,rows_per_second,conflicts,errors";
+
+    private final String scenario;
+    private final String device;
+    private final long elapsedNanos;
+    private final RemoteTrafficMeter.Snapshot traffic;
+    private final SyncManager.SyncResult result;
+
+    BenchResult(String scenario, String device, long elapsedNanos, RemoteTrafficMeter.Snapshot traffic,
+                SyncManager.SyncResult result) {
+        this.scenario = scenario;
+        this.device = device;
+        this.elapsedNanos = elapsedNanos;
+        this.traffic = traffic;
+        this.result = result;
+    }
+
+    long getWallMs() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    int getRows() {
+        return result.getRecordsPulled() + result.getRecordsPushed();
+    }
+
+    // Rows written on either side per second of wall time
+    double getRowsPerSecond() {
+        return elapsedNanos > 0 ? getRows() / (elapsedNanos / 1_000_000_000.0) : 0;
+    }
+
+    int getConflicts() {
+        return result.getConflicts();
+    }
+
+    boolean isSuccess() {
+        return result.isSuccess() && result.getErrors().isEmpty();
+    }
+
+    static String header() {
+        return String.format(Locale.ROOT, "%-22s %-6s %10s %12s %12s %8s %8s %10s %9s %6s",
+            "scenario", "device", "wall ms", "round trips", "traffic KB", "pulled", "pushed", "rows/s", "conflicts", "errors");
+    }
+
+    String toRow() {
+        return String.format(Locale.ROOT, "%-22s %-6s %10d %12d %12.1f %8d %8d %10.1f %9d %6d",
+            scenario, device, getWallMs(), traffic.getRoundTrips(),
+            (traffic.getBytesSent() + traffic.getBytesReceived()) / 1024.0,
+            result.getRecordsPulled(), result.getRecordsPushed(), getRowsPerSecond(),
+            result.getConflicts(), result.getErrors().size());
+    }
+
+    String toCsv() {
+        return String.format(Locale.ROOT, "%s,%s,%d,%d,%d,%d,%d,%d,%.1f,%d,%d",
+            scenario, device, getWallMs(), traffic.getRoundTrips(), traffic.getBytesSent(), traffic.getBytesReceived(),
+            result.getRecordsPulled(), result.getRecordsPushed(), getRowsPerSecond(),
+            result.getConflicts(), result.getErrors().size());
+    }
+}
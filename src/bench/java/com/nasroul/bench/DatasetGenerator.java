@@ -0,0 +1,614 @@
+package com.nasroul.bench;
+
+import com.nasroul.dao.DatabaseManager;
+import com.nasroul.util.DeviceIdGenerator;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Fills the association tables with a synthetic dataset at production scale
+ *
+ * Names, phone numbers, places and amounts follow the patterns of a Senegalese association: common
+ * family names dominate, phones are typed in the formats people use, a few members make most of the
+ * contributions, CFA amounts are round. Everything derives from the seed and a fixed reference date,
+ * so the same settings always give the same rows. Rows are appended after the existing ids, in
+ * batched transactions; the same code seeds the local SQLite database or a remote MySQL schema.
+ *
+ * Run with: mvn -Plinux,bench test-compile exec:java -Dbench.mainClass=com.nasroul.bench.DatasetGenerator
+ * Settings (-D): bench.members, bench.groups, bench.events, bench.projects, bench.contributions,
+ * bench.expenses, bench.avatars, bench.seed; db.sqlite.path for the target database.
+ */
+public class DatasetGenerator {
+
+    // Rows per transaction
+    static final int BATCH_SIZE = 1000;
+    static final LocalDate REFERENCE_DATE = LocalDate.of(2025, 6, 30);
+
+    private static final DateTimeFormatter DATETIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int AVATAR_SIZE = 300;
+
+    // Family names, most common first: picks are skewed towards the start of the list
+    private static final String[] LAST_NAMES = {"Diop", "Ndiaye", "Fall", "Sow", "Diallo", "Gueye", "Mbaye",
+        "Faye", "Sarr", "Ba", "Seck", "Cisse", "Thiam", "Niang", "Kane", "Diouf", "Sy", "Mbengue", "Dieng",
+        "Ndao", "Samb", "Lo", "Toure", "Camara", "Wade", "Sall", "Diagne", "Gaye", "Mboup", "Kebe", "Lam", "Tall"};
+    private static final String[] MALE_NAMES = {"Mamadou", "Moussa", "Ibrahima", "Cheikh", "Abdoulaye",
+        "Ousmane", "Modou", "Serigne", "Mouhamed", "Assane", "Alioune", "Babacar", "Amadou", "Pape", "Saliou",
+        "Malick", "Omar", "Lamine", "Bassirou", "Fallou", "Khadim", "Souleymane", "Mor", "Djibril"};
+    private static final String[] FEMALE_NAMES = {"Fatou", "Aminata", "Awa", "Mariama", "Khady", "Ndeye",
+        "Coumba", "Astou", "Aissatou", "Adja", "Fatoumata", "Seynabou", "Sokhna", "Mame Diarra", "Rokhaya",
+        "Bineta", "Dieynaba", "Ndeye Fatou", "Marieme", "Yacine", "Penda", "Oumou", "Khadija", "Maimouna"};
+    private static final String[] CITIES = {"Touba", "Dakar", "Mbacké", "Thiès", "Diourbel", "Kaolack",
+        "Pikine", "Rufisque", "Saint-Louis", "Louga", "Guédiawaye", "Ziguinchor", "Tivaouane", "Fatick"};
+    private static final String[] DISTRICTS = {"Darou Khoudoss", "Médina", "Parcelles Assainies", "HLM",
+        "Keur Massar", "Grand Yoff", "Liberté 6", "Ndamatou", "Darou Marnane", "Gouye Mbind", "Guinaw Rail"};
+    // Orange 77/78, Free 76, Expresso 70, Promobile 75
+    private static final String[] PHONE_PREFIXES = {"77", "77", "77", "78", "78", "76", "76", "70", "75"};
+    private static final String[] EMAIL_DOMAINS = {"gmail.com", "gmail.com", "gmail.com", "yahoo.fr", "hotmail.com", "outlook.fr"};
+    private static final String[] ROLES = {"Trésorier", "Secrétaire général", "Président", "Chargé de communication",
+        "Commissaire aux comptes", "Responsable jeunesse"};
+    private static final String[] GROUP_KINDS = {"Dahira", "Kurel", "Section", "Cellule", "Commission"};
+    private static final String[] EVENT_KINDS = {"Magal", "Kazu Rajab", "Ziarra", "Conférence religieuse",
+        "Journée de lecture du Coran", "Thiant", "Sortie des talibés", "Assemblée générale", "Mawlid"};
+    private static final String[] PROJECT_KINDS = {"Construction de la mosquée", "Rénovation du daara",
+        "Achat d'un véhicule", "Forage", "Bibliothèque coranique", "Dortoir des talibés", "Panneaux solaires"};
+    private static final String[] EXPENSE_CATEGORIES = {"Transport", "Nourriture", "Matériel", "Location",
+        "Communication", "Services", "Autre"};
+    private static final double[] EXPENSE_CATEGORY_WEIGHTS = {0.25, 0.30, 0.15, 0.10, 0.08, 0.07, 0.05};
+    private static final int[] CONTRIBUTION_AMOUNTS = {500, 1000, 2000, 2500, 5000, 10000, 15000, 25000, 50000, 100000};
+    private static final double[] CONTRIBUTION_AMOUNT_WEIGHTS = {0.08, 0.20, 0.15, 0.07, 0.22, 0.14, 0.04, 0.05, 0.04, 0.01};
+    private static final String[] PAYMENT_METHODS = {"CASH", "WAVE", "ORANGE_MONEY"};
+    private static final double[] PAYMENT_METHOD_WEIGHTS = {0.45, 0.35, 0.20};
+
+    private final Random random;
+
+    public DatasetGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Volumes volumes = Volumes.fromSystemProperties();
+        long seed = Long.getLong("bench.seed", 42L);
+        DatabaseManager dbManager = DatabaseManager.getInstance();
+
+        System.out.println("Generating " + volumes + " (seed " + seed + ")");
+        long startNanos = System.nanoTime();
+        Map<String, Integer> counts;
+        try (Connection conn = dbManager.getSQLiteConnection()) {
+            counts = new DatasetGenerator(seed).generate(conn, volumes, "PENDING", DeviceIdGenerator.getDeviceId());
+        }
+        System.out.printf("Generated %s in %d ms%n", counts, (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    /**
+     * Append a dataset of the given volumes
+     *
+     * @param syncStatus sync_status of the rows: PENDING for local rows to push, SYNCED for a remote seed
+     * @return rows inserted per table
+     */
+    public Map<String, Integer> generate(Connection conn, Volumes volumes, String syncStatus, String deviceId)
+            throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            RowWriter writer = new RowWriter(conn, syncStatus, deviceId);
+
+            List<Integer> groups = generateGroups(writer, volumes);
+            counts.put("groups", groups.size());
+            List<Integer> members = generateMembers(writer, volumes, groups);
+            counts.put("members", members.size());
+            counts.put("member_groups", generateMemberGroups(conn, members, groups));
+            List<Entity> entities = new ArrayList<>(generateEvents(writer, volumes, members));
+            counts.put("events", entities.size());
+            entities.addAll(generateProjects(writer, volumes, members));
+            counts.put("projects", entities.size() - counts.get("events"));
+            counts.put("payment_groups", generatePaymentGroups(writer, entities, groups));
+            counts.put("contributions", generateContributions(writer, volumes, members, entities));
+            counts.put("expenses", generateExpenses(writer, volumes, members, entities));
+            return counts;
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    private List<Integer> generateGroups(RowWriter writer, Volumes volumes) throws SQLException {
+        List<Integer> indexes = new ArrayList<>();
+        for (int i = 0; i < volumes.groups; i++) {
+            indexes.add(i);
+        }
+        Set<String> names = new LinkedHashSet<>();
+
+        return writer.insert("groups", "name, description, active, contribution_target", indexes,
+            (pstmt, id, index) -> {
+                // Names are unique: the id tells apart a second group of the same kind and city
+                String name = pick(GROUP_KINDS) + " " + pick(CITIES);
+                if (!names.add(name)) {
+                    name = name + " " + id;
+                }
+                pstmt.setString(1, name);
+                pstmt.setString(2, random.nextDouble() < 0.6 ? "Regroupement des membres - " + name : null);
+                pstmt.setInt(3, random.nextDouble() < 0.95 ? 1 : 0);
+                pstmt.setDouble(4, roundTo(random.nextDouble() * 2_000_000, 50_000));
+                return REFERENCE_DATE.minusDays(3000 + random.nextInt(500)).atTime(10, 0);
+            });
+    }
+
+    private List<Integer> generateMembers(RowWriter writer, Volumes volumes, List<Integer> groups) throws SQLException {
+        List<Integer> indexes = new ArrayList<>();
+        for (int i = 0; i < volumes.members; i++) {
+            indexes.add(i);
+        }
+        // Avatars are spread over the members rather than on the first ids
+        double avatarRate = volumes.members > 0 ? (double) volumes.avatars / volumes.members : 0;
+
+        return writer.insert("members", "first_name, last_name, email, phone, birth_date, address, join_date, role, "
+                + "avatar, active, group_id", indexes,
+            (pstmt, id, index) -> {
+                boolean female = random.nextBoolean();
+                String firstName = pick(female ? FEMALE_NAMES : MALE_NAMES);
+                String lastName = LAST_NAMES[skewedIndex(LAST_NAMES.length, 1.8)];
+                LocalDate joinDate = REFERENCE_DATE.minusDays((long) (3650 * Math.pow(random.nextDouble(), 1.5)));
+                int age = (int) Math.max(16, Math.min(85, 36 + random.nextGaussian() * 13));
+
+                pstmt.setString(1, firstName);
+                pstmt.setString(2, lastName);
+                // Emails are unique: the id keeps homonyms apart
+                pstmt.setString(3, random.nextDouble() < 0.35 ? email(firstName, lastName, id) : null);
+                pstmt.setString(4, random.nextDouble() < 0.93 ? phone() : null);
+                pstmt.setString(5, random.nextDouble() < 0.8
+                    ? REFERENCE_DATE.minusYears(age).minusDays(random.nextInt(365)).toString() : null);
+                pstmt.setString(6, random.nextDouble() < 0.7 ? pick(DISTRICTS) + ", " + pick(CITIES) : null);
+                pstmt.setString(7, joinDate.toString());
+                pstmt.setString(8, random.nextDouble() < 0.03 ? pick(ROLES) : "Membre");
+                pstmt.setBytes(9, random.nextDouble() < avatarRate ? avatar(firstName, lastName) : null);
+                pstmt.setInt(10, random.nextDouble() < 0.92 ? 1 : 0);
+                pstmt.setInt(11, groups.get(skewedIndex(groups.size(), 1.3)));
+                return joinDate.atTime(9 + random.nextInt(10), random.nextInt(60));
+            });
+    }
+
+    /**
+     * Extra groups of the members: most belong to one group, some to two or three
+     */
+    private int generateMemberGroups(Connection conn, List<Integer> members, List<Integer> groups) throws SQLException {
+        Map<Integer, Integer> primaryGroups = new LinkedHashMap<>();
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT id, group_id FROM members WHERE id >= ?")) {
+            pstmt.setInt(1, members.isEmpty() ? Integer.MAX_VALUE : members.get(0));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    primaryGroups.put(rs.getInt(1), rs.getInt(2));
+                }
+            }
+        }
+
+        int inserted = 0;
+        try (PreparedStatement pstmt = conn.prepareStatement("INSERT INTO member_groups (member_id, group_id) VALUES (?, ?)")) {
+            for (int memberId : members) {
+                Set<Integer> memberGroups = new LinkedHashSet<>();
+                memberGroups.add(primaryGroups.get(memberId));
+                double draw = random.nextDouble();
+                int extra = draw < 0.65 ? 0 : draw < 0.92 ? 1 : 2;
+                for (int i = 0; i < extra && memberGroups.size() < groups.size(); i++) {
+                    memberGroups.add(pick(groups));
+                }
+                for (int groupId : memberGroups) {
+                    pstmt.setInt(1, memberId);
+                    pstmt.setInt(2, groupId);
+                    pstmt.addBatch();
+                    if (++inserted % BATCH_SIZE == 0) {
+                        pstmt.executeBatch();
+                        conn.commit();
+                    }
+                }
+            }
+            pstmt.executeBatch();
+            conn.commit();
+        }
+        return inserted;
+    }
+
+    private List<Entity> generateEvents(RowWriter writer, Volumes volumes, List<Integer> members) throws SQLException {
+        List<LocalDate> dates = new ArrayList<>();
+        for (int i = 0; i < volumes.events; i++) {
+            // Three years of history and six months ahead
+            dates.add(REFERENCE_DATE.minusDays(1095).plusDays(random.nextInt(1095 + 180)));
+        }
+
+        List<Integer> ids = writer.insert("events", "name, description, start_date, end_date, location, status, "
+                + "organizer_id, max_capacity, active, contribution_target", dates,
+            (pstmt, id, date) -> {
+                String kind = pick(EVENT_KINDS);
+                int days = kind.equals("Magal") || kind.equals("Ziarra") ? 1 + random.nextInt(3) : 0;
+                pstmt.setString(1, kind + " " + date.getYear() + " - " + pick(CITIES));
+                pstmt.setString(2, random.nextDouble() < 0.5 ? "Organisé par l'association" : null);
+                // Events are timed (LocalDateTime.toString(), as EventDAO writes them)
+                pstmt.setString(3, date.atTime(16, 0).toString());
+                pstmt.setString(4, days > 0 ? date.plusDays(days).atTime(18, 0).toString() : null);
+                pstmt.setString(5, pick(CITIES));
+                pstmt.setString(6, eventStatus(date, days));
+                pstmt.setObject(7, members.isEmpty() ? null : pick(members));
+                pstmt.setObject(8, random.nextDouble() < 0.4 ? 50 * (1 + random.nextInt(40)) : null);
+                pstmt.setInt(9, 1);
+                pstmt.setDouble(10, roundTo(random.nextDouble() * 5_000_000, 100_000));
+                return date.minusDays(15 + random.nextInt(60)).atTime(20, 0);
+            });
+
+        List<Entity> events = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            events.add(new Entity("EVENT", ids.get(i), dates.get(i)));
+        }
+        return events;
+    }
+
+    private List<Entity> generateProjects(RowWriter writer, Volumes volumes, List<Integer> members) throws SQLException {
+        List<LocalDate> dates = new ArrayList<>();
+        for (int i = 0; i < volumes.projects; i++) {
+            dates.add(REFERENCE_DATE.minusDays(random.nextInt(1460)));
+        }
+
+        List<Integer> ids = writer.insert("projects", "name, description, start_date, end_date, status, budget, "
+                + "target_budget, manager_id, contribution_target", dates,
+            (pstmt, id, date) -> {
+                double target = roundTo(2_000_000 + random.nextDouble() * 48_000_000, 500_000);
+                boolean done = date.isBefore(REFERENCE_DATE.minusDays(730)) && random.nextDouble() < 0.7;
+                pstmt.setString(1, pick(PROJECT_KINDS) + " - " + pick(CITIES));
+                pstmt.setString(2, random.nextDouble() < 0.6 ? "Projet financé par les cotisations des membres" : null);
+                pstmt.setString(3, date.toString());
+                pstmt.setString(4, done ? date.plusDays(180 + random.nextInt(540)).toString() : null);
+                pstmt.setString(5, done ? "COMPLETED" : random.nextDouble() < 0.6 ? "ONGOING" : "PLANNING");
+                pstmt.setDouble(6, roundTo(target * random.nextDouble(), 10_000));
+                pstmt.setDouble(7, target);
+                pstmt.setObject(8, members.isEmpty() ? null : pick(members));
+                pstmt.setDouble(9, target);
+                return date.minusDays(random.nextInt(90)).atTime(18, 30);
+            });
+
+        List<Entity> projects = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            projects.add(new Entity("PROJECT", ids.get(i), dates.get(i)));
+        }
+        return projects;
+    }
+
+    /**
+     * Amount due per group for about a third of the events and projects
+     */
+    private int generatePaymentGroups(RowWriter writer, List<Entity> entities, List<Integer> groups) throws SQLException {
+        List<int[]> rows = new ArrayList<>();
+        for (int i = 0; i < entities.size(); i++) {
+            if (random.nextDouble() < 0.35) {
+                for (int groupId : groups) {
+                    if (random.nextDouble() < 0.5) {
+                        rows.add(new int[]{i, groupId});
+                    }
+                }
+            }
+        }
+
+        return writer.insert("payment_groups", "group_id, entity_type, entity_id, amount", rows,
+            (pstmt, id, row) -> {
+                Entity entity = entities.get(row[0]);
+                pstmt.setInt(1, row[1]);
+                pstmt.setString(2, entity.type);
+                pstmt.setInt(3, entity.id);
+                pstmt.setDouble(4, roundTo(25_000 + random.nextDouble() * 475_000, 25_000));
+                return entity.date.minusDays(10).atTime(12, 0);
+            }).size();
+    }
+
+    private int generateContributions(RowWriter writer, Volumes volumes, List<Integer> members,
+                                      List<Entity> entities) throws SQLException {
+        if (members.isEmpty() || entities.isEmpty()) {
+            return 0;
+        }
+        List<Integer> indexes = new ArrayList<>();
+        for (int i = 0; i < volumes.contributions; i++) {
+            indexes.add(i);
+        }
+
+        return writer.insert("contributions", "member_id, entity_type, entity_id, amount, date, status, "
+                + "payment_method, notes", indexes,
+            (pstmt, id, index) -> {
+                // A minority of members makes most of the contributions, mostly to events
+                Entity entity = pickEntity(entities, 0.8);
+                LocalDate date = entity.date.plusDays(random.nextInt(45) - 30);
+                boolean paid = date.isBefore(REFERENCE_DATE) ? random.nextDouble() < 0.9 : random.nextDouble() < 0.4;
+                pstmt.setInt(1, members.get(skewedIndex(members.size(), 2.5)));
+                pstmt.setString(2, entity.type);
+                pstmt.setInt(3, entity.id);
+                pstmt.setDouble(4, CONTRIBUTION_AMOUNTS[weighted(CONTRIBUTION_AMOUNT_WEIGHTS)]);
+                pstmt.setString(5, date.toString());
+                pstmt.setString(6, paid ? "PAID" : "PENDING");
+                pstmt.setString(7, paid ? PAYMENT_METHODS[weighted(PAYMENT_METHOD_WEIGHTS)] : null);
+                pstmt.setString(8, random.nextDouble() < 0.1 ? "Versé par " + pick(MALE_NAMES) : null);
+                return date.atTime(8 + random.nextInt(14), random.nextInt(60));
+            }).size();
+    }
+
+    private int generateExpenses(RowWriter writer, Volumes volumes, List<Integer> members,
+                                 List<Entity> entities) throws SQLException {
+        if (entities.isEmpty()) {
+            return 0;
+        }
+        List<Integer> indexes = new ArrayList<>();
+        for (int i = 0; i < volumes.expenses; i++) {
+            indexes.add(i);
+        }
+
+        return writer.insert("expenses", "description, amount, date, category, entity_type, entity_id, member_id",
+            indexes,
+            (pstmt, id, index) -> {
+                Entity entity = pickEntity(entities, 0.6);
+                String category = EXPENSE_CATEGORIES[weighted(EXPENSE_CATEGORY_WEIGHTS)];
+                LocalDate date = entity.date.plusDays(random.nextInt(20) - 15);
+                // Log-normal: many small purchases, a few large ones
+                double amount = roundTo(Math.exp(10 + random.nextGaussian() * 1.2), 500);
+                pstmt.setString(1, category + " - " + (entity.type.equals("EVENT") ? "événement" : "projet") + " " + entity.id);
+                pstmt.setDouble(2, Math.max(500, amount));
+                pstmt.setString(3, date.toString());
+                pstmt.setString(4, category);
+                pstmt.setString(5, entity.type);
+                pstmt.setInt(6, entity.id);
+                pstmt.setObject(7, !members.isEmpty() && random.nextDouble() < 0.7 ? pick(members) : null);
+                return date.atTime(8 + random.nextInt(12), random.nextInt(60));
+            }).size();
+    }
+
+    private String eventStatus(LocalDate date, int days) {
+        if (date.plusDays(days).isBefore(REFERENCE_DATE)) {
+            return random.nextDouble() < 0.05 ? "CANCELLED" : "COMPLETED";
+        }
+        return date.isAfter(REFERENCE_DATE) ? "PLANNED" : "ONGOING";
+    }
+
+    /**
+     * Phone number as members type it: local, with spaces, or international
+     */
+    private String phone() {
+        String number = pick(PHONE_PREFIXES) + String.format("%07d", random.nextInt(10_000_000));
+        double format = random.nextDouble();
+        if (format < 0.45) {
+            return number.substring(0, 2) + " " + number.substring(2, 5) + " " + number.substring(5, 7) + " " + number.substring(7);
+        }
+        if (format < 0.75) {
+            return number;
+        }
+        if (format < 0.92) {
+            return "+221" + number;
+        }
+        return "00221 " + number;
+    }
+
+    private String email(String firstName, String lastName, int id) {
+        String local = (firstName + "." + lastName).toLowerCase()
+            .replace(' ', '.').replace('é', 'e').replace('è', 'e').replace('ï', 'i');
+        return local + id + "@" + pick(EMAIL_DOMAINS);
+    }
+
+    /**
+     * JPEG portrait placeholder of the size ImageUtil stores, with noise so it weighs like a photo
+     */
+    private byte[] avatar(String firstName, String lastName) {
+        BufferedImage image = new BufferedImage(AVATAR_SIZE, AVATAR_SIZE, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        Color background = new Color(random.nextInt(200), random.nextInt(200), random.nextInt(200));
+        g.setPaint(new GradientPaint(0, 0, background, AVATAR_SIZE, AVATAR_SIZE, background.brighter()));
+        g.fillRect(0, 0, AVATAR_SIZE, AVATAR_SIZE);
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setColor(new Color(60 + random.nextInt(100), 40 + random.nextInt(60), 30 + random.nextInt(40)));
+        g.fillOval(90, 50, 120, 140);
+        g.fillOval(45, 190, 210, 180);
+        g.setColor(Color.WHITE);
+        g.setFont(new Font(Font.SANS_SERIF, Font.BOLD, 36));
+        g.drawString(firstName.substring(0, 1) + lastName.charAt(0), 20, 50);
+        g.dispose();
+
+        for (int y = 0; y < AVATAR_SIZE; y++) {
+            for (int x = 0; x < AVATAR_SIZE; x++) {
+                int noise = random.nextInt(33) - 16;
+                int rgb = image.getRGB(x, y);
+                int r = clamp(((rgb >> 16) & 0xFF) + noise);
+                int gr = clamp(((rgb >> 8) & 0xFF) + noise);
+                int b = clamp((rgb & 0xFF) + noise);
+                image.setRGB(x, y, (r << 16) | (gr << 8) | b);
+            }
+        }
+
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(image, "jpg", out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Entity pickEntity(List<Entity> entities, double eventShare) {
+        boolean wantEvent = random.nextDouble() < eventShare;
+        for (int attempt = 0; attempt < 8; attempt++) {
+            Entity entity = pick(entities);
+            if (entity.type.equals("EVENT") == wantEvent) {
+                return entity;
+            }
+        }
+        return pick(entities);
+    }
+
+    /**
+     * Index in [0, size) skewed towards 0; skew 1 is uniform, higher values concentrate more
+     */
+    private int skewedIndex(int size, double skew) {
+        return Math.min(size - 1, (int) (size * Math.pow(random.nextDouble(), skew)));
+    }
+
+    private int weighted(double[] weights) {
+        double draw = random.nextDouble();
+        for (int i = 0; i < weights.length; i++) {
+            draw -= weights[i];
+            if (draw < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private <T> T pick(List<T> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    private static double roundTo(double value, double step) {
+        return Math.round(value / step) * step;
+    }
+
+    private static int clamp(int value) {
+        return Math.max(0, Math.min(255, value));
+    }
+
+    /**
+     * Binds the business columns of one row and returns its creation time
+     */
+    @FunctionalInterface
+    interface RowBinder<T> {
+        LocalDateTime bind(PreparedStatement pstmt, int id, T item) throws SQLException;
+    }
+
+    /**
+     * Batched INSERTs with explicit ids after the current maximum, committed every BATCH_SIZE rows
+     */
+    private static class RowWriter {
+        private final Connection conn;
+        private final String syncStatus;
+        private final String deviceId;
+
+        RowWriter(Connection conn, String syncStatus, String deviceId) {
+            this.conn = conn;
+            this.syncStatus = syncStatus;
+            this.deviceId = deviceId;
+        }
+
+        <T> List<Integer> insert(String table, String columns, List<T> items, RowBinder<T> binder) throws SQLException {
+            int count = columns.split(",").length;
+            String sql = "INSERT INTO `" + table + "` (" + columns + ", id, created_at, updated_at, last_modified_by, "
+                + "sync_status, sync_version, last_sync_at) VALUES (" + "?, ".repeat(count + 6) + "?)";
+
+            int nextId = maxId(table) + 1;
+            List<Integer> ids = new ArrayList<>(items.size());
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (T item : items) {
+                    int id = nextId++;
+                    LocalDateTime createdAt = binder.bind(pstmt, id, item);
+                    String timestamp = createdAt.format(DATETIME);
+                    pstmt.setInt(count + 1, id);
+                    pstmt.setString(count + 2, timestamp);
+                    pstmt.setString(count + 3, timestamp);
+                    pstmt.setString(count + 4, deviceId);
+                    pstmt.setString(count + 5, syncStatus);
+                    pstmt.setInt(count + 6, 1);
+                    pstmt.setString(count + 7, "SYNCED".equals(syncStatus) ? timestamp : null);
+                    pstmt.addBatch();
+                    ids.add(id);
+
+                    if (ids.size() % BATCH_SIZE == 0) {
+                        pstmt.executeBatch();
+                        conn.commit();
+                    }
+                }
+                pstmt.executeBatch();
+                conn.commit();
+            }
+            return ids;
+        }
+
+        private int maxId(String table) throws SQLException {
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(id), 0) FROM `" + table + "`")) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    private static class Entity {
+        final String type;
+        final int id;
+        final LocalDate date;
+
+        Entity(String type, int id, LocalDate date) {
+            this.type = type;
+            this.id = id;
+            this.date = date;
+        }
+    }
+
+    /**
+     * Row counts of a dataset; unset counts follow the number of members
+     */
+    public static class Volumes {
+        final int members;
+        final int groups;
+        final int events;
+        final int projects;
+        final int contributions;
+        final int expenses;
+        final int avatars;
+
+        public Volumes(int members, int groups, int events, int projects, int contributions, int expenses, int avatars) {
+            this.members = members;
+            this.groups = Math.max(1, groups);
+            this.events = events;
+            this.projects = projects;
+            this.contributions = contributions;
+            this.expenses = expenses;
+            this.avatars = Math.min(avatars, members);
+        }
+
+        public static Volumes fromSystemProperties() {
+            int members = Integer.getInteger("bench.members", 2000);
+            int contributions = Integer.getInteger("bench.contributions", members * 5);
+            return new Volumes(
+                members,
+                Integer.getInteger("bench.groups", Math.max(1, members / 40)),
+                Integer.getInteger("bench.events", Math.max(1, members / 50)),
+                Integer.getInteger("bench.projects", Math.max(1, members / 200)),
+                contributions,
+                Integer.getInteger("bench.expenses", contributions / 10),
+                Integer.getInteger("bench.avatars", members * 3 / 10));
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d members (%d with avatar), %d groups, %d events, %d projects, %d contributions, "
+                + "%d expenses", members, avatars, groups, events, projects, contributions, expenses);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.nasroul.bench;
+
+import com.nasroul.dao.DatabaseManager;
+import com.nasroul.util.ConfigManager;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sync server of a benchmark run
+ *
+ * By default an in-memory H2 database in MySQL mode, so runs need no server and are repeatable.
+ * With -Ddb.mysql.url (plus db.mysql.username / db.mysql.password) a real MySQL or MariaDB database
+ * is used instead; its syncable tables are emptied before seeding.
+ * Seeding goes through a plain connection, so it does not count in the measured traffic.
+ */
+class RemoteStandIn {
+
+    static final String H2_URL = "jdbc:h2:mem:nasroul_bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    private static final String SEED_DEVICE = "bench-server";
+
+    private final ConfigManager config = ConfigManager.getInstance();
+
+    /**
+     * Point the application at H2 unless a server was given on the command line
+     */
+    static void configure() {
+        if (System.getProperty("db.mysql.url") == null) {
+            System.setProperty("db.mysql.url", H2_URL);
+        }
+    }
+
+    static boolean isEmbedded() {
+        return H2_URL.equals(System.getProperty("db.mysql.url"));
+    }
+
+    Connection connect() throws SQLException {
+        return DriverManager.getConnection(config.getMySQLConnectionUrl(),
+            config.getMySQLUsername(), config.getMySQLPassword());
+    }
+
+    /**
+     * Create the remote schema the way the application does, then empty it
+     */
+    void prepare() throws SQLException {
+        if (!DatabaseManager.getInstance().initializeRemote()) {
+            throw new SQLException("Remote stand-in unreachable: " + config.getMySQLConnectionUrl());
+        }
+
+        String[] tables = {"change_feed", "sync_log", "sync_metadata", "member_groups", "payment_groups",
+            "contributions", "expenses", "projects", "events", "members", "groups"};
+        try (Connection conn = connect();
+             Statement stmt = conn.createStatement()) {
+            if (isEmbedded()) {
+                useMySQLTextColumns(stmt);
+            }
+            for (String table : tables) {
+                stmt.executeUpdate("DELETE FROM `" + table + "`");
+            }
+        }
+    }
+
+    /**
+     * H2 maps TEXT to CLOB and returns Clob objects, which SQLite cannot bind; MySQL returns strings
+     */
+    private void useMySQLTextColumns(Statement stmt) throws SQLException {
+        List<String> alters = new ArrayList<>();
+        try (ResultSet rs = stmt.executeQuery("""
+                SELECT table_name, column_name FROM information_schema.columns
+                WHERE table_schema = SCHEMA() AND data_type = 'CHARACTER LARGE OBJECT'
+                """)) {
+            while (rs.next()) {
+                alters.add("ALTER TABLE `" + rs.getString(1) + "` ALTER COLUMN `" + rs.getString(2) + "` VARCHAR(65535)");
+            }
+        }
+        for (String alter : alters) {
+            stmt.execute(alter);
+        }
+    }
+
+    /**
+     * Fill the remote tables as if other devices had already pushed them
+     */
+    Map<String, Integer> seed(DatasetGenerator.Volumes volumes, long seed) throws SQLException {
+        try (Connection conn = connect()) {
+            return new DatasetGenerator(seed).generate(conn, volumes, "SYNCED", SEED_DEVICE);
+        }
+    }
+
+    /**
+     * Remote value of a column for the given ids, read outside the measured traffic
+     */
+    Map<Integer, String> readValues(String table, String column, List<Integer> ids) throws SQLException {
+        Map<Integer, String> values = new HashMap<>();
+        try (Connection conn = connect();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT " + column + " FROM `" + table + "` WHERE id = ?")) {
+            for (int id : ids) {
+                pstmt.setInt(1, id);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        values.put(id, rs.getString(1));
+                    }
+                }
+            }
+        }
+        return values;
+    }
+}
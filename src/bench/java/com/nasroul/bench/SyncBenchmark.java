@@ -0,0 +1,184 @@
+package com.nasroul.bench;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * End-to-end benchmark of SyncManager.synchronize() against a local stand-in of the sync server
+ *
+ * Seeds the remote with a DatasetGenerator dataset, then runs on fresh local databases:
+ * first sync (full pull), no-op sync, sync after editing a share of the rows, and two devices
+ * editing the same rows. Each sync reports wall time, round trips, traffic and rows per second.
+ * For the contested rows, the final remote and local values are checked: only one edit can be
+ * kept per row, and each edit dropped should have been reported as a conflict.
+ *
+ * Run with: mvn -Plinux,bench test-compile exec:java
+ * Settings (-D): the DatasetGenerator volumes (bench.members, bench.contributions, bench.avatars...),
+ * bench.changed.percent, bench.seed, bench.output, bench.verbose; db.mysql.url for a real server.
+ */
+public class SyncBenchmark {
+
+    private static final String EDIT_A = "Thiès";
+    private static final String EDIT_B = "Saint-Louis";
+
+    public static void main(String[] args) throws Exception {
+        DatasetGenerator.Volumes volumes = DatasetGenerator.Volumes.fromSystemProperties();
+        double changedPercent = Double.parseDouble(System.getProperty("bench.changed.percent", "1"));
+        long seed = Long.getLong("bench.seed", 42L);
+        Path output = Paths.get(System.getProperty("bench.output", "target/bench/sync-bench.csv"));
+        boolean verbose = Boolean.getBoolean("bench.verbose");
+
+        PrintStream report = System.out;
+        RemoteStandIn.configure();
+        report.println("Sync benchmark - remote: " + (RemoteStandIn.isEmbedded() ? "H2 (MySQL mode, in memory)"
+            : System.getProperty("db.mysql.url")));
+        report.println(volumes + ", changed " + changedPercent + "%, seed " + seed);
+
+        Path directory = Files.createTempDirectory("nasroul-bench");
+        BenchDevice deviceA = new BenchDevice("A", directory);
+        BenchDevice deviceB = new BenchDevice("B", directory);
+        RemoteStandIn remote = new RemoteStandIn();
+        Random random = new Random(seed);
+        List<BenchResult> results = new ArrayList<>();
+        ContestedOutcome outcome = null;
+
+        // The application logs every row; keep the report readable
+        if (!verbose) {
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        }
+        try {
+            deviceA.activate();
+            remote.prepare();
+            long seedStart = System.nanoTime();
+            Map<String, Integer> seeded = remote.seed(volumes, seed);
+            report.printf("Seeded remote with %s in %d ms%n", seeded, (System.nanoTime() - seedStart) / 1_000_000);
+
+            results.add(deviceA.sync("first-sync"));
+            results.add(deviceA.sync("no-op-sync"));
+
+            // A share of members and contributions edited on one device
+            deviceA.editRows("members", "phone", "+221780000000", pick(random, volumes.members, changedPercent));
+            deviceA.editRows("contributions", "notes", "modifié", pick(random, volumes.contributions, changedPercent));
+            results.add(deviceA.sync("changed-" + changedPercent + "%"));
+
+            // Two devices edit the same members; B syncs after A has pushed
+            results.add(deviceB.sync("first-sync"));
+            List<Integer> contested = pick(random, volumes.members, changedPercent);
+            deviceA.editRows("members", "address", EDIT_A, contested);
+            deviceB.editRows("members", "address", EDIT_B, contested);
+            results.add(deviceA.sync("conflicts-first"));
+            BenchResult second = deviceB.sync("conflicts-second");
+            results.add(second);
+            outcome = new ContestedOutcome(contested.size(), second.getConflicts(),
+                remote.readValues("members", "address", contested),
+                deviceB.readValues("members", "address", contested));
+        } finally {
+            System.setOut(report);
+        }
+
+        report.println();
+        report.println(BenchResult.header());
+        for (BenchResult result : results) {
+            report.println(result.toRow());
+        }
+        writeCsv(output, results);
+        report.println();
+        report.println("Results written to " + output.toAbsolutePath());
+
+        if (outcome != null) {
+            report.println();
+            report.println(outcome);
+            if (!outcome.isClean()) {
+                report.println("WARNING: contested edits were overwritten without a conflict, or the devices disagree");
+            }
+        }
+
+        if (results.stream().anyMatch(result -> !result.isSuccess())) {
+            report.println("WARNING: some syncs reported errors (run with -Dbench.verbose=true for details)");
+        }
+    }
+
+    /**
+     * Distinct ids in 1..count, percent of them and at least one
+     */
+    private static List<Integer> pick(Random random, int count, double percent) {
+        int wanted = Math.max(1, (int) Math.round(count * percent / 100));
+        Set<Integer> ids = new LinkedHashSet<>();
+        while (ids.size() < Math.min(wanted, count)) {
+            ids.add(1 + random.nextInt(count));
+        }
+        return new ArrayList<>(ids);
+    }
+
+    private static void writeCsv(Path output, List<BenchResult> results) throws IOException {
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        List<String> lines = new ArrayList<>();
+        lines.add(BenchResult.CSV_HEADER);
+        for (BenchResult result : results) {
+            lines.add(result.toCsv());
+        }
+        Files.write(output, lines);
+    }
+
+    /**
+     * Final state of the rows both devices edited, after the second device synced
+     */
+    private static class ContestedOutcome {
+        private final int rows;
+        private final int conflicts;
+        private final int keptA;
+        private final int keptB;
+        private final int diverging;
+
+        ContestedOutcome(int rows, int conflicts, Map<Integer, String> remoteValues, Map<Integer, String> localValues) {
+            this.rows = rows;
+            this.conflicts = conflicts;
+            int keptA = 0;
+            int keptB = 0;
+            int diverging = 0;
+            for (Map.Entry<Integer, String> entry : remoteValues.entrySet()) {
+                String value = entry.getValue();
+                if (EDIT_A.equals(value)) {
+                    keptA++;
+                } else if (EDIT_B.equals(value)) {
+                    keptB++;
+                }
+                if (!Objects.equals(value, localValues.get(entry.getKey()))) {
+                    diverging++;
+                }
+            }
+            this.keptA = keptA;
+            this.keptB = keptB;
+            this.diverging = diverging;
+        }
+
+        // Every contested row drops one of the two edits
+        int getLostEdits() {
+            return Math.max(0, rows - conflicts);
+        }
+
+        boolean isClean() {
+            return getLostEdits() == 0 && diverging == 0;
+        }
+
+        @Override
+        public String toString() {
+            return "Contested rows: " + rows + ", kept from A: " + keptA + ", kept from B: " + keptB
+                + ", conflicts reported: " + conflicts + ", edits lost without a conflict: " + getLostEdits()
+                + ", remote and B differ: " + diverging;
+        }
+    }
+}
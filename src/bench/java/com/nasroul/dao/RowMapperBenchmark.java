@@ -0,0 +1,153 @@
+package com.nasroul.dao;
+
+import com.nasroul.bench.BenchDatabase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DAO extract* row mappers on the rows of their findAll() query, time per row
+ * scanOnly steps through the same rows reading the id only: the difference is the mapping cost
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@OperationsPerInvocation(RowMapperBenchmark.ROWS)
+@State(Scope.Benchmark)
+public class RowMapperBenchmark {
+
+    static final int ROWS = 500;
+
+    @Param({"members", "contributions", "expenses", "events", "projects", "groups", "payment_groups"})
+    public String table;
+
+    private BenchDatabase database;
+    private Connection conn;
+    private PreparedStatement query;
+    private RowMapper mapper;
+
+    @Setup
+    public void setUp() throws SQLException {
+        database = BenchDatabase.open("mappers");
+        conn = database.connect();
+
+        String sql;
+        switch (table) {
+            case "members":
+                MemberDAO memberDAO = new MemberDAO();
+                mapper = memberDAO::extractMember;
+                sql = """
+                    SELECT m.*, g.name AS group_name
+                    FROM members m
+                    LEFT JOIN `groups` g ON m.group_id = g.id AND g.deleted_at IS NULL
+                    WHERE m.deleted_at IS NULL
+                    """;
+                break;
+            case "contributions":
+                ContributionDAO contributionDAO = new ContributionDAO();
+                mapper = contributionDAO::extractContribution;
+                sql = """
+                    SELECT c.*,
+                           m.first_name || ' ' || m.last_name AS member_name,
+                           CASE
+                               WHEN c.entity_type = 'EVENT' THEN (SELECT name FROM events WHERE id = c.entity_id AND deleted_at IS NULL)
+                               WHEN c.entity_type = 'PROJECT' THEN (SELECT name FROM projects WHERE id = c.entity_id AND deleted_at IS NULL)
+                           END AS entity_name
+                    FROM contributions c
+                    LEFT JOIN members m ON c.member_id = m.id AND m.deleted_at IS NULL
+                    WHERE c.deleted_at IS NULL
+                    """;
+                break;
+            case "expenses":
+                ExpenseDAO expenseDAO = new ExpenseDAO();
+                mapper = expenseDAO::extractExpense;
+                sql = """
+                    SELECT e.*,
+                           m.first_name || ' ' || m.last_name AS member_name,
+                           COALESCE(ev.name, pr.name) AS entity_name
+                    FROM expenses e
+                    LEFT JOIN members m ON e.member_id = m.id AND m.deleted_at IS NULL
+                    LEFT JOIN events ev ON e.entity_type = 'EVENT' AND e.entity_id = ev.id AND ev.deleted_at IS NULL
+                    LEFT JOIN projects pr ON e.entity_type = 'PROJECT' AND e.entity_id = pr.id AND pr.deleted_at IS NULL
+                    WHERE e.deleted_at IS NULL
+                    """;
+                break;
+            case "events":
+                EventDAO eventDAO = new EventDAO();
+                mapper = eventDAO::extractEvent;
+                sql = """
+                    SELECT e.*, m.first_name || ' ' || m.last_name AS organizer_name
+                    FROM events e
+                    LEFT JOIN members m ON e.organizer_id = m.id AND m.deleted_at IS NULL
+                    WHERE e.deleted_at IS NULL
+                    """;
+                break;
+            case "projects":
+                ProjectDAO projectDAO = new ProjectDAO();
+                mapper = projectDAO::extractProject;
+                sql = """
+                    SELECT p.*, m.first_name || ' ' || m.last_name AS manager_name
+                    FROM projects p
+                    LEFT JOIN members m ON p.manager_id = m.id AND m.deleted_at IS NULL
+                    WHERE p.deleted_at IS NULL
+                    """;
+                break;
+            case "groups":
+                GroupDAO groupDAO = new GroupDAO();
+                mapper = groupDAO::extractGroup;
+                sql = "SELECT * FROM `groups` WHERE deleted_at IS NULL";
+                break;
+            case "payment_groups":
+                PaymentGroupDAO paymentGroupDAO = new PaymentGroupDAO();
+                mapper = paymentGroupDAO::extractPaymentGroup;
+                sql = """
+                    SELECT pg.*,
+                           g.name AS group_name,
+                           COALESCE(e.name, p.name) AS entity_name
+                    FROM payment_groups pg
+                    LEFT JOIN `groups` g ON pg.group_id = g.id AND g.deleted_at IS NULL
+                    LEFT JOIN events e ON pg.entity_type = 'EVENT' AND pg.entity_id = e.id AND e.deleted_at IS NULL
+                    LEFT JOIN projects p ON pg.entity_type = 'PROJECT' AND pg.entity_id = p.id AND p.deleted_at IS NULL
+                    WHERE pg.deleted_at IS NULL
+                    """;
+                break;
+            default:
+                throw new IllegalArgumentException("No mapper for " + table);
+        }
+        query = conn.prepareStatement(sql);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        query.close();
+        conn.close();
+        database.close();
+    }
+
+    @Benchmark
+    public void extract(Blackhole blackhole) throws SQLException {
+        BenchDatabase.forRows(query, ROWS, rs -> blackhole.consume(mapper.map(rs)));
+    }
+
+    @Benchmark
+    public void scanOnly(Blackhole blackhole) throws SQLException {
+        BenchDatabase.forRows(query, ROWS, rs -> blackhole.consume(rs.getInt(1)));
+    }
+
+    private interface RowMapper {
+        Object map(ResultSet rs) throws SQLException;
+    }
+}
@@ -0,0 +1,71 @@
+package com.nasroul.service;
+
+import com.nasroul.bench.BenchDatabase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SMSService message preparation for a campaign, time per recipient: phone numbers as members
+ * typed them and a reminder template using every variable
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(SMSServiceBenchmark.RECIPIENTS)
+@State(Scope.Benchmark)
+public class SMSServiceBenchmark {
+
+    static final int RECIPIENTS = 500;
+
+    private static final String TEMPLATE = "Bonjour {prenom} {nom}, il vous reste {montant_restant} FCFA sur "
+        + "{montant_total} FCFA pour {nom_evenement}. Merci de régulariser avant la fin du mois.";
+
+    private final SMSService smsService = new SMSService();
+    private final List<String[]> recipients = new ArrayList<>();
+    private final List<Double> remainingAmounts = new ArrayList<>();
+
+    @Setup
+    public void setUp() throws SQLException {
+        try (BenchDatabase database = BenchDatabase.open("sms");
+             Connection conn = database.connect();
+             PreparedStatement query = conn.prepareStatement("""
+                 SELECT first_name, last_name, phone FROM members
+                 WHERE phone IS NOT NULL AND deleted_at IS NULL
+                 ORDER BY id
+                 """)) {
+            BenchDatabase.forRows(query, RECIPIENTS, rs -> {
+                recipients.add(new String[]{rs.getString("first_name"), rs.getString("last_name"), rs.getString("phone")});
+                remainingAmounts.add((double) (recipients.size() % 20) * 2500);
+            });
+        }
+    }
+
+    @Benchmark
+    public void formatPhoneNumber(Blackhole blackhole) {
+        for (String[] recipient : recipients) {
+            blackhole.consume(smsService.formatPhoneNumber(recipient[2]));
+        }
+    }
+
+    @Benchmark
+    public void replaceVariables(Blackhole blackhole) {
+        for (int i = 0; i < recipients.size(); i++) {
+            String[] recipient = recipients.get(i);
+            blackhole.consume(smsService.replaceVariables(TEMPLATE, recipient[0], recipient[1],
+                remainingAmounts.get(i), 50000, "Magal de Touba"));
+        }
+    }
+}
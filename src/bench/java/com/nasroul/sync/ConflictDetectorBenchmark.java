@@ -0,0 +1,74 @@
+package com.nasroul.sync;
+
+import com.nasroul.bench.BenchDatabase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ConflictDetector.detectConflict on the local and remote versions of a member with avatar
+ * (the costliest row to hash), for each kind of change the pull meets
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ConflictDetectorBenchmark {
+
+    @Param({"unchanged", "local-modified", "both-modified", "deleted-locally"})
+    public String scenario;
+
+    private final ConflictDetector detector = new ConflictDetector();
+    private GenericSyncableEntity local;
+    private GenericSyncableEntity remote;
+    private String lastSyncedHash;
+
+    @Setup
+    public void setUp() throws SQLException {
+        try (BenchDatabase database = BenchDatabase.open("conflict");
+             Connection conn = database.connect();
+             PreparedStatement query = conn.prepareStatement("SELECT * FROM members WHERE avatar IS NOT NULL LIMIT 1")) {
+            local = read(query);
+            remote = read(query);
+        }
+        lastSyncedHash = local.calculateHash();
+
+        switch (scenario) {
+            case "local-modified":
+                local.setField("phone", "+221780000000");
+                break;
+            case "both-modified":
+                local.setField("phone", "+221780000000");
+                remote.setField("address", "Thiès");
+                remote.setSyncVersion(remote.getSyncVersion() + 1);
+                break;
+            case "deleted-locally":
+                local.setDeletedAt(local.getUpdatedAt().plusDays(1));
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static GenericSyncableEntity read(PreparedStatement query) throws SQLException {
+        try (ResultSet rs = query.executeQuery()) {
+            rs.next();
+            return GenericSyncableEntity.fromResultSet("members", rs);
+        }
+    }
+
+    @Benchmark
+    public ConflictDetector.ConflictType detectConflict() {
+        return detector.detectConflict(local, remote, lastSyncedHash);
+    }
+}
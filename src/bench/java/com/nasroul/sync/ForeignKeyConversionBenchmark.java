@@ -0,0 +1,84 @@
+package com.nasroul.sync;
+
+import com.nasroul.bench.BenchDatabase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SyncManager foreign key conversion of one row, local to remote ids (push) and back (pull),
+ * with every referenced row mapped in sync_metadata
+ * Each conversion prints a line; System.out goes to a null stream so only the formatting is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@OperationsPerInvocation(ForeignKeyConversionBenchmark.ROWS)
+@State(Scope.Benchmark)
+public class ForeignKeyConversionBenchmark {
+
+    static final int ROWS = 200;
+
+    @Param({"members", "events", "contributions"})
+    public String table;
+
+    private BenchDatabase database;
+    private SyncManager syncManager;
+    private PrintStream out;
+    private final List<Map<String, Object>> localRows = new ArrayList<>();
+    private final List<Map<String, Object>> remoteRows = new ArrayList<>();
+
+    @Setup
+    public void setUp() throws SQLException {
+        database = BenchDatabase.open("foreign-keys");
+        syncManager = new SyncManager();
+        out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        try (Connection conn = database.connect();
+             PreparedStatement query = conn.prepareStatement("SELECT * FROM `" + table + "` ORDER BY id")) {
+            BenchDatabase.forRows(query, ROWS,
+                rs -> localRows.add(GenericSyncableEntity.fromResultSet(table, rs).getAllFields()));
+        }
+        for (Map<String, Object> row : localRows) {
+            remoteRows.add(syncManager.convertForeignKeysForPush(table, row));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        System.setOut(out);
+        database.close();
+    }
+
+    @Benchmark
+    public void convertForPush(Blackhole blackhole) throws SQLException {
+        for (Map<String, Object> row : localRows) {
+            blackhole.consume(syncManager.convertForeignKeysForPush(table, row));
+        }
+    }
+
+    @Benchmark
+    public void convertForPull(Blackhole blackhole) throws SQLException {
+        for (Map<String, Object> row : remoteRows) {
+            blackhole.consume(syncManager.convertForeignKeysForPull(table, row));
+        }
+    }
+}
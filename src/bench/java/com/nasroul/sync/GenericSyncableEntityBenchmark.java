@@ -0,0 +1,75 @@
+package com.nasroul.sync;
+
+import com.nasroul.bench.BenchDatabase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GenericSyncableEntity.fromResultSet on SELECT * rows, as the sync reads them, time per row
+ * decode uses a RowCodec taken once, as the sync loops do; fromResultSet also matches the result set
+ * metadata against the compiled codecs on every row
+ * scanOnly steps through the same rows reading the id only: the difference is the decoding cost
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@OperationsPerInvocation(GenericSyncableEntityBenchmark.ROWS)
+@State(Scope.Benchmark)
+public class GenericSyncableEntityBenchmark {
+
+    static final int ROWS = 500;
+
+    @Param({"members", "contributions", "expenses"})
+    public String table;
+
+    private BenchDatabase database;
+    private Connection conn;
+    private PreparedStatement query;
+    private RowCodec codec;
+
+    @Setup
+    public void setUp() throws SQLException {
+        database = BenchDatabase.open("entity");
+        conn = database.connect();
+        query = conn.prepareStatement("SELECT * FROM `" + table + "` ORDER BY id");
+        try (ResultSet rs = query.executeQuery()) {
+            codec = RowCodec.forResultSet(table, rs);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        query.close();
+        conn.close();
+        database.close();
+    }
+
+    @Benchmark
+    public void fromResultSet(Blackhole blackhole) throws SQLException {
+        BenchDatabase.forRows(query, ROWS, rs -> blackhole.consume(GenericSyncableEntity.fromResultSet(table, rs)));
+    }
+
+    @Benchmark
+    public void decode(Blackhole blackhole) throws SQLException {
+        BenchDatabase.forRows(query, ROWS, rs -> blackhole.consume(codec.decode(rs)));
+    }
+
+    @Benchmark
+    public void scanOnly(Blackhole blackhole) throws SQLException {
+        BenchDatabase.forRows(query, ROWS, rs -> blackhole.consume(rs.getInt(1)));
+    }
+}
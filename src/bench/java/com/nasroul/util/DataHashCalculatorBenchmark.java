@@ -0,0 +1,69 @@
+package com.nasroul.util;
+
+import com.nasroul.bench.BenchDatabase;
+import com.nasroul.sync.GenericSyncableEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DataHashCalculator.calculateHash on the fields SyncableEntity.calculateHash() hashes,
+ * taken from a generated contribution and members with and without avatar
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class DataHashCalculatorBenchmark {
+
+    @Param({"contributions", "members", "members-with-avatar"})
+    public String row;
+
+    private Map<String, Object> fields;
+    private Object[] keyValuePairs;
+
+    @Setup
+    public void setUp() throws SQLException {
+        String table = row.startsWith("members") ? "members" : row;
+        String sql = "SELECT * FROM `" + table + "`";
+        if (table.equals("members")) {
+            sql += row.equals("members") ? " WHERE avatar IS NULL" : " WHERE avatar IS NOT NULL";
+        }
+
+        try (BenchDatabase database = BenchDatabase.open("hash");
+             Connection conn = database.connect();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql + " LIMIT 1")) {
+            rs.next();
+            fields = GenericSyncableEntity.fromResultSet(table, rs).getFieldValuesForHash();
+        }
+
+        keyValuePairs = new Object[fields.size() * 2];
+        int i = 0;
+        for (Map.Entry<String, Object> entry : fields.entrySet()) {
+            keyValuePairs[i++] = entry.getKey();
+            keyValuePairs[i++] = entry.getValue();
+        }
+    }
+
+    @Benchmark
+    public String calculateHash() {
+        return DataHashCalculator.calculateHash(fields);
+    }
+
+    @Benchmark
+    public String calculateHashKeyValuePairs() {
+        return DataHashCalculator.calculateHash(keyValuePairs);
+    }
+}
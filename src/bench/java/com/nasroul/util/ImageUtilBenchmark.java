@@ -0,0 +1,85 @@
+package com.nasroul.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ImageUtil.resizeImage to a 300x300 avatar from photos of common camera and phone sizes,
+ * from a decoded image and from a JPEG file as chosen in the member dialog
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class ImageUtilBenchmark {
+
+    @Param({"640x480", "1920x1080", "4032x3024"})
+    public String size;
+
+    private BufferedImage photo;
+    private File photoFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        String[] dimensions = size.split("x");
+        photo = photo(Integer.parseInt(dimensions[0]), Integer.parseInt(dimensions[1]));
+        photoFile = Files.createTempFile("nasroul-photo", ".jpg").toFile();
+        ImageIO.write(photo, "jpg", photoFile);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(photoFile.toPath());
+    }
+
+    /**
+     * Gradient with noise: compresses like a photo, unlike a flat image
+     */
+    private static BufferedImage photo(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setPaint(new GradientPaint(0, 0, new Color(46, 84, 140), width, height, new Color(214, 170, 120)));
+        g.fillRect(0, 0, width, height);
+        g.dispose();
+
+        Random random = new Random(42);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int rgb = image.getRGB(x, y);
+                int noise = random.nextInt(25) - 12;
+                int r = Math.max(0, Math.min(255, ((rgb >> 16) & 0xFF) + noise));
+                int gr = Math.max(0, Math.min(255, ((rgb >> 8) & 0xFF) + noise));
+                int b = Math.max(0, Math.min(255, (rgb & 0xFF) + noise));
+                image.setRGB(x, y, (r << 16) | (gr << 8) | b);
+            }
+        }
+        return image;
+    }
+
+    @Benchmark
+    public byte[] resizeImage() throws IOException {
+        return ImageUtil.resizeImage(photo);
+    }
+
+    @Benchmark
+    public byte[] resizeImageFile() throws IOException {
+        return ImageUtil.resizeImage(photoFile);
+    }
+}
@@ -1,6 +1,7 @@
 package com.nasroul;
 
 import com.nasroul.controller.SplashScreenController;
+import com.nasroul.util.StartupProfiler;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
@@ -11,6 +12,10 @@ public class AssociationApp extends Application {
 
     @Override
     public void start(Stage primaryStage) throws Exception {
+        StartupProfiler profiler = StartupProfiler.getInstance();
+        profiler.setEnabled(getParameters().getRaw().contains(StartupProfiler.PROFILE_FLAG));
+        StartupProfiler.Phase splashPhase = profiler.start("splash-screen");
+
         // Load Splash Screen
         FXMLLoader splashLoader = new FXMLLoader(getClass().getResource("/fxml/SplashScreen.fxml"));
         Scene splashScene = new Scene(splashLoader.load(), 600, 400);
@@ -24,6 +29,7 @@ public class AssociationApp extends Application {
         primaryStage.setResizable(false);
         primaryStage.centerOnScreen();
         primaryStage.show();
+        splashPhase.close();
 
         System.out.println("Application started - Splash Screen displayed");
     }
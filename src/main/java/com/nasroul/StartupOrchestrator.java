@@ -0,0 +1,156 @@
+package com.nasroul;
+
+import com.nasroul.dao.DatabaseManager;
+import com.nasroul.util.DeviceIdGenerator;
+import com.nasroul.util.StartupProfiler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the startup work in parallel before the main window is shown:
+ * local SQLite schema, FXML/CSS and controller class preloading, and the device id probe.
+ * The MySQL probe and remote schema init are started in the background and never block startup.
+ */
+public class StartupOrchestrator {
+
+    /**
+     * Receives a message and the overall progress (0..1) each time a startup task completes
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(String message, double progress);
+    }
+
+    private static final List<String> PRELOADED_RESOURCES = List.of(
+        "/fxml/MainView.fxml",
+        "/fxml/DashboardView.fxml",
+        "/fxml/MemberView.fxml",
+        "/fxml/ContributionView.fxml",
+        "/fxml/EventView.fxml",
+        "/fxml/ProjectView.fxml",
+        "/fxml/ExpenseView.fxml",
+        "/fxml/GroupView.fxml",
+        "/css/style.css"
+    );
+
+    private static final List<String> PRELOADED_CLASSES = List.of(
+        "com.nasroul.controller.MainController",
+        "com.nasroul.controller.DashboardController",
+        "com.nasroul.service.SyncService",
+        "com.nasroul.sync.SyncManager",
+        "javafx.scene.control.TableView",
+        "javafx.scene.control.TableColumn",
+        "javafx.scene.control.cell.PropertyValueFactory",
+        "javafx.scene.chart.PieChart",
+        "javafx.scene.chart.BarChart"
+    );
+
+    private final StartupProfiler profiler = StartupProfiler.getInstance();
+
+    /**
+     * Run the blocking part of startup; throws if the local database cannot be initialized
+     */
+    public void run(ProgressListener listener) throws Exception {
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(3, runnable -> {
+            Thread thread = new Thread(runnable, "startup-worker-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        int taskCount = 3;
+        AtomicInteger completed = new AtomicInteger();
+
+        try (StartupProfiler.Phase ignored = profiler.start("startup-parallel")) {
+            CompletableFuture<DatabaseManager> database = CompletableFuture.supplyAsync(() -> {
+                try (StartupProfiler.Phase phase = profiler.start("sqlite-init")) {
+                    return DatabaseManager.getInstance();
+                }
+            }, executor);
+
+            CompletableFuture<Void> resources = CompletableFuture.runAsync(() -> {
+                try (StartupProfiler.Phase phase = profiler.start("fxml-css-preload")) {
+                    preloadResources();
+                }
+            }, executor);
+
+            CompletableFuture<Void> deviceId = CompletableFuture.runAsync(() -> {
+                try (StartupProfiler.Phase phase = profiler.start("device-id-probe")) {
+                    DeviceIdGenerator.getDeviceId();
+                }
+            }, executor);
+
+            database.thenRun(() -> listener.onProgress("Base de données locale prête",
+                (double) completed.incrementAndGet() / taskCount));
+            resources.thenRun(() -> listener.onProgress("Interface préparée",
+                (double) completed.incrementAndGet() / taskCount));
+            deviceId.thenRun(() -> listener.onProgress("Appareil identifié",
+                (double) completed.incrementAndGet() / taskCount));
+
+            DatabaseManager dbManager;
+            try {
+                CompletableFuture.allOf(database, resources, deviceId).join();
+                dbManager = database.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof Exception cause ? cause : e;
+            }
+
+            if (dbManager.hasConnectionError()) {
+                throw new Exception(dbManager.getConnectionError());
+            }
+
+            startRemoteInitialization(dbManager);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Probe MySQL and create the remote schema off the startup path
+     */
+    private void startRemoteInitialization(DatabaseManager dbManager) {
+        Thread thread = new Thread(() -> {
+            try (StartupProfiler.Phase phase = profiler.start("mysql-probe-init").background()) {
+                dbManager.initializeRemote();
+            }
+        }, "mysql-init");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Read FXML and CSS files and load controller/control classes so the first
+     * FXMLLoader calls on the FX thread do not pay for disk and class loading
+     */
+    private void preloadResources() {
+        byte[] buffer = new byte[8192];
+        for (String resource : PRELOADED_RESOURCES) {
+            try (InputStream in = StartupOrchestrator.class.getResourceAsStream(resource)) {
+                if (in != null) {
+                    while (in.read(buffer) != -1) {
+                        // Only warming the file and jar caches
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("Failed to preload " + resource + ": " + e.getMessage());
+            }
+        }
+
+        ClassLoader loader = StartupOrchestrator.class.getClassLoader();
+        for (String className : PRELOADED_CLASSES) {
+            try {
+                // Load without initializing: static initializers stay on the thread that first uses the class
+                Class.forName(className, false, loader);
+            } catch (ClassNotFoundException e) {
+                System.err.println("Failed to preload class " + className);
+            }
+        }
+    }
+}
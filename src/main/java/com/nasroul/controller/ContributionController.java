@@ -1,30 +1,36 @@
 package com.nasroul.controller;
 
+import com.nasroul.dao.PageRequest;
 import com.nasroul.model.Contribution;
-import com.nasroul.model.Event;
-import com.nasroul.model.Member;
 import com.nasroul.service.ContributionService;
-import com.nasroul.service.EventService;
-import com.nasroul.service.MemberService;
-import com.nasroul.service.ProjectService;
+import com.nasroul.util.AsyncLoader;
+import com.nasroul.util.ExcelUtil;
+import com.nasroul.util.PagedTableSource;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import javafx.beans.value.ObservableValue;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.control.*;
+import javafx.stage.FileChooser;
+import javafx.util.Callback;
 
+import java.io.File;
 import java.sql.SQLException;
 import java.text.NumberFormat;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.Function;
 
-public class ContributionController {
+public class ContributionController implements RefreshableView {
 
     @FXML
     private TableView<Contribution> contributionTable;
 
+    @FXML
+    private TextField searchField;
+
     @FXML
     private TableColumn<Contribution, String> colMember;
 
@@ -47,76 +53,95 @@ public class ContributionController {
     private TableColumn<Contribution, String> colPaymentMethod;
 
     private final ContributionService contributionService;
-    private final EventService eventService;
-    private final ProjectService projectService;
-    private final MemberService memberService;
     private final NumberFormat formatter;
-    private final ObservableList<Contribution> contributionList;
+    private PagedTableSource<Contribution> contributionSource;
 
     public ContributionController() {
         this.contributionService = new ContributionService();
-        this.eventService = new EventService();
-        this.projectService = new ProjectService();
-        this.memberService = new MemberService();
         this.formatter = NumberFormat.getInstance(Locale.FRANCE);
-        this.contributionList = FXCollections.observableArrayList();
     }
 
     @FXML
     public void initialize() {
         setupTableColumns();
-        contributionTable.setItems(contributionList);
+        contributionSource = new PagedTableSource<>(PageRequest.first(PageRequest.DEFAULT_PAGE_SIZE),
+            contributionService::findContributionPage, contributionService::countContributions,
+            AsyncLoader.forTable(contributionTable));
+        contributionTable.setItems(contributionSource);
+        contributionTable.setSortPolicy(this::sortInDatabase);
 
-        try {
-            loadContributions();
-        } catch (SQLException e) {
-            System.err.println("Error loading contributions: " + e.getMessage());
-        }
+        searchField.textProperty().addListener((obs, old, newVal) ->
+            contributionSource.setRequest(contributionSource.getRequest().matching(newVal)));
+
+        loadContributions();
+    }
+
+    @Override
+    public void refresh() {
+        loadContributions();
+    }
+
+    @Override
+    public Set<String> getWatchedTables() {
+        return Set.of("contributions", "members", "events", "projects");
     }
 
     private void setupTableColumns() {
-        colMember.setCellValueFactory(data -> {
-            try {
-                Member member = memberService.getMemberById(data.getValue().getMemberId());
-                return new SimpleStringProperty(member != null ? member.getFullName() : "Inconnu");
-            } catch (SQLException e) {
-                return new SimpleStringProperty("Erreur");
-            }
-        });
+        // Names come from the contribution query, cells must not hit the database
+        colMember.setCellValueFactory(cell(c -> c.getMemberName() != null ? c.getMemberName() : "Inconnu"));
 
-        colEntityType.setCellValueFactory(data ->
-            new SimpleStringProperty(getEntityTypeLabel(data.getValue().getEntityType())));
-
-        colEntityName.setCellValueFactory(data -> {
-            try {
-                String entityType = data.getValue().getEntityType();
-                int entityId = data.getValue().getEntityId();
-                if ("EVENT".equals(entityType)) {
-                    Event event = eventService.getEventById(entityId);
-                    return new SimpleStringProperty(event != null ? event.getName() : "Inconnu");
-                } else if ("PROJECT".equals(entityType)) {
-                    var project = projectService.getProjectById(entityId);
-                    return new SimpleStringProperty(project != null ? project.getName() : "Inconnu");
-                }
-                return new SimpleStringProperty("N/A");
-            } catch (SQLException e) {
-                return new SimpleStringProperty("Erreur");
+        colEntityType.setCellValueFactory(cell(c -> getEntityTypeLabel(c.getEntityType())));
+
+        colEntityName.setCellValueFactory(cell(c -> {
+            if (!"EVENT".equals(c.getEntityType()) && !"PROJECT".equals(c.getEntityType())) {
+                return "N/A";
             }
-        });
+            return c.getEntityName() != null ? c.getEntityName() : "Inconnu";
+        }));
 
-        colAmount.setCellValueFactory(data ->
-            new SimpleStringProperty(formatter.format(data.getValue().getAmount()) + " CFA"));
+        colAmount.setCellValueFactory(cell(c -> formatter.format(c.getAmount()) + " CFA"));
 
-        colDate.setCellValueFactory(data -> {
-            DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-            return new SimpleStringProperty(data.getValue().getDate().format(dateFormatter));
-        });
+        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+        colDate.setCellValueFactory(cell(c -> c.getDate().format(dateFormatter)));
 
-        colStatus.setCellValueFactory(data ->
-            new SimpleStringProperty(getStatusLabel(data.getValue().getStatus())));
+        colStatus.setCellValueFactory(cell(c -> getStatusLabel(c.getStatus())));
 
-        colPaymentMethod.setCellValueFactory(data ->
-            new SimpleStringProperty(getPaymentMethodLabel(data.getValue().getPaymentMethod())));
+        colPaymentMethod.setCellValueFactory(cell(c -> getPaymentMethodLabel(c.getPaymentMethod())));
+
+        // Only date and amount have a SQL sort, the other columns cannot be sorted on a paged list
+        colMember.setSortable(false);
+        colEntityType.setSortable(false);
+        colEntityName.setSortable(false);
+        colStatus.setSortable(false);
+        colPaymentMethod.setSortable(false);
+    }
+
+    /**
+     * Cell value factory for a paged list: rows still loading are null and show an empty cell
+     */
+    private Callback<TableColumn.CellDataFeatures<Contribution, String>, ObservableValue<String>> cell(
+            Function<Contribution, String> text) {
+        return data -> new SimpleStringProperty(data.getValue() != null ? text.apply(data.getValue()) : "");
+    }
+
+    /**
+     * Sorting is done by the query: the clicked column becomes the sort key of the page request
+     */
+    private boolean sortInDatabase(TableView<Contribution> table) {
+        String sortKey = null;
+        boolean ascending = false;
+        if (!table.getSortOrder().isEmpty()) {
+            TableColumn<Contribution, ?> column = table.getSortOrder().get(0);
+            sortKey = column == colAmount ? "amount" : "date";
+            ascending = column.getSortType() == TableColumn.SortType.ASCENDING;
+        }
+
+        // The table may ask again after the list changes, only a new order triggers a reload
+        PageRequest request = contributionSource.getRequest();
+        if (!Objects.equals(sortKey, request.getSortKey()) || ascending != request.isAscending()) {
+            contributionSource.setRequest(request.sortedBy(sortKey, ascending));
+        }
+        return true;
     }
 
     private String getEntityTypeLabel(String code) {
@@ -148,9 +173,8 @@ public class ContributionController {
         };
     }
 
-    private void loadContributions() throws SQLException {
-        contributionList.clear();
-        contributionList.addAll(contributionService.getAllContributions());
+    private void loadContributions() {
+        contributionSource.reload();
     }
 
     @FXML
@@ -165,10 +189,6 @@ public class ContributionController {
             controller.getDialogStage().initModality(javafx.stage.Modality.APPLICATION_MODAL);
             controller.getDialogStage().setScene(new javafx.scene.Scene(root));
             controller.getDialogStage().showAndWait();
-
-            if (controller.isConfirmed()) {
-                loadContributions();
-            }
         } catch (Exception e) {
             showError("Erreur lors de l'ouverture du dialogue", e.getMessage());
         }
@@ -193,10 +213,6 @@ public class ContributionController {
             controller.getDialogStage().initModality(javafx.stage.Modality.APPLICATION_MODAL);
             controller.getDialogStage().setScene(new javafx.scene.Scene(root));
             controller.getDialogStage().showAndWait();
-
-            if (controller.isConfirmed()) {
-                loadContributions();
-            }
         } catch (Exception e) {
             showError("Erreur lors de l'ouverture du dialogue", e.getMessage());
         }
@@ -219,7 +235,6 @@ public class ContributionController {
             if (response == ButtonType.OK) {
                 try {
                     contributionService.deleteContribution(selected.getId());
-                    loadContributions();
                     showInfo("Succès", "Cotisation supprimée avec succès.");
                 } catch (SQLException e) {
                     showError("Erreur lors de la suppression", e.getMessage());
@@ -230,10 +245,29 @@ public class ContributionController {
 
     @FXML
     private void handleRefresh() {
-        try {
-            loadContributions();
-        } catch (SQLException e) {
-            showError("Erreur lors du rafraîchissement", e.getMessage());
+        loadContributions();
+    }
+
+    @FXML
+    private void handleExportExcel() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Exporter les cotisations vers Excel");
+        fileChooser.setInitialFileName("cotisations.xlsx");
+        fileChooser.getExtensionFilters().add(
+            new FileChooser.ExtensionFilter("Fichiers Excel", "*.xlsx")
+        );
+
+        File file = fileChooser.showSaveDialog(contributionTable.getScene().getWindow());
+        if (file != null) {
+            // Rows are streamed from the database, keep the export off the FX thread
+            new Thread(() -> {
+                try {
+                    int count = ExcelUtil.exportContributions(file, contributionService::forEachContribution);
+                    Platform.runLater(() -> showInfo("Succès", count + " cotisations exportés"));
+                } catch (Exception e) {
+                    Platform.runLater(() -> showError("Erreur d'export", "Impossible d'exporter les cotisations: " + e.getMessage()));
+                }
+            }, "excel-export").start();
         }
     }
 
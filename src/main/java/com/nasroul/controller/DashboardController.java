@@ -28,9 +28,10 @@ import java.text.NumberFormat;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
-public class DashboardController {
+public class DashboardController implements RefreshableView {
 
     @FXML
     private Label totalExpensesLabel;
@@ -83,6 +84,16 @@ public class DashboardController {
         loadDashboardData();
     }
 
+    @Override
+    public void refresh() {
+        loadDashboardData();
+    }
+
+    @Override
+    public Set<String> getWatchedTables() {
+        return Set.of("members", "events", "projects", "expenses", "contributions", "payment_groups");
+    }
+
     private void loadDashboardData() {
         try {
             List<Event> events = eventService.getAllEvents();
@@ -344,7 +355,6 @@ public class DashboardController {
                     Member savedMember = controller.getMember();
                     memberService.createMember(savedMember);
                     showInfo("Succès", "Membre créé avec succès");
-                    loadDashboardData();
                 } catch (SQLException e) {
                     showError("Erreur", "Impossible de sauvegarder le membre: " + e.getMessage());
                 }
@@ -378,7 +388,6 @@ public class DashboardController {
                     Event savedEvent = controller.getEvent();
                     eventService.createEvent(savedEvent);
                     showInfo("Succès", "Événement créé avec succès");
-                    loadDashboardData();
                 } catch (SQLException e) {
                     showError("Erreur", "Impossible de sauvegarder l'événement: " + e.getMessage());
                 }
@@ -412,7 +421,6 @@ public class DashboardController {
                     Project savedProject = controller.getProject();
                     projectService.createProject(savedProject);
                     showInfo("Succès", "Projet créé avec succès");
-                    loadDashboardData();
                 } catch (SQLException e) {
                     showError("Erreur", "Impossible de sauvegarder le projet: " + e.getMessage());
                 }
@@ -439,7 +447,6 @@ public class DashboardController {
 
             if (controller.isConfirmed()) {
                 showInfo("Succès", "Cotisation créée avec succès");
-                loadDashboardData();
             }
         } catch (Exception e) {
             showError("Erreur", "Impossible d'ouvrir le dialogue: " + e.getMessage());
@@ -1,11 +1,15 @@
 package com.nasroul.controller;
 
+import com.nasroul.dao.DataChangeBatch;
 import com.nasroul.model.Event;
 import com.nasroul.model.Expense;
 import com.nasroul.service.EventService;
 import com.nasroul.service.ExpenseService;
 import com.nasroul.service.ContributionService;
+import com.nasroul.util.AsyncLoader;
+import com.nasroul.util.ExcelImporter;
 import com.nasroul.util.ExcelUtil;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -24,9 +28,11 @@ import java.text.NumberFormat;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
-public class EventController {
+public class EventController implements RefreshableView {
 
     @FXML
     private TableView<Event> eventTable;
@@ -37,6 +43,9 @@ public class EventController {
     private final ExpenseService expenseService;
     private final ContributionService contributionService;
     private final ObservableList<Event> eventList;
+    private Map<Integer, Double> paidTotals = Map.of();
+    private AsyncLoader loader;
+    private RowPatcher<Event> rowPatcher;
 
     public EventController() {
         this.eventService = new EventService();
@@ -57,20 +66,37 @@ public class EventController {
         colStatus.setCellValueFactory(data -> new SimpleStringProperty(translateStatus(data.getValue().getStatus())));
         colTargetBudget.setCellValueFactory(data ->
             new SimpleStringProperty(numberFormat.format(data.getValue().getContributionTarget()) + " CFA"));
+        // Paid totals are loaded with the list, cells must not hit the database
         colCurrentBudget.setCellValueFactory(data -> {
-            try {
-                Double total = contributionService.getTotalByEntity("EVENT", data.getValue().getId());
-                double currentBudget = total != null ? total : 0.0;
-                return new SimpleStringProperty(numberFormat.format(currentBudget) + " CFA");
-            } catch (SQLException e) {
-                return new SimpleStringProperty("0 CFA");
-            }
+            double currentBudget = paidTotals.getOrDefault(data.getValue().getId(), 0.0);
+            return new SimpleStringProperty(numberFormat.format(currentBudget) + " CFA");
         });
 
         eventTable.setItems(eventList);
+        loader = AsyncLoader.forTable(eventTable);
+        rowPatcher = new RowPatcher<>(eventList, "events", Event::getId, eventService::getEventById);
+        loadEvents();
+    }
+
+    @Override
+    public void refresh() {
         loadEvents();
     }
 
+    @Override
+    public Set<String> getWatchedTables() {
+        return Set.of("events", "contributions", "members");
+    }
+
+    @Override
+    public void onDataChanged(DataChangeBatch batch) {
+        if (rowPatcher.canPatch(batch)) {
+            rowPatcher.patch(batch, e -> showError("Erreur", "Impossible de charger les événements: " + e.getMessage()));
+        } else {
+            refresh();
+        }
+    }
+
     private String translateStatus(String status) {
         if (status == null) return "";
         switch (status) {
@@ -83,12 +109,12 @@ public class EventController {
     }
 
     private void loadEvents() {
-        try {
-            eventList.clear();
-            eventList.addAll(eventService.getAllEvents());
-        } catch (SQLException e) {
-            showError("Erreur", "Impossible de charger les événements: " + e.getMessage());
-        }
+        loader.load(() -> new LoadedEvents(eventService.getAllEvents(), contributionService.getTotalsByEntityType("EVENT")),
+            loaded -> {
+                paidTotals = loaded.paidTotals;
+                eventList.setAll(loaded.events);
+            },
+            e -> showError("Erreur", "Impossible de charger les événements: " + e.getMessage()));
     }
 
     @FXML
@@ -133,7 +159,6 @@ public class EventController {
                         eventService.updateEvent(savedEvent);
                         showInfo("Succès", "Événement modifié avec succès");
                     }
-                    loadEvents();
                 } catch (SQLException e) {
                     e.printStackTrace(); // Log full stack trace to console
                     showError("Erreur", "Impossible de sauvegarder l'événement: " + e.getMessage());
@@ -162,7 +187,6 @@ public class EventController {
             if (response == ButtonType.OK) {
                 try {
                     eventService.deleteEvent(selected.getId());
-                    loadEvents();
                     showInfo("Succès", "Événement supprimé avec succès");
                 } catch (SQLException e) {
                     showError("Erreur", "Impossible de supprimer l'événement: " + e.getMessage());
@@ -265,14 +289,22 @@ public class EventController {
 
         File file = fileChooser.showOpenDialog(eventTable.getScene().getWindow());
         if (file != null) {
-            try {
-                List<Event> imported = ExcelUtil.importEvents(file);
-                eventService.bulkCreate(imported);
-                loadEvents();
-                showInfo("Succès", imported.size() + " événements importés");
-            } catch (Exception e) {
-                showError("Erreur d'import", "Impossible d'importer les événements: " + e.getMessage());
-            }
+            // Rows are streamed from the file and written in batches off the FX thread
+            new Thread(() -> {
+                try {
+                    ExcelImporter.ImportResult result = ExcelUtil.importEvents(file, eventService.newImportWriter(null));
+                    Platform.runLater(() -> {
+                        String message = result.getImportedCount() + " événements importés sur " + result.getTotalRows();
+                        if (result.hasErrors()) {
+                            showWarning("Import partiel", message + "\n\n" + result.formatErrors(10));
+                        } else {
+                            showInfo("Succès", message);
+                        }
+                    });
+                } catch (Exception e) {
+                    Platform.runLater(() -> showError("Erreur d'import", "Impossible d'importer les événements: " + e.getMessage()));
+                }
+            }, "excel-import").start();
         }
     }
 
@@ -294,6 +326,29 @@ public class EventController {
         }
     }
 
+    @FXML
+    private void handleExportExcel() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Exporter les événements vers Excel");
+        fileChooser.setInitialFileName("evenements.xlsx");
+        fileChooser.getExtensionFilters().add(
+            new FileChooser.ExtensionFilter("Fichiers Excel", "*.xlsx")
+        );
+
+        File file = fileChooser.showSaveDialog(eventTable.getScene().getWindow());
+        if (file != null) {
+            // Rows are streamed from the database, keep the export off the FX thread
+            new Thread(() -> {
+                try {
+                    int count = ExcelUtil.exportEvents(file, eventService::forEachEvent);
+                    Platform.runLater(() -> showInfo("Succès", count + " événements exportés"));
+                } catch (Exception e) {
+                    Platform.runLater(() -> showError("Erreur d'export", "Impossible d'exporter les événements: " + e.getMessage()));
+                }
+            }, "excel-export").start();
+        }
+    }
+
     private void showError(String title, String message) {
         Alert alert = new Alert(Alert.AlertType.ERROR);
         alert.setTitle(title);
@@ -317,4 +372,14 @@ public class EventController {
         alert.setContentText(message);
         alert.showAndWait();
     }
+
+    private static class LoadedEvents {
+        private final List<Event> events;
+        private final Map<Integer, Double> paidTotals;
+
+        private LoadedEvents(List<Event> events, Map<Integer, Double> paidTotals) {
+            this.events = events;
+            this.paidTotals = paidTotals;
+        }
+    }
 }
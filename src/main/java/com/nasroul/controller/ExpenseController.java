@@ -2,7 +2,9 @@ package com.nasroul.controller;
 
 import com.nasroul.model.Expense;
 import com.nasroul.service.ExpenseService;
+import com.nasroul.util.ExcelImporter;
 import com.nasroul.util.ExcelUtil;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -21,8 +23,9 @@ import java.text.NumberFormat;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 
-public class ExpenseController {
+public class ExpenseController implements RefreshableView {
 
     @FXML
     private TableView<Expense> expenseTable;
@@ -57,6 +60,16 @@ public class ExpenseController {
         loadExpenses();
     }
 
+    @Override
+    public void refresh() {
+        loadExpenses();
+    }
+
+    @Override
+    public Set<String> getWatchedTables() {
+        return Set.of("expenses", "members", "events", "projects");
+    }
+
     private void loadExpenses() {
         try {
             expenseList.clear();
@@ -113,7 +126,6 @@ public class ExpenseController {
                         expenseService.updateExpense(savedExpense);
                         showInfo("Succès", "Dépense modifiée avec succès");
                     }
-                    loadExpenses();
                 } catch (SQLException e) {
                     showError("Erreur", "Impossible de sauvegarder la dépense: " + e.getMessage());
                 }
@@ -137,7 +149,6 @@ public class ExpenseController {
             if (response == ButtonType.OK) {
                 try {
                     expenseService.deleteExpense(selected.getId());
-                    loadExpenses();
                 } catch (SQLException e) {
                     showError("Error", "Could not delete expense: " + e.getMessage());
                 }
@@ -158,14 +169,22 @@ public class ExpenseController {
 
         File file = fileChooser.showOpenDialog(expenseTable.getScene().getWindow());
         if (file != null) {
-            try {
-                List<Expense> imported = ExcelUtil.importExpenses(file);
-                expenseService.bulkCreate(imported);
-                loadExpenses();
-                showInfo("Success", "Imported " + imported.size() + " expenses");
-            } catch (Exception e) {
-                showError("Import Error", e.getMessage());
-            }
+            // Rows are streamed from the file and written in batches off the FX thread
+            new Thread(() -> {
+                try {
+                    ExcelImporter.ImportResult result = ExcelUtil.importExpenses(file, expenseService.newImportWriter(null));
+                    Platform.runLater(() -> {
+                        String message = result.getImportedCount() + " dépenses importés sur " + result.getTotalRows();
+                        if (result.hasErrors()) {
+                            showWarning("Import partiel", message + "\n\n" + result.formatErrors(10));
+                        } else {
+                            showInfo("Succès", message);
+                        }
+                    });
+                } catch (Exception e) {
+                    Platform.runLater(() -> showError("Erreur d'import", "Impossible d'importer les dépenses: " + e.getMessage()));
+                }
+            }, "excel-import").start();
         }
     }
 
@@ -196,6 +215,29 @@ public class ExpenseController {
         }
     }
 
+    @FXML
+    private void handleExportExcel() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Exporter les dépenses vers Excel");
+        fileChooser.setInitialFileName("depenses.xlsx");
+        fileChooser.getExtensionFilters().add(
+            new FileChooser.ExtensionFilter("Fichiers Excel", "*.xlsx")
+        );
+
+        File file = fileChooser.showSaveDialog(expenseTable.getScene().getWindow());
+        if (file != null) {
+            // Rows are streamed from the database, keep the export off the FX thread
+            new Thread(() -> {
+                try {
+                    int count = ExcelUtil.exportExpenses(file, expenseService::forEachExpense);
+                    Platform.runLater(() -> showInfo("Succès", count + " dépenses exportés"));
+                } catch (Exception e) {
+                    Platform.runLater(() -> showError("Erreur d'export", "Impossible d'exporter les dépenses: " + e.getMessage()));
+                }
+            }, "excel-export").start();
+        }
+    }
+
     private void showError(String title, String message) {
         Alert alert = new Alert(Alert.AlertType.ERROR);
         alert.setTitle(title);
@@ -1,5 +1,6 @@
 package com.nasroul.controller;
 
+import com.nasroul.dao.DataChangeBatch;
 import com.nasroul.model.Group;
 import com.nasroul.service.GroupService;
 import javafx.beans.property.SimpleStringProperty;
@@ -14,8 +15,9 @@ import javafx.stage.Stage;
 
 import java.io.IOException;
 import java.sql.SQLException;
+import java.util.Set;
 
-public class GroupController {
+public class GroupController implements RefreshableView {
 
     @FXML private TableView<Group> groupTable;
     @FXML private TableColumn<Group, String> colId;
@@ -24,6 +26,9 @@ public class GroupController {
     @FXML private TableColumn<Group, String> colMemberCount;
     @FXML private TableColumn<Group, String> colActive;
 
+    // Controller of the included payment group tab
+    @FXML private PaymentGroupController paymentGroupViewController;
+
     private final GroupService groupService;
     private final ObservableList<Group> groupList;
 
@@ -39,6 +44,30 @@ public class GroupController {
         loadGroups();
     }
 
+    @Override
+    public void refresh() {
+        loadGroups();
+        if (paymentGroupViewController != null) {
+            paymentGroupViewController.refresh();
+        }
+    }
+
+    @Override
+    public Set<String> getWatchedTables() {
+        return Set.of("groups", "member_groups", "members", "payment_groups", "events", "projects");
+    }
+
+    @Override
+    public void onDataChanged(DataChangeBatch batch) {
+        if (batch.touchesAny(Set.of("groups", "member_groups", "members"))) {
+            loadGroups();
+        }
+        if (paymentGroupViewController != null
+                && batch.touchesAny(paymentGroupViewController.getWatchedTables())) {
+            paymentGroupViewController.onDataChanged(batch);
+        }
+    }
+
     private void setupTableColumns() {
         colId.setCellValueFactory(data -> new SimpleStringProperty(String.valueOf(data.getValue().getId())));
         colName.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getName()));
@@ -105,7 +134,6 @@ public class GroupController {
                         groupService.updateGroup(savedGroup);
                         showInfo("Succès", "Groupe modifié avec succès");
                     }
-                    loadGroups();
                 } catch (SQLException e) {
                     showError("Erreur", "Impossible de sauvegarder le groupe: " + e.getMessage());
                 }
@@ -145,7 +173,6 @@ public class GroupController {
             if (response == ButtonType.OK) {
                 try {
                     groupService.deleteGroup(selected.getId());
-                    loadGroups();
                     showInfo("Succès", "Groupe supprimé avec succès");
                 } catch (SQLException e) {
                     showError("Erreur", "Impossible de supprimer le groupe: " + e.getMessage());
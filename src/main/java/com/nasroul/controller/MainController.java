@@ -3,13 +3,13 @@ package com.nasroul.controller;
 import com.nasroul.service.DeviceRegistrationService;
 import com.nasroul.service.SyncService;
 import com.nasroul.sync.SyncManager;
+import com.nasroul.sync.SyncProgress;
 import javafx.animation.Animation;
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
 import javafx.application.Platform;
 import javafx.concurrent.Task;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.control.*;
 import javafx.scene.layout.StackPane;
@@ -18,6 +18,7 @@ import javafx.util.Duration;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.Map;
 
 public class MainController {
@@ -58,6 +59,9 @@ public class MainController {
     @FXML
     private Button btnSyncHistory;
 
+    @FXML
+    private Button btnPerformance;
+
     @FXML
     private Label syncStatusLabel;
 
@@ -67,6 +71,22 @@ public class MainController {
     private Timeline clockTimeline;
     private final SyncService syncService = SyncService.getInstance();
     private final DeviceRegistrationService deviceService = DeviceRegistrationService.getInstance();
+    private final ViewRegistry viewRegistry = ViewRegistry.getInstance();
+    private String currentViewPath;
+    private String currentViewName;
+
+    private static final String SYNC_HISTORY_VIEW = "/fxml/SyncHistoryView.fxml";
+    private static final String PERFORMANCE_VIEW = "/fxml/PerformanceView.fxml";
+
+    // Views most likely to be opened after the dashboard, loaded in the background after startup
+    private static final List<String> PRELOADED_VIEWS = List.of(
+        "/fxml/MemberView.fxml",
+        "/fxml/ContributionView.fxml",
+        "/fxml/EventView.fxml",
+        "/fxml/ProjectView.fxml",
+        "/fxml/ExpenseView.fxml",
+        "/fxml/GroupView.fxml"
+    );
 
     @FXML
     public void initialize() {
@@ -75,6 +95,7 @@ public class MainController {
         setupSyncService();
         registerDevice();
         updateSyncStatus();
+        viewRegistry.preload(PRELOADED_VIEWS);
     }
 
     /**
@@ -84,18 +105,26 @@ public class MainController {
         syncService.setStatusListener(status -> {
             Platform.runLater(() -> updateSyncStatusUI(status));
         });
+        syncService.setProgressListener(this::updateSyncProgressUI);
+        syncService.startAutoSync();
+        syncService.startIntegrityCheck();
     }
 
     /**
      * Register current device
+     * Runs in the background: registration also reaches MySQL, which may be slow or offline
      */
     private void registerDevice() {
-        try {
-            deviceService.registerDevice();
-            System.out.println("Device registered: " + deviceService.getCurrentDeviceId());
-        } catch (Exception e) {
-            System.err.println("Failed to register device: " + e.getMessage());
-        }
+        Thread thread = new Thread(() -> {
+            try {
+                deviceService.registerDevice();
+                System.out.println("Device registered: " + deviceService.getCurrentDeviceId());
+            } catch (Exception e) {
+                System.err.println("Failed to register device: " + e.getMessage());
+            }
+        }, "device-registration");
+        thread.setDaemon(true);
+        thread.start();
     }
 
     private void startClock() {
@@ -127,6 +156,7 @@ public class MainController {
         btnExpenses.getStyleClass().remove("menu-button-active");
         btnGroups.getStyleClass().remove("menu-button-active");
         btnSyncHistory.getStyleClass().remove("menu-button-active");
+        btnPerformance.getStyleClass().remove("menu-button-active");
 
         if (!activeButton.getStyleClass().contains("menu-button-active")) {
             activeButton.getStyleClass().add("menu-button-active");
@@ -195,6 +225,11 @@ public class MainController {
             stopSyncUI();
 
             if (result.isSuccess()) {
+                // Pulled rows reach the views through change events, the history itself does not
+                viewRegistry.invalidate(SYNC_HISTORY_VIEW);
+                if (SYNC_HISTORY_VIEW.equals(currentViewPath)) {
+                    loadView(currentViewPath, currentViewName);
+                }
                 showSyncResultDialog(result);
                 updateSyncStatus();
 
@@ -234,6 +269,7 @@ public class MainController {
             if (syncProgressIndicator != null) {
                 syncProgressIndicator.setVisible(true);
                 syncProgressIndicator.setManaged(true);
+                syncProgressIndicator.setProgress(ProgressIndicator.INDETERMINATE_PROGRESS);
             }
             // Note: syncStatusLabel in footer shows "🔄 Synchronisation en cours..."
         });
@@ -265,6 +301,18 @@ public class MainController {
         }
     }
 
+    /**
+     * Show the progress of the running sync in the footer (called on the FX thread)
+     */
+    private void updateSyncProgressUI(SyncProgress progress) {
+        if (syncStatusLabel != null) {
+            syncStatusLabel.setText("🔄 " + progress.toStatusText());
+        }
+        if (syncProgressIndicator != null) {
+            syncProgressIndicator.setProgress(progress.getFraction());
+        }
+    }
+
     /**
      * Update sync status UI based on sync status
      */
@@ -450,7 +498,15 @@ public class MainController {
     @FXML
     private void showSyncHistory() {
         setActiveButton(btnSyncHistory);
-        loadView("/fxml/SyncHistoryView.fxml", "Historique de Synchronisation");
+        loadView(SYNC_HISTORY_VIEW, "Historique de Synchronisation");
+    }
+
+    @FXML
+    private void showPerformance() {
+        setActiveButton(btnPerformance);
+        // Metrics change all the time, show the current values each time the view is opened
+        viewRegistry.invalidate(PERFORMANCE_VIEW);
+        loadView(PERFORMANCE_VIEW, "Performance");
     }
 
     @FXML
@@ -468,10 +524,11 @@ public class MainController {
 
     private void loadView(String fxmlPath, String viewName) {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource(fxmlPath));
-            Parent view = loader.load();
+            Parent view = viewRegistry.show(fxmlPath);
             contentPane.getChildren().clear();
             contentPane.getChildren().add(view);
+            currentViewPath = fxmlPath;
+            currentViewName = viewName;
             statusLabel.setText("Vue active : " + viewName);
         } catch (IOException e) {
             e.printStackTrace();
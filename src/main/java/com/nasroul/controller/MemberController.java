@@ -1,8 +1,12 @@
 package com.nasroul.controller;
 
+import com.nasroul.dao.DataChangeBatch;
 import com.nasroul.model.Member;
 import com.nasroul.service.MemberService;
+import com.nasroul.util.AsyncLoader;
+import com.nasroul.util.ExcelImporter;
 import com.nasroul.util.ExcelUtil;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -18,9 +22,9 @@ import java.io.File;
 import java.io.IOException;
 import java.sql.SQLException;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
+import java.util.Set;
 
-public class MemberController {
+public class MemberController implements RefreshableView {
 
     @FXML
     private TextField searchField;
@@ -54,6 +58,8 @@ public class MemberController {
 
     private final MemberService memberService;
     private final ObservableList<Member> memberList;
+    private AsyncLoader loader;
+    private RowPatcher<Member> rowPatcher;
 
     public MemberController() {
         this.memberService = new MemberService();
@@ -64,11 +70,36 @@ public class MemberController {
     public void initialize() {
         setupTableColumns();
         memberTable.setItems(memberList);
+        loader = AsyncLoader.forTable(memberTable);
+        rowPatcher = new RowPatcher<>(memberList, "members", Member::getId, memberService::getMemberById);
         loadMembers();
 
         searchField.textProperty().addListener((obs, old, newVal) -> filterMembers(newVal));
     }
 
+    @Override
+    public void refresh() {
+        loadMembers();
+    }
+
+    @Override
+    public Set<String> getWatchedTables() {
+        return Set.of("members", "groups");
+    }
+
+    /**
+     * Single member edits are patched in place, anything larger or a filtered list reloads
+     */
+    @Override
+    public void onDataChanged(DataChangeBatch batch) {
+        String search = searchField.getText();
+        if ((search == null || search.isBlank()) && rowPatcher.canPatch(batch)) {
+            rowPatcher.patch(batch, e -> showError("Erreur", "Impossible de charger les membres: " + e.getMessage()));
+        } else {
+            refresh();
+        }
+    }
+
     private void setupTableColumns() {
         colId.setCellValueFactory(data -> new SimpleStringProperty(String.valueOf(data.getValue().getId())));
         colFirstName.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getFirstName()));
@@ -84,31 +115,16 @@ public class MemberController {
     }
 
     private void loadMembers() {
-        try {
-            memberList.clear();
-            memberList.addAll(memberService.getAllMembers());
-        } catch (SQLException e) {
-            showError("Erreur", "Impossible de charger les membres: " + e.getMessage());
-        }
+        filterMembers(searchField.getText());
     }
 
+    /**
+     * Search runs in SQL off the FX thread; typing supersedes the previous search
+     */
     private void filterMembers(String searchText) {
-        try {
-            List<Member> allMembers = memberService.getAllMembers();
-            if (searchText == null || searchText.trim().isEmpty()) {
-                memberList.setAll(allMembers);
-            } else {
-                String search = searchText.toLowerCase();
-                List<Member> filtered = allMembers.stream()
-                    .filter(m -> m.getFirstName().toLowerCase().contains(search) ||
-                                m.getLastName().toLowerCase().contains(search) ||
-                                (m.getEmail() != null && m.getEmail().toLowerCase().contains(search)))
-                    .toList();
-                memberList.setAll(filtered);
-            }
-        } catch (SQLException e) {
-            showError("Erreur", "Impossible de filtrer les membres: " + e.getMessage());
-        }
+        loader.load(() -> memberService.searchMembers(searchText),
+            memberList::setAll,
+            e -> showError("Erreur", "Impossible de charger les membres: " + e.getMessage()));
     }
 
     @FXML
@@ -185,7 +201,6 @@ public class MemberController {
                         memberService.updateMember(savedMember);
                         showInfo("Succès", "Membre modifié avec succès");
                     }
-                    loadMembers();
                 } catch (SQLException e) {
                     showError("Erreur", "Impossible de sauvegarder le membre: " + e.getMessage());
                 }
@@ -213,7 +228,6 @@ public class MemberController {
             if (response == ButtonType.OK) {
                 try {
                     memberService.deleteMember(selected.getId());
-                    loadMembers();
                     showInfo("Succès", "Membre supprimé avec succès");
                 } catch (SQLException e) {
                     showError("Erreur", "Impossible de supprimer le membre: " + e.getMessage());
@@ -238,14 +252,22 @@ public class MemberController {
 
         File file = fileChooser.showOpenDialog(memberTable.getScene().getWindow());
         if (file != null) {
-            try {
-                List<Member> importedMembers = ExcelUtil.importMembers(file);
-                memberService.bulkCreate(importedMembers);
-                loadMembers();
-                showInfo("Succès", importedMembers.size() + " membres importés");
-            } catch (Exception e) {
-                showError("Erreur d'import", "Impossible d'importer les membres: " + e.getMessage());
-            }
+            // Rows are streamed from the file and written in batches off the FX thread
+            new Thread(() -> {
+                try {
+                    ExcelImporter.ImportResult result = ExcelUtil.importMembers(file, memberService.newImportWriter(null));
+                    Platform.runLater(() -> {
+                        String message = result.getImportedCount() + " membres importés sur " + result.getTotalRows();
+                        if (result.hasErrors()) {
+                            showWarning("Import partiel", message + "\n\n" + result.formatErrors(10));
+                        } else {
+                            showInfo("Succès", message);
+                        }
+                    });
+                } catch (Exception e) {
+                    Platform.runLater(() -> showError("Erreur d'import", "Impossible d'importer les membres: " + e.getMessage()));
+                }
+            }, "excel-import").start();
         }
     }
 
@@ -269,6 +291,29 @@ public class MemberController {
         }
     }
 
+    @FXML
+    private void handleExportExcel() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Exporter les membres vers Excel");
+        fileChooser.setInitialFileName("membres.xlsx");
+        fileChooser.getExtensionFilters().add(
+            new FileChooser.ExtensionFilter("Fichiers Excel", "*.xlsx")
+        );
+
+        File file = fileChooser.showSaveDialog(memberTable.getScene().getWindow());
+        if (file != null) {
+            // Rows are streamed from the database, keep the export off the FX thread
+            new Thread(() -> {
+                try {
+                    int count = ExcelUtil.exportMembers(file, memberService::forEachMember);
+                    Platform.runLater(() -> showInfo("Succès", count + " membres exportés"));
+                } catch (Exception e) {
+                    Platform.runLater(() -> showError("Erreur d'export", "Impossible d'exporter les membres: " + e.getMessage()));
+                }
+            }, "excel-export").start();
+        }
+    }
+
     private void showError(String title, String message) {
         Alert alert = new Alert(Alert.AlertType.ERROR);
         alert.setTitle(title);
@@ -2,6 +2,9 @@ package com.nasroul.controller;
 
 import com.nasroul.model.PaymentGroup;
 import com.nasroul.service.PaymentGroupService;
+import com.nasroul.util.AsyncLoader;
+import com.nasroul.util.ExcelUtil;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -9,15 +12,18 @@ import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
+import javafx.stage.FileChooser;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 
+import java.io.File;
 import java.io.IOException;
 import java.sql.SQLException;
 import java.text.NumberFormat;
 import java.util.Locale;
+import java.util.Set;
 
-public class PaymentGroupController {
+public class PaymentGroupController implements RefreshableView {
 
     @FXML
     private TableView<PaymentGroup> paymentGroupTable;
@@ -26,6 +32,7 @@ public class PaymentGroupController {
 
     private final PaymentGroupService paymentGroupService;
     private final ObservableList<PaymentGroup> paymentGroupList;
+    private AsyncLoader loader;
 
     public PaymentGroupController() {
         this.paymentGroupService = new PaymentGroupService();
@@ -36,9 +43,20 @@ public class PaymentGroupController {
     public void initialize() {
         setupTableColumns();
         paymentGroupTable.setItems(paymentGroupList);
+        loader = AsyncLoader.forTable(paymentGroupTable);
         loadPaymentGroups();
     }
 
+    @Override
+    public void refresh() {
+        loadPaymentGroups();
+    }
+
+    @Override
+    public Set<String> getWatchedTables() {
+        return Set.of("payment_groups", "groups", "events", "projects");
+    }
+
     private void setupTableColumns() {
         NumberFormat numberFormat = NumberFormat.getInstance(Locale.FRANCE);
 
@@ -67,12 +85,9 @@ public class PaymentGroupController {
     }
 
     private void loadPaymentGroups() {
-        try {
-            paymentGroupList.clear();
-            paymentGroupList.addAll(paymentGroupService.getAllPaymentGroups());
-        } catch (SQLException e) {
-            showError("Erreur", "Impossible de charger les cotisations: " + e.getMessage());
-        }
+        loader.load(paymentGroupService::getAllPaymentGroups,
+            paymentGroupList::setAll,
+            e -> showError("Erreur", "Impossible de charger les cotisations: " + e.getMessage()));
     }
 
     @FXML
@@ -117,7 +132,6 @@ public class PaymentGroupController {
                         paymentGroupService.updatePaymentGroup(savedPaymentGroup);
                         showInfo("Succès", "Cotisation modifiée avec succès");
                     }
-                    loadPaymentGroups();
                 } catch (SQLException e) {
                     showError("Erreur", "Impossible de sauvegarder la cotisation: " + e.getMessage());
                 } catch (IllegalArgumentException e) {
@@ -148,7 +162,6 @@ public class PaymentGroupController {
                 try {
                     paymentGroupService.deletePaymentGroup(selected.getId());
                     showInfo("Succès", "Cotisation supprimée avec succès");
-                    loadPaymentGroups();
                 } catch (SQLException e) {
                     showError("Erreur", "Impossible de supprimer la cotisation: " + e.getMessage());
                 }
@@ -161,6 +174,29 @@ public class PaymentGroupController {
         loadPaymentGroups();
     }
 
+    @FXML
+    private void handleExportExcel() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Exporter les objectifs vers Excel");
+        fileChooser.setInitialFileName("objectifs.xlsx");
+        fileChooser.getExtensionFilters().add(
+            new FileChooser.ExtensionFilter("Fichiers Excel", "*.xlsx")
+        );
+
+        File file = fileChooser.showSaveDialog(paymentGroupTable.getScene().getWindow());
+        if (file != null) {
+            // Rows are streamed from the database, keep the export off the FX thread
+            new Thread(() -> {
+                try {
+                    int count = ExcelUtil.exportPaymentGroups(file, paymentGroupService::forEachPaymentGroup);
+                    Platform.runLater(() -> showInfo("Succès", count + " objectifs exportés"));
+                } catch (Exception e) {
+                    Platform.runLater(() -> showError("Erreur d'export", "Impossible d'exporter les objectifs: " + e.getMessage()));
+                }
+            }, "excel-export").start();
+        }
+    }
+
     private void showError(String title, String message) {
         Alert alert = new Alert(Alert.AlertType.ERROR);
         alert.setTitle(title);
@@ -0,0 +1,264 @@
+package com.nasroul.controller;
+
+import com.nasroul.perf.MetricsRegistry;
+import com.nasroul.perf.MetricsRegistry.MetricSnapshot;
+import com.nasroul.perf.SlowQueryLog;
+import javafx.application.Platform;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.value.ObservableValue;
+import javafx.collections.FXCollections;
+import javafx.fxml.FXML;
+import javafx.scene.control.*;
+import javafx.stage.FileChooser;
+import javafx.util.Callback;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Controller for the Performance View
+ * Shows the metrics collected since startup (queries, sync phases, SMS, Excel, views) and the
+ * slowest SQL statements with their plan, and lets them be exported as JSON to attach to a
+ * performance report
+ */
+public class PerformanceController implements RefreshableView {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final int SLOW_QUERIES_SHOWN = 50;
+
+    @FXML private TableView<MetricSnapshot> metricsTable;
+    @FXML private TableColumn<MetricSnapshot, String> nameColumn;
+    @FXML private TableColumn<MetricSnapshot, String> typeColumn;
+    @FXML private TableColumn<MetricSnapshot, Long> countColumn;
+    @FXML private TableColumn<MetricSnapshot, String> totalColumn;
+    @FXML private TableColumn<MetricSnapshot, String> meanColumn;
+    @FXML private TableColumn<MetricSnapshot, String> p50Column;
+    @FXML private TableColumn<MetricSnapshot, String> p95Column;
+    @FXML private TableColumn<MetricSnapshot, String> p99Column;
+    @FXML private TableColumn<MetricSnapshot, String> maxColumn;
+    @FXML private TableView<SlowQueryLog.Entry> slowQueryTable;
+    @FXML private TableColumn<SlowQueryLog.Entry, String> slowDatabaseColumn;
+    @FXML private TableColumn<SlowQueryLog.Entry, String> slowSqlColumn;
+    @FXML private TableColumn<SlowQueryLog.Entry, Long> slowCountColumn;
+    @FXML private TableColumn<SlowQueryLog.Entry, String> slowTotalColumn;
+    @FXML private TableColumn<SlowQueryLog.Entry, String> slowMaxColumn;
+    @FXML private TableColumn<SlowQueryLog.Entry, Long> slowRowsColumn;
+    @FXML private TableColumn<SlowQueryLog.Entry, String> slowBindsColumn;
+    @FXML private TableColumn<SlowQueryLog.Entry, String> slowScanColumn;
+    @FXML private TextField filterField;
+    @FXML private Label statsLabel;
+    @FXML private Label slowQueryLabel;
+    @FXML private Label recorderLabel;
+    @FXML private Label memoryLabel;
+
+    private final MetricsRegistry registry = MetricsRegistry.getInstance();
+    private final SlowQueryLog slowQueryLog = SlowQueryLog.getInstance();
+    private List<MetricSnapshot> snapshots = List.of();
+
+    @FXML
+    public void initialize() {
+        nameColumn.setCellValueFactory(cell(MetricSnapshot::getName));
+        typeColumn.setCellValueFactory(cell(s -> switch (s.getType()) {
+            case COUNTER -> "Compteur";
+            case TIMER -> "Durée (ms)";
+            case HISTOGRAM -> "Distribution";
+        }));
+        countColumn.setCellValueFactory(cell(MetricSnapshot::getCount));
+        totalColumn.setCellValueFactory(cell(s -> format(s, s.getSum())));
+        meanColumn.setCellValueFactory(cell(s -> format(s, s.getMean())));
+        p50Column.setCellValueFactory(cell(s -> format(s, s.getP50())));
+        p95Column.setCellValueFactory(cell(s -> format(s, s.getP95())));
+        p99Column.setCellValueFactory(cell(s -> format(s, s.getP99())));
+        maxColumn.setCellValueFactory(cell(s -> format(s, s.getMax())));
+
+        setupSlowQueryColumns();
+        filterField.textProperty().addListener((obs, old, text) -> applyFilter());
+
+        loadMetrics();
+    }
+
+    @Override
+    public void refresh() {
+        loadMetrics();
+    }
+
+    /**
+     * Metrics are not stored in tables, MainController invalidates the view each time it is opened
+     */
+    @Override
+    public Set<String> getWatchedTables() {
+        return Set.of();
+    }
+
+    /**
+     * The plan captured for a statement is shown in the tooltip of its SQL
+     */
+    private void setupSlowQueryColumns() {
+        slowDatabaseColumn.setCellValueFactory(cell(SlowQueryLog.Entry::getDatabase));
+        slowSqlColumn.setCellValueFactory(cell(SlowQueryLog.Entry::getTemplate));
+        slowCountColumn.setCellValueFactory(cell(SlowQueryLog.Entry::getCount));
+        slowTotalColumn.setCellValueFactory(cell(e -> String.format("%.0f", e.getTotalNanos() / NANOS_PER_MILLI)));
+        slowMaxColumn.setCellValueFactory(cell(e -> String.format("%.0f", e.getMaxNanos() / NANOS_PER_MILLI)));
+        slowRowsColumn.setCellValueFactory(cell(SlowQueryLog.Entry::getMaxRows));
+        slowBindsColumn.setCellValueFactory(cell(SlowQueryLog.Entry::getBindShape));
+        slowScanColumn.setCellValueFactory(cell(e -> String.join(", ", e.getFullScans())));
+
+        slowSqlColumn.setCellFactory(column -> new TableCell<SlowQueryLog.Entry, String>() {
+            @Override
+            protected void updateItem(String item, boolean empty) {
+                super.updateItem(item, empty);
+                SlowQueryLog.Entry entry = getTableRow() != null ? getTableRow().getItem() : null;
+                if (empty || item == null || entry == null) {
+                    setText(null);
+                    setTooltip(null);
+                } else {
+                    setText(item);
+                    setTooltip(new Tooltip(entry.getPlan().isEmpty() ? item
+                        : item + "\n\nPlan :\n" + String.join("\n", entry.getPlan())));
+                }
+            }
+        });
+
+        // Highlight statements scanning a large table
+        slowScanColumn.setCellFactory(column -> new TableCell<SlowQueryLog.Entry, String>() {
+            @Override
+            protected void updateItem(String item, boolean empty) {
+                super.updateItem(item, empty);
+                if (empty || item == null) {
+                    setText(null);
+                    setStyle("");
+                } else {
+                    setText(item);
+                    setStyle(item.isEmpty() ? "" : "-fx-text-fill: #f44336; -fx-font-weight: bold;");
+                }
+            }
+        });
+    }
+
+    private <S, V> Callback<TableColumn.CellDataFeatures<S, V>, ObservableValue<V>> cell(Function<S, V> value) {
+        return data -> new SimpleObjectProperty<>(data.getValue() != null ? value.apply(data.getValue()) : null);
+    }
+
+    /**
+     * Timer values are nanoseconds, shown in milliseconds; counters only have a count
+     */
+    private String format(MetricSnapshot snapshot, double value) {
+        return switch (snapshot.getType()) {
+            case COUNTER -> "";
+            case TIMER -> String.format("%.2f", value / NANOS_PER_MILLI);
+            case HISTOGRAM -> String.format("%.0f", value);
+        };
+    }
+
+    private void loadMetrics() {
+        snapshots = registry.snapshot();
+        applyFilter();
+        slowQueryTable.setItems(FXCollections.observableArrayList(slowQueryLog.getTopQueries(SLOW_QUERIES_SHOWN)));
+        slowQueryLabel.setText(slowQueryLog.isEnabled()
+            ? String.format("Seuil : %d ms", slowQueryLog.getThresholdMs())
+            : "Désactivé (perf.slow.query.ms=0)");
+        updateStatus();
+    }
+
+    private void applyFilter() {
+        String filter = filterField.getText() == null ? "" : filterField.getText().trim().toLowerCase();
+        List<MetricSnapshot> shown = filter.isEmpty() ? snapshots : snapshots.stream()
+            .filter(s -> s.getName().toLowerCase().contains(filter))
+            .toList();
+        metricsTable.setItems(FXCollections.observableArrayList(shown));
+        statsLabel.setText(String.format("%d métriques sur %d", shown.size(), snapshots.size()));
+    }
+
+    private void updateStatus() {
+        List<Recording> recordings = FlightRecorder.isAvailable()
+            ? FlightRecorder.getFlightRecorder().getRecordings() : List.of();
+        long running = recordings.stream().filter(r -> r.getState() == RecordingState.RUNNING).count();
+        recorderLabel.setText(running > 0
+            ? "Flight Recorder : " + running + " enregistrement(s) en cours"
+            : "Flight Recorder : inactif (lancer avec -XX:StartFlightRecording pour enregistrer les événements)");
+
+        Runtime runtime = Runtime.getRuntime();
+        long usedMb = (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024);
+        long maxMb = runtime.maxMemory() / (1024 * 1024);
+        long uptimeSeconds = ManagementFactory.getRuntimeMXBean().getUptime() / 1000;
+        memoryLabel.setText(String.format("Mémoire : %d / %d Mo · Démarré depuis %d min %02d s",
+            usedMb, maxMb, uptimeSeconds / 60, uptimeSeconds % 60));
+    }
+
+    @FXML
+    private void handleRefresh() {
+        loadMetrics();
+    }
+
+    @FXML
+    private void handleReset() {
+        Alert confirmAlert = new Alert(Alert.AlertType.CONFIRMATION);
+        confirmAlert.setTitle("Confirmer la réinitialisation");
+        confirmAlert.setHeaderText("Réinitialiser les métriques");
+        confirmAlert.setContentText("Toutes les mesures collectées depuis le démarrage seront remises à zéro.");
+
+        confirmAlert.showAndWait().ifPresent(response -> {
+            if (response == ButtonType.OK) {
+                registry.reset();
+                slowQueryLog.reset();
+                loadMetrics();
+            }
+        });
+    }
+
+    @FXML
+    private void handleExport() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Exporter les métriques");
+        fileChooser.setInitialFileName("performance_"
+            + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".json");
+        fileChooser.getExtensionFilters().add(
+            new FileChooser.ExtensionFilter("Fichiers JSON", "*.json")
+        );
+
+        File file = fileChooser.showSaveDialog(metricsTable.getScene().getWindow());
+        if (file != null) {
+            try {
+                registry.writeSnapshot(file);
+                showInfo("Export réussi", "Métriques exportées vers " + file.getName());
+            } catch (IOException e) {
+                showError("Erreur d'export", "Impossible d'exporter les métriques: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Show error dialog
+     */
+    private void showError(String title, String message) {
+        Platform.runLater(() -> {
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.setTitle(title);
+            alert.setHeaderText(null);
+            alert.setContentText(message);
+            alert.showAndWait();
+        });
+    }
+
+    /**
+     * Show info dialog
+     */
+    private void showInfo(String title, String message) {
+        Platform.runLater(() -> {
+            Alert alert = new Alert(Alert.AlertType.INFORMATION);
+            alert.setTitle(title);
+            alert.setHeaderText(null);
+            alert.setContentText(message);
+            alert.showAndWait();
+        });
+    }
+}
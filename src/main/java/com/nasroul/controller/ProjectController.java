@@ -1,11 +1,15 @@
 package com.nasroul.controller;
 
+import com.nasroul.dao.DataChangeBatch;
 import com.nasroul.model.Expense;
 import com.nasroul.model.Project;
 import com.nasroul.service.ExpenseService;
 import com.nasroul.service.ProjectService;
 import com.nasroul.service.ContributionService;
+import com.nasroul.util.AsyncLoader;
+import com.nasroul.util.ExcelImporter;
 import com.nasroul.util.ExcelUtil;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -24,9 +28,11 @@ import java.text.NumberFormat;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
-public class ProjectController {
+public class ProjectController implements RefreshableView {
 
     @FXML
     private TableView<Project> projectTable;
@@ -37,6 +43,9 @@ public class ProjectController {
     private final ExpenseService expenseService;
     private final ContributionService contributionService;
     private final ObservableList<Project> projectList;
+    private Map<Integer, Double> paidTotals = Map.of();
+    private AsyncLoader loader;
+    private RowPatcher<Project> rowPatcher;
 
     public ProjectController() {
         this.projectService = new ProjectService();
@@ -55,22 +64,39 @@ public class ProjectController {
         colEndDate.setCellValueFactory(data -> new SimpleStringProperty(
             data.getValue().getEndDate() != null ? data.getValue().getEndDate().format(formatter) : ""));
         colBudget.setCellValueFactory(data -> new SimpleStringProperty(numberFormat.format(data.getValue().getBudget()) + " CFA"));
+        // Paid totals are loaded with the list, cells must not hit the database
         colCurrentBudget.setCellValueFactory(data -> {
-            try {
-                Double total = contributionService.getTotalByEntity("PROJECT", data.getValue().getId());
-                double currentBudget = total != null ? total : 0.0;
-                return new SimpleStringProperty(numberFormat.format(currentBudget) + " CFA");
-            } catch (SQLException e) {
-                return new SimpleStringProperty("0 CFA");
-            }
+            double currentBudget = paidTotals.getOrDefault(data.getValue().getId(), 0.0);
+            return new SimpleStringProperty(numberFormat.format(currentBudget) + " CFA");
         });
         colStatus.setCellValueFactory(data -> new SimpleStringProperty(translateStatus(data.getValue().getStatus())));
         colManager.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getManagerName()));
 
         projectTable.setItems(projectList);
+        loader = AsyncLoader.forTable(projectTable);
+        rowPatcher = new RowPatcher<>(projectList, "projects", Project::getId, projectService::getProjectById);
+        loadProjects();
+    }
+
+    @Override
+    public void refresh() {
         loadProjects();
     }
 
+    @Override
+    public Set<String> getWatchedTables() {
+        return Set.of("projects", "contributions", "members");
+    }
+
+    @Override
+    public void onDataChanged(DataChangeBatch batch) {
+        if (rowPatcher.canPatch(batch)) {
+            rowPatcher.patch(batch, e -> showError("Error", "Could not load projects: " + e.getMessage()));
+        } else {
+            refresh();
+        }
+    }
+
     private String translateStatus(String status) {
         if (status == null) return "";
         switch (status) {
@@ -84,12 +110,12 @@ public class ProjectController {
     }
 
     private void loadProjects() {
-        try {
-            projectList.clear();
-            projectList.addAll(projectService.getAllProjects());
-        } catch (SQLException e) {
-            showError("Error", "Could not load projects: " + e.getMessage());
-        }
+        loader.load(() -> new LoadedProjects(projectService.getAllProjects(), contributionService.getTotalsByEntityType("PROJECT")),
+            loaded -> {
+                paidTotals = loaded.paidTotals;
+                projectList.setAll(loaded.projects);
+            },
+            e -> showError("Error", "Could not load projects: " + e.getMessage()));
     }
 
     @FXML
@@ -134,7 +160,6 @@ public class ProjectController {
                         projectService.updateProject(savedProject);
                         showInfo("Succès", "Projet modifié avec succès");
                     }
-                    loadProjects();
                 } catch (SQLException e) {
                     showError("Erreur", "Impossible de sauvegarder le projet: " + e.getMessage());
                 }
@@ -158,7 +183,6 @@ public class ProjectController {
             if (response == ButtonType.OK) {
                 try {
                     projectService.deleteProject(selected.getId());
-                    loadProjects();
                 } catch (SQLException e) {
                     showError("Error", "Could not delete project: " + e.getMessage());
                 }
@@ -260,14 +284,22 @@ public class ProjectController {
 
         File file = fileChooser.showOpenDialog(projectTable.getScene().getWindow());
         if (file != null) {
-            try {
-                List<Project> imported = ExcelUtil.importProjects(file);
-                projectService.bulkCreate(imported);
-                loadProjects();
-                showInfo("Success", "Imported " + imported.size() + " projects");
-            } catch (Exception e) {
-                showError("Import Error", e.getMessage());
-            }
+            // Rows are streamed from the file and written in batches off the FX thread
+            new Thread(() -> {
+                try {
+                    ExcelImporter.ImportResult result = ExcelUtil.importProjects(file, projectService.newImportWriter(null));
+                    Platform.runLater(() -> {
+                        String message = result.getImportedCount() + " projets importés sur " + result.getTotalRows();
+                        if (result.hasErrors()) {
+                            showWarning("Import partiel", message + "\n\n" + result.formatErrors(10));
+                        } else {
+                            showInfo("Succès", message);
+                        }
+                    });
+                } catch (Exception e) {
+                    Platform.runLater(() -> showError("Erreur d'import", "Impossible d'importer les projets: " + e.getMessage()));
+                }
+            }, "excel-import").start();
         }
     }
 
@@ -289,6 +321,29 @@ public class ProjectController {
         }
     }
 
+    @FXML
+    private void handleExportExcel() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Exporter les projets vers Excel");
+        fileChooser.setInitialFileName("projets.xlsx");
+        fileChooser.getExtensionFilters().add(
+            new FileChooser.ExtensionFilter("Fichiers Excel", "*.xlsx")
+        );
+
+        File file = fileChooser.showSaveDialog(projectTable.getScene().getWindow());
+        if (file != null) {
+            // Rows are streamed from the database, keep the export off the FX thread
+            new Thread(() -> {
+                try {
+                    int count = ExcelUtil.exportProjects(file, projectService::forEachProject);
+                    Platform.runLater(() -> showInfo("Succès", count + " projets exportés"));
+                } catch (Exception e) {
+                    Platform.runLater(() -> showError("Erreur d'export", "Impossible d'exporter les projets: " + e.getMessage()));
+                }
+            }, "excel-export").start();
+        }
+    }
+
     private void showError(String title, String message) {
         Alert alert = new Alert(Alert.AlertType.ERROR);
         alert.setTitle(title);
@@ -312,4 +367,14 @@ public class ProjectController {
         alert.setContentText(message);
         alert.showAndWait();
     }
+
+    private static class LoadedProjects {
+        private final List<Project> projects;
+        private final Map<Integer, Double> paidTotals;
+
+        private LoadedProjects(List<Project> projects, Map<Integer, Double> paidTotals) {
+            this.projects = projects;
+            this.paidTotals = paidTotals;
+        }
+    }
 }
@@ -0,0 +1,29 @@
+package com.nasroul.controller;
+
+import com.nasroul.dao.DataChangeBatch;
+
+import java.util.Set;
+
+/**
+ * Controller of a cached view that can reload its data without re-parsing its FXML
+ */
+public interface RefreshableView {
+
+    /**
+     * Reload the data shown by the view, called on the FX thread
+     */
+    void refresh();
+
+    /**
+     * Tables whose changes make the view outdated
+     */
+    Set<String> getWatchedTables();
+
+    /**
+     * Apply committed changes while the view is on screen, called on the FX thread
+     * Views that can update single rows override this, the default reloads everything
+     */
+    default void onDataChanged(DataChangeBatch batch) {
+        refresh();
+    }
+}
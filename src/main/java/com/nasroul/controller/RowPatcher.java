@@ -0,0 +1,103 @@
+package com.nasroul.controller;
+
+import com.nasroul.dao.DataChangeBatch;
+import com.nasroul.dao.DataChangeEvent;
+import com.nasroul.util.AsyncLoader;
+import javafx.collections.ObservableList;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Applies row-level changes to a table list by re-reading only the changed rows
+ */
+class RowPatcher<T> {
+
+    // Above this many rows a full reload is cheaper than one query per row
+    static final int MAX_PATCHED_ROWS = 50;
+
+    @FunctionalInterface
+    interface RowLoader<T> {
+        /**
+         * Load one row by id, null when it no longer exists or was soft deleted
+         */
+        T load(int id) throws SQLException;
+    }
+
+    private final ObservableList<T> rows;
+    private final String table;
+    private final ToIntFunction<T> idOf;
+    private final RowLoader<T> rowLoader;
+    // Own loader so a patch never cancels a full reload in progress
+    private final AsyncLoader loader = new AsyncLoader(null);
+    // Rows changed since the last applied patch, true when deleted; a new patch supersedes the
+    // running one, so it re-reads these too
+    private final Map<Integer, Boolean> pending = new LinkedHashMap<>();
+
+    RowPatcher(ObservableList<T> rows, String table, ToIntFunction<T> idOf, RowLoader<T> rowLoader) {
+        this.rows = rows;
+        this.table = table;
+        this.idOf = idOf;
+        this.rowLoader = rowLoader;
+    }
+
+    /**
+     * True when the batch only holds a few row events of this table
+     */
+    boolean canPatch(DataChangeBatch batch) {
+        return batch.getTables().size() == 1
+            && batch.touches(table)
+            && !batch.isTableWide(table)
+            && batch.getRowEvents(table).size() <= MAX_PATCHED_ROWS;
+    }
+
+    /**
+     * Re-read the changed rows off the FX thread, then replace, add or remove them in the list
+     * Rows of a patch still running are read again with this one
+     */
+    void patch(DataChangeBatch batch, Consumer<Exception> onError) {
+        for (DataChangeEvent event : batch.getRowEvents(table)) {
+            pending.put(event.getId(), event.getOperation() == DataChangeEvent.Operation.DELETE);
+        }
+        Map<Integer, Boolean> toRead = new LinkedHashMap<>(pending);
+
+        loader.load(() -> {
+            Map<Integer, T> changed = new LinkedHashMap<>();
+            for (Map.Entry<Integer, Boolean> entry : toRead.entrySet()) {
+                changed.put(entry.getKey(), entry.getValue() ? null : rowLoader.load(entry.getKey()));
+            }
+            return changed;
+        }, changed -> {
+            pending.clear();
+            changed.forEach(this::apply);
+        }, e -> {
+            pending.clear();
+            onError.accept(e);
+        });
+    }
+
+    private void apply(int id, T row) {
+        int index = indexOf(id);
+        if (row == null) {
+            if (index >= 0) {
+                rows.remove(index);
+            }
+        } else if (index >= 0) {
+            rows.set(index, row);
+        } else {
+            rows.add(row);
+        }
+    }
+
+    private int indexOf(int id) {
+        for (int i = 0; i < rows.size(); i++) {
+            if (idOf.applyAsInt(rows.get(i)) == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
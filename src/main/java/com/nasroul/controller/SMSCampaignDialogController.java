@@ -1,7 +1,7 @@
 package com.nasroul.controller;
 
+import com.nasroul.dao.RecipientDAO;
 import com.nasroul.model.Group;
-import com.nasroul.model.Member;
 import com.nasroul.service.GroupService;
 import com.nasroul.service.MemberService;
 import com.nasroul.service.PaymentGroupService;
@@ -13,12 +13,12 @@ import javafx.stage.Stage;
 
 import java.sql.SQLException;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class SMSCampaignDialogController {
 
     @FXML private Label lblEntityInfo;
     @FXML private ComboBox<Group> cbGroup;
+    @FXML private CheckBox chkRemainingOnly;
     @FXML private Label lblRecipientCount;
     @FXML private Label lblSMSBalance;
     @FXML private Label lblVariables;
@@ -35,7 +35,7 @@ public class SMSCampaignDialogController {
     private String entityType;
     private Integer entityId;
     private String entityName;
-    private List<Member> recipients;
+    private List<RecipientDAO.Recipient> recipients;
     private int smsBalance = -1;
 
     public SMSCampaignDialogController() {
@@ -54,6 +54,7 @@ public class SMSCampaignDialogController {
 
         // Add listeners
         cbGroup.setOnAction(e -> updateRecipients());
+        chkRemainingOnly.setOnAction(e -> updateRecipients());
         txtMessage.textProperty().addListener((obs, old, newVal) -> {
             updateCharCount();
             updatePreview();
@@ -145,33 +146,20 @@ public class SMSCampaignDialogController {
         }
 
         try {
-            // Get all members of the selected group who have a phone number
-            List<Member> allMembers = memberService.getActiveMembers();
-            System.out.println("Total active members: " + allMembers.size());
-            System.out.println("Selected group ID: " + selectedGroup.getId());
-
-            recipients = allMembers.stream()
-                .filter(m -> {
-                    boolean hasGroups = m.getGroupIds() != null && m.getGroupIds().contains(selectedGroup.getId());
-                    if (hasGroups) {
-                        System.out.println("Member " + m.getFullName() + " is in group " + selectedGroup.getId());
-                    }
-                    return hasGroups;
-                })
-                .filter(m -> {
-                    boolean hasPhone = m.getPhone() != null && !m.getPhone().trim().isEmpty();
-                    if (!hasPhone) {
-                        System.out.println("Member " + m.getFullName() + " has no phone");
-                    }
-                    return hasPhone;
-                })
-                .collect(Collectors.toList());
+            // Members of the selected group who have a phone number, resolved in one SQL query
+            RecipientDAO.Criteria criteria = new RecipientDAO.Criteria()
+                .inGroups(List.of(selectedGroup.getId()))
+                .forEntity(entityType, entityId)
+                .withPhone(RecipientDAO.PhoneFilter.WITH_PHONE);
+            if (chkRemainingOnly.isSelected()) {
+                criteria.withRemainingBalanceAbove(0.0);
+            }
 
-            System.out.println("Total recipients: " + recipients.size());
+            recipients = memberService.findRecipients(criteria);
             lblRecipientCount.setText(String.valueOf(recipients.size()));
             updatePreview();
         } catch (SQLException e) {
-            System.err.println("Error loading members: " + e.getMessage());
+            System.err.println("Error loading recipients: " + e.getMessage());
             e.printStackTrace();
             showError("Erreur lors du chargement des membres: " + e.getMessage());
         }
@@ -194,10 +182,9 @@ public class SMSCampaignDialogController {
         }
 
         // Show preview with first recipient
-        Member firstMember = recipients.get(0);
+        RecipientDAO.Recipient firstMember = recipients.get(0);
         try {
-            double remainingAmount = paymentGroupService.calculateRemainingAmount(
-                firstMember.getId(), entityType, entityId);
+            double remainingAmount = firstMember.getRemainingAmount();
 
             // Get total amount from payment group
             Double totalAmount = paymentGroupService.getTotalAmountByEntity(entityType, entityId);
@@ -290,10 +277,10 @@ public class SMSCampaignDialogController {
                 System.err.println("Error getting total amount: " + e.getMessage());
             }
 
-            for (Member member : recipients) {
+            for (RecipientDAO.Recipient member : recipients) {
                 try {
-                    double remainingAmount = paymentGroupService.calculateRemainingAmount(
-                        member.getId(), entityType, entityId);
+                    // Remaining amount was computed by the recipient query
+                    double remainingAmount = member.getRemainingAmount();
 
                     String message = smsService.replaceVariables(
                         txtMessage.getText(),
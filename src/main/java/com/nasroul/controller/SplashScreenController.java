@@ -1,6 +1,7 @@
 package com.nasroul.controller;
 
-import com.nasroul.dao.DatabaseManager;
+import com.nasroul.StartupOrchestrator;
+import com.nasroul.util.StartupProfiler;
 import javafx.application.Platform;
 import javafx.concurrent.Task;
 import javafx.fxml.FXML;
@@ -30,33 +31,20 @@ public class SplashScreenController {
 
     @FXML
     private void initialize() {
-        // Start database connection test in background
+        // Run the parallel startup pipeline in background
         Task<Boolean> connectionTask = new Task<>() {
             @Override
             protected Boolean call() throws Exception {
-                updateMessage("Vérification de la configuration...");
-                updateProgress(0.2, 1.0);
-                Thread.sleep(500);
+                updateMessage("Initialisation...");
+                updateProgress(0.1, 1.0);
 
-                updateMessage("Connexion à la base de données...");
-                updateProgress(0.5, 1.0);
-
-                // Initialize database (this will test the connection)
-                DatabaseManager dbManager = DatabaseManager.getInstance();
-                Thread.sleep(500);
-
-                updateProgress(0.8, 1.0);
-
-                // Check if there was a connection error
-                if (dbManager.hasConnectionError()) {
-                    updateMessage("Erreur de connexion");
-                    throw new Exception(dbManager.getConnectionError());
-                }
+                new StartupOrchestrator().run((message, progress) -> {
+                    updateMessage(message);
+                    updateProgress(0.1 + 0.9 * progress, 1.0);
+                });
 
                 updateMessage("Connexion établie avec succès!");
                 updateProgress(1.0, 1.0);
-                Thread.sleep(500);
-
                 return true;
             }
 
@@ -103,6 +91,9 @@ public class SplashScreenController {
     }
 
     private void loadMainApplication() throws Exception {
+        StartupProfiler profiler = StartupProfiler.getInstance();
+        StartupProfiler.Phase mainWindowPhase = profiler.start("main-window");
+
         FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/MainView.fxml"));
         Parent root = loader.load();
 
@@ -119,5 +110,8 @@ public class SplashScreenController {
         // Close splash screen and show main application
         stage.close();
         mainStage.show();
+
+        mainWindowPhase.close();
+        profiler.printReport();
     }
 }
@@ -1,28 +1,51 @@
 package com.nasroul.controller;
 
+import com.nasroul.dao.PageRequest;
 import com.nasroul.dao.SyncLogDAO;
 import com.nasroul.dao.SyncLogDAO.SyncLog;
+import com.nasroul.dao.SyncLogDAO.SyncSession;
+import com.nasroul.service.SyncService;
+import com.nasroul.sync.SyncProgress;
+import com.nasroul.util.AsyncLoader;
+import com.nasroul.util.ConfigManager;
+import com.nasroul.util.PagedTableSource;
 import javafx.application.Platform;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.value.ObservableValue;
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import javafx.collections.ListChangeListener;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.util.Callback;
 
-import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.function.Function;
 
 /**
  * Controller for Sync History View
- * Displays detailed log of all synchronization operations
+ * Lists sync sessions from their rollup, and the log of the selected session page by page,
+ * with status and table filters applied in SQL
  */
-public class SyncHistoryController {
+public class SyncHistoryController implements RefreshableView {
+
+    private static final int MAX_SESSIONS = 500;
+
+    @FXML private TableView<SyncSession> sessionTable;
+    @FXML private TableColumn<SyncSession, LocalDateTime> sessionStartColumn;
+    @FXML private TableColumn<SyncSession, String> sessionDurationColumn;
+    @FXML private TableColumn<SyncSession, Integer> sessionTablesColumn;
+    @FXML private TableColumn<SyncSession, Integer> sessionSuccessColumn;
+    @FXML private TableColumn<SyncSession, Integer> sessionFailedColumn;
+    @FXML private TableColumn<SyncSession, Integer> sessionPullColumn;
+    @FXML private TableColumn<SyncSession, Integer> sessionPushColumn;
+    @FXML private TableColumn<SyncSession, String> sessionRateColumn;
+    @FXML private TableColumn<SyncSession, String> sessionTrafficColumn;
+    @FXML private TableColumn<SyncSession, String> sessionIdColumn;
 
     @FXML private TableView<SyncLog> historyTable;
-    @FXML private TableColumn<SyncLog, String> sessionIdColumn;
     @FXML private TableColumn<SyncLog, String> tableNameColumn;
     @FXML private TableColumn<SyncLog, Integer> recordIdColumn;
     @FXML private TableColumn<SyncLog, String> operationColumn;
@@ -34,6 +57,7 @@ public class SyncHistoryController {
     @FXML private ComboBox<String> filterComboBox;
     @FXML private ComboBox<String> tableFilterComboBox;
     @FXML private Label statsLabel;
+    @FXML private Label detailStatsLabel;
     @FXML private Label totalSuccessLabel;
     @FXML private Label totalFailedLabel;
     @FXML private Label totalPullLabel;
@@ -41,48 +65,120 @@ public class SyncHistoryController {
     @FXML private Label lastSyncLabel;
     @FXML private Button btnRefresh;
     @FXML private Button btnCleanOldLogs;
+    @FXML private Button btnVerifyIntegrity;
 
     private final SyncLogDAO syncLogDAO;
-    private ObservableList<SyncLog> allLogs;
     private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+    private AsyncLoader sessionLoader;
+    // Own loader: a refresh of the sessions must not discard the cleanup result
+    private AsyncLoader cleanupLoader;
+    private AsyncLoader integrityLoader;
+    private PagedTableSource<SyncLog> detailSource;
 
     public SyncHistoryController() {
         this.syncLogDAO = new SyncLogDAO();
-        this.allLogs = FXCollections.observableArrayList();
     }
 
     @FXML
     public void initialize() {
+        setupSessionColumns();
         setupTableColumns();
         setupFilters();
+
+        sessionLoader = AsyncLoader.forTable(sessionTable);
+        cleanupLoader = new AsyncLoader(running -> btnCleanOldLogs.setDisable(running));
+        integrityLoader = new AsyncLoader(running -> btnVerifyIntegrity.setDisable(running));
+        detailSource = new PagedTableSource<>(PageRequest.first(PageRequest.DEFAULT_PAGE_SIZE),
+            syncLogDAO::findPage, syncLogDAO::count, AsyncLoader.forTable(historyTable));
+        historyTable.setItems(detailSource);
+        detailSource.addListener((ListChangeListener<SyncLog>) change -> updateDetailStats());
+
+        sessionTable.getSelectionModel().selectedItemProperty().addListener((obs, old, session) -> {
+            updateStatistics(session);
+            applyFilters();
+        });
+
+        loadHistory();
+    }
+
+    @Override
+    public void refresh() {
         loadHistory();
     }
 
     /**
-     * Setup table columns with cell value factories
+     * Sync history is not a data table, MainController invalidates it after each sync
      */
-    private void setupTableColumns() {
-        sessionIdColumn.setCellValueFactory(new PropertyValueFactory<>("syncSessionId"));
-        tableNameColumn.setCellValueFactory(new PropertyValueFactory<>("tableName"));
-        recordIdColumn.setCellValueFactory(new PropertyValueFactory<>("recordId"));
-        operationColumn.setCellValueFactory(new PropertyValueFactory<>("operation"));
-        directionColumn.setCellValueFactory(new PropertyValueFactory<>("syncDirection"));
-        statusColumn.setCellValueFactory(new PropertyValueFactory<>("status"));
-        errorMessageColumn.setCellValueFactory(new PropertyValueFactory<>("errorMessage"));
+    @Override
+    public Set<String> getWatchedTables() {
+        return Set.of();
+    }
 
-        // Custom cell factory for timestamp
-        timestampColumn.setCellValueFactory(new PropertyValueFactory<>("syncedAt"));
-        timestampColumn.setCellFactory(column -> new TableCell<SyncLog, LocalDateTime>() {
+    /**
+     * Setup session table columns
+     */
+    private void setupSessionColumns() {
+        sessionStartColumn.setCellValueFactory(cell(SyncSession::getStartedAt));
+        sessionStartColumn.setCellFactory(column -> dateCell());
+        sessionDurationColumn.setCellValueFactory(cell(s -> formatDuration(s.getDurationMs())));
+        sessionTablesColumn.setCellValueFactory(cell(SyncSession::getTableCount));
+        sessionSuccessColumn.setCellValueFactory(cell(SyncSession::getSuccessCount));
+        sessionFailedColumn.setCellValueFactory(cell(SyncSession::getFailedCount));
+        sessionPullColumn.setCellValueFactory(cell(SyncSession::getPullCount));
+        sessionPushColumn.setCellValueFactory(cell(SyncSession::getPushCount));
+        // Sessions recorded before metrics were kept show nothing
+        sessionRateColumn.setCellValueFactory(cell(s -> s.getRoundTrips() > 0
+            ? String.format("%.0f lignes/s", s.getRowsPerSecond()) : ""));
+        sessionTrafficColumn.setCellValueFactory(cell(s -> s.getRoundTrips() > 0
+            ? SyncProgress.formatBytes(s.getBytesTransferred()) + " · " + s.getRoundTrips() + " échanges" : ""));
+        sessionIdColumn.setCellValueFactory(cell(SyncSession::getSyncSessionId));
+
+        // Highlight sessions with failures
+        sessionFailedColumn.setCellFactory(column -> new TableCell<SyncSession, Integer>() {
             @Override
-            protected void updateItem(LocalDateTime item, boolean empty) {
+            protected void updateItem(Integer item, boolean empty) {
                 super.updateItem(item, empty);
                 if (empty || item == null) {
                     setText(null);
+                    setStyle("");
                 } else {
-                    setText(dateFormatter.format(item));
+                    setText(String.valueOf(item));
+                    setStyle(item > 0 ? "-fx-text-fill: #f44336; -fx-font-weight: bold;" : "");
+                }
+            }
+        });
+
+        // Truncate session ID for display
+        sessionIdColumn.setCellFactory(column -> new TableCell<SyncSession, String>() {
+            @Override
+            protected void updateItem(String item, boolean empty) {
+                super.updateItem(item, empty);
+                if (empty || item == null) {
+                    setText(null);
+                    setTooltip(null);
+                } else {
+                    String truncated = item.length() > 12 ? item.substring(0, 12) + "..." : item;
+                    setText(truncated);
+                    setTooltip(new Tooltip(item)); // Full ID in tooltip
                 }
             }
         });
+    }
+
+    /**
+     * Setup detail table columns, rows of the paged list read as null until their page is loaded
+     */
+    private void setupTableColumns() {
+        tableNameColumn.setCellValueFactory(cell(SyncLog::getTableName));
+        recordIdColumn.setCellValueFactory(cell(SyncLog::getRecordId));
+        operationColumn.setCellValueFactory(cell(SyncLog::getOperation));
+        directionColumn.setCellValueFactory(cell(SyncLog::getSyncDirection));
+        statusColumn.setCellValueFactory(cell(SyncLog::getStatus));
+        errorMessageColumn.setCellValueFactory(cell(SyncLog::getErrorMessage));
+
+        // Custom cell factory for timestamp
+        timestampColumn.setCellValueFactory(cell(SyncLog::getSyncedAt));
+        timestampColumn.setCellFactory(column -> dateCell());
 
         // Custom cell factory for status with colors
         statusColumn.setCellFactory(column -> new TableCell<SyncLog, String>() {
@@ -119,21 +215,28 @@ public class SyncHistoryController {
             }
         });
 
-        // Truncate session ID for display
-        sessionIdColumn.setCellFactory(column -> new TableCell<SyncLog, String>() {
+        // The detail list is read in log order from SQL, it cannot be sorted in memory
+        for (TableColumn<SyncLog, ?> column : historyTable.getColumns()) {
+            column.setSortable(false);
+        }
+    }
+
+    private <S, V> Callback<TableColumn.CellDataFeatures<S, V>, ObservableValue<V>> cell(Function<S, V> value) {
+        return data -> new SimpleObjectProperty<>(data.getValue() != null ? value.apply(data.getValue()) : null);
+    }
+
+    private <S> TableCell<S, LocalDateTime> dateCell() {
+        return new TableCell<>() {
             @Override
-            protected void updateItem(String item, boolean empty) {
+            protected void updateItem(LocalDateTime item, boolean empty) {
                 super.updateItem(item, empty);
                 if (empty || item == null) {
                     setText(null);
-                    setTooltip(null);
                 } else {
-                    String truncated = item.length() > 12 ? item.substring(0, 12) + "..." : item;
-                    setText(truncated);
-                    setTooltip(new Tooltip(item)); // Full ID in tooltip
+                    setText(dateFormatter.format(item));
                 }
             }
-        });
+        };
     }
 
     /**
@@ -145,66 +248,77 @@ public class SyncHistoryController {
     }
 
     /**
-     * Load sync history from database
+     * Load the session list from the rollup table, the details follow the selection
      */
     private void loadHistory() {
-        try {
-            // Load last 1000 logs
-            List<SyncLog> logs = syncLogDAO.getRecentLogs(1000);
-            allLogs = FXCollections.observableArrayList(logs);
+        String selectedId = sessionTable.getSelectionModel().getSelectedItem() != null
+            ? sessionTable.getSelectionModel().getSelectedItem().getSyncSessionId()
+            : null;
+
+        sessionLoader.load(() -> syncLogDAO.getRecentSessions(MAX_SESSIONS), sessions -> {
+            sessionTable.setItems(FXCollections.observableArrayList(sessions));
+            statsLabel.setText(String.format("%d sessions", sessions.size()));
+            lastSyncLabel.setText(sessions.isEmpty() || sessions.get(0).getStartedAt() == null
+                ? "Jamais" : dateFormatter.format(sessions.get(0).getStartedAt()));
+            selectSession(sessions, selectedId);
+        }, e -> showError("Erreur de chargement", "Impossible de charger l'historique: " + e.getMessage()));
+    }
+
+    /**
+     * Keep the previous selection when the session still exists, otherwise select the latest one
+     */
+    private void selectSession(List<SyncSession> sessions, String sessionId) {
+        if (sessions.isEmpty()) {
+            updateStatistics(null);
             applyFilters();
-            updateStatistics();
-        } catch (SQLException e) {
-            showError("Erreur de chargement", "Impossible de charger l'historique: " + e.getMessage());
+            return;
         }
+        for (SyncSession session : sessions) {
+            if (session.getSyncSessionId().equals(sessionId)) {
+                sessionTable.getSelectionModel().select(session);
+                return;
+            }
+        }
+        sessionTable.getSelectionModel().selectFirst();
     }
 
     /**
-     * Apply filters to the table
+     * Read the selected session's log with the status and table filters
      */
     private void applyFilters() {
+        SyncSession session = sessionTable.getSelectionModel().getSelectedItem();
         String statusFilter = filterComboBox.getValue();
         String tableFilter = tableFilterComboBox.getValue();
 
-        List<SyncLog> filtered = allLogs.stream()
-            .filter(log -> {
-                // Status filter
-                if (!"Tous".equals(statusFilter) && !statusFilter.equals(log.getStatus())) {
-                    return false;
-                }
-                // Table filter
-                if (!"Toutes".equals(tableFilter) && !tableFilter.equals(log.getTableName())) {
-                    return false;
-                }
-                return true;
-            })
-            .collect(Collectors.toList());
+        // Without a session the filter matches nothing, the detail table stays empty
+        PageRequest request = detailSource.getRequest()
+            .where("session", session != null ? session.getSyncSessionId() : "")
+            .where("status", "Tous".equals(statusFilter) ? null : statusFilter)
+            .where("table", "Toutes".equals(tableFilter) ? null : tableFilter);
+        detailSource.setRequest(request);
+    }
 
-        historyTable.setItems(FXCollections.observableArrayList(filtered));
-        statsLabel.setText(String.format("Total: %d logs (affichés: %d)", allLogs.size(), filtered.size()));
+    private void updateDetailStats() {
+        detailStatsLabel.setText(String.format("Affichés: %d logs", detailSource.size()));
     }
 
     /**
-     * Update statistics labels
+     * Update statistics labels for the selected session
      */
-    private void updateStatistics() {
-        long successCount = allLogs.stream().filter(l -> "SUCCESS".equals(l.getStatus())).count();
-        long failedCount = allLogs.stream().filter(l -> "FAILED".equals(l.getStatus())).count();
-        long pullCount = allLogs.stream().filter(l -> "PULL".equals(l.getSyncDirection())).count();
-        long pushCount = allLogs.stream().filter(l -> "PUSH".equals(l.getSyncDirection())).count();
-
-        totalSuccessLabel.setText(String.format("✅ Succès: %d", successCount));
-        totalFailedLabel.setText(String.format("❌ Échecs: %d", failedCount));
-        totalPullLabel.setText(String.format("📥 PULL: %d", pullCount));
-        totalPushLabel.setText(String.format("📤 PUSH: %d", pushCount));
-
-        // Update last sync time
-        if (!allLogs.isEmpty()) {
-            LocalDateTime lastSync = allLogs.get(0).getSyncedAt();
-            lastSyncLabel.setText(lastSync != null ? dateFormatter.format(lastSync) : "Inconnu");
-        } else {
-            lastSyncLabel.setText("Jamais");
+    private void updateStatistics(SyncSession session) {
+        totalSuccessLabel.setText(String.format("✅ Succès: %d", session != null ? session.getSuccessCount() : 0));
+        totalFailedLabel.setText(String.format("❌ Échecs: %d", session != null ? session.getFailedCount() : 0));
+        totalPullLabel.setText(String.format("📥 PULL: %d", session != null ? session.getPullCount() : 0));
+        totalPushLabel.setText(String.format("📤 PUSH: %d", session != null ? session.getPushCount() : 0));
+    }
+
+    private String formatDuration(long durationMs) {
+        if (durationMs < 1000) {
+            return durationMs + " ms";
         }
+        long seconds = durationMs / 1000;
+        return seconds < 60 ? String.format("%.1f s", durationMs / 1000.0)
+                            : String.format("%d min %02d s", seconds / 60, seconds % 60);
     }
 
     @FXML
@@ -219,22 +333,46 @@ public class SyncHistoryController {
 
     @FXML
     private void handleCleanOldLogs() {
+        ConfigManager config = ConfigManager.getInstance();
+        int detailDays = config.getSyncLogRetentionDays();
+
         // Show confirmation dialog
         Alert confirmAlert = new Alert(Alert.AlertType.CONFIRMATION);
         confirmAlert.setTitle("Confirmer le nettoyage");
         confirmAlert.setHeaderText("Nettoyer les anciens logs de synchronisation");
-        confirmAlert.setContentText("Voulez-vous supprimer les logs de plus de 30 jours ?\n\n" +
+        confirmAlert.setContentText("Voulez-vous supprimer le détail des logs de plus de " + detailDays + " jours ?\n" +
+                "Le résumé des sessions est conservé.\n\n" +
                 "Cette opération est irréversible.");
 
         confirmAlert.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
-                try {
-                    syncLogDAO.cleanOldLogs(30);
+                // Chunked deletes over the whole log, kept off the FX thread
+                int summaryDays = config.getSyncSummaryRetentionDays();
+                cleanupLoader.load(() -> syncLogDAO.applyRetention(detailDays, summaryDays), deleted -> {
                     loadHistory();
-                    showInfo("Nettoyage réussi", "Les logs de plus de 30 jours ont été supprimés.");
-                } catch (SQLException e) {
-                    showError("Erreur de nettoyage", "Impossible de nettoyer les logs: " + e.getMessage());
-                }
+                    showInfo("Nettoyage réussi", deleted + " logs de plus de " + detailDays + " jours ont été supprimés.");
+                }, e -> showError("Erreur de nettoyage", "Impossible de nettoyer les logs: " + e.getMessage()));
+            }
+        });
+    }
+
+    @FXML
+    private void handleVerifyIntegrity() {
+        Alert confirmAlert = new Alert(Alert.AlertType.CONFIRMATION);
+        confirmAlert.setTitle("Vérifier l'intégrité");
+        confirmAlert.setHeaderText("Comparer les données locales avec le serveur");
+        confirmAlert.setContentText("Chaque table est comparée avec le serveur. Les lignes différentes sont " +
+                "téléchargées à nouveau ou envoyées à la prochaine synchronisation.\n\nContinuer ?");
+
+        confirmAlert.showAndWait().ifPresent(response -> {
+            if (response == ButtonType.OK) {
+                integrityLoader.load(() -> SyncService.getInstance().verifyIntegrity(true), reports -> {
+                    loadHistory();
+                    int divergences = reports.stream().mapToInt(report -> report.getDivergences().size()).sum();
+                    showInfo("Vérification terminée", divergences == 0
+                        ? "Les données locales sont identiques au serveur."
+                        : divergences + " lignes différaient du serveur et ont été réparées.");
+                }, e -> showError("Erreur de vérification", "Impossible de vérifier l'intégrité: " + e.getMessage()));
             }
         });
     }
@@ -0,0 +1,166 @@
+package com.nasroul.controller;
+
+import com.nasroul.dao.DataChangeBatch;
+import com.nasroul.dao.DataChangeBus;
+import com.nasroul.perf.MetricsRegistry;
+import com.nasroul.perf.ViewLoadEvent;
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps loaded views and their controllers alive across navigation
+ * Views are parsed once. Data changes published on the DataChangeBus update the view on screen
+ * right away; other views watching the changed tables are refreshed when they come back to the front.
+ */
+public class ViewRegistry {
+    private static ViewRegistry instance;
+
+    private final Map<String, CachedView> views = new ConcurrentHashMap<>();
+    // Bumped on every invalidation so a preload racing with a data change is not kept as fresh
+    private final AtomicLong dataVersion = new AtomicLong();
+    private volatile String currentPath;
+
+    private ViewRegistry() {
+        DataChangeBus.getInstance().subscribe(batch -> Platform.runLater(() -> onDataChanged(batch)));
+    }
+
+    public static synchronized ViewRegistry getInstance() {
+        if (instance == null) {
+            instance = new ViewRegistry();
+        }
+        return instance;
+    }
+
+    /**
+     * Get the view for an FXML path, loading it on first use and refreshing it if it was invalidated
+     * Must be called on the FX thread
+     */
+    public Parent show(String fxmlPath) throws IOException {
+        ViewLoadEvent event = new ViewLoadEvent();
+        event.begin();
+        long startNanos = System.nanoTime();
+
+        CachedView view = views.get(fxmlPath);
+        boolean cached = view != null;
+        boolean refreshed = false;
+        if (view == null) {
+            view = load(fxmlPath);
+            CachedView existing = views.putIfAbsent(fxmlPath, view);
+            if (existing != null) {
+                view = existing;
+            }
+        }
+        currentPath = fxmlPath;
+
+        if (view.stale) {
+            view.stale = false;
+            if (view.controller instanceof RefreshableView refreshable) {
+                refreshable.refresh();
+                refreshed = true;
+            }
+        }
+
+        String name = viewName(fxmlPath);
+        MetricsRegistry.getInstance().timer("view.show." + name).record(System.nanoTime() - startNanos);
+        event.end();
+        if (event.shouldCommit()) {
+            event.view = name;
+            event.cached = cached;
+            event.refreshed = refreshed;
+            event.commit();
+        }
+        return view.root;
+    }
+
+    /**
+     * Load the given views on a background thread so the first navigation to them is instant
+     * FXML nodes may be built off the FX thread as long as they are not attached to a scene;
+     * a view that fails to preload is discarded and loaded normally on first use
+     */
+    public void preload(List<String> fxmlPaths) {
+        Thread thread = new Thread(() -> {
+            for (String fxmlPath : fxmlPaths) {
+                if (views.containsKey(fxmlPath)) {
+                    continue;
+                }
+                try {
+                    long version = dataVersion.get();
+                    CachedView view = load(fxmlPath);
+                    view.stale = version != dataVersion.get();
+                    views.putIfAbsent(fxmlPath, view);
+                } catch (Throwable e) {
+                    System.err.println("Failed to preload view " + fxmlPath + ": " + e.getMessage());
+                }
+            }
+        }, "view-preload");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Mark a view as holding outdated data, it is refreshed the next time it is shown
+     */
+    public void invalidate(String fxmlPath) {
+        CachedView view = views.get(fxmlPath);
+        if (view != null) {
+            view.stale = true;
+        }
+    }
+
+    /**
+     * Refresh the view on screen when the batch touches its tables and mark the others as outdated
+     */
+    private void onDataChanged(DataChangeBatch batch) {
+        dataVersion.incrementAndGet();
+
+        for (Map.Entry<String, CachedView> entry : views.entrySet()) {
+            CachedView view = entry.getValue();
+            if (!(view.controller instanceof RefreshableView refreshable)
+                    || !batch.touchesAny(refreshable.getWatchedTables())) {
+                continue;
+            }
+
+            if (entry.getKey().equals(currentPath)) {
+                refreshable.onDataChanged(batch);
+            } else {
+                view.stale = true;
+            }
+        }
+    }
+
+    private static String viewName(String fxmlPath) {
+        String name = fxmlPath.substring(fxmlPath.lastIndexOf('/') + 1);
+        return name.endsWith(".fxml") ? name.substring(0, name.length() - 5) : name;
+    }
+
+    private CachedView load(String fxmlPath) throws IOException {
+        long startNanos = System.nanoTime();
+        URL resource = getClass().getResource(fxmlPath);
+        if (resource == null) {
+            throw new IOException("View not found: " + fxmlPath);
+        }
+        FXMLLoader loader = new FXMLLoader(resource);
+        Parent root = loader.load();
+        MetricsRegistry.getInstance().timer("view.load." + viewName(fxmlPath)).record(System.nanoTime() - startNanos);
+        return new CachedView(root, loader.getController());
+    }
+
+    private static class CachedView {
+        private final Parent root;
+        private final Object controller;
+        private volatile boolean stale;
+
+        private CachedView(Parent root, Object controller) {
+            this.root = root;
+            this.controller = controller;
+        }
+    }
+}
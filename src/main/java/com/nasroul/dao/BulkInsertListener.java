@@ -0,0 +1,18 @@
+package com.nasroul.dao;
+
+/**
+ * Callback for bulk inserts: rows that could not be inserted and progress after each chunk
+ */
+public interface BulkInsertListener<T> {
+
+    /**
+     * Called for each rejected row, index is its position in the list passed to insert
+     */
+    void onFailure(int index, T item, String message);
+
+    /**
+     * Called after each chunk with the number of rows processed so far in the current insert call
+     */
+    default void onProgress(int processed) {
+    }
+}
@@ -0,0 +1,209 @@
+package com.nasroul.dao;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Inserts many rows inside a single transaction using JDBC batches
+ *
+ * Rows are sent in chunks, each under a savepoint. When a chunk fails it is rolled back to its
+ * savepoint and replayed row by row, each row under its own savepoint, so one bad row is reported
+ * without aborting the others. Nothing is visible to other connections until commit.
+ */
+public class BulkInsertSession<T> implements AutoCloseable {
+
+    public static final int CHUNK_SIZE = 500;
+
+    /**
+     * Binds one row to the INSERT statement parameters
+     */
+    @FunctionalInterface
+    interface RowBinder<T> {
+        void bind(PreparedStatement pstmt, T item) throws SQLException;
+    }
+
+    /**
+     * Assigns the generated id to an inserted row, null to a row that was not inserted
+     */
+    @FunctionalInterface
+    interface IdSetter<T> {
+        void setId(T item, Integer id);
+    }
+
+    /**
+     * Returns an error message when a row must be rejected before insert, null otherwise
+     */
+    @FunctionalInterface
+    interface RowValidator<T> {
+        String validate(T item);
+    }
+
+    /**
+     * Writes dependent rows (e.g. member_groups) for rows that just got their id
+     */
+    @FunctionalInterface
+    interface ChildWriter<T> {
+        void write(Connection conn, List<T> inserted) throws SQLException;
+    }
+
+    private final Connection conn;
+    private final String table;
+    private final PreparedStatement insertStmt;
+    private final PreparedStatement lastIdStmt;
+    private final RowBinder<T> binder;
+    private final IdSetter<T> idSetter;
+    private RowValidator<T> validator;
+    private ChildWriter<T> childWriter;
+    private boolean committed;
+    private int insertedCount;
+
+    BulkInsertSession(Connection conn, String table, String insertSql, RowBinder<T> binder, IdSetter<T> idSetter) throws SQLException {
+        this.conn = conn;
+        this.table = table;
+        this.binder = binder;
+        this.idSetter = idSetter;
+        conn.setAutoCommit(false);
+        this.insertStmt = conn.prepareStatement(insertSql);
+        this.lastIdStmt = conn.prepareStatement("SELECT last_insert_rowid()");
+    }
+
+    BulkInsertSession<T> withValidator(RowValidator<T> validator) {
+        this.validator = validator;
+        return this;
+    }
+
+    BulkInsertSession<T> withChildWriter(ChildWriter<T> childWriter) {
+        this.childWriter = childWriter;
+        return this;
+    }
+
+    /**
+     * Insert the rows in chunks and return how many were inserted
+     */
+    public int insert(List<T> items, BulkInsertListener<T> listener) throws SQLException {
+        int inserted = 0;
+
+        List<T> chunk = new ArrayList<>(CHUNK_SIZE);
+        List<Integer> chunkIndexes = new ArrayList<>(CHUNK_SIZE);
+
+        for (int i = 0; i < items.size(); i++) {
+            T item = items.get(i);
+            String error = validator != null ? validator.validate(item) : null;
+            if (error != null) {
+                listener.onFailure(i, item, error);
+            } else {
+                chunk.add(item);
+                chunkIndexes.add(i);
+            }
+
+            if (chunk.size() >= CHUNK_SIZE || i == items.size() - 1) {
+                inserted += insertChunk(chunk, chunkIndexes, listener);
+                listener.onProgress(i + 1);
+                chunk.clear();
+                chunkIndexes.clear();
+            }
+        }
+
+        insertedCount += inserted;
+        return inserted;
+    }
+
+    /**
+     * Commit every inserted row, subscribers get a single table-wide change event
+     */
+    public void commit() throws SQLException {
+        conn.commit();
+        committed = true;
+
+        if (insertedCount > 0) {
+            DataChangeBus.getInstance().publish(table, null, DataChangeEvent.Operation.INSERT, DataChangeEvent.Source.IMPORT);
+        }
+    }
+
+    /**
+     * Roll back anything not committed and release the connection
+     */
+    @Override
+    public void close() throws SQLException {
+        try {
+            if (!committed) {
+                conn.rollback();
+            }
+        } finally {
+            try {
+                insertStmt.close();
+                lastIdStmt.close();
+            } finally {
+                conn.close();
+            }
+        }
+    }
+
+    private int insertChunk(List<T> chunk, List<Integer> indexes, BulkInsertListener<T> listener) throws SQLException {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+
+        Savepoint savepoint = conn.setSavepoint();
+        try {
+            for (T item : chunk) {
+                binder.bind(insertStmt, item);
+                insertStmt.addBatch();
+            }
+            insertStmt.executeBatch();
+
+            // The write transaction holds the database lock, so the chunk got a contiguous rowid range
+            int lastId = lastInsertId();
+            int firstId = lastId - chunk.size() + 1;
+            for (int i = 0; i < chunk.size(); i++) {
+                idSetter.setId(chunk.get(i), firstId + i);
+            }
+
+            if (childWriter != null) {
+                childWriter.write(conn, chunk);
+            }
+
+            conn.releaseSavepoint(savepoint);
+            return chunk.size();
+        } catch (SQLException e) {
+            insertStmt.clearBatch();
+            conn.rollback(savepoint);
+            return insertRowByRow(chunk, indexes, listener);
+        }
+    }
+
+    private int insertRowByRow(List<T> chunk, List<Integer> indexes, BulkInsertListener<T> listener) throws SQLException {
+        int inserted = 0;
+
+        for (int i = 0; i < chunk.size(); i++) {
+            T item = chunk.get(i);
+            Savepoint savepoint = conn.setSavepoint();
+            try {
+                binder.bind(insertStmt, item);
+                insertStmt.executeUpdate();
+                idSetter.setId(item, lastInsertId());
+
+                if (childWriter != null) {
+                    childWriter.write(conn, List.of(item));
+                }
+
+                conn.releaseSavepoint(savepoint);
+                inserted++;
+            } catch (SQLException e) {
+                conn.rollback(savepoint);
+                // Drop the id the rolled back chunk attempt assigned, the row does not exist
+                idSetter.setId(item, null);
+                listener.onFailure(indexes.get(i), item, e.getMessage());
+            }
+        }
+
+        return inserted;
+    }
+
+    private int lastInsertId() throws SQLException {
+        try (ResultSet rs = lastIdStmt.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
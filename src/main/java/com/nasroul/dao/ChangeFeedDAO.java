@@ -0,0 +1,240 @@
+package com.nasroul.dao;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DAO for the MySQL change_feed table and the local feed cursor
+ *
+ * Every push appends (seq, table, remote id, version, origin device) to change_feed in the same
+ * transaction as the row it wrote. A device pulls the feed entries after the last seq it has seen,
+ * skipping its own, and only reads the rows they point to. The cursor is kept in SQLite
+ * (sync_feed_cursor).
+ */
+public class ChangeFeedDAO {
+    private static final String CURSOR_NAME = "mysql";
+
+    private final DatabaseManager dbManager;
+
+    public ChangeFeedDAO() {
+        this.dbManager = DatabaseManager.getInstance();
+    }
+
+    /**
+     * Append a feed entry on the connection that wrote the row, so both commit together
+     */
+    public void append(Connection mysqlConn, String tableName, int remoteId, int syncVersion,
+                       String operation, String originDevice) throws SQLException {
+        String sql = """
+            INSERT INTO change_feed
+            (table_name, remote_id, sync_version, operation, origin_device, changed_at)
+            VALUES (?, ?, ?, ?, ?, NOW())
+            """;
+
+        try (PreparedStatement pstmt = mysqlConn.prepareStatement(sql)) {
+            pstmt.setString(1, tableName);
+            pstmt.setInt(2, remoteId);
+            pstmt.setInt(3, syncVersion);
+            pstmt.setString(4, operation);
+            pstmt.setString(5, originDevice);
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Highest seq with no entry possibly still uncommitted at or below it, 0 when empty
+     *
+     * Seqs are taken when a push inserts its entry but become visible when it commits, so a
+     * reader can see seq n+1 before seq n. A missing seq is only taken as rolled back once an
+     * entry after it is older than settleSeconds; until then the head stops before the gap, and
+     * a cursor saved at the head never skips an entry that commits later.
+     */
+    public long getSettledHead(int settleSeconds) throws SQLException {
+        // Gaps below an entry written settleSeconds ago are past any push still running
+        String settledSql = "SELECT COALESCE(MAX(seq), 0) FROM change_feed WHERE changed_at < TIMESTAMPADD(SECOND, ?, NOW())";
+        String recentSql = "SELECT seq FROM change_feed WHERE seq > ? ORDER BY seq";
+
+        try (Connection conn = dbManager.getMySQLConnection()) {
+            long head;
+            try (PreparedStatement pstmt = conn.prepareStatement(settledSql)) {
+                pstmt.setInt(1, -settleSeconds);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    head = rs.next() ? rs.getLong(1) : 0;
+                }
+            }
+
+            // Newer entries count while their seqs follow each other
+            try (PreparedStatement pstmt = conn.prepareStatement(recentSql)) {
+                pstmt.setLong(1, head);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next() && rs.getLong(1) == head + 1) {
+                        head++;
+                    }
+                }
+            }
+            return head;
+        }
+    }
+
+    /**
+     * Entries in (afterSeq, upToSeq] written by other devices, grouped by table
+     * Several entries for the same row are coalesced into the latest one
+     */
+    public Map<String, List<FeedEntry>> readSince(long afterSeq, long upToSeq, String excludedDevice) throws SQLException {
+        Map<String, Map<Integer, FeedEntry>> byTable = new LinkedHashMap<>();
+        String sql = """
+            SELECT seq, table_name, remote_id, sync_version, operation, origin_device
+            FROM change_feed
+            WHERE seq > ? AND seq <= ? AND origin_device <> ?
+            ORDER BY seq
+            """;
+
+        try (Connection conn = dbManager.getMySQLConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setLong(1, afterSeq);
+            pstmt.setLong(2, upToSeq);
+            pstmt.setString(3, excludedDevice);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    FeedEntry entry = new FeedEntry(
+                        rs.getLong("seq"),
+                        rs.getString("table_name"),
+                        rs.getInt("remote_id"),
+                        rs.getInt("sync_version"),
+                        rs.getString("operation"),
+                        rs.getString("origin_device"));
+                    byTable.computeIfAbsent(entry.getTableName(), t -> new LinkedHashMap<>())
+                           .put(entry.getRemoteId(), entry);
+                }
+            }
+        }
+
+        Map<String, List<FeedEntry>> result = new LinkedHashMap<>();
+        byTable.forEach((table, entries) -> result.put(table, new ArrayList<>(entries.values())));
+        return result;
+    }
+
+    /**
+     * Delete feed entries older than the given number of days
+     * Devices that have not pulled for longer fall back to a full pull (see FeedCursor.isExpired)
+     */
+    public int prune(int daysToKeep) throws SQLException {
+        String sql = "DELETE FROM change_feed WHERE changed_at < TIMESTAMPADD(DAY, ?, NOW())";
+
+        try (Connection conn = dbManager.getMySQLConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, -daysToKeep);
+            return pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Last feed seq this device has applied, null before the first full pull
+     */
+    public FeedCursor getCursor() throws SQLException {
+        String sql = "SELECT last_seq, updated_at FROM sync_feed_cursor WHERE name = ?";
+
+        try (Connection conn = dbManager.getSQLiteConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, CURSOR_NAME);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    String updatedAt = rs.getString("updated_at");
+                    return new FeedCursor(rs.getLong("last_seq"),
+                        updatedAt != null ? LocalDateTime.parse(updatedAt.replace(" ", "T")) : null);
+                }
+            }
+        }
+
+        return null;
+    }
+
+    public void saveCursor(long lastSeq) throws SQLException {
+        String sql = """
+            INSERT INTO sync_feed_cursor (name, last_seq, updated_at)
+            VALUES (?, ?, datetime('now'))
+            ON CONFLICT(name) DO UPDATE SET last_seq = excluded.last_seq, updated_at = excluded.updated_at
+            """;
+
+        try (Connection conn = dbManager.getSQLiteConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, CURSOR_NAME);
+            pstmt.setLong(2, lastSeq);
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Forget the cursor, the next sync does a full pull
+     */
+    public void resetCursor() throws SQLException {
+        try (Connection conn = dbManager.getSQLiteConnection();
+             PreparedStatement pstmt = conn.prepareStatement("DELETE FROM sync_feed_cursor WHERE name = ?")) {
+            pstmt.setString(1, CURSOR_NAME);
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Inner class representing the position of this device in the feed
+     */
+    public static class FeedCursor {
+        private final long lastSeq;
+        private final LocalDateTime updatedAt;
+
+        private FeedCursor(long lastSeq, LocalDateTime updatedAt) {
+            this.lastSeq = lastSeq;
+            this.updatedAt = updatedAt;
+        }
+
+        public long getLastSeq() { return lastSeq; }
+        public LocalDateTime getUpdatedAt() { return updatedAt; }
+
+        /**
+         * True when entries after the cursor may already have been pruned from the feed
+         * updated_at is UTC (SQLite datetime('now'))
+         */
+        public boolean isExpired(int feedRetentionDays) {
+            return updatedAt == null
+                || updatedAt.isBefore(LocalDateTime.now(ZoneOffset.UTC).minusDays(feedRetentionDays - 1L));
+        }
+    }
+
+    /**
+     * Inner class representing one change published by a device
+     */
+    public static class FeedEntry {
+        private final long seq;
+        private final String tableName;
+        private final int remoteId;
+        private final int syncVersion;
+        private final String operation;
+        private final String originDevice;
+
+        private FeedEntry(long seq, String tableName, int remoteId, int syncVersion,
+                          String operation, String originDevice) {
+            this.seq = seq;
+            this.tableName = tableName;
+            this.remoteId = remoteId;
+            this.syncVersion = syncVersion;
+            this.operation = operation;
+            this.originDevice = originDevice;
+        }
+
+        public long getSeq() { return seq; }
+        public String getTableName() { return tableName; }
+        public int getRemoteId() { return remoteId; }
+        public int getSyncVersion() { return syncVersion; }
+        public String getOperation() { return operation; }
+        public String getOriginDevice() { return originDevice; }
+    }
+}
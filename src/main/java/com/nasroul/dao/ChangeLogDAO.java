@@ -0,0 +1,225 @@
+package com.nasroul.dao;
+
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteConnection;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DAO for the change_log table
+ *
+ * Triggers on the syncable tables append (seq, table, id, operation) for every local write,
+ * whatever code made it. Push reads the log instead of scanning the tables, and deletes the
+ * entries it has sent. Writes made by the sync engine itself go through applyWithoutCapture
+ * so pulled changes are not pushed back.
+ */
+public class ChangeLogDAO {
+    private static final int ACK_BATCH = 500;
+
+    private final DatabaseManager dbManager;
+
+    @FunctionalInterface
+    public interface LocalWrite<T> {
+        T apply(Connection conn) throws SQLException;
+    }
+
+    public ChangeLogDAO() {
+        this.dbManager = DatabaseManager.getInstance();
+    }
+
+    /**
+     * Pending changes of one table, one entry per row in order of its first change
+     * Repeated edits of a row are coalesced: INSERT then UPDATE stays INSERT, any DELETE wins
+     */
+    public List<Change> getPendingChanges(String tableName) throws SQLException {
+        Map<Integer, Change> changes = new LinkedHashMap<>();
+        String sql = "SELECT seq, record_id, operation FROM change_log WHERE table_name = ? ORDER BY seq";
+
+        try (Connection conn = dbManager.getSQLiteConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, tableName);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    long seq = rs.getLong("seq");
+                    int recordId = rs.getInt("record_id");
+                    String operation = rs.getString("operation");
+
+                    Change change = changes.get(recordId);
+                    if (change == null) {
+                        changes.put(recordId, new Change(tableName, recordId, operation, seq));
+                    } else {
+                        change.merge(operation, seq);
+                    }
+                }
+            }
+        }
+
+        return new ArrayList<>(changes.values());
+    }
+
+    /**
+     * Number of changes waiting to be pushed, all tables together
+     */
+    public int countPending() throws SQLException {
+        try (Connection conn = dbManager.getSQLiteConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM change_log")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Number of rows waiting to be pushed per table (repeated edits of a row count once)
+     */
+    public Map<String, Integer> countPendingRowsByTable() throws SQLException {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        String sql = "SELECT table_name, COUNT(DISTINCT record_id) FROM change_log GROUP BY table_name";
+
+        try (Connection conn = dbManager.getSQLiteConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                counts.put(rs.getString(1), rs.getInt(2));
+            }
+        }
+
+        return counts;
+    }
+
+    /**
+     * Delete the log entries covered by pushed changes
+     * Entries written after the change was read (higher seq) are kept for the next push
+     */
+    public void acknowledge(List<Change> changes) throws SQLException {
+        if (changes.isEmpty()) {
+            return;
+        }
+        String sql = "DELETE FROM change_log WHERE table_name = ? AND record_id = ? AND seq <= ?";
+
+        try (Connection conn = dbManager.getSQLiteConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                int batched = 0;
+                for (Change change : changes) {
+                    pstmt.setString(1, change.getTableName());
+                    pstmt.setInt(2, change.getRecordId());
+                    pstmt.setLong(3, change.getLastSeq());
+                    pstmt.addBatch();
+                    if (++batched % ACK_BATCH == 0) {
+                        pstmt.executeBatch();
+                    }
+                }
+                pstmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Queue rows for the next push as if they had been edited locally
+     * Used to repair rows that MySQL is missing or has an older version of
+     */
+    public void enqueue(String tableName, List<Integer> recordIds, String operation) throws SQLException {
+        String sql = "INSERT INTO change_log (table_name, record_id, operation) VALUES (?, ?, ?)";
+
+        try (Connection conn = dbManager.getSQLiteConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (Integer recordId : recordIds) {
+                    pstmt.setString(1, tableName);
+                    pstmt.setInt(2, recordId);
+                    pstmt.setString(3, operation);
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Run a local write that must not be pushed back (pulled rows, sync status updates)
+     *
+     * The write and the removal of the log entries its triggers added commit together.
+     * The transaction takes the write lock up front, and SQLite allows one writer at a time,
+     * so every entry above the starting seq belongs to this write.
+     */
+    public <T> T applyWithoutCapture(LocalWrite<T> write) throws SQLException {
+        try (Connection conn = dbManager.getSQLiteConnection()) {
+            conn.unwrap(SQLiteConnection.class).getConnectionConfig().setTransactionMode(SQLiteConfig.TransactionMode.IMMEDIATE);
+            conn.setAutoCommit(false);
+            try {
+                long startSeq;
+                try (Statement stmt = conn.createStatement();
+                     ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(seq), 0) FROM change_log")) {
+                    startSeq = rs.next() ? rs.getLong(1) : 0;
+                }
+
+                T result = write.apply(conn);
+
+                try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM change_log WHERE seq > ?")) {
+                    pstmt.setLong(1, startSeq);
+                    pstmt.executeUpdate();
+                }
+                conn.commit();
+                return result;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Inner class representing the coalesced pending change of one row
+     */
+    public static class Change {
+        private final String tableName;
+        private final int recordId;
+        private String operation;
+        private final long firstSeq;
+        private long lastSeq;
+        private int edits;
+
+        private Change(String tableName, int recordId, String operation, long seq) {
+            this.tableName = tableName;
+            this.recordId = recordId;
+            this.operation = operation;
+            this.firstSeq = seq;
+            this.lastSeq = seq;
+            this.edits = 1;
+        }
+
+        private void merge(String nextOperation, long seq) {
+            if ("DELETE".equals(nextOperation) || !"INSERT".equals(operation)) {
+                operation = nextOperation;
+            }
+            lastSeq = seq;
+            edits++;
+        }
+
+        public String getTableName() { return tableName; }
+        public int getRecordId() { return recordId; }
+        public String getOperation() { return operation; }
+        public long getFirstSeq() { return firstSeq; }
+        public long getLastSeq() { return lastSeq; }
+        public int getEdits() { return edits; }
+
+        @Override
+        public String toString() {
+            return operation + " " + tableName + "#" + recordId + " (" + edits + " edits)";
+        }
+    }
+}
@@ -5,13 +5,51 @@ import com.nasroul.model.Contribution;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public class ContributionDAO {
     private final DatabaseManager dbManager;
+    private final KeysetQuery<Contribution> pageQuery;
 
     public ContributionDAO() {
         this.dbManager = DatabaseManager.getInstance();
+        this.pageQuery = new KeysetQuery<>("""
+            SELECT c.*,
+                   m.first_name || ' ' || m.last_name AS member_name,
+                   COALESCE(ev.name, pr.name) AS entity_name
+            FROM contributions c
+            LEFT JOIN members m ON c.member_id = m.id AND m.deleted_at IS NULL
+            LEFT JOIN events ev ON c.entity_type = 'EVENT' AND c.entity_id = ev.id AND ev.deleted_at IS NULL
+            LEFT JOIN projects pr ON c.entity_type = 'PROJECT' AND c.entity_id = pr.id AND pr.deleted_at IS NULL
+            """, "c.deleted_at IS NULL", new KeysetQuery.Column("c.id", "id"), "date", false, this::extractContribution)
+            .sortKey("date", new KeysetQuery.Column("c.date", "date"))
+            .sortKey("amount", new KeysetQuery.Column("c.amount", "amount"))
+            .searchOn("m.first_name || ' ' || m.last_name")
+            .searchOn("ev.name")
+            .searchOn("pr.name")
+            .countUnfilteredFrom("FROM contributions c");
+    }
+
+    /**
+     * Read one page of contributions with keyset pagination
+     * Sorted by date (default, newest first) or amount; search matches member and event/project names
+     */
+    public Page<Contribution> findPage(PageRequest request) throws SQLException {
+        try (Connection conn = dbManager.getConnection()) {
+            return pageQuery.fetch(conn, request);
+        }
+    }
+
+    /**
+     * Number of rows matching the request filter, used to size paged views
+     */
+    public int count(PageRequest request) throws SQLException {
+        try (Connection conn = dbManager.getConnection()) {
+            return pageQuery.count(conn, request);
+        }
     }
 
     public void create(Contribution contribution) throws SQLException {
@@ -44,6 +82,8 @@ public class ContributionDAO {
                 }
             }
         }
+
+        DataChangeBus.getInstance().publish("contributions", contribution.getId(), DataChangeEvent.Operation.INSERT, DataChangeEvent.Source.UI);
     }
 
     public List<Contribution> findByMember(int memberId) throws SQLException {
@@ -184,6 +224,8 @@ public class ContributionDAO {
 
             pstmt.executeUpdate();
         }
+
+        DataChangeBus.getInstance().publish("contributions", contribution.getId(), DataChangeEvent.Operation.UPDATE, DataChangeEvent.Source.UI);
     }
 
     public void delete(int id) throws SQLException {
@@ -200,6 +242,8 @@ public class ContributionDAO {
             pstmt.setInt(1, id);
             pstmt.executeUpdate();
         }
+
+        DataChangeBus.getInstance().publish("contributions", id, DataChangeEvent.Operation.DELETE, DataChangeEvent.Source.UI);
     }
 
     public Double getTotalByEntity(String entityType, int entityId) throws SQLException {
@@ -224,7 +268,60 @@ public class ContributionDAO {
         return 0.0;
     }
 
-    private Contribution extractContribution(ResultSet rs) throws SQLException {
+    /**
+     * Paid total of every entity of the given type in one query, keyed by entity id
+     * Entities without paid contributions are absent from the map
+     */
+    public Map<Integer, Double> getTotalsByEntityType(String entityType) throws SQLException {
+        Map<Integer, Double> totals = new HashMap<>();
+        String sql = """
+            SELECT entity_id, SUM(amount)
+            FROM contributions
+            WHERE entity_type = ? AND status = 'PAID' AND deleted_at IS NULL
+            GROUP BY entity_id
+            """;
+
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, entityType);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    totals.put(rs.getInt(1), rs.getDouble(2));
+                }
+            }
+        }
+
+        return totals;
+    }
+
+    /**
+     * Stream all contributions to the consumer with a forward-only cursor (used by Excel export)
+     */
+    public void forEach(Consumer<Contribution> consumer) throws SQLException {
+        String sql = """
+            SELECT c.*,
+                   m.first_name || ' ' || m.last_name AS member_name,
+                   COALESCE(ev.name, pr.name) AS entity_name
+            FROM contributions c
+            LEFT JOIN members m ON c.member_id = m.id AND m.deleted_at IS NULL
+            LEFT JOIN events ev ON c.entity_type = 'EVENT' AND c.entity_id = ev.id AND ev.deleted_at IS NULL
+            LEFT JOIN projects pr ON c.entity_type = 'PROJECT' AND c.entity_id = pr.id AND pr.deleted_at IS NULL
+            WHERE c.deleted_at IS NULL
+            ORDER BY c.date DESC
+            """;
+
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+             ResultSet rs = pstmt.executeQuery()) {
+
+            while (rs.next()) {
+                consumer.accept(extractContribution(rs));
+            }
+        }
+    }
+
+    Contribution extractContribution(ResultSet rs) throws SQLException {
         Contribution contribution = new Contribution();
         contribution.setId(rs.getInt("id"));
         contribution.setMemberId(rs.getInt("member_id"));
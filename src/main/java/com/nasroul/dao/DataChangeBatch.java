@@ -0,0 +1,92 @@
+package com.nasroul.dao;
+
+import java.util.*;
+
+/**
+ * Changes coalesced by the DataChangeBus over one delivery window
+ * At most one event is kept per row, and a table-wide event replaces the row events of its table
+ */
+public class DataChangeBatch {
+
+    private final Map<String, Map<Integer, DataChangeEvent>> rowEvents = new LinkedHashMap<>();
+    private final Map<String, DataChangeEvent> tableEvents = new LinkedHashMap<>();
+
+    void add(DataChangeEvent event) {
+        String table = event.getTable();
+
+        if (event.isTableWide()) {
+            tableEvents.put(table, event);
+            rowEvents.remove(table);
+            return;
+        }
+        if (tableEvents.containsKey(table)) {
+            return;
+        }
+
+        Map<Integer, DataChangeEvent> events = rowEvents.computeIfAbsent(table, t -> new LinkedHashMap<>());
+        DataChangeEvent previous = events.get(event.getId());
+        if (previous != null && previous.getOperation() == DataChangeEvent.Operation.INSERT
+                && event.getOperation() == DataChangeEvent.Operation.UPDATE) {
+            // Still an insert for whoever has not seen the row yet
+            event = new DataChangeEvent(table, event.getId(), DataChangeEvent.Operation.INSERT, event.getSource());
+        }
+        events.put(event.getId(), event);
+    }
+
+    public boolean isEmpty() {
+        return rowEvents.isEmpty() && tableEvents.isEmpty();
+    }
+
+    /**
+     * Names of all tables touched by the batch
+     */
+    public Set<String> getTables() {
+        Set<String> tables = new LinkedHashSet<>(tableEvents.keySet());
+        tables.addAll(rowEvents.keySet());
+        return tables;
+    }
+
+    public boolean touches(String table) {
+        return tableEvents.containsKey(table) || rowEvents.containsKey(table);
+    }
+
+    public boolean touchesAny(Collection<String> tables) {
+        for (String table : tables) {
+            if (touches(table)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * True when the whole table changed and row-level handling is not possible
+     */
+    public boolean isTableWide(String table) {
+        return tableEvents.containsKey(table);
+    }
+
+    /**
+     * Row events of a table, empty when the table was not touched or changed as a whole
+     */
+    public Collection<DataChangeEvent> getRowEvents(String table) {
+        Map<Integer, DataChangeEvent> events = rowEvents.get(table);
+        return events != null ? Collections.unmodifiableCollection(events.values()) : List.of();
+    }
+
+    /**
+     * Every event of the batch, table-wide events first
+     */
+    public List<DataChangeEvent> getEvents() {
+        List<DataChangeEvent> events = new ArrayList<>(tableEvents.values());
+        for (Map<Integer, DataChangeEvent> tableRows : rowEvents.values()) {
+            events.addAll(tableRows.values());
+        }
+        return events;
+    }
+
+    @Override
+    public String toString() {
+        return getEvents().toString();
+    }
+}
@@ -0,0 +1,82 @@
+package com.nasroul.dao;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * In-process bus for committed data changes
+ *
+ * DAOs and the sync engine publish one event per changed row. Events are coalesced for
+ * COALESCE_WINDOW_MS and delivered as a single DataChangeBatch, so a dialog save or a sync
+ * pulling hundreds of rows wakes each subscriber once. Listeners run on the bus thread
+ * and must hand UI work to the FX thread themselves.
+ */
+public class DataChangeBus {
+    public static final long COALESCE_WINDOW_MS = 150;
+
+    private static DataChangeBus instance;
+
+    private final CopyOnWriteArrayList<Consumer<DataChangeBatch>> listeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService scheduler;
+    private final Object lock = new Object();
+    private DataChangeBatch pending;
+
+    private DataChangeBus() {
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "data-change-bus");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static synchronized DataChangeBus getInstance() {
+        if (instance == null) {
+            instance = new DataChangeBus();
+        }
+        return instance;
+    }
+
+    /**
+     * Register a listener, the returned handle unregisters it
+     */
+    public Runnable subscribe(Consumer<DataChangeBatch> listener) {
+        listeners.add(listener);
+        return () -> listeners.remove(listener);
+    }
+
+    public void publish(DataChangeEvent event) {
+        synchronized (lock) {
+            if (pending == null) {
+                pending = new DataChangeBatch();
+                scheduler.schedule(this::flush, COALESCE_WINDOW_MS, TimeUnit.MILLISECONDS);
+            }
+            pending.add(event);
+        }
+    }
+
+    public void publish(String table, Integer id, DataChangeEvent.Operation operation, DataChangeEvent.Source source) {
+        publish(new DataChangeEvent(table, id, operation, source));
+    }
+
+    private void flush() {
+        DataChangeBatch batch;
+        synchronized (lock) {
+            batch = pending;
+            pending = null;
+        }
+        if (batch == null || batch.isEmpty()) {
+            return;
+        }
+
+        for (Consumer<DataChangeBatch> listener : listeners) {
+            try {
+                listener.accept(batch);
+            } catch (Exception e) {
+                System.err.println("Data change listener failed: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.nasroul.dao;
+
+import java.util.Objects;
+
+/**
+ * A committed change to one row, or to a whole table when the id is null (bulk import, full reload)
+ */
+public class DataChangeEvent {
+
+    public enum Operation {
+        INSERT,
+        UPDATE,
+        DELETE
+    }
+
+    public enum Source {
+        UI,
+        SYNC,
+        IMPORT
+    }
+
+    private final String table;
+    private final Integer id;
+    private final Operation operation;
+    private final Source source;
+
+    public DataChangeEvent(String table, Integer id, Operation operation, Source source) {
+        this.table = Objects.requireNonNull(table, "table");
+        this.id = id;
+        this.operation = Objects.requireNonNull(operation, "operation");
+        this.source = Objects.requireNonNull(source, "source");
+    }
+
+    public String getTable() { return table; }
+    public Integer getId() { return id; }
+    public Operation getOperation() { return operation; }
+    public Source getSource() { return source; }
+
+    /**
+     * True when the event covers the whole table rather than a single row
+     */
+    public boolean isTableWide() {
+        return id == null;
+    }
+
+    @Override
+    public String toString() {
+        return operation + " " + table + (id != null ? "#" + id : "") + " (" + source + ")";
+    }
+}
@@ -1,9 +1,11 @@
 package com.nasroul.dao;
 
+import com.nasroul.perf.QueryMonitor;
 import com.nasroul.util.ConfigManager;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 
@@ -11,11 +13,17 @@ public class DatabaseManager {
     private static DatabaseManager instance;
     private final ConfigManager config;
     private final String dbType;
+    private final boolean queryMonitorEnabled;
+    private final SQLiteConnectionPool sqlitePool;
     private String connectionError = null;
+    private volatile boolean remoteInitialized = false;
 
     private DatabaseManager() {
         config = ConfigManager.getInstance();
         dbType = config.getDbType();
+        queryMonitorEnabled = config.isQueryMonitorEnabled();
+        sqlitePool = new SQLiteConnectionPool("jdbc:sqlite:" + config.getSQLitePath(),
+            config.getSQLitePoolSize(), config.getSQLiteStatementCacheSize());
         System.out.println("Database type: " + dbType);
         initializeDatabase();
     }
@@ -27,6 +35,17 @@ public class DatabaseManager {
         return instance;
     }
 
+    /**
+     * Drop the current instance; the next getInstance() opens and initializes the configured databases again
+     * Lets a benchmark switch between local databases (devices) in one process
+     */
+    public static synchronized void reset() {
+        if (instance != null) {
+            instance.sqlitePool.close();
+        }
+        instance = null;
+    }
+
     /**
      * Get connection - ALWAYS returns SQLite for offline-first architecture
      * MySQL is ONLY used by SyncManager via getMySQLConnection()
@@ -38,20 +57,12 @@ public class DatabaseManager {
 
     /**
      * Get SQLite connection (local, primary database)
+     * Taken from the pool: closing it keeps the connection and its prepared statements for the next call
      */
     public Connection getSQLiteConnection() throws SQLException {
-        Connection conn = DriverManager.getConnection("jdbc:sqlite:" + config.getSQLitePath());
-
-        // Enable WAL mode for better concurrency (allows simultaneous reads and one write)
-        try (Statement stmt = conn.createStatement()) {
-            stmt.execute("PRAGMA journal_mode=WAL");
-            // Set busy timeout to 30 seconds to handle locks
-            stmt.execute("PRAGMA busy_timeout=30000");
-        } catch (SQLException e) {
-            System.err.println("Failed to set SQLite pragmas: " + e.getMessage());
-        }
-
-        return conn;
+        long startNanos = System.nanoTime();
+        Connection conn = sqlitePool.borrow();
+        return queryMonitorEnabled ? QueryMonitor.wrap(conn, "sqlite", System.nanoTime() - startNanos) : conn;
     }
 
     /**
@@ -59,11 +70,14 @@ public class DatabaseManager {
      * Used ONLY by SyncManager for synchronization
      */
     public Connection getMySQLConnection() throws SQLException {
-        return DriverManager.getConnection(
+        long startNanos = System.nanoTime();
+        // Metered so sync progress can report round trips and bytes
+        Connection conn = RemoteTrafficMeter.wrap(DriverManager.getConnection(
             config.getMySQLConnectionUrl(),
             config.getMySQLUsername(),
             config.getMySQLPassword()
-        );
+        ));
+        return queryMonitorEnabled ? QueryMonitor.wrap(conn, "mysql", System.nanoTime() - startNanos) : conn;
     }
 
     /**
@@ -85,6 +99,13 @@ public class DatabaseManager {
         return connectionError;
     }
 
+    /**
+     * True once initializeRemote() has reached MySQL and prepared its schema
+     */
+    public boolean isRemoteInitialized() {
+        return remoteInitialized;
+    }
+
     private void initializeDatabase() {
         try (Connection conn = getSQLiteConnection();
              Statement stmt = conn.createStatement()) {
@@ -99,25 +120,15 @@ public class DatabaseManager {
             // MIGRATION: Add remote_id column to sync_metadata
             migrateRemoteIdColumn(stmt);
 
+            // Indexes for hot read paths (recipient segmentation, balances, paged lists)
+            createIndexesSQLite(stmt);
+
+            // Change capture for PUSH (change_log + triggers)
+            createChangeCaptureSQLite(stmt);
+
             System.out.println("SQLite database initialized successfully (offline-first)");
             connectionError = null;
 
-            // Also initialize MySQL if available (for sync)
-            if (isMySQLAvailable()) {
-                try (Connection mysqlConn = getMySQLConnection();
-                     Statement mysqlStmt = mysqlConn.createStatement()) {
-                    createTablesMySQL(mysqlStmt);
-                    createSyncTablesMySQL(mysqlStmt);
-                    migrateSyncColumnsMySQL(mysqlStmt);
-                    migrateRemoteIdColumnMySQL(mysqlStmt);
-                    System.out.println("MySQL database also initialized (for sync)");
-                } catch (SQLException e) {
-                    System.out.println("MySQL not available (offline mode): " + e.getMessage());
-                }
-            } else {
-                System.out.println("MySQL not configured - running in offline mode only");
-            }
-
         } catch (SQLException e) {
             connectionError = buildDetailedErrorMessage(e);
             System.err.println("SQLite database initialization failed: " + connectionError);
@@ -125,6 +136,37 @@ public class DatabaseManager {
         }
     }
 
+    /**
+     * Probe MySQL and create/migrate the remote schema (sync target)
+     * Kept out of the constructor so an unreachable server never delays startup;
+     * returns immediately once the remote schema has been initialized
+     */
+    public synchronized boolean initializeRemote() {
+        if (remoteInitialized) {
+            return true;
+        }
+
+        if (!isMySQLAvailable()) {
+            System.out.println("MySQL not configured - running in offline mode only");
+            return false;
+        }
+
+        try (Connection mysqlConn = getMySQLConnection();
+             Statement mysqlStmt = mysqlConn.createStatement()) {
+            createTablesMySQL(mysqlStmt);
+            createSyncTablesMySQL(mysqlStmt);
+            migrateSyncColumnsMySQL(mysqlStmt);
+            migrateRemoteIdColumnMySQL(mysqlStmt);
+            createIndexesMySQL(mysqlStmt);
+            remoteInitialized = true;
+            System.out.println("MySQL database also initialized (for sync)");
+        } catch (SQLException e) {
+            System.out.println("MySQL not available (offline mode): " + e.getMessage());
+        }
+
+        return remoteInitialized;
+    }
+
     /**
      * Build a detailed error message for database connection issues
      */
@@ -410,6 +452,20 @@ public class DatabaseManager {
             )
         """);
 
+        // Changes published by each device on push, pulled incrementally by the others
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS change_feed (
+                seq BIGINT PRIMARY KEY AUTO_INCREMENT,
+                table_name VARCHAR(64) NOT NULL,
+                remote_id INT NOT NULL,
+                sync_version INT NOT NULL,
+                operation VARCHAR(16) NOT NULL,
+                origin_device VARCHAR(255) NOT NULL,
+                changed_at DATETIME NOT NULL,
+                INDEX idx_change_feed_changed_at (changed_at)
+            )
+        """);
+
         stmt.execute("""
             CREATE TABLE IF NOT EXISTS sync_devices (
                 device_id VARCHAR(255) PRIMARY KEY,
@@ -451,6 +507,84 @@ public class DatabaseManager {
             )
         """);
 
+        boolean summaryExists = tableExistsSQLite(stmt, "sync_session_summary");
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS sync_session_summary (
+                sync_session_id TEXT NOT NULL,
+                table_name TEXT NOT NULL,
+                sync_direction TEXT NOT NULL,
+                status TEXT NOT NULL,
+                entry_count INTEGER NOT NULL,
+                duration_ms INTEGER NOT NULL DEFAULT 0,
+                started_at TEXT NOT NULL,
+                finished_at TEXT NOT NULL,
+                PRIMARY KEY (sync_session_id, table_name, sync_direction, status)
+            )
+        """);
+        if (!summaryExists) {
+            // MIGRATION: roll up the sessions logged before the summary table existed
+            stmt.execute("""
+                INSERT INTO sync_session_summary
+                (sync_session_id, table_name, sync_direction, status, entry_count,
+                 duration_ms, started_at, finished_at)
+                SELECT sync_session_id, table_name, sync_direction, status, COUNT(*),
+                       0, MIN(synced_at), MAX(synced_at)
+                FROM sync_log
+                GROUP BY sync_session_id, table_name, sync_direction, status
+            """);
+        }
+
+        // Totals of each session (rows, traffic, duration) for trend analysis
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS sync_session_metrics (
+                sync_session_id TEXT PRIMARY KEY,
+                status TEXT NOT NULL,
+                rows_processed INTEGER NOT NULL,
+                rows_pulled INTEGER NOT NULL,
+                rows_pushed INTEGER NOT NULL,
+                bytes_sent INTEGER NOT NULL,
+                bytes_received INTEGER NOT NULL,
+                round_trips INTEGER NOT NULL,
+                duration_ms INTEGER NOT NULL,
+                recorded_at TEXT NOT NULL
+            )
+        """);
+
+        // Position of this device in the MySQL change_feed
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS sync_feed_cursor (
+                name TEXT PRIMARY KEY,
+                last_seq INTEGER NOT NULL,
+                updated_at TEXT
+            )
+        """);
+
+        // Remote rows that failed to apply on pull, until they apply or the retries run out
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS sync_pull_failures (
+                table_name TEXT NOT NULL,
+                remote_id INTEGER NOT NULL,
+                attempts INTEGER NOT NULL,
+                last_error TEXT,
+                updated_at TEXT,
+                PRIMARY KEY (table_name, remote_id)
+            )
+        """);
+
+        // Position of an unfinished sync session, to resume it after a failure
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS sync_checkpoint (
+                name TEXT PRIMARY KEY,
+                session_id TEXT NOT NULL,
+                phase TEXT NOT NULL,
+                table_name TEXT NOT NULL,
+                last_key INTEGER NOT NULL DEFAULT 0,
+                pull_mode TEXT NOT NULL,
+                feed_head INTEGER NOT NULL,
+                updated_at TEXT
+            )
+        """);
+
         stmt.execute("""
             CREATE TABLE IF NOT EXISTS sync_devices (
                 device_id TEXT PRIMARY KEY,
@@ -515,6 +649,86 @@ public class DatabaseManager {
         System.out.println("Added remote_id column to sync_metadata (MySQL)");
     }
 
+    /**
+     * Create secondary indexes used by recipient segmentation and balance lookups (SQLite)
+     */
+    private void createIndexesSQLite(Statement stmt) throws SQLException {
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_member_groups_group ON member_groups(group_id, member_id)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_contributions_member_entity ON contributions(member_id, entity_type, entity_id)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_payment_groups_entity ON payment_groups(entity_type, entity_id)");
+
+        // Keyset pagination: (sort key, id) in list order, limited to live rows
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_contributions_date ON contributions(date, id) WHERE deleted_at IS NULL");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_contributions_amount ON contributions(amount, id) WHERE deleted_at IS NULL");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_expenses_date ON expenses(date, id) WHERE deleted_at IS NULL");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_members_name ON members(last_name, first_name, id) WHERE deleted_at IS NULL");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_sync_log_synced_at ON sync_log(synced_at, id)");
+        // Session drill-down: all rows of a session, or only its failures, in log order
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_sync_log_session ON sync_log(sync_session_id, id)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_sync_log_session_status ON sync_log(sync_session_id, status, id)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_sync_session_summary_started ON sync_session_summary(started_at)");
+    }
+
+    /**
+     * Triggers recording every write on the syncable tables into change_log, read by PUSH
+     * An UPDATE that sets deleted_at is recorded as a DELETE (soft delete)
+     */
+    private void createChangeCaptureSQLite(Statement stmt) throws SQLException {
+        String[] tables = {"groups", "members", "events", "projects", "expenses", "contributions", "payment_groups"};
+
+        boolean logExists = tableExistsSQLite(stmt, "change_log");
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS change_log (
+                seq INTEGER PRIMARY KEY AUTOINCREMENT,
+                table_name TEXT NOT NULL,
+                record_id INTEGER NOT NULL,
+                operation TEXT NOT NULL,
+                changed_at TEXT NOT NULL DEFAULT (datetime('now'))
+            )
+        """);
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_change_log_table ON change_log(table_name, record_id, seq)");
+
+        for (String table : tables) {
+            if (!logExists) {
+                // MIGRATION: rows still waiting for PUSH under the sync_status scheme
+                stmt.execute("INSERT INTO change_log (table_name, record_id, operation) " +
+                             "SELECT '" + table + "', id, 'UPDATE' FROM `" + table + "` WHERE sync_status = 'PENDING' ORDER BY id");
+            }
+
+            stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_" + table + "_log_insert AFTER INSERT ON `" + table + "` " +
+                         "BEGIN INSERT INTO change_log (table_name, record_id, operation) " +
+                         "VALUES ('" + table + "', NEW.id, 'INSERT'); END");
+            stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_" + table + "_log_update AFTER UPDATE ON `" + table + "` " +
+                         "BEGIN INSERT INTO change_log (table_name, record_id, operation) " +
+                         "VALUES ('" + table + "', NEW.id, CASE WHEN NEW.deleted_at IS NOT NULL AND OLD.deleted_at IS NULL " +
+                         "THEN 'DELETE' ELSE 'UPDATE' END); END");
+            stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_" + table + "_log_delete AFTER DELETE ON `" + table + "` " +
+                         "BEGIN INSERT INTO change_log (table_name, record_id, operation) " +
+                         "VALUES ('" + table + "', OLD.id, 'DELETE'); END");
+        }
+    }
+
+    private void createIndexesMySQL(Statement stmt) {
+        // Retention deletes by date
+        createIndexIfNotExistsMySQL(stmt, "sync_log", "idx_sync_log_synced_at", "synced_at");
+    }
+
+    private boolean tableExistsSQLite(Statement stmt, String table) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery(
+                "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = '" + table + "'")) {
+            return rs.next();
+        }
+    }
+
+    private void createIndexIfNotExistsMySQL(Statement stmt, String table, String index, String columns) {
+        try {
+            stmt.execute("CREATE INDEX `" + index + "` ON `" + table + "` (" + columns + ")");
+            System.out.println("Added index " + index + " to table " + table);
+        } catch (SQLException e) {
+            // Index already exists or other error - ignore
+        }
+    }
+
     private void addColumnIfNotExists(Statement stmt, String table, String column, String type) {
         try {
             stmt.execute("ALTER TABLE " + table + " ADD COLUMN " + column + " " + type);
@@ -6,8 +6,14 @@ import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class EventDAO {
+    private static final String INSERT_SQL = """
+        INSERT INTO events (name, description, start_date, end_date, location, status, organizer_id, max_capacity, contribution_target, active, created_at, updated_at, last_modified_by, sync_status, sync_version)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, datetime('now'), datetime('now'), 'system', 'PENDING', 1)
+        """;
+
     private final DatabaseManager dbManager;
 
     public EventDAO() {
@@ -15,40 +21,10 @@ public class EventDAO {
     }
 
     public void create(Event event) throws SQLException {
-        String sql = """
-            INSERT INTO events (name, description, start_date, end_date, location, status, organizer_id, max_capacity, contribution_target, active, created_at, updated_at, last_modified_by, sync_status, sync_version)
-            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, datetime('now'), datetime('now'), 'system', 'PENDING', 1)
-            """;
-
         try (Connection conn = dbManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, event.getName());
-            pstmt.setString(2, event.getDescription());
-            pstmt.setString(3, event.getStartDate().toString());
-            pstmt.setString(4, event.getEndDate() != null ? event.getEndDate().toString() : null);
-            pstmt.setString(5, event.getLocation());
-            pstmt.setString(6, event.getStatus());
-
-            // Handle nullable organizer_id - SQLite JDBC doesn't support setObject for nulls
-            if (event.getOrganizerId() != null) {
-                pstmt.setInt(7, event.getOrganizerId());
-            } else {
-                pstmt.setNull(7, Types.INTEGER);
-            }
-
-            // Handle nullable max_capacity - SQLite JDBC doesn't support setObject for nulls
-            if (event.getMaxCapacity() != null) {
-                pstmt.setInt(8, event.getMaxCapacity());
-            } else {
-                pstmt.setNull(8, Types.INTEGER);
-            }
-
-            pstmt.setDouble(9, event.getContributionTarget() != null ? event.getContributionTarget() : 0.0);
-
-            // SQLite stores boolean as integer (0 or 1)
-            pstmt.setInt(10, event.isActive() ? 1 : 0);
+             PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL)) {
 
+            bindInsert(pstmt, event);
             pstmt.executeUpdate();
 
             // Get generated ID using last_insert_rowid() for SQLite compatibility
@@ -60,6 +36,21 @@ public class EventDAO {
                 }
             }
         }
+
+        DataChangeBus.getInstance().publish("events", event.getId(), DataChangeEvent.Operation.INSERT, DataChangeEvent.Source.UI);
+    }
+
+    /**
+     * Open a bulk insert session (one transaction, JDBC batches)
+     */
+    public BulkInsertSession<Event> openBulkSession() throws SQLException {
+        Connection conn = dbManager.getConnection();
+        try {
+            return new BulkInsertSession<>(conn, "events", INSERT_SQL, this::bindInsert, Event::setId);
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
     }
 
     public Event findById(int id) throws SQLException {
@@ -148,6 +139,8 @@ public class EventDAO {
 
             pstmt.executeUpdate();
         }
+
+        DataChangeBus.getInstance().publish("events", event.getId(), DataChangeEvent.Operation.UPDATE, DataChangeEvent.Source.UI);
     }
 
     public void delete(int id) throws SQLException {
@@ -167,9 +160,61 @@ public class EventDAO {
             pstmt.setInt(1, id);
             pstmt.executeUpdate();
         }
+
+        DataChangeBus.getInstance().publish("events", id, DataChangeEvent.Operation.DELETE, DataChangeEvent.Source.UI);
+    }
+
+    /**
+     * Stream all events to the consumer with a forward-only cursor (used by Excel export)
+     */
+    public void forEach(Consumer<Event> consumer) throws SQLException {
+        String sql = """
+            SELECT e.*, m.first_name || ' ' || m.last_name AS organizer_name
+            FROM events e
+            LEFT JOIN members m ON e.organizer_id = m.id AND m.deleted_at IS NULL
+            WHERE e.deleted_at IS NULL
+            ORDER BY e.start_date DESC
+            """;
+
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+             ResultSet rs = pstmt.executeQuery()) {
+
+            while (rs.next()) {
+                consumer.accept(extractEvent(rs));
+            }
+        }
+    }
+
+    private void bindInsert(PreparedStatement pstmt, Event event) throws SQLException {
+        pstmt.setString(1, event.getName());
+        pstmt.setString(2, event.getDescription());
+        pstmt.setString(3, event.getStartDate().toString());
+        pstmt.setString(4, event.getEndDate() != null ? event.getEndDate().toString() : null);
+        pstmt.setString(5, event.getLocation());
+        pstmt.setString(6, event.getStatus());
+
+        // Handle nullable organizer_id - SQLite JDBC doesn't support setObject for nulls
+        if (event.getOrganizerId() != null) {
+            pstmt.setInt(7, event.getOrganizerId());
+        } else {
+            pstmt.setNull(7, Types.INTEGER);
+        }
+
+        // Handle nullable max_capacity - SQLite JDBC doesn't support setObject for nulls
+        if (event.getMaxCapacity() != null) {
+            pstmt.setInt(8, event.getMaxCapacity());
+        } else {
+            pstmt.setNull(8, Types.INTEGER);
+        }
+
+        pstmt.setDouble(9, event.getContributionTarget() != null ? event.getContributionTarget() : 0.0);
+
+        // SQLite stores boolean as integer (0 or 1)
+        pstmt.setInt(10, event.isActive() ? 1 : 0);
     }
 
-    private Event extractEvent(ResultSet rs) throws SQLException {
+    Event extractEvent(ResultSet rs) throws SQLException {
         Event event = new Event();
         event.setId(rs.getInt("id"));
         event.setName(rs.getString("name"));
@@ -6,37 +6,61 @@ import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class ExpenseDAO {
+    private static final String INSERT_SQL = """
+        INSERT INTO expenses (description, amount, date, category, entity_type, entity_id, member_id, created_at, updated_at, last_modified_by, sync_status, sync_version)
+        VALUES (?, ?, ?, ?, ?, ?, ?, datetime('now'), datetime('now'), 'system', 'PENDING', 1)
+        """;
+
     private final DatabaseManager dbManager;
+    private final KeysetQuery<Expense> pageQuery;
 
     public ExpenseDAO() {
         this.dbManager = DatabaseManager.getInstance();
+        this.pageQuery = new KeysetQuery<>("""
+            SELECT e.*,
+                   m.first_name || ' ' || m.last_name AS member_name,
+                   COALESCE(ev.name, pr.name) AS entity_name
+            FROM expenses e
+            LEFT JOIN members m ON e.member_id = m.id AND m.deleted_at IS NULL
+            LEFT JOIN events ev ON e.entity_type = 'EVENT' AND e.entity_id = ev.id AND ev.deleted_at IS NULL
+            LEFT JOIN projects pr ON e.entity_type = 'PROJECT' AND e.entity_id = pr.id AND pr.deleted_at IS NULL
+            """, "e.deleted_at IS NULL", new KeysetQuery.Column("e.id", "id"), "date", false, this::extractExpense)
+            .sortKey("date", new KeysetQuery.Column("e.date", "date"))
+            .sortKey("amount", new KeysetQuery.Column("e.amount", "amount"))
+            .searchOn("e.description")
+            .searchOn("e.category")
+            .searchOn("ev.name")
+            .searchOn("pr.name")
+            .countUnfilteredFrom("FROM expenses e");
     }
 
-    public void create(Expense expense) throws SQLException {
-        String sql = """
-            INSERT INTO expenses (description, amount, date, category, entity_type, entity_id, member_id, created_at, updated_at, last_modified_by, sync_status, sync_version)
-            VALUES (?, ?, ?, ?, ?, ?, ?, datetime('now'), datetime('now'), 'system', 'PENDING', 1)
-            """;
-
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    /**
+     * Read one page of expenses with keyset pagination
+     * Sorted by date (default, newest first) or amount; search matches description, category and event/project names
+     */
+    public Page<Expense> findPage(PageRequest request) throws SQLException {
+        try (Connection conn = dbManager.getConnection()) {
+            return pageQuery.fetch(conn, request);
+        }
+    }
 
-            pstmt.setString(1, expense.getDescription());
-            pstmt.setDouble(2, expense.getAmount());
-            pstmt.setString(3, expense.getDate().toString());
-            pstmt.setString(4, expense.getCategory());
-            pstmt.setString(5, expense.getEntityType());
-            pstmt.setInt(6, expense.getEntityId());
+    /**
+     * Number of rows matching the request filter, used to size paged views
+     */
+    public int count(PageRequest request) throws SQLException {
+        try (Connection conn = dbManager.getConnection()) {
+            return pageQuery.count(conn, request);
+        }
+    }
 
-            // Handle nullable member_id - SQLite JDBC doesn't support setObject for nulls
-            if (expense.getMemberId() != null) {
-                pstmt.setInt(7, expense.getMemberId());
-            } else {
-                pstmt.setNull(7, Types.INTEGER);
-            }
+    public void create(Expense expense) throws SQLException {
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL)) {
 
+            bindInsert(pstmt, expense);
             pstmt.executeUpdate();
 
             // Get generated ID using last_insert_rowid() for SQLite compatibility
@@ -48,6 +72,21 @@ public class ExpenseDAO {
                 }
             }
         }
+
+        DataChangeBus.getInstance().publish("expenses", expense.getId(), DataChangeEvent.Operation.INSERT, DataChangeEvent.Source.UI);
+    }
+
+    /**
+     * Open a bulk insert session (one transaction, JDBC batches)
+     */
+    public BulkInsertSession<Expense> openBulkSession() throws SQLException {
+        Connection conn = dbManager.getConnection();
+        try {
+            return new BulkInsertSession<>(conn, "expenses", INSERT_SQL, this::bindInsert, Expense::setId);
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
     }
 
     public Expense findById(int id) throws SQLException {
@@ -161,6 +200,8 @@ public class ExpenseDAO {
 
             pstmt.executeUpdate();
         }
+
+        DataChangeBus.getInstance().publish("expenses", expense.getId(), DataChangeEvent.Operation.UPDATE, DataChangeEvent.Source.UI);
     }
 
     public void delete(int id) throws SQLException {
@@ -180,9 +221,53 @@ public class ExpenseDAO {
             pstmt.setInt(1, id);
             pstmt.executeUpdate();
         }
+
+        DataChangeBus.getInstance().publish("expenses", id, DataChangeEvent.Operation.DELETE, DataChangeEvent.Source.UI);
+    }
+
+    /**
+     * Stream all expenses to the consumer with a forward-only cursor (used by Excel export)
+     */
+    public void forEach(Consumer<Expense> consumer) throws SQLException {
+        String sql = """
+            SELECT e.*,
+                   m.first_name || ' ' || m.last_name AS member_name,
+                   COALESCE(ev.name, pr.name) AS entity_name
+            FROM expenses e
+            LEFT JOIN members m ON e.member_id = m.id AND m.deleted_at IS NULL
+            LEFT JOIN events ev ON e.entity_type = 'EVENT' AND e.entity_id = ev.id AND ev.deleted_at IS NULL
+            LEFT JOIN projects pr ON e.entity_type = 'PROJECT' AND e.entity_id = pr.id AND pr.deleted_at IS NULL
+            WHERE e.deleted_at IS NULL
+            ORDER BY e.date DESC
+            """;
+
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+             ResultSet rs = pstmt.executeQuery()) {
+
+            while (rs.next()) {
+                consumer.accept(extractExpense(rs));
+            }
+        }
+    }
+
+    private void bindInsert(PreparedStatement pstmt, Expense expense) throws SQLException {
+        pstmt.setString(1, expense.getDescription());
+        pstmt.setDouble(2, expense.getAmount());
+        pstmt.setString(3, expense.getDate().toString());
+        pstmt.setString(4, expense.getCategory());
+        pstmt.setString(5, expense.getEntityType());
+        pstmt.setInt(6, expense.getEntityId());
+
+        // Handle nullable member_id - SQLite JDBC doesn't support setObject for nulls
+        if (expense.getMemberId() != null) {
+            pstmt.setInt(7, expense.getMemberId());
+        } else {
+            pstmt.setNull(7, Types.INTEGER);
+        }
     }
 
-    private Expense extractExpense(ResultSet rs) throws SQLException {
+    Expense extractExpense(ResultSet rs) throws SQLException {
         Expense expense = new Expense();
         expense.setId(rs.getInt("id"));
         expense.setDescription(rs.getString("description"));
@@ -54,6 +54,8 @@ public class GroupDAO {
             group.setSyncStatus("PENDING");
             group.setSyncVersion(1);
         }
+
+        DataChangeBus.getInstance().publish("groups", group.getId(), DataChangeEvent.Operation.INSERT, DataChangeEvent.Source.UI);
     }
 
     public Group findById(int id) throws SQLException {
@@ -136,6 +138,8 @@ public class GroupDAO {
             group.setSyncStatus("PENDING");
             group.setSyncVersion((group.getSyncVersion() != null ? group.getSyncVersion() : 0) + 1);
         }
+
+        DataChangeBus.getInstance().publish("groups", group.getId(), DataChangeEvent.Operation.UPDATE, DataChangeEvent.Source.UI);
     }
 
     public void delete(int id) throws SQLException {
@@ -157,6 +161,8 @@ public class GroupDAO {
 
             pstmt.executeUpdate();
         }
+
+        DataChangeBus.getInstance().publish("groups", id, DataChangeEvent.Operation.DELETE, DataChangeEvent.Source.UI);
     }
 
     public int getMemberCount(int groupId) throws SQLException {
@@ -176,7 +182,7 @@ public class GroupDAO {
         return 0;
     }
 
-    private Group extractGroup(ResultSet rs) throws SQLException {
+    Group extractGroup(ResultSet rs) throws SQLException {
         Group group = new Group();
         group.setId(rs.getInt("id"));
         group.setName(rs.getString("name"));
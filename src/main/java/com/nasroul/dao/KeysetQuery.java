@@ -0,0 +1,228 @@
+package com.nasroul.dao;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Builds and runs keyset-paginated queries for one table
+ *
+ * Rows are ordered by (sort columns..., id) and a page continues with a row-value comparison
+ * such as (c.date, c.id) < (?, ?), which SQLite answers from an index on the same columns
+ * instead of skipping OFFSET rows. Sort columns must be NOT NULL for the comparison to hold.
+ */
+final class KeysetQuery<T> {
+
+    @FunctionalInterface
+    interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * A sort column: the SQL expression used in WHERE/ORDER BY and its label in the result set
+     */
+    static final class Column {
+        private final String expression;
+        private final String label;
+
+        Column(String expression, String label) {
+            this.expression = expression;
+            this.label = label;
+        }
+    }
+
+    private static final Pattern FROM_KEYWORD = Pattern.compile("\\bFROM\\b", Pattern.CASE_INSENSITIVE);
+
+    private final String selectFrom;
+    private final String baseWhere;
+    private final Column idColumn;
+    private final Map<String, Column[]> sortKeys = new LinkedHashMap<>();
+    private final String defaultSortKey;
+    private final boolean defaultAscending;
+    private final List<String> searchExpressions = new ArrayList<>();
+    private final Map<String, String> filterExpressions = new LinkedHashMap<>();
+    private final RowMapper<T> mapper;
+    private String unfilteredCountFrom;
+
+    /**
+     * @param selectFrom "SELECT ... FROM ... [JOIN ...]" without WHERE clause
+     * @param baseWhere  condition every row must match, e.g. "c.deleted_at IS NULL"
+     */
+    KeysetQuery(String selectFrom, String baseWhere, Column idColumn,
+                String defaultSortKey, boolean defaultAscending, RowMapper<T> mapper) {
+        this.selectFrom = selectFrom;
+        this.baseWhere = baseWhere;
+        this.idColumn = idColumn;
+        this.defaultSortKey = defaultSortKey;
+        this.defaultAscending = defaultAscending;
+        this.mapper = mapper;
+    }
+
+    KeysetQuery<T> sortKey(String key, Column... columns) {
+        sortKeys.put(key, columns);
+        return this;
+    }
+
+    /**
+     * Add an expression matched with LIKE by PageRequest.getSearch()
+     */
+    KeysetQuery<T> searchOn(String expression) {
+        searchExpressions.add(expression);
+        return this;
+    }
+
+    /**
+     * Allow PageRequest.where(field, value) to filter with "expression = value"
+     */
+    KeysetQuery<T> filterOn(String field, String expression) {
+        filterExpressions.put(field, expression);
+        return this;
+    }
+
+    /**
+     * FROM clause without the joins, used to count when there is no search nor filter: SQLite does not drop
+     * the LEFT JOINs from a COUNT(*) and visiting them costs more than the count itself
+     */
+    KeysetQuery<T> countUnfilteredFrom(String fromClause) {
+        this.unfilteredCountFrom = fromClause;
+        return this;
+    }
+
+    Page<T> fetch(Connection conn, PageRequest request) throws SQLException {
+        Column[] columns = orderColumns(request);
+        boolean ascending = isAscending(request);
+        List<Object> params = new ArrayList<>();
+
+        StringBuilder sql = new StringBuilder(selectFrom).append(" WHERE ").append(baseWhere);
+        appendConditions(sql, params, request);
+
+        PageCursor after = request.getAfter();
+        if (after != null) {
+            Object[] values = after.getValues();
+            if (values.length != columns.length) {
+                throw new IllegalArgumentException("Cursor does not match the requested sort order");
+            }
+            sql.append(" AND (").append(joinExpressions(columns)).append(ascending ? ") > (" : ") < (");
+            for (int i = 0; i < values.length; i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+                params.add(values[i]);
+            }
+            sql.append(")");
+        }
+
+        sql.append(" ORDER BY ");
+        for (int i = 0; i < columns.length; i++) {
+            sql.append(i == 0 ? "" : ", ").append(columns[i].expression).append(ascending ? " ASC" : " DESC");
+        }
+
+        // One extra row tells whether another page follows
+        sql.append(" LIMIT ?");
+        params.add(request.getPageSize() + 1);
+        if (after == null && request.getOffset() > 0) {
+            sql.append(" OFFSET ?");
+            params.add(request.getOffset());
+        }
+
+        List<T> items = new ArrayList<>(request.getPageSize());
+        Object[] lastValues = null;
+        boolean hasNext = false;
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            bind(pstmt, params);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    if (items.size() == request.getPageSize()) {
+                        hasNext = true;
+                        break;
+                    }
+                    items.add(mapper.map(rs));
+                    lastValues = new Object[columns.length];
+                    for (int i = 0; i < columns.length; i++) {
+                        lastValues[i] = rs.getObject(columns[i].label);
+                    }
+                }
+            }
+        }
+
+        return new Page<>(items, lastValues != null ? new PageCursor(lastValues) : null, hasNext);
+    }
+
+    int count(Connection conn, PageRequest request) throws SQLException {
+        List<Object> params = new ArrayList<>();
+        String from;
+        if (request.getSearch() == null && request.getFilters().isEmpty() && unfilteredCountFrom != null) {
+            from = unfilteredCountFrom;
+        } else {
+            Matcher keyword = FROM_KEYWORD.matcher(selectFrom);
+            if (!keyword.find()) {
+                throw new IllegalStateException("Query has no FROM clause: " + selectFrom);
+            }
+            from = selectFrom.substring(keyword.start());
+        }
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) ").append(from).append(" WHERE ").append(baseWhere);
+        appendConditions(sql, params, request);
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            bind(pstmt, params);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    private void appendConditions(StringBuilder sql, List<Object> params, PageRequest request) {
+        for (Map.Entry<String, Object> filter : request.getFilters().entrySet()) {
+            String expression = filterExpressions.get(filter.getKey());
+            if (expression == null) {
+                throw new IllegalArgumentException("Unsupported filter: " + filter.getKey());
+            }
+            sql.append(" AND ").append(expression).append(" = ?");
+            params.add(filter.getValue());
+        }
+
+        String pattern = request.getSearchPattern();
+        if (pattern == null || searchExpressions.isEmpty()) {
+            return;
+        }
+        sql.append(" AND (");
+        for (int i = 0; i < searchExpressions.size(); i++) {
+            sql.append(i == 0 ? "" : " OR ").append(searchExpressions.get(i)).append(" LIKE ? ESCAPE '\\'");
+            params.add(pattern);
+        }
+        sql.append(")");
+    }
+
+    private Column[] orderColumns(PageRequest request) {
+        Column[] sortColumns = sortKeys.get(request.getSortKey());
+        if (sortColumns == null) {
+            sortColumns = sortKeys.get(defaultSortKey);
+        }
+        Column[] columns = new Column[sortColumns.length + 1];
+        System.arraycopy(sortColumns, 0, columns, 0, sortColumns.length);
+        // The id breaks ties so the order, and therefore every cursor, is total
+        columns[sortColumns.length] = idColumn;
+        return columns;
+    }
+
+    private boolean isAscending(PageRequest request) {
+        return sortKeys.containsKey(request.getSortKey()) ? request.isAscending() : defaultAscending;
+    }
+
+    private String joinExpressions(Column[] columns) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < columns.length; i++) {
+            sb.append(i == 0 ? "" : ", ").append(columns[i].expression);
+        }
+        return sb.toString();
+    }
+
+    private void bind(PreparedStatement pstmt, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            pstmt.setObject(i + 1, params.get(i));
+        }
+    }
+}
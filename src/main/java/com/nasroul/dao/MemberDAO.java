@@ -5,53 +5,62 @@ import com.nasroul.model.Member;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public class MemberDAO {
+    private static final String INSERT_SQL = """
+        INSERT INTO members (first_name, last_name, email, phone, birth_date, address, join_date, role, avatar, active, group_id,
+                            created_at, updated_at, last_modified_by, sync_status, sync_version)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, datetime('now'), datetime('now'), ?, 'PENDING', 1)
+        """;
+
     private final DatabaseManager dbManager;
+    private final KeysetQuery<Member> pageQuery;
 
     public MemberDAO() {
         this.dbManager = DatabaseManager.getInstance();
+        this.pageQuery = new KeysetQuery<>("""
+            SELECT m.*, g.name AS group_name
+            FROM members m
+            LEFT JOIN `groups` g ON m.group_id = g.id AND g.deleted_at IS NULL
+            """, "m.deleted_at IS NULL", new KeysetQuery.Column("m.id", "id"), "name", true, this::extractMember)
+            .sortKey("name", new KeysetQuery.Column("m.last_name", "last_name"), new KeysetQuery.Column("m.first_name", "first_name"))
+            .sortKey("joinDate", new KeysetQuery.Column("m.join_date", "join_date"))
+            .searchOn("m.first_name")
+            .searchOn("m.last_name")
+            .searchOn("m.email")
+            .searchOn("m.phone")
+            .countUnfilteredFrom("FROM members m");
     }
 
-    public void create(Member member) throws SQLException {
-        String sql = """
-            INSERT INTO members (first_name, last_name, email, phone, birth_date, address, join_date, role, avatar, active, group_id,
-                                created_at, updated_at, last_modified_by, sync_status, sync_version)
-            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, datetime('now'), datetime('now'), ?, 'PENDING', 1)
-            """;
-
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, member.getFirstName());
-            pstmt.setString(2, member.getLastName());
-            pstmt.setString(3, member.getEmail());
-            pstmt.setString(4, member.getPhone());
-            pstmt.setString(5, member.getBirthDate() != null ? member.getBirthDate().toString() : null);
-            pstmt.setString(6, member.getAddress());
-            pstmt.setString(7, member.getJoinDate().toString());
-            pstmt.setString(8, member.getRole());
-
-            // Handle nullable avatar - SQLite JDBC requires special handling for BLOB
-            if (member.getAvatar() != null) {
-                pstmt.setBytes(9, member.getAvatar());
-            } else {
-                pstmt.setNull(9, Types.BLOB);
-            }
-
-            pstmt.setInt(10, member.isActive() ? 1 : 0);
+    /**
+     * Read one page of members with keyset pagination
+     * Sorted by name (default) or join date; search matches names, email and phone
+     */
+    public Page<Member> findPage(PageRequest request) throws SQLException {
+        try (Connection conn = dbManager.getConnection()) {
+            return pageQuery.fetch(conn, request);
+        }
+    }
 
-            // Handle nullable group_id - SQLite JDBC doesn't support setObject for nulls
-            if (member.getGroupId() != null) {
-                pstmt.setInt(11, member.getGroupId());
-            } else {
-                pstmt.setNull(11, Types.INTEGER);
-            }
+    /**
+     * Number of rows matching the request filter, used to size paged views
+     */
+    public int count(PageRequest request) throws SQLException {
+        try (Connection conn = dbManager.getConnection()) {
+            return pageQuery.count(conn, request);
+        }
+    }
 
-            // Sync metadata
-            pstmt.setString(12, member.getLastModifiedBy() != null ? member.getLastModifiedBy() : "system");
+    public void create(Member member) throws SQLException {
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL)) {
 
+            bindInsert(pstmt, member);
             pstmt.executeUpdate();
 
             // Get generated ID using last_insert_rowid() for SQLite compatibility
@@ -67,6 +76,35 @@ public class MemberDAO {
                 }
             }
         }
+
+        DataChangeBus.getInstance().publish("members", member.getId(), DataChangeEvent.Operation.INSERT, DataChangeEvent.Source.UI);
+    }
+
+    /**
+     * Open a bulk insert session (one transaction, JDBC batches)
+     * Group IDs are checked against existing groups up front and member_groups rows are batched per chunk
+     */
+    public BulkInsertSession<Member> openBulkSession() throws SQLException {
+        Connection conn = dbManager.getConnection();
+        try {
+            Set<Integer> existingGroupIds = findExistingGroupIds(conn);
+            return new BulkInsertSession<Member>(conn, "members", INSERT_SQL, this::bindInsert, Member::setId)
+                .withValidator(member -> {
+                    if (member.getGroupIds() == null) {
+                        return null;
+                    }
+                    for (Integer groupId : member.getGroupIds()) {
+                        if (!existingGroupIds.contains(groupId)) {
+                            return "Unknown group ID: " + groupId;
+                        }
+                    }
+                    return null;
+                })
+                .withChildWriter(this::saveMemberGroups);
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
     }
 
     public Member findById(int id) throws SQLException {
@@ -113,6 +151,41 @@ public class MemberDAO {
         return members;
     }
 
+    /**
+     * Members whose first name, last name or email contains the text, case-insensitively
+     * Accented letters included ("élise" finds "Élise"), through the unicode_lower function
+     */
+    public List<Member> search(String text) throws SQLException {
+        List<Member> members = new ArrayList<>();
+        String sql = """
+            SELECT m.*, g.name AS group_name
+            FROM members m
+            LEFT JOIN `groups` g ON m.group_id = g.id AND g.deleted_at IS NULL
+            WHERE m.deleted_at IS NULL
+              AND (instr(unicode_lower(m.first_name), ?) > 0 OR instr(unicode_lower(m.last_name), ?) > 0
+                   OR instr(unicode_lower(m.email), ?) > 0)
+            ORDER BY m.last_name, m.first_name
+            """;
+
+        String pattern = text.trim().toLowerCase(Locale.ROOT);
+
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, pattern);
+            pstmt.setString(2, pattern);
+            pstmt.setString(3, pattern);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    members.add(extractMember(rs));
+                }
+            }
+        }
+
+        return members;
+    }
+
     public List<Member> findActive() throws SQLException {
         List<Member> members = new ArrayList<>();
         String sql = """
@@ -185,6 +258,8 @@ public class MemberDAO {
                 saveMemberGroups(conn, member.getId(), member.getGroupIds());
             }
         }
+
+        DataChangeBus.getInstance().publish("members", member.getId(), DataChangeEvent.Operation.UPDATE, DataChangeEvent.Source.UI);
     }
 
     public void delete(int id) throws SQLException {
@@ -201,9 +276,86 @@ public class MemberDAO {
             pstmt.setInt(1, id);
             pstmt.executeUpdate();
         }
+
+        DataChangeBus.getInstance().publish("members", id, DataChangeEvent.Operation.DELETE, DataChangeEvent.Source.UI);
     }
 
-    private Member extractMember(ResultSet rs) throws SQLException {
+    /**
+     * Stream all members to the consumer with a forward-only cursor (used by Excel export)
+     * Avatars are skipped and group names are aggregated in SQL instead of one query per member
+     */
+    public void forEach(Consumer<Member> consumer) throws SQLException {
+        String sql = """
+            SELECT m.id, m.first_name, m.last_name, m.email, m.phone, m.birth_date, m.address,
+                   m.join_date, m.role, m.active,
+                   (SELECT GROUP_CONCAT(g.name, '|')
+                    FROM member_groups mg
+                    JOIN `groups` g ON mg.group_id = g.id AND g.deleted_at IS NULL
+                    WHERE mg.member_id = m.id) AS group_names
+            FROM members m
+            WHERE m.deleted_at IS NULL
+            ORDER BY m.last_name, m.first_name
+            """;
+
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+             ResultSet rs = pstmt.executeQuery()) {
+
+            while (rs.next()) {
+                Member member = new Member();
+                member.setId(rs.getInt("id"));
+                member.setFirstName(rs.getString("first_name"));
+                member.setLastName(rs.getString("last_name"));
+                member.setEmail(rs.getString("email"));
+                member.setPhone(rs.getString("phone"));
+
+                String birthDate = rs.getString("birth_date");
+                member.setBirthDate(birthDate != null ? LocalDate.parse(birthDate) : null);
+
+                member.setAddress(rs.getString("address"));
+                member.setJoinDate(LocalDate.parse(rs.getString("join_date")));
+                member.setRole(rs.getString("role"));
+                member.setActive(rs.getInt("active") == 1);
+
+                String groupNames = rs.getString("group_names");
+                member.setGroupNames(groupNames != null ? List.of(groupNames.split("\\|")) : new ArrayList<>());
+
+                consumer.accept(member);
+            }
+        }
+    }
+
+    private void bindInsert(PreparedStatement pstmt, Member member) throws SQLException {
+        pstmt.setString(1, member.getFirstName());
+        pstmt.setString(2, member.getLastName());
+        pstmt.setString(3, member.getEmail());
+        pstmt.setString(4, member.getPhone());
+        pstmt.setString(5, member.getBirthDate() != null ? member.getBirthDate().toString() : null);
+        pstmt.setString(6, member.getAddress());
+        pstmt.setString(7, member.getJoinDate().toString());
+        pstmt.setString(8, member.getRole());
+
+        // Handle nullable avatar - SQLite JDBC requires special handling for BLOB
+        if (member.getAvatar() != null) {
+            pstmt.setBytes(9, member.getAvatar());
+        } else {
+            pstmt.setNull(9, Types.BLOB);
+        }
+
+        pstmt.setInt(10, member.isActive() ? 1 : 0);
+
+        // Handle nullable group_id - SQLite JDBC doesn't support setObject for nulls
+        if (member.getGroupId() != null) {
+            pstmt.setInt(11, member.getGroupId());
+        } else {
+            pstmt.setNull(11, Types.INTEGER);
+        }
+
+        // Sync metadata
+        pstmt.setString(12, member.getLastModifiedBy() != null ? member.getLastModifiedBy() : "system");
+    }
+
+    Member extractMember(ResultSet rs) throws SQLException {
         Member member = new Member();
         member.setId(rs.getInt("id"));
         member.setFirstName(rs.getString("first_name"));
@@ -268,6 +420,39 @@ public class MemberDAO {
         }
     }
 
+    private Set<Integer> findExistingGroupIds(Connection conn) throws SQLException {
+        Set<Integer> ids = new HashSet<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id FROM `groups` WHERE deleted_at IS NULL")) {
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+        }
+        return ids;
+    }
+
+    private void saveMemberGroups(Connection conn, List<Member> members) throws SQLException {
+        String sql = "INSERT INTO member_groups (member_id, group_id) VALUES (?, ?)";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            boolean hasRows = false;
+            for (Member member : members) {
+                if (member.getGroupIds() == null) {
+                    continue;
+                }
+                for (Integer groupId : member.getGroupIds()) {
+                    pstmt.setInt(1, member.getId());
+                    pstmt.setInt(2, groupId);
+                    pstmt.addBatch();
+                    hasRows = true;
+                }
+            }
+            if (hasRows) {
+                pstmt.executeBatch();
+            }
+        }
+    }
+
     private void saveMemberGroups(Connection conn, Integer memberId, List<Integer> groupIds) throws SQLException {
         String sql = "INSERT INTO member_groups (member_id, group_id) VALUES (?, ?)";
 
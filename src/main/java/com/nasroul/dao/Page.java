@@ -0,0 +1,27 @@
+package com.nasroul.dao;
+
+import java.util.List;
+
+/**
+ * One page of rows and the cursor to read the next one
+ */
+public class Page<T> {
+    private final List<T> items;
+    private final PageCursor nextCursor;
+    private final boolean hasNext;
+
+    Page(List<T> items, PageCursor nextCursor, boolean hasNext) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasNext = hasNext;
+    }
+
+    public List<T> getItems() { return items; }
+
+    /**
+     * Cursor after the last row of this page, null when the page is empty
+     */
+    public PageCursor getNextCursor() { return nextCursor; }
+
+    public boolean hasNext() { return hasNext; }
+}
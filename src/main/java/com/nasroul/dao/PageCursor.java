@@ -0,0 +1,24 @@
+package com.nasroul.dao;
+
+import java.util.Arrays;
+
+/**
+ * Position after the last row of a page: the sort key values of that row, id last
+ * The next page starts strictly after this position, so inserts and deletes elsewhere never shift it
+ */
+public class PageCursor {
+    private final Object[] values;
+
+    PageCursor(Object... values) {
+        this.values = values.clone();
+    }
+
+    Object[] getValues() {
+        return values.clone();
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(values);
+    }
+}
@@ -0,0 +1,106 @@
+package com.nasroul.dao;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A page of rows to read: where to start, how many rows, how to sort and filter
+ *
+ * A page normally starts after a PageCursor (keyset pagination). When the caller jumps far ahead
+ * without knowing the cursor of the previous page, it starts at a row offset instead; the
+ * following pages then continue from that page's cursor.
+ *
+ * Filters are exact matches on fields the DAO declares, e.g. a session id or a status.
+ */
+public class PageRequest {
+    public static final int DEFAULT_PAGE_SIZE = 200;
+
+    private final int pageSize;
+    private final PageCursor after;
+    private final int offset;
+    private final String sortKey;
+    private final boolean ascending;
+    private final String search;
+    private final Map<String, Object> filters;
+
+    private PageRequest(int pageSize, PageCursor after, int offset, String sortKey, boolean ascending, String search,
+                        Map<String, Object> filters) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        this.pageSize = pageSize;
+        this.after = after;
+        this.offset = offset;
+        this.sortKey = sortKey;
+        this.ascending = ascending;
+        this.search = search != null && !search.isBlank() ? search.trim() : null;
+        this.filters = filters;
+    }
+
+    /**
+     * First page in the DAO's default order, without filter
+     */
+    public static PageRequest first(int pageSize) {
+        return new PageRequest(pageSize, null, 0, null, false, null, Map.of());
+    }
+
+    /**
+     * Same sort and filter, starting after the given cursor
+     */
+    public PageRequest after(PageCursor cursor) {
+        return new PageRequest(pageSize, cursor, 0, sortKey, ascending, search, filters);
+    }
+
+    /**
+     * Same sort and filter, starting at a row offset (slower, used to jump to a far page)
+     */
+    public PageRequest atOffset(int offset) {
+        return new PageRequest(pageSize, null, offset, sortKey, ascending, search, filters);
+    }
+
+    /**
+     * Sort by a key the DAO supports (unknown keys fall back to its default order)
+     */
+    public PageRequest sortedBy(String sortKey, boolean ascending) {
+        return new PageRequest(pageSize, null, 0, sortKey, ascending, search, filters);
+    }
+
+    /**
+     * Only keep rows matching the text, blank means no filter
+     */
+    public PageRequest matching(String search) {
+        return new PageRequest(pageSize, null, 0, sortKey, ascending, search, filters);
+    }
+
+    /**
+     * Only keep rows whose field equals the value, a null value removes the filter
+     */
+    public PageRequest where(String field, Object value) {
+        Map<String, Object> updated = new LinkedHashMap<>(filters);
+        if (value == null) {
+            updated.remove(field);
+        } else {
+            updated.put(field, value);
+        }
+        return new PageRequest(pageSize, null, 0, sortKey, ascending, search, Collections.unmodifiableMap(updated));
+    }
+
+    public int getPageSize() { return pageSize; }
+    public PageCursor getAfter() { return after; }
+    public int getOffset() { return offset; }
+    public String getSortKey() { return sortKey; }
+    public boolean isAscending() { return ascending; }
+    public String getSearch() { return search; }
+    public Map<String, Object> getFilters() { return filters; }
+
+    /**
+     * LIKE pattern for the search text, with LIKE wildcards escaped by a backslash
+     */
+    String getSearchPattern() {
+        if (search == null) {
+            return null;
+        }
+        return "%" + search.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+}
@@ -5,6 +5,7 @@ import com.nasroul.model.PaymentGroup;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class PaymentGroupDAO {
     private final DatabaseManager dbManager;
@@ -38,6 +39,8 @@ public class PaymentGroupDAO {
                 }
             }
         }
+
+        DataChangeBus.getInstance().publish("payment_groups", paymentGroup.getId(), DataChangeEvent.Operation.INSERT, DataChangeEvent.Source.UI);
     }
 
     public PaymentGroup findById(int id) throws SQLException {
@@ -173,6 +176,8 @@ public class PaymentGroupDAO {
 
             pstmt.executeUpdate();
         }
+
+        DataChangeBus.getInstance().publish("payment_groups", paymentGroup.getId(), DataChangeEvent.Operation.UPDATE, DataChangeEvent.Source.UI);
     }
 
     public void delete(int id) throws SQLException {
@@ -192,6 +197,8 @@ public class PaymentGroupDAO {
             pstmt.setInt(1, id);
             pstmt.executeUpdate();
         }
+
+        DataChangeBus.getInstance().publish("payment_groups", id, DataChangeEvent.Operation.DELETE, DataChangeEvent.Source.UI);
     }
 
     public Double getTotalByEntity(String entityType, int entityId) throws SQLException {
@@ -216,7 +223,33 @@ public class PaymentGroupDAO {
         return 0.0;
     }
 
-    private PaymentGroup extractPaymentGroup(ResultSet rs) throws SQLException {
+    /**
+     * Stream all payment groups to the consumer with a forward-only cursor (used by Excel export)
+     */
+    public void forEach(Consumer<PaymentGroup> consumer) throws SQLException {
+        String sql = """
+            SELECT pg.*,
+                   g.name AS group_name,
+                   COALESCE(e.name, p.name) AS entity_name
+            FROM payment_groups pg
+            LEFT JOIN `groups` g ON pg.group_id = g.id AND g.deleted_at IS NULL
+            LEFT JOIN events e ON pg.entity_type = 'EVENT' AND pg.entity_id = e.id AND e.deleted_at IS NULL
+            LEFT JOIN projects p ON pg.entity_type = 'PROJECT' AND pg.entity_id = p.id AND p.deleted_at IS NULL
+            WHERE pg.deleted_at IS NULL
+            ORDER BY pg.id DESC
+            """;
+
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+             ResultSet rs = pstmt.executeQuery()) {
+
+            while (rs.next()) {
+                consumer.accept(extractPaymentGroup(rs));
+            }
+        }
+    }
+
+    PaymentGroup extractPaymentGroup(ResultSet rs) throws SQLException {
         PaymentGroup pg = new PaymentGroup();
         pg.setId(rs.getInt("id"));
         pg.setGroupId(rs.getInt("group_id"));
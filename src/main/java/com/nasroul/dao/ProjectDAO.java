@@ -6,8 +6,14 @@ import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class ProjectDAO {
+    private static final String INSERT_SQL = """
+        INSERT INTO projects (name, description, start_date, end_date, status, budget, target_budget, manager_id, created_at, updated_at, last_modified_by, sync_status, sync_version)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, datetime('now'), datetime('now'), 'system', 'PENDING', 1)
+        """;
+
     private final DatabaseManager dbManager;
 
     public ProjectDAO() {
@@ -15,29 +21,10 @@ public class ProjectDAO {
     }
 
     public void create(Project project) throws SQLException {
-        String sql = """
-            INSERT INTO projects (name, description, start_date, end_date, status, budget, target_budget, manager_id, created_at, updated_at, last_modified_by, sync_status, sync_version)
-            VALUES (?, ?, ?, ?, ?, ?, ?, ?, datetime('now'), datetime('now'), 'system', 'PENDING', 1)
-            """;
-
         try (Connection conn = dbManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, project.getName());
-            pstmt.setString(2, project.getDescription());
-            pstmt.setString(3, project.getStartDate() != null ? project.getStartDate().toString() : null);
-            pstmt.setString(4, project.getEndDate() != null ? project.getEndDate().toString() : null);
-            pstmt.setString(5, project.getStatus());
-            pstmt.setDouble(6, project.getBudget());
-            pstmt.setDouble(7, project.getTargetBudget());
-
-            // Handle nullable manager_id - SQLite JDBC doesn't support setObject for nulls
-            if (project.getManagerId() != null) {
-                pstmt.setInt(8, project.getManagerId());
-            } else {
-                pstmt.setNull(8, Types.INTEGER);
-            }
+             PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL)) {
 
+            bindInsert(pstmt, project);
             pstmt.executeUpdate();
 
             // Get generated ID using last_insert_rowid() for SQLite compatibility
@@ -49,6 +36,21 @@ public class ProjectDAO {
                 }
             }
         }
+
+        DataChangeBus.getInstance().publish("projects", project.getId(), DataChangeEvent.Operation.INSERT, DataChangeEvent.Source.UI);
+    }
+
+    /**
+     * Open a bulk insert session (one transaction, JDBC batches)
+     */
+    public BulkInsertSession<Project> openBulkSession() throws SQLException {
+        Connection conn = dbManager.getConnection();
+        try {
+            return new BulkInsertSession<>(conn, "projects", INSERT_SQL, this::bindInsert, Project::setId);
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
     }
 
     public Project findById(int id) throws SQLException {
@@ -126,6 +128,8 @@ public class ProjectDAO {
 
             pstmt.executeUpdate();
         }
+
+        DataChangeBus.getInstance().publish("projects", project.getId(), DataChangeEvent.Operation.UPDATE, DataChangeEvent.Source.UI);
     }
 
     public void delete(int id) throws SQLException {
@@ -145,9 +149,50 @@ public class ProjectDAO {
             pstmt.setInt(1, id);
             pstmt.executeUpdate();
         }
+
+        DataChangeBus.getInstance().publish("projects", id, DataChangeEvent.Operation.DELETE, DataChangeEvent.Source.UI);
+    }
+
+    /**
+     * Stream all projects to the consumer with a forward-only cursor (used by Excel export)
+     */
+    public void forEach(Consumer<Project> consumer) throws SQLException {
+        String sql = """
+            SELECT p.*, m.first_name || ' ' || m.last_name AS manager_name
+            FROM projects p
+            LEFT JOIN members m ON p.manager_id = m.id AND m.deleted_at IS NULL
+            WHERE p.deleted_at IS NULL
+            ORDER BY p.name
+            """;
+
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+             ResultSet rs = pstmt.executeQuery()) {
+
+            while (rs.next()) {
+                consumer.accept(extractProject(rs));
+            }
+        }
+    }
+
+    private void bindInsert(PreparedStatement pstmt, Project project) throws SQLException {
+        pstmt.setString(1, project.getName());
+        pstmt.setString(2, project.getDescription());
+        pstmt.setString(3, project.getStartDate() != null ? project.getStartDate().toString() : null);
+        pstmt.setString(4, project.getEndDate() != null ? project.getEndDate().toString() : null);
+        pstmt.setString(5, project.getStatus());
+        pstmt.setDouble(6, project.getBudget() != null ? project.getBudget() : 0.0);
+        pstmt.setDouble(7, project.getTargetBudget() != null ? project.getTargetBudget() : 0.0);
+
+        // Handle nullable manager_id - SQLite JDBC doesn't support setObject for nulls
+        if (project.getManagerId() != null) {
+            pstmt.setInt(8, project.getManagerId());
+        } else {
+            pstmt.setNull(8, Types.INTEGER);
+        }
     }
 
-    private Project extractProject(ResultSet rs) throws SQLException {
+    Project extractProject(ResultSet rs) throws SQLException {
         Project project = new Project();
         project.setId(rs.getInt("id"));
         project.setName(rs.getString("name"));
@@ -0,0 +1,218 @@
+package com.nasroul.dao;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * DAO for SMS campaign recipients
+ * Turns segment criteria into a single SQL query and only reads the columns a campaign needs
+ */
+public class RecipientDAO {
+    private final DatabaseManager dbManager;
+
+    public RecipientDAO() {
+        this.dbManager = DatabaseManager.getInstance();
+    }
+
+    /**
+     * Stream every recipient matching the criteria to the consumer, in name order
+     */
+    public void forEach(Criteria criteria, Consumer<Recipient> consumer) throws SQLException {
+        List<Object> params = new ArrayList<>();
+        String sql = buildQuery(criteria, params);
+
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            bindParameters(pstmt, params);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(extractRecipient(rs));
+                }
+            }
+        }
+    }
+
+    /**
+     * Get all recipients matching the criteria
+     */
+    public List<Recipient> find(Criteria criteria) throws SQLException {
+        List<Recipient> recipients = new ArrayList<>();
+        forEach(criteria, recipients::add);
+        return recipients;
+    }
+
+    private String buildQuery(Criteria criteria, List<Object> params) {
+        StringBuilder sql = new StringBuilder("SELECT m.id, m.first_name, m.last_name, m.phone, ");
+
+        // Remaining balance mirrors PaymentGroupService.calculateRemainingAmount:
+        // latest payment group amount for the entity minus the member's PAID contributions
+        if (criteria.hasEntity()) {
+            sql.append("""
+                MAX(COALESCE((SELECT pg.amount FROM payment_groups pg
+                              WHERE pg.entity_type = ? AND pg.entity_id = ? AND pg.deleted_at IS NULL
+                              ORDER BY pg.id DESC LIMIT 1), 0)
+                    - COALESCE((SELECT SUM(c.amount) FROM contributions c
+                                WHERE c.member_id = m.id AND c.entity_type = ? AND c.entity_id = ?
+                                  AND c.status = 'PAID' AND c.deleted_at IS NULL), 0), 0) AS remaining_amount
+                """);
+            params.add(criteria.getEntityType());
+            params.add(criteria.getEntityId());
+            params.add(criteria.getEntityType());
+            params.add(criteria.getEntityId());
+        } else {
+            sql.append("0 AS remaining_amount ");
+        }
+
+        sql.append(" FROM members m WHERE m.deleted_at IS NULL");
+
+        if (criteria.isActiveOnly()) {
+            sql.append(" AND m.active = 1");
+        }
+
+        List<Integer> groupIds = criteria.getGroupIds();
+        if (!groupIds.isEmpty()) {
+            sql.append(" AND EXISTS (SELECT 1 FROM member_groups mg WHERE mg.member_id = m.id AND mg.group_id IN (");
+            for (int i = 0; i < groupIds.size(); i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+                params.add(groupIds.get(i));
+            }
+            sql.append("))");
+        }
+
+        switch (criteria.getPhoneFilter()) {
+            case WITH_PHONE -> sql.append(" AND m.phone IS NOT NULL AND TRIM(m.phone) <> ''");
+            case WITHOUT_PHONE -> sql.append(" AND (m.phone IS NULL OR TRIM(m.phone) = '')");
+            default -> { }
+        }
+
+        String query = sql.toString();
+
+        if (criteria.getMinRemainingBalance() != null && criteria.hasEntity()) {
+            query = "SELECT * FROM (" + query + ") WHERE remaining_amount > ?";
+            params.add(criteria.getMinRemainingBalance());
+        }
+
+        return query + " ORDER BY last_name, first_name";
+    }
+
+    private void bindParameters(PreparedStatement pstmt, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            Object value = params.get(i);
+            if (value instanceof Integer intValue) {
+                pstmt.setInt(i + 1, intValue);
+            } else if (value instanceof Double doubleValue) {
+                pstmt.setDouble(i + 1, doubleValue);
+            } else {
+                pstmt.setString(i + 1, (String) value);
+            }
+        }
+    }
+
+    private Recipient extractRecipient(ResultSet rs) throws SQLException {
+        Recipient recipient = new Recipient();
+        recipient.setId(rs.getInt("id"));
+        recipient.setFirstName(rs.getString("first_name"));
+        recipient.setLastName(rs.getString("last_name"));
+        recipient.setPhone(rs.getString("phone"));
+        recipient.setRemainingAmount(rs.getDouble("remaining_amount"));
+        return recipient;
+    }
+
+    /**
+     * Phone number filter for a segment
+     */
+    public enum PhoneFilter {
+        ANY,
+        WITH_PHONE,
+        WITHOUT_PHONE
+    }
+
+    /**
+     * Segment criteria - every criterion left unset matches all members
+     */
+    public static class Criteria {
+        private final List<Integer> groupIds = new ArrayList<>();
+        private String entityType;
+        private Integer entityId;
+        private Double minRemainingBalance;
+        private PhoneFilter phoneFilter = PhoneFilter.ANY;
+        private boolean activeOnly = true;
+
+        public Criteria inGroups(List<Integer> ids) {
+            groupIds.clear();
+            if (ids != null) {
+                groupIds.addAll(ids);
+            }
+            return this;
+        }
+
+        public Criteria forEntity(String entityType, Integer entityId) {
+            this.entityType = entityType;
+            this.entityId = entityId;
+            return this;
+        }
+
+        /**
+         * Only keep members whose remaining balance for the entity is strictly greater than the amount
+         */
+        public Criteria withRemainingBalanceAbove(Double amount) {
+            this.minRemainingBalance = amount;
+            return this;
+        }
+
+        public Criteria withPhone(PhoneFilter phoneFilter) {
+            this.phoneFilter = phoneFilter != null ? phoneFilter : PhoneFilter.ANY;
+            return this;
+        }
+
+        public Criteria activeOnly(boolean activeOnly) {
+            this.activeOnly = activeOnly;
+            return this;
+        }
+
+        public boolean hasEntity() {
+            return entityType != null && entityId != null;
+        }
+
+        public List<Integer> getGroupIds() { return groupIds; }
+        public String getEntityType() { return entityType; }
+        public Integer getEntityId() { return entityId; }
+        public Double getMinRemainingBalance() { return minRemainingBalance; }
+        public PhoneFilter getPhoneFilter() { return phoneFilter; }
+        public boolean isActiveOnly() { return activeOnly; }
+    }
+
+    /**
+     * Lightweight member projection used by SMS campaigns
+     */
+    public static class Recipient {
+        private int id;
+        private String firstName;
+        private String lastName;
+        private String phone;
+        private double remainingAmount;
+
+        public int getId() { return id; }
+        public void setId(int id) { this.id = id; }
+
+        public String getFirstName() { return firstName; }
+        public void setFirstName(String firstName) { this.firstName = firstName; }
+
+        public String getLastName() { return lastName; }
+        public void setLastName(String lastName) { this.lastName = lastName; }
+
+        public String getPhone() { return phone; }
+        public void setPhone(String phone) { this.phone = phone; }
+
+        public double getRemainingAmount() { return remainingAmount; }
+        public void setRemainingAmount(double remainingAmount) { this.remainingAmount = remainingAmount; }
+
+        public String getFullName() {
+            return firstName + " " + lastName;
+        }
+    }
+}
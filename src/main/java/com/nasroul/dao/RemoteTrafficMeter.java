@@ -0,0 +1,170 @@
+package com.nasroul.dao;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.temporal.Temporal;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the traffic of MySQL connections: round trips and an estimate of the bytes sent and received
+ *
+ * DatabaseManager wraps every MySQL connection, and the statements and result sets it creates, in a
+ * proxy. A round trip is one execute, commit, rollback or autocommit change. Bytes are an estimate of
+ * the size of the SQL text, the bound parameters and the column values read (text counted in
+ * characters), not the wire protocol overhead.
+ * Counters are process-wide; readers take a snapshot before and after the work they measure.
+ */
+public final class RemoteTrafficMeter {
+
+    private static final Set<String> ROUND_TRIP_METHODS = Set.of(
+        "execute", "executeQuery", "executeUpdate", "executeLargeUpdate",
+        "executeBatch", "executeLargeBatch", "commit", "rollback", "setAutoCommit");
+
+    private static final AtomicLong roundTrips = new AtomicLong();
+    private static final AtomicLong bytesSent = new AtomicLong();
+    private static final AtomicLong bytesReceived = new AtomicLong();
+
+    private RemoteTrafficMeter() {
+    }
+
+    static Connection wrap(Connection connection) {
+        return (Connection) wrap(connection, Connection.class);
+    }
+
+    public static Snapshot snapshot() {
+        return new Snapshot(roundTrips.get(), bytesSent.get(), bytesReceived.get());
+    }
+
+    private static Object wrap(Object target, Class<?> type) {
+        InvocationHandler handler = type == ResultSet.class
+            ? new ResultSetHandler((ResultSet) target) : new MeteringHandler(target);
+        return Proxy.newProxyInstance(RemoteTrafficMeter.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    /**
+     * Estimated size: characters for text (no encoding, this runs for every column read), the
+     * binary protocol size for numbers and dates
+     */
+    private static long sizeOf(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof String) {
+            return ((String) value).length();
+        }
+        if (value instanceof byte[]) {
+            return ((byte[]) value).length;
+        }
+        if (value instanceof Boolean || value instanceof Byte) {
+            return 1;
+        }
+        if (value instanceof Number || value instanceof Temporal || value instanceof java.util.Date) {
+            return 8;
+        }
+        return value.toString().length();
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class MeteringHandler implements InvocationHandler {
+        private final Object target;
+
+        private MeteringHandler(Object target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (ROUND_TRIP_METHODS.contains(name)) {
+                roundTrips.incrementAndGet();
+            }
+            if (args != null) {
+                if (name.startsWith("execute") || name.startsWith("prepare") || name.equals("addBatch")) {
+                    // SQL text, sent with the statement (client-side prepared statements)
+                    if (args.length > 0 && args[0] instanceof String) {
+                        bytesSent.addAndGet(sizeOf(args[0]));
+                    }
+                } else if (name.startsWith("set") && target instanceof PreparedStatement && args.length >= 2) {
+                    bytesSent.addAndGet(sizeOf(args[1]));
+                }
+            }
+
+            Object result = RemoteTrafficMeter.invoke(target, method, args);
+
+            Class<?> returnType = method.getReturnType();
+            if (result != null && (returnType == Statement.class || returnType == PreparedStatement.class
+                    || returnType == CallableStatement.class || returnType == ResultSet.class)) {
+                return wrap(result, returnType);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Counts the column values read; the row's bytes are added to the shared counter once per row
+     */
+    private static final class ResultSetHandler implements InvocationHandler {
+        private final ResultSet target;
+        private long rowBytes;
+
+        private ResultSetHandler(ResultSet target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = RemoteTrafficMeter.invoke(target, method, args);
+
+            String name = method.getName();
+            if (args != null && args.length > 0 && name.startsWith("get")) {
+                rowBytes += sizeOf(result);
+            } else if ((name.equals("next") || name.equals("close")) && rowBytes > 0) {
+                bytesReceived.addAndGet(rowBytes);
+                rowBytes = 0;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Counter values at one point in time
+     */
+    public static final class Snapshot {
+        private final long roundTrips;
+        private final long bytesSent;
+        private final long bytesReceived;
+
+        private Snapshot(long roundTrips, long bytesSent, long bytesReceived) {
+            this.roundTrips = roundTrips;
+            this.bytesSent = bytesSent;
+            this.bytesReceived = bytesReceived;
+        }
+
+        public long getRoundTrips() { return roundTrips; }
+        public long getBytesSent() { return bytesSent; }
+        public long getBytesReceived() { return bytesReceived; }
+
+        /**
+         * Traffic between an earlier snapshot and this one
+         */
+        public Snapshot since(Snapshot earlier) {
+            return new Snapshot(roundTrips - earlier.roundTrips, bytesSent - earlier.bytesSent,
+                bytesReceived - earlier.bytesReceived);
+        }
+    }
+}
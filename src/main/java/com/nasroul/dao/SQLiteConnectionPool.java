@@ -0,0 +1,452 @@
+package com.nasroul.dao;
+
+import com.nasroul.perf.Counter;
+import com.nasroul.perf.MetricsRegistry;
+import org.sqlite.Function;
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteConnection;
+import org.sqlite.SQLiteConnectionConfig;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Keeps SQLite connections open between DAO calls, each with an LRU cache of its prepared statements
+ *
+ * DatabaseManager hands out a proxy per call; closing it returns the connection here (rolled back
+ * if a transaction was left open) and closing a statement prepared with prepareStatement(sql)
+ * returns it to the cache of its connection, with its result set closed and parameters cleared.
+ * A statement already in use on the connection (nested query with the same SQL) is prepared
+ * uncached. Connections are never waited for: when none is idle a new one is opened, and at most
+ * maxIdle are kept.
+ *
+ * The cache of a connection is dropped when the database schema_version changed since its
+ * statements were prepared (migrations, another instance of the application), because the driver
+ * keeps the column list read at prepare time.
+ *
+ * Metrics: db.sqlite.pool.open, db.sqlite.pool.reuse, db.sqlite.statement.cache.hit, .miss, .evict
+ * and .invalidate.
+ */
+final class SQLiteConnectionPool implements AutoCloseable {
+
+    private static final int TRACKED_STATEMENTS_PRUNE = 64;
+
+    private final String url;
+    private final int maxIdle;
+    private final int statementCacheSize;
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private boolean closed;
+
+    private final Counter opened;
+    private final Counter reused;
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+    private final Counter cacheEvictions;
+    private final Counter cacheInvalidations;
+
+    SQLiteConnectionPool(String url, int maxIdle, int statementCacheSize) {
+        this.url = url;
+        this.maxIdle = maxIdle;
+        this.statementCacheSize = statementCacheSize;
+
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        this.opened = metrics.counter("db.sqlite.pool.open");
+        this.reused = metrics.counter("db.sqlite.pool.reuse");
+        this.cacheHits = metrics.counter("db.sqlite.statement.cache.hit");
+        this.cacheMisses = metrics.counter("db.sqlite.statement.cache.miss");
+        this.cacheEvictions = metrics.counter("db.sqlite.statement.cache.evict");
+        this.cacheInvalidations = metrics.counter("db.sqlite.statement.cache.invalidate");
+    }
+
+    /**
+     * Most recently used idle connection, or a new one
+     */
+    Connection borrow() throws SQLException {
+        PooledConnection pooled;
+        synchronized (this) {
+            pooled = idle.pollFirst();
+        }
+
+        if (pooled == null) {
+            pooled = new PooledConnection(open());
+            opened.increment();
+        } else {
+            reused.increment();
+            try {
+                pooled.checkSchema();
+                return pooled.checkout();
+            } catch (SQLException e) {
+                // Broken connection, replace it
+                pooled.closePhysical();
+                pooled = new PooledConnection(open());
+                opened.increment();
+            }
+        }
+        pooled.checkSchema();
+        return pooled.checkout();
+    }
+
+    private Connection open() throws SQLException {
+        Connection conn = DriverManager.getConnection(url);
+
+        // Enable WAL mode for better concurrency (allows simultaneous reads and one write)
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA journal_mode=WAL");
+            // Set busy timeout to 30 seconds to handle locks
+            stmt.execute("PRAGMA busy_timeout=30000");
+        } catch (SQLException e) {
+            System.err.println("Failed to set SQLite pragmas: " + e.getMessage());
+        }
+        Function.create(conn, "unicode_lower", new UnicodeLower());
+        return conn;
+    }
+
+    private void release(PooledConnection pooled) {
+        boolean reusable = pooled.resetState();
+        synchronized (this) {
+            if (reusable && !closed && idle.size() < maxIdle) {
+                idle.addFirst(pooled);
+                return;
+            }
+        }
+        pooled.closePhysical();
+    }
+
+    /**
+     * Close the idle connections; connections in use are closed when they are released
+     */
+    @Override
+    public void close() {
+        List<PooledConnection> toClose;
+        synchronized (this) {
+            closed = true;
+            toClose = new ArrayList<>(idle);
+            idle.clear();
+        }
+        for (PooledConnection pooled : toClose) {
+            pooled.closePhysical();
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * One open SQLite connection and its statement cache, used by one caller at a time
+     */
+    private final class PooledConnection {
+        private final Connection physical;
+        private final Map<String, CachedStatement> statements;
+        private PreparedStatement schemaVersionQuery;
+        private int schemaVersion = -1;
+
+        // Current checkout
+        private Connection logical;
+        private final List<Statement> uncached = new ArrayList<>();
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                    if (size() <= statementCacheSize) {
+                        return false;
+                    }
+                    cacheEvictions.increment();
+                    eldest.getValue().evict();
+                    return true;
+                }
+            };
+        }
+
+        private Connection checkout() {
+            logical = (Connection) Proxy.newProxyInstance(SQLiteConnectionPool.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(this));
+            return logical;
+        }
+
+        private int readSchemaVersion() throws SQLException {
+            if (schemaVersionQuery == null) {
+                schemaVersionQuery = physical.prepareStatement("PRAGMA schema_version");
+            }
+            try (ResultSet rs = schemaVersionQuery.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : -1;
+            }
+        }
+
+        /**
+         * Drop the cached statements if the schema changed since they were prepared; read before the
+         * caller starts a transaction, a read inside it would make its first write fail with SQLITE_BUSY
+         * instead of waiting for the lock
+         */
+        private void checkSchema() throws SQLException {
+            if (statementCacheSize == 0) {
+                return;
+            }
+            int current = readSchemaVersion();
+            if (current != schemaVersion && !statements.isEmpty()) {
+                cacheInvalidations.increment();
+                for (CachedStatement cached : statements.values()) {
+                    cached.evict();
+                }
+                statements.clear();
+            }
+            schemaVersion = current;
+        }
+
+        private PreparedStatement prepare(String sql) throws SQLException {
+            CachedStatement cached = statements.get(sql);
+            if (cached != null && !cached.inUse) {
+                cacheHits.increment();
+                return cached.borrow();
+            }
+
+            cacheMisses.increment();
+            if (cached == null && statementCacheSize > 0) {
+                cached = new CachedStatement(this, physical.prepareStatement(sql));
+                statements.put(sql, cached);
+                return cached.borrow();
+            }
+            return track(physical.prepareStatement(sql));
+        }
+
+        private <T extends Statement> T track(T statement) throws SQLException {
+            // Long checkouts (a sync session) prepare many statements, forget the ones already closed
+            if (uncached.size() >= TRACKED_STATEMENTS_PRUNE) {
+                for (Iterator<Statement> it = uncached.iterator(); it.hasNext(); ) {
+                    if (it.next().isClosed()) {
+                        it.remove();
+                    }
+                }
+            }
+            uncached.add(statement);
+            return statement;
+        }
+
+        /**
+         * End of a checkout: close what the caller left open and roll back an unfinished transaction
+         *
+         * @return false when the connection cannot be reused
+         */
+        private boolean resetState() {
+            logical = null;
+            try {
+                for (Statement statement : uncached) {
+                    statement.close();
+                }
+                uncached.clear();
+                for (Iterator<CachedStatement> it = statements.values().iterator(); it.hasNext(); ) {
+                    CachedStatement cached = it.next();
+                    if (cached.inUse && !cached.release()) {
+                        it.remove();
+                    }
+                }
+                // ChangeLogDAO switches to BEGIN IMMEDIATE; left set, every commit would start a write transaction
+                SQLiteConnectionConfig config = physical.unwrap(SQLiteConnection.class).getConnectionConfig();
+                if (config.getTransactionMode() != SQLiteConfig.TransactionMode.DEFERRED) {
+                    config.setTransactionMode(SQLiteConfig.TransactionMode.DEFERRED);
+                }
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+                return !physical.isClosed();
+            } catch (SQLException e) {
+                System.err.println("Discarding SQLite connection: " + e.getMessage());
+                return false;
+            }
+        }
+
+        private void closePhysical() {
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                System.err.println("Failed to close SQLite connection: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * The connection handed to one caller; closing it releases the pooled connection
+     */
+    private final class ConnectionHandler implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean closed;
+
+        private ConnectionHandler(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + pooled.physical;
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Connection is closed");
+            }
+
+            if (name.equals("prepareStatement") && args.length == 1) {
+                return pooled.prepare((String) args[0]);
+            }
+            Object result = SQLiteConnectionPool.invoke(pooled.physical, method, args);
+            if (result instanceof Statement) {
+                pooled.track((Statement) result);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * A prepared statement kept open on its connection; the same proxy is handed out on every hit
+     */
+    private static final class CachedStatement implements InvocationHandler {
+        private final PooledConnection owner;
+        private final PreparedStatement target;
+        private final PreparedStatement proxy;
+        private ResultSet openResultSet;
+        private boolean inUse;
+        private boolean evicted;
+
+        private CachedStatement(PooledConnection owner, PreparedStatement target) {
+            this.owner = owner;
+            this.target = target;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(SQLiteConnectionPool.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, this);
+        }
+
+        private PreparedStatement borrow() {
+            inUse = true;
+            return proxy;
+        }
+
+        /**
+         * Make the statement ready for the next caller
+         *
+         * @return false when it failed and was closed
+         */
+        private boolean release() {
+            inUse = false;
+            try {
+                if (openResultSet != null) {
+                    // Resets the statement, ending its read transaction
+                    openResultSet.close();
+                    openResultSet = null;
+                }
+                target.clearParameters();
+                target.clearBatch();
+                if (evicted) {
+                    target.close();
+                }
+                return true;
+            } catch (SQLException e) {
+                closeQuietly();
+                return false;
+            }
+        }
+
+        /**
+         * Removed from the cache: closed now, or when its current user releases it
+         */
+        private void evict() {
+            evicted = true;
+            if (!inUse) {
+                closeQuietly();
+            } else {
+                // Closed with the checkout if its user does not close it
+                owner.uncached.add(target);
+            }
+        }
+
+        private void closeQuietly() {
+            try {
+                target.close();
+            } catch (SQLException e) {
+                // Already unusable
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    if (inUse && !release()) {
+                        owner.statements.values().remove(this);
+                    }
+                    return null;
+                case "isClosed":
+                    return !inUse;
+                case "getConnection":
+                    return owner.logical;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            if (!inUse) {
+                throw new SQLException("Statement is closed");
+            }
+
+            Object result = SQLiteConnectionPool.invoke(target, method, args);
+            if (result instanceof ResultSet) {
+                openResultSet = (ResultSet) result;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * unicode_lower(text): SQLite's lower() and LIKE only fold ASCII letters, so "É" would not match "é"
+     */
+    private static class UnicodeLower extends Function {
+        @Override
+        protected void xFunc() throws SQLException {
+            String value = value_text(0);
+            if (value == null) {
+                result();
+            } else {
+                result(value.toLowerCase(Locale.ROOT));
+            }
+        }
+    }
+}
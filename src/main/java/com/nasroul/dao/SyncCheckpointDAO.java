@@ -0,0 +1,193 @@
+package com.nasroul.dao;
+
+import java.sql.*;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * DAO for the sync_checkpoint table
+ *
+ * Holds the position of the sync session in progress: phase, table and last remote id applied.
+ * It is saved after every committed chunk and cleared when a session completes, so a session that
+ * stopped half way (network loss) is resumed from there instead of starting over from the first table.
+ */
+public class SyncCheckpointDAO {
+    private static final String CHECKPOINT_NAME = "current";
+
+    private final DatabaseManager dbManager;
+
+    public SyncCheckpointDAO() {
+        this.dbManager = DatabaseManager.getInstance();
+    }
+
+    /**
+     * Checkpoint of the unfinished session, null when the last session completed
+     */
+    public Checkpoint get() throws SQLException {
+        String sql = "SELECT * FROM sync_checkpoint WHERE name = ?";
+
+        try (Connection conn = dbManager.getSQLiteConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, CHECKPOINT_NAME);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return new Checkpoint(
+                        rs.getString("session_id"),
+                        rs.getString("phase"),
+                        rs.getString("table_name"),
+                        rs.getInt("last_key"),
+                        rs.getString("pull_mode"),
+                        rs.getLong("feed_head"));
+                }
+            }
+        }
+
+        return null;
+    }
+
+    public void save(Checkpoint checkpoint) throws SQLException {
+        String sql = """
+            INSERT INTO sync_checkpoint (name, session_id, phase, table_name, last_key, pull_mode, feed_head, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, datetime('now'))
+            ON CONFLICT(name) DO UPDATE SET
+                session_id = excluded.session_id, phase = excluded.phase, table_name = excluded.table_name,
+                last_key = excluded.last_key, pull_mode = excluded.pull_mode, feed_head = excluded.feed_head,
+                updated_at = excluded.updated_at
+            """;
+
+        try (Connection conn = dbManager.getSQLiteConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, CHECKPOINT_NAME);
+            pstmt.setString(2, checkpoint.getSessionId());
+            pstmt.setString(3, checkpoint.getPhase());
+            pstmt.setString(4, checkpoint.getTableName());
+            pstmt.setInt(5, checkpoint.getLastKey());
+            pstmt.setString(6, checkpoint.getPullMode());
+            pstmt.setLong(7, checkpoint.getFeedHead());
+
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Forget the checkpoint once the session has completed
+     */
+    public void clear() throws SQLException {
+        try (Connection conn = dbManager.getSQLiteConnection();
+             PreparedStatement pstmt = conn.prepareStatement("DELETE FROM sync_checkpoint WHERE name = ?")) {
+            pstmt.setString(1, CHECKPOINT_NAME);
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Keys (table:remoteId) of the remote rows that failed to apply on a previous pull
+     */
+    public Set<String> getPullFailures() throws SQLException {
+        Set<String> keys = new HashSet<>();
+        try (Connection conn = dbManager.getSQLiteConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT table_name, remote_id FROM sync_pull_failures")) {
+            while (rs.next()) {
+                keys.add(pullFailureKey(rs.getString("table_name"), rs.getInt("remote_id")));
+            }
+        }
+        return keys;
+    }
+
+    public static String pullFailureKey(String tableName, int remoteId) {
+        return tableName + ":" + remoteId;
+    }
+
+    /**
+     * Count one more failed attempt to apply a remote row
+     *
+     * @return attempts so far, this one included
+     */
+    public int recordPullFailure(String tableName, int remoteId, String error) throws SQLException {
+        String sql = """
+            INSERT INTO sync_pull_failures (table_name, remote_id, attempts, last_error, updated_at)
+            VALUES (?, ?, 1, ?, datetime('now'))
+            ON CONFLICT(table_name, remote_id) DO UPDATE SET
+                attempts = attempts + 1, last_error = excluded.last_error, updated_at = excluded.updated_at
+            """;
+        String countSql = "SELECT attempts FROM sync_pull_failures WHERE table_name = ? AND remote_id = ?";
+
+        try (Connection conn = dbManager.getSQLiteConnection()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, tableName);
+                pstmt.setInt(2, remoteId);
+                pstmt.setString(3, error);
+                pstmt.executeUpdate();
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(countSql)) {
+                pstmt.setString(1, tableName);
+                pstmt.setInt(2, remoteId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return rs.next() ? rs.getInt(1) : 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Forget the failures of a remote row once it has been applied
+     */
+    public void clearPullFailure(String tableName, int remoteId) throws SQLException {
+        try (Connection conn = dbManager.getSQLiteConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                 "DELETE FROM sync_pull_failures WHERE table_name = ? AND remote_id = ?")) {
+            pstmt.setString(1, tableName);
+            pstmt.setInt(2, remoteId);
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Inner class representing the last committed position of a session
+     */
+    public static class Checkpoint {
+        public static final String PHASE_PULL = "PULL";
+        public static final String PHASE_PUSH = "PUSH";
+        public static final String MODE_FULL = "FULL";
+        public static final String MODE_FEED = "FEED";
+
+        private final String sessionId;
+        private final String phase;
+        private final String tableName;
+        private final int lastKey;
+        private final String pullMode;
+        private final long feedHead;
+
+        public Checkpoint(String sessionId, String phase, String tableName, int lastKey,
+                          String pullMode, long feedHead) {
+            this.sessionId = sessionId;
+            this.phase = phase;
+            this.tableName = tableName;
+            this.lastKey = lastKey;
+            this.pullMode = pullMode;
+            this.feedHead = feedHead;
+        }
+
+        public String getSessionId() { return sessionId; }
+        public String getPhase() { return phase; }
+        public String getTableName() { return tableName; }
+        // Highest remote id applied in the table, 0 when the table has not started
+        public int getLastKey() { return lastKey; }
+        public String getPullMode() { return pullMode; }
+        // change_feed seq the session pulls up to, saved as the feed cursor when it completes
+        public long getFeedHead() { return feedHead; }
+
+        public Checkpoint at(String phase, String tableName, int lastKey) {
+            return new Checkpoint(sessionId, phase, tableName, lastKey, pullMode, feedHead);
+        }
+
+        @Override
+        public String toString() {
+            return phase + " " + tableName + " after id " + lastKey + " (" + pullMode + ", session " + sessionId + ")";
+        }
+    }
+}
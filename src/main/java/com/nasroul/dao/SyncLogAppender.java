@@ -0,0 +1,295 @@
+package com.nasroul.dao;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes sync_log entries in the background for the duration of a sync session
+ *
+ * SQLite and MySQL each get a bounded queue drained by their own writer thread, which inserts
+ * up to MAX_BATCH entries per transaction. A slow database only delays its own log. When a queue
+ * is full, log calls block until the writer catches up. close() waits until every entry has been
+ * written, so the session log is complete once the sync returns.
+ *
+ * The appender also counts the local entries per table, direction and status, and times each
+ * table phase. close() saves these counts as the session rollup (sync_session_summary), so the
+ * history can list sessions without scanning their detail rows.
+ */
+public class SyncLogAppender implements AutoCloseable {
+
+    public static final int QUEUE_CAPACITY = 4096;
+    public static final int MAX_BATCH = 500;
+
+    // Same format and clock as SQLite datetime('now')
+    private static final DateTimeFormatter SQLITE_DATETIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    // Session bounds keep milliseconds, still ordered and comparable with datetime('now') as text
+    private static final DateTimeFormatter SESSION_DATETIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+
+    @FunctionalInterface
+    interface BatchWriter {
+        void write(List<Entry> entries) throws SQLException;
+    }
+
+    @FunctionalInterface
+    interface RollupWriter {
+        void write(Rollup rollup) throws SQLException;
+    }
+
+    private final String syncSessionId;
+    private final String startedAt;
+    private final Writer sqliteWriter;
+    private final Writer mysqlWriter;
+    private final RollupWriter rollupWriter;
+    // "table|direction|status" -> entry count, "table|direction" -> phase duration in ms
+    private final Map<String, Integer> counts = new ConcurrentHashMap<>();
+    private final Map<String, Long> durations = new ConcurrentHashMap<>();
+    private boolean closed;
+
+    SyncLogAppender(String syncSessionId, BatchWriter sqliteBatch, BatchWriter mysqlBatch, RollupWriter rollupWriter) {
+        this.syncSessionId = syncSessionId;
+        this.startedAt = LocalDateTime.now(ZoneOffset.UTC).format(SESSION_DATETIME);
+        this.sqliteWriter = new Writer("sqlite", sqliteBatch);
+        this.mysqlWriter = new Writer("mysql", mysqlBatch);
+        this.rollupWriter = rollupWriter;
+    }
+
+    /**
+     * Queue a log entry for the local SQLite database
+     */
+    public void log(String syncSessionId, String tableName, int recordId,
+                    String operation, String syncDirection, String status,
+                    String errorMessage) {
+        sqliteWriter.append(new Entry(syncSessionId, tableName, recordId, operation, syncDirection,
+                status, errorMessage, nowUtc()));
+        counts.merge(tableName + "|" + syncDirection + "|" + status, 1, Integer::sum);
+    }
+
+    /**
+     * Queue a log entry for MySQL (cross-device visibility)
+     * MySQL entries are stamped with the server clock when written, like the synchronous logMySQL
+     */
+    public void logMySQL(String syncSessionId, String tableName, int recordId,
+                         String operation, String syncDirection, String status,
+                         String errorMessage) {
+        mysqlWriter.append(new Entry(syncSessionId, tableName, recordId, operation, syncDirection,
+                status, errorMessage, null));
+    }
+
+    /**
+     * Record the time spent on one table in one direction, added to the session rollup
+     */
+    public void recordPhase(String tableName, String syncDirection, long durationMs) {
+        durations.merge(tableName + "|" + syncDirection, durationMs, Long::sum);
+    }
+
+    /**
+     * Block until every entry queued so far has been written (or failed) on both databases
+     */
+    public void flush() {
+        sqliteWriter.flush();
+        mysqlWriter.flush();
+    }
+
+    /**
+     * Write the remaining entries and stop the writer threads
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        sqliteWriter.close();
+        mysqlWriter.close();
+
+        try {
+            rollupWriter.write(buildRollup());
+        } catch (Exception e) {
+            System.err.println("Failed to save sync session summary " + syncSessionId + ": " + e.getMessage());
+        }
+    }
+
+    private Rollup buildRollup() {
+        Map<String, RollupRow> rows = new LinkedHashMap<>();
+        counts.forEach((key, count) -> {
+            String[] parts = key.split("\\|", 3);
+            Long duration = durations.get(parts[0] + "|" + parts[1]);
+            rows.put(key, new RollupRow(parts[0], parts[1], parts[2], count, duration != null ? duration : 0));
+        });
+        // Phases that logged nothing still report their duration
+        durations.forEach((key, duration) -> {
+            String[] parts = key.split("\\|", 2);
+            boolean logged = rows.values().stream()
+                .anyMatch(row -> row.tableName.equals(parts[0]) && row.syncDirection.equals(parts[1]));
+            if (!logged) {
+                rows.put(key + "|SUCCESS", new RollupRow(parts[0], parts[1], "SUCCESS", 0, duration));
+            }
+        });
+        String finishedAt = LocalDateTime.now(ZoneOffset.UTC).format(SESSION_DATETIME);
+        return new Rollup(syncSessionId, startedAt, finishedAt, new ArrayList<>(rows.values()));
+    }
+
+    private static String nowUtc() {
+        return LocalDateTime.now(ZoneOffset.UTC).format(SQLITE_DATETIME);
+    }
+
+    /**
+     * One queued sync_log row
+     */
+    static final class Entry {
+        final String syncSessionId;
+        final String tableName;
+        final int recordId;
+        final String operation;
+        final String syncDirection;
+        final String status;
+        final String errorMessage;
+        final String syncedAt;
+
+        private Entry(String syncSessionId, String tableName, int recordId, String operation,
+                      String syncDirection, String status, String errorMessage, String syncedAt) {
+            this.syncSessionId = syncSessionId;
+            this.tableName = tableName;
+            this.recordId = recordId;
+            this.operation = operation;
+            this.syncDirection = syncDirection;
+            this.status = status;
+            this.errorMessage = errorMessage;
+            this.syncedAt = syncedAt;
+        }
+    }
+
+    /**
+     * Counts of one session, saved once the session ends
+     */
+    static final class Rollup {
+        final String syncSessionId;
+        final String startedAt;
+        final String finishedAt;
+        final List<RollupRow> rows;
+
+        private Rollup(String syncSessionId, String startedAt, String finishedAt, List<RollupRow> rows) {
+            this.syncSessionId = syncSessionId;
+            this.startedAt = startedAt;
+            this.finishedAt = finishedAt;
+            this.rows = rows;
+        }
+    }
+
+    static final class RollupRow {
+        final String tableName;
+        final String syncDirection;
+        final String status;
+        final int entryCount;
+        final long durationMs;
+
+        private RollupRow(String tableName, String syncDirection, String status, int entryCount, long durationMs) {
+            this.tableName = tableName;
+            this.syncDirection = syncDirection;
+            this.status = status;
+            this.entryCount = entryCount;
+            this.durationMs = durationMs;
+        }
+    }
+
+    private static final class Writer implements Runnable {
+        private final String name;
+        private final BatchWriter batchWriter;
+        private final BlockingQueue<Entry> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private final AtomicLong appended = new AtomicLong();
+        private final Object progress = new Object();
+        private final Thread thread;
+        private long written;
+        private volatile boolean closed;
+
+        private Writer(String name, BatchWriter batchWriter) {
+            this.name = name;
+            this.batchWriter = batchWriter;
+            this.thread = new Thread(this, "sync-log-" + name);
+            this.thread.setDaemon(true);
+            this.thread.start();
+        }
+
+        void append(Entry entry) {
+            if (closed) {
+                throw new IllegalStateException("Sync log appender is closed");
+            }
+            try {
+                // Backpressure: wait for the writer rather than growing without bound
+                queue.put(entry);
+                appended.incrementAndGet();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                System.err.println("Sync log entry dropped (interrupted): " + entry.tableName + " " + entry.recordId);
+            }
+        }
+
+        @Override
+        public void run() {
+            List<Entry> batch = new ArrayList<>(MAX_BATCH);
+            while (!closed || !queue.isEmpty()) {
+                Entry first;
+                try {
+                    first = queue.poll(100, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    continue;
+                }
+                if (first == null) {
+                    continue;
+                }
+
+                batch.clear();
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+                try {
+                    batchWriter.write(batch);
+                } catch (Exception e) {
+                    // Losing log rows must not fail the sync itself
+                    System.err.println("Failed to write " + batch.size() + " sync log entries to " + name + ": " + e.getMessage());
+                }
+
+                synchronized (progress) {
+                    written += batch.size();
+                    progress.notifyAll();
+                }
+            }
+        }
+
+        void flush() {
+            long target = appended.get();
+            boolean interrupted = false;
+            synchronized (progress) {
+                while (written < target && thread.isAlive()) {
+                    try {
+                        progress.wait(100);
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        void close() {
+            closed = true;
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
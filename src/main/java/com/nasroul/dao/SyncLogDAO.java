@@ -1,6 +1,7 @@
 package com.nasroul.dao;
 
 import java.sql.*;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -11,10 +12,48 @@ import java.util.UUID;
  * Audit log for all sync operations
  */
 public class SyncLogDAO {
+    private static final int RETENTION_CHUNK = 5000;
+
     private final DatabaseManager dbManager;
+    private final KeysetQuery<SyncLog> pageQuery;
 
     public SyncLogDAO() {
         this.dbManager = DatabaseManager.getInstance();
+        this.pageQuery = new KeysetQuery<>("""
+            SELECT *
+            FROM sync_log
+            """, "1 = 1", new KeysetQuery.Column("id", "id"), "logged", false, this::extractSyncLog)
+            // Ids follow insertion order, so this is the log order without a separate date index
+            .sortKey("logged")
+            .sortKey("syncedAt", new KeysetQuery.Column("synced_at", "synced_at"))
+            .filterOn("session", "sync_session_id")
+            .filterOn("status", "status")
+            .filterOn("table", "table_name")
+            .filterOn("direction", "sync_direction")
+            .searchOn("table_name")
+            .searchOn("operation")
+            .searchOn("status")
+            .searchOn("sync_session_id");
+    }
+
+    /**
+     * Read one page of sync logs with keyset pagination
+     * Newest first; filters: session, status, table, direction;
+     * search matches table, operation, status and session id
+     */
+    public Page<SyncLog> findPage(PageRequest request) throws SQLException {
+        try (Connection conn = dbManager.getSQLiteConnection()) {
+            return pageQuery.fetch(conn, request);
+        }
+    }
+
+    /**
+     * Number of rows matching the request filter, used to size paged views
+     */
+    public int count(PageRequest request) throws SQLException {
+        try (Connection conn = dbManager.getSQLiteConnection()) {
+            return pageQuery.count(conn, request);
+        }
     }
 
     /**
@@ -79,6 +118,245 @@ public class SyncLogDAO {
         }
     }
 
+    /**
+     * Open a background appender for the log entries of one sync session
+     * The caller must close it so pending entries are written before the session ends
+     */
+    public SyncLogAppender openAppender(String syncSessionId) {
+        return new SyncLogAppender(syncSessionId, this::insertBatch, this::insertBatchMySQL, this::saveRollup);
+    }
+
+    /**
+     * Insert queued entries into SQLite in one transaction
+     */
+    void insertBatch(List<SyncLogAppender.Entry> entries) throws SQLException {
+        String sql = """
+            INSERT INTO sync_log
+            (sync_session_id, table_name, record_id, operation,
+             sync_direction, status, error_message, synced_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+        try (Connection conn = dbManager.getSQLiteConnection()) {
+            writeBatch(conn, sql, entries, true);
+        }
+    }
+
+    /**
+     * Insert queued entries into MySQL in one transaction
+     */
+    void insertBatchMySQL(List<SyncLogAppender.Entry> entries) throws SQLException {
+        String sql = """
+            INSERT INTO sync_log
+            (sync_session_id, table_name, record_id, operation,
+             sync_direction, status, error_message, synced_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, NOW())
+            """;
+
+        try (Connection conn = dbManager.getMySQLConnection()) {
+            writeBatch(conn, sql, entries, false);
+        }
+    }
+
+    private void writeBatch(Connection conn, String sql, List<SyncLogAppender.Entry> entries,
+                            boolean bindSyncedAt) throws SQLException {
+        conn.setAutoCommit(false);
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (SyncLogAppender.Entry entry : entries) {
+                pstmt.setString(1, entry.syncSessionId);
+                pstmt.setString(2, entry.tableName);
+                pstmt.setInt(3, entry.recordId);
+                pstmt.setString(4, entry.operation);
+                pstmt.setString(5, entry.syncDirection);
+                pstmt.setString(6, entry.status);
+                pstmt.setString(7, entry.errorMessage);
+                if (bindSyncedAt) {
+                    pstmt.setString(8, entry.syncedAt);
+                }
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        }
+    }
+
+    /**
+     * Save the per table, direction and status counts of a finished session
+     */
+    void saveRollup(SyncLogAppender.Rollup rollup) throws SQLException {
+        String sql = """
+            INSERT OR REPLACE INTO sync_session_summary
+            (sync_session_id, table_name, sync_direction, status, entry_count,
+             duration_ms, started_at, finished_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+        try (Connection conn = dbManager.getSQLiteConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (SyncLogAppender.RollupRow row : rollup.rows) {
+                    pstmt.setString(1, rollup.syncSessionId);
+                    pstmt.setString(2, row.tableName);
+                    pstmt.setString(3, row.syncDirection);
+                    pstmt.setString(4, row.status);
+                    pstmt.setInt(5, row.entryCount);
+                    pstmt.setLong(6, row.durationMs);
+                    pstmt.setString(7, rollup.startedAt);
+                    pstmt.setString(8, rollup.finishedAt);
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Save the totals of a session (rows, traffic, duration), kept as long as its rollup
+     */
+    public void saveSessionMetrics(SessionMetrics metrics) throws SQLException {
+        String sql = """
+            INSERT OR REPLACE INTO sync_session_metrics
+            (sync_session_id, status, rows_processed, rows_pulled, rows_pushed,
+             bytes_sent, bytes_received, round_trips, duration_ms, recorded_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, datetime('now'))
+            """;
+
+        try (Connection conn = dbManager.getSQLiteConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, metrics.getSyncSessionId());
+            pstmt.setString(2, metrics.getStatus());
+            pstmt.setInt(3, metrics.getRowsProcessed());
+            pstmt.setInt(4, metrics.getRowsPulled());
+            pstmt.setInt(5, metrics.getRowsPushed());
+            pstmt.setLong(6, metrics.getBytesSent());
+            pstmt.setLong(7, metrics.getBytesReceived());
+            pstmt.setLong(8, metrics.getRoundTrips());
+            pstmt.setLong(9, metrics.getDurationMs());
+
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Latest sync sessions, newest first, read from the rollup table
+     */
+    public List<SyncSession> getRecentSessions(int limit) throws SQLException {
+        List<SyncSession> sessions = new ArrayList<>();
+        String sql = """
+            SELECT s.*, m.rows_processed, m.bytes_sent, m.bytes_received, m.round_trips
+            FROM (
+                SELECT sync_session_id,
+                       MIN(started_at) AS started_at,
+                       MAX(finished_at) AS finished_at,
+                       COUNT(DISTINCT table_name) AS table_count,
+                       SUM(CASE WHEN status = 'SUCCESS' THEN entry_count ELSE 0 END) AS success_count,
+                       SUM(CASE WHEN status = 'FAILED' THEN entry_count ELSE 0 END) AS failed_count,
+                       SUM(CASE WHEN sync_direction = 'PULL' THEN entry_count ELSE 0 END) AS pull_count,
+                       SUM(CASE WHEN sync_direction = 'PUSH' THEN entry_count ELSE 0 END) AS push_count
+                FROM sync_session_summary
+                GROUP BY sync_session_id
+                ORDER BY started_at DESC
+                LIMIT ?
+            ) s
+            LEFT JOIN sync_session_metrics m ON m.sync_session_id = s.sync_session_id
+            ORDER BY s.started_at DESC
+            """;
+
+        try (Connection conn = dbManager.getSQLiteConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, limit);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    SyncSession session = new SyncSession();
+                    session.setSyncSessionId(rs.getString("sync_session_id"));
+                    session.setStartedAt(parseDateTime(rs.getString("started_at")));
+                    session.setFinishedAt(parseDateTime(rs.getString("finished_at")));
+                    session.setTableCount(rs.getInt("table_count"));
+                    session.setSuccessCount(rs.getInt("success_count"));
+                    session.setFailedCount(rs.getInt("failed_count"));
+                    session.setPullCount(rs.getInt("pull_count"));
+                    session.setPushCount(rs.getInt("push_count"));
+                    // Sessions recorded before metrics were kept have none
+                    session.setRowsProcessed(rs.getInt("rows_processed"));
+                    session.setBytesTransferred(rs.getLong("bytes_sent") + rs.getLong("bytes_received"));
+                    session.setRoundTrips(rs.getLong("round_trips"));
+                    sessions.add(session);
+                }
+            }
+        }
+
+        return sessions;
+    }
+
+    /**
+     * Delete detail rows older than detailDays and session rollups older than summaryDays
+     * Rows are deleted in chunks so a large backlog never holds the write lock for long
+     *
+     * @return number of detail rows deleted
+     */
+    public int applyRetention(int detailDays, int summaryDays) throws SQLException {
+        String detailSql = """
+            DELETE FROM sync_log WHERE id IN (
+                SELECT id FROM sync_log
+                WHERE synced_at < datetime('now', '-' || ? || ' days')
+                LIMIT ?)
+            """;
+        String summarySql = "DELETE FROM sync_session_summary WHERE started_at < datetime('now', '-' || ? || ' days')";
+        String metricsSql = "DELETE FROM sync_session_metrics WHERE recorded_at < datetime('now', '-' || ? || ' days')";
+
+        int deleted = 0;
+        try (Connection conn = dbManager.getSQLiteConnection()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(detailSql)) {
+                int chunk;
+                do {
+                    pstmt.setInt(1, detailDays);
+                    pstmt.setInt(2, RETENTION_CHUNK);
+                    chunk = pstmt.executeUpdate();
+                    deleted += chunk;
+                } while (chunk == RETENTION_CHUNK);
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(summarySql)) {
+                pstmt.setInt(1, summaryDays);
+                pstmt.executeUpdate();
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(metricsSql)) {
+                pstmt.setInt(1, summaryDays);
+                pstmt.executeUpdate();
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Delete MySQL detail rows older than detailDays, in chunks
+     */
+    public int applyRetentionMySQL(int detailDays) throws SQLException {
+        String sql = "DELETE FROM sync_log WHERE synced_at < TIMESTAMPADD(DAY, ?, NOW()) LIMIT ?";
+
+        int deleted = 0;
+        try (Connection conn = dbManager.getMySQLConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int chunk;
+            do {
+                pstmt.setInt(1, -detailDays);
+                pstmt.setInt(2, RETENTION_CHUNK);
+                chunk = pstmt.executeUpdate();
+                deleted += chunk;
+            } while (chunk == RETENTION_CHUNK);
+        }
+        return deleted;
+    }
+
     /**
      * Start a new sync session
      */
@@ -175,19 +453,25 @@ public class SyncLogDAO {
         log.setStatus(rs.getString("status"));
         log.setErrorMessage(rs.getString("error_message"));
 
-        // SQLite stores datetime as TEXT - parse manually
-        String syncedAtStr = rs.getString("synced_at");
-        if (syncedAtStr != null && !syncedAtStr.isEmpty()) {
-            try {
-                log.setSyncedAt(LocalDateTime.parse(syncedAtStr.replace(" ", "T")));
-            } catch (Exception e) {
-                // Ignore parsing errors
-            }
-        }
+        log.setSyncedAt(parseDateTime(rs.getString("synced_at")));
 
         return log;
     }
 
+    /**
+     * SQLite stores datetime as TEXT - parse manually, null when missing or malformed
+     */
+    private LocalDateTime parseDateTime(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value.replace(" ", "T"));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
     /**
      * Inner class representing a sync log entry
      */
@@ -236,4 +520,111 @@ public class SyncLogDAO {
                     syncedAt, syncDirection, tableName, recordId, operation, status);
         }
     }
+
+    /**
+     * Inner class representing one sync session, aggregated from sync_session_summary
+     */
+    public static class SyncSession {
+        private String syncSessionId;
+        private LocalDateTime startedAt;
+        private LocalDateTime finishedAt;
+        private int tableCount;
+        private int successCount;
+        private int failedCount;
+        private int pullCount;
+        private int pushCount;
+        private int rowsProcessed;
+        private long bytesTransferred;
+        private long roundTrips;
+
+        // Getters and setters
+        public String getSyncSessionId() { return syncSessionId; }
+        public void setSyncSessionId(String syncSessionId) { this.syncSessionId = syncSessionId; }
+
+        public LocalDateTime getStartedAt() { return startedAt; }
+        public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+
+        public LocalDateTime getFinishedAt() { return finishedAt; }
+        public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+
+        public int getTableCount() { return tableCount; }
+        public void setTableCount(int tableCount) { this.tableCount = tableCount; }
+
+        public int getSuccessCount() { return successCount; }
+        public void setSuccessCount(int successCount) { this.successCount = successCount; }
+
+        public int getFailedCount() { return failedCount; }
+        public void setFailedCount(int failedCount) { this.failedCount = failedCount; }
+
+        public int getPullCount() { return pullCount; }
+        public void setPullCount(int pullCount) { this.pullCount = pullCount; }
+
+        public int getPushCount() { return pushCount; }
+        public void setPushCount(int pushCount) { this.pushCount = pushCount; }
+
+        public int getRowsProcessed() { return rowsProcessed; }
+        public void setRowsProcessed(int rowsProcessed) { this.rowsProcessed = rowsProcessed; }
+
+        public long getBytesTransferred() { return bytesTransferred; }
+        public void setBytesTransferred(long bytesTransferred) { this.bytesTransferred = bytesTransferred; }
+
+        public long getRoundTrips() { return roundTrips; }
+        public void setRoundTrips(long roundTrips) { this.roundTrips = roundTrips; }
+
+        /**
+         * Rows processed per second over the whole session, 0 when unknown
+         */
+        public double getRowsPerSecond() {
+            long durationMs = getDurationMs();
+            return durationMs > 0 ? rowsProcessed * 1000.0 / durationMs : 0;
+        }
+
+        /**
+         * Wall-clock duration of the session in milliseconds, 0 when unknown
+         */
+        public long getDurationMs() {
+            if (startedAt == null || finishedAt == null) {
+                return 0;
+            }
+            return Duration.between(startedAt, finishedAt).toMillis();
+        }
+    }
+
+    /**
+     * Inner class representing the totals of one session
+     */
+    public static class SessionMetrics {
+        private final String syncSessionId;
+        private final String status;
+        private final int rowsProcessed;
+        private final int rowsPulled;
+        private final int rowsPushed;
+        private final long bytesSent;
+        private final long bytesReceived;
+        private final long roundTrips;
+        private final long durationMs;
+
+        public SessionMetrics(String syncSessionId, String status, int rowsProcessed, int rowsPulled, int rowsPushed,
+                              long bytesSent, long bytesReceived, long roundTrips, long durationMs) {
+            this.syncSessionId = syncSessionId;
+            this.status = status;
+            this.rowsProcessed = rowsProcessed;
+            this.rowsPulled = rowsPulled;
+            this.rowsPushed = rowsPushed;
+            this.bytesSent = bytesSent;
+            this.bytesReceived = bytesReceived;
+            this.roundTrips = roundTrips;
+            this.durationMs = durationMs;
+        }
+
+        public String getSyncSessionId() { return syncSessionId; }
+        public String getStatus() { return status; }
+        public int getRowsProcessed() { return rowsProcessed; }
+        public int getRowsPulled() { return rowsPulled; }
+        public int getRowsPushed() { return rowsPushed; }
+        public long getBytesSent() { return bytesSent; }
+        public long getBytesReceived() { return bytesReceived; }
+        public long getRoundTrips() { return roundTrips; }
+        public long getDurationMs() { return durationMs; }
+    }
 }
@@ -331,6 +331,22 @@ public class SyncMetadataDAO {
         }
     }
 
+    /**
+     * Forget the remote ID of a local record, its next push inserts a new remote row
+     */
+    public void clearRemoteId(String tableName, int localId) throws SQLException {
+        String sql = "UPDATE sync_metadata SET remote_id = NULL WHERE table_name = ? AND record_id = ?";
+
+        try (Connection conn = dbManager.getSQLiteConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, tableName);
+            pstmt.setInt(2, localId);
+
+            pstmt.executeUpdate();
+        }
+    }
+
     /**
      * Get remote ID for a local record
      */
@@ -0,0 +1,27 @@
+package com.nasroul.perf;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonic count of events (SMS sent, rows pulled...)
+ */
+public class Counter {
+
+    private final LongAdder value = new LongAdder();
+
+    public void increment() {
+        value.increment();
+    }
+
+    public void add(long amount) {
+        value.add(amount);
+    }
+
+    public long getCount() {
+        return value.sum();
+    }
+
+    public void reset() {
+        value.reset();
+    }
+}
@@ -0,0 +1,34 @@
+package com.nasroul.perf;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Excel import or export of one file
+ */
+@Name("com.nasroul.Excel")
+@Label("Excel Import/Export")
+@Category({"Nasroul", "Excel"})
+@StackTrace(false)
+public class ExcelEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("File")
+    public String file;
+
+    @Label("Rows")
+    public long rows;
+
+    @Label("File Size")
+    @DataAmount
+    public long fileSize;
+
+    @Label("Success")
+    public boolean success;
+}
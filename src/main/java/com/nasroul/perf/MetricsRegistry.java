@@ -0,0 +1,194 @@
+package com.nasroul.perf;
+
+import kong.unirest.json.JSONArray;
+import kong.unirest.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Process-wide named counters, timers and histograms, shown on the Performance view
+ *
+ * Metrics are created on first use and live until the application exits; reset() only zeroes them.
+ * Names derived from data (SQL templates) are capped at MAX_METRICS: past it, new names get a
+ * metric that works but is not kept.
+ */
+public final class MetricsRegistry {
+
+    static final int MAX_METRICS = 500;
+    static final int SLOW_QUERY_REPORT_SIZE = 50;
+
+    private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+
+    private final Map<String, Object> metrics = new ConcurrentHashMap<>();
+
+    private MetricsRegistry() {
+    }
+
+    public static MetricsRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    public Counter counter(String name) {
+        return get(name, Counter.class, Counter::new);
+    }
+
+    public Timer timer(String name) {
+        return get(name, Timer.class, Timer::new);
+    }
+
+    public Histogram histogram(String name) {
+        return get(name, Histogram.class, Histogram::new);
+    }
+
+    private <T> T get(String name, Class<T> type, Supplier<T> factory) {
+        Object metric = metrics.get(name);
+        if (metric == null) {
+            if (metrics.size() >= MAX_METRICS) {
+                return factory.get();
+            }
+            metric = metrics.computeIfAbsent(name, key -> factory.get());
+        }
+        if (!type.isInstance(metric)) {
+            throw new IllegalArgumentException("Metric " + name + " is a " + metric.getClass().getSimpleName()
+                + ", not a " + type.getSimpleName());
+        }
+        return type.cast(metric);
+    }
+
+    /**
+     * Current value of every metric, ordered by name
+     */
+    public List<MetricSnapshot> snapshot() {
+        List<MetricSnapshot> snapshots = new ArrayList<>();
+        for (Map.Entry<String, Object> entry : metrics.entrySet()) {
+            Object metric = entry.getValue();
+            if (metric instanceof Counter) {
+                snapshots.add(new MetricSnapshot(entry.getKey(), MetricSnapshot.Type.COUNTER, (Counter) metric));
+            } else if (metric instanceof Timer) {
+                snapshots.add(new MetricSnapshot(entry.getKey(), MetricSnapshot.Type.TIMER,
+                    ((Timer) metric).getDurations()));
+            } else {
+                snapshots.add(new MetricSnapshot(entry.getKey(), MetricSnapshot.Type.HISTOGRAM, (Histogram) metric));
+            }
+        }
+        snapshots.sort((a, b) -> a.getName().compareTo(b.getName()));
+        return snapshots;
+    }
+
+    /**
+     * Zero every metric, e.g. before reproducing a slow operation
+     */
+    public void reset() {
+        for (Object metric : metrics.values()) {
+            if (metric instanceof Counter) {
+                ((Counter) metric).reset();
+            } else if (metric instanceof Timer) {
+                ((Timer) metric).reset();
+            } else {
+                ((Histogram) metric).reset();
+            }
+        }
+    }
+
+    /**
+     * Write the snapshot and the slowest queries as JSON (durations in nanoseconds), to attach to a
+     * performance report
+     */
+    public void writeSnapshot(File file) throws IOException {
+        JSONArray array = new JSONArray();
+        for (MetricSnapshot snapshot : snapshot()) {
+            JSONObject json = new JSONObject();
+            json.put("name", snapshot.getName());
+            json.put("type", snapshot.getType().name());
+            json.put("count", snapshot.getCount());
+            if (snapshot.getType() != MetricSnapshot.Type.COUNTER) {
+                json.put("unit", snapshot.getType() == MetricSnapshot.Type.TIMER ? "ns" : "");
+                json.put("sum", snapshot.getSum());
+                json.put("min", snapshot.getMin());
+                json.put("mean", snapshot.getMean());
+                json.put("p50", snapshot.getP50());
+                json.put("p95", snapshot.getP95());
+                json.put("p99", snapshot.getP99());
+                json.put("max", snapshot.getMax());
+            }
+            array.put(json);
+        }
+
+        Runtime runtime = Runtime.getRuntime();
+        JSONObject root = new JSONObject();
+        root.put("generatedAt", LocalDateTime.now().toString());
+        root.put("uptimeMs", ManagementFactory.getRuntimeMXBean().getUptime());
+        root.put("heapUsedBytes", runtime.totalMemory() - runtime.freeMemory());
+        root.put("heapMaxBytes", runtime.maxMemory());
+        root.put("metrics", array);
+        root.put("slowQueryThresholdMs", SlowQueryLog.getInstance().getThresholdMs());
+        root.put("slowQueries", SlowQueryLog.getInstance().toJson(SLOW_QUERY_REPORT_SIZE));
+        Files.writeString(file.toPath(), root.toString(2), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Values of one metric at one point in time; for a counter only the count is set
+     */
+    public static final class MetricSnapshot {
+
+        public enum Type { COUNTER, TIMER, HISTOGRAM }
+
+        private final String name;
+        private final Type type;
+        private final long count;
+        private final long sum;
+        private final long min;
+        private final double mean;
+        private final long p50;
+        private final long p95;
+        private final long p99;
+        private final long max;
+
+        private MetricSnapshot(String name, Type type, Counter counter) {
+            this.name = name;
+            this.type = type;
+            this.count = counter.getCount();
+            this.sum = 0;
+            this.min = 0;
+            this.mean = 0;
+            this.p50 = 0;
+            this.p95 = 0;
+            this.p99 = 0;
+            this.max = 0;
+        }
+
+        private MetricSnapshot(String name, Type type, Histogram histogram) {
+            this.name = name;
+            this.type = type;
+            this.count = histogram.getCount();
+            this.sum = histogram.getSum();
+            this.min = histogram.getMin();
+            this.mean = histogram.getMean();
+            this.p50 = histogram.getPercentile(0.50);
+            this.p95 = histogram.getPercentile(0.95);
+            this.p99 = histogram.getPercentile(0.99);
+            this.max = histogram.getMax();
+        }
+
+        public String getName() { return name; }
+        public Type getType() { return type; }
+        public long getCount() { return count; }
+        public long getSum() { return sum; }
+        public long getMin() { return min; }
+        public double getMean() { return mean; }
+        public long getP50() { return p50; }
+        public long getP95() { return p95; }
+        public long getP99() { return p99; }
+        public long getMax() { return max; }
+    }
+}
@@ -0,0 +1,36 @@
+package com.nasroul.perf;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * One SQL statement, from execute until its result set is closed (rows read included)
+ */
+@Name("com.nasroul.Query")
+@Label("SQL Query")
+@Category({"Nasroul", "Database"})
+@Description("SQL statement run by a DAO or the sync, with the rows it returned or changed")
+@StackTrace(false)
+public class QueryEvent extends Event {
+
+    @Label("Database")
+    public String database;
+
+    @Label("SQL")
+    @Description("Statement text with its parameters as placeholders")
+    public String sql;
+
+    @Label("Rows")
+    @Description("Rows read from the result set, or rows changed by an update")
+    public long rows;
+
+    @Label("Connection Wait")
+    @Description("Time to open the connection, on the first statement of a connection only")
+    @Timespan(Timespan.NANOSECONDS)
+    public long connectionWait;
+}
@@ -0,0 +1,329 @@
+package com.nasroul.perf;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Times every statement of a connection: a QueryEvent for Flight Recorder and a timer per SQL template
+ *
+ * DatabaseManager wraps the connections it opens, the same way RemoteTrafficMeter does for MySQL.
+ * A query is timed inside execute and each next() call, so fetching the rows counts in its duration
+ * but what the caller does between rows does not; an update is timed around the execute call. The
+ * QueryEvent spans execute to close. The time spent opening the connection is reported on its first
+ * statement. Statements over the slow query threshold go to the SlowQueryLog with the types of
+ * their bound parameters.
+ *
+ * Metrics: db.<database>.connection.open, db.<database>.query and db.<database>.rows for every
+ * statement, and "sql.<database>: <template>" per statement text.
+ */
+public final class QueryMonitor {
+
+    private static final int MAX_TEMPLATE_LENGTH = 300;
+    private static final int MAX_CACHED_TEMPLATES = 1000;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    // IN lists built with one placeholder per id
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\?(\\s*,\\s*\\?)+");
+
+    private static final Map<String, String> templates = new ConcurrentHashMap<>();
+    // Bound parameter that was set to null, other slots hold the setter name or the setObject value type
+    private static final Object NULL_BIND = new Object();
+
+    private QueryMonitor() {
+    }
+
+    /**
+     * @param database name used in metric names and events (sqlite, mysql)
+     * @param openNanos time it took to open the connection
+     */
+    public static Connection wrap(Connection connection, String database, long openNanos) {
+        MetricsRegistry.getInstance().timer("db." + database + ".connection.open").record(openNanos);
+        return (Connection) Proxy.newProxyInstance(QueryMonitor.class.getClassLoader(),
+            new Class<?>[]{Connection.class}, new ConnectionHandler(connection, database, openNanos));
+    }
+
+    /**
+     * Statement text with whitespace collapsed and placeholder lists shortened, so one DAO method
+     * gives one template
+     */
+    static String template(String sql) {
+        if (sql == null) {
+            return "(batch)";
+        }
+        String template = templates.get(sql);
+        if (template == null) {
+            template = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+            template = PLACEHOLDER_LIST.matcher(template).replaceAll("?, ...");
+            if (template.length() > MAX_TEMPLATE_LENGTH) {
+                template = template.substring(0, MAX_TEMPLATE_LENGTH) + "...";
+            }
+            if (templates.size() < MAX_CACHED_TEMPLATES) {
+                templates.put(sql, template);
+            }
+        }
+        return template;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+        private final String database;
+        private final Timer queryTimer;
+        private final Histogram rowsHistogram;
+        private long pendingWaitNanos;
+
+        private ConnectionHandler(Connection target, String database, long openNanos) {
+            this.target = target;
+            this.database = database;
+            this.queryTimer = MetricsRegistry.getInstance().timer("db." + database + ".query");
+            this.rowsHistogram = MetricsRegistry.getInstance().histogram("db." + database + ".rows");
+            this.pendingWaitNanos = openNanos;
+        }
+
+        /**
+         * Connection wait to report on the next statement: the open time the first time, then 0
+         */
+        private long takeWait() {
+            long wait = pendingWaitNanos;
+            pendingWaitNanos = 0;
+            return wait;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = QueryMonitor.invoke(target, method, args);
+
+            Class<?> returnType = method.getReturnType();
+            if (result != null && (returnType == Statement.class || returnType == PreparedStatement.class
+                    || returnType == CallableStatement.class)) {
+                String sql = method.getName().startsWith("prepare") && args != null && args[0] instanceof String
+                    ? (String) args[0] : null;
+                return Proxy.newProxyInstance(QueryMonitor.class.getClassLoader(), new Class<?>[]{returnType},
+                    new StatementHandler((Statement) result, this, sql));
+            }
+            return result;
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final ConnectionHandler connection;
+        private final String preparedSql;
+        private Execution running;
+        private Object[] binds;
+        private int batchSize;
+
+        private StatementHandler(Statement target, ConnectionHandler connection, String preparedSql) {
+            this.target = target;
+            this.connection = connection;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (!name.startsWith("execute")) {
+                if (name.equals("close") && running != null) {
+                    running.finish();
+                } else if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                    bind((Integer) args[0], args[1] == null || name.equals("setNull") ? NULL_BIND
+                        : name.equals("setObject") ? args[1].getClass() : name);
+                } else if (name.equals("addBatch")) {
+                    batchSize++;
+                } else if (name.equals("clearBatch")) {
+                    batchSize = 0;
+                } else if (name.equals("clearParameters")) {
+                    binds = null;
+                }
+                return QueryMonitor.invoke(target, method, args);
+            }
+
+            // A new execution closes the result set of the previous one
+            if (running != null) {
+                running.finish();
+            }
+            String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : preparedSql;
+            Execution execution = new Execution(connection, this, sql, connection.takeWait());
+            Object result;
+            try {
+                result = QueryMonitor.invoke(target, method, args);
+            } catch (Throwable e) {
+                execution.databaseNanos = System.nanoTime() - execution.startNanos;
+                execution.finish();
+                throw e;
+            }
+            execution.databaseNanos = System.nanoTime() - execution.startNanos;
+
+            if (result instanceof ResultSet) {
+                running = execution;
+                return Proxy.newProxyInstance(QueryMonitor.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                    new ResultSetHandler((ResultSet) result, execution));
+            }
+            if (result instanceof Integer) {
+                execution.rows = Math.max(0, (Integer) result);
+            } else if (result instanceof Long) {
+                execution.rows = Math.max(0, (Long) result);
+            } else if (result instanceof int[]) {
+                for (int count : (int[]) result) {
+                    execution.rows += Math.max(0, count);
+                }
+            } else if (result instanceof long[]) {
+                for (long count : (long[]) result) {
+                    execution.rows += Math.max(0, count);
+                }
+            }
+            execution.finish();
+            if (name.endsWith("Batch")) {
+                batchSize = 0;
+            }
+            return result;
+        }
+
+        private void bind(int index, Object type) {
+            if (binds == null || binds.length < index) {
+                binds = Arrays.copyOf(binds != null ? binds : new Object[0], Math.max(index, 8));
+            }
+            binds[index - 1] = type;
+        }
+
+        /**
+         * Types of the parameters currently bound, e.g. (String, Int, null) x 50 for a batch;
+         * only built for slow statements
+         */
+        private String bindShape() {
+            StringBuilder shape = new StringBuilder();
+            if (binds != null) {
+                int last = binds.length;
+                while (last > 0 && binds[last - 1] == null) {
+                    last--;
+                }
+                shape.append('(');
+                for (int i = 0; i < last; i++) {
+                    if (i > 0) {
+                        shape.append(", ");
+                    }
+                    Object type = binds[i];
+                    if (type == null) {
+                        shape.append('?');
+                    } else if (type == NULL_BIND) {
+                        shape.append("null");
+                    } else if (type instanceof Class<?> valueClass) {
+                        shape.append(valueClass.getSimpleName());
+                    } else {
+                        shape.append(((String) type).substring(3));
+                    }
+                }
+                shape.append(')');
+            }
+            if (batchSize > 0) {
+                shape.append(" x ").append(batchSize);
+            }
+            return shape.toString();
+        }
+    }
+
+    private static final class ResultSetHandler implements InvocationHandler {
+        private final ResultSet target;
+        private final Execution execution;
+
+        private ResultSetHandler(ResultSet target, Execution execution) {
+            this.target = target;
+            this.execution = execution;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("next")) {
+                // Time spent fetching rows counts for the database, the caller's work between rows does not
+                long startNanos = System.nanoTime();
+                Object result;
+                try {
+                    result = QueryMonitor.invoke(target, method, args);
+                } finally {
+                    execution.databaseNanos += System.nanoTime() - startNanos;
+                }
+                if (Boolean.TRUE.equals(result)) {
+                    execution.rows++;
+                }
+                return result;
+            }
+            Object result = QueryMonitor.invoke(target, method, args);
+            if (name.equals("close")) {
+                execution.finish();
+            }
+            return result;
+        }
+    }
+
+    /**
+     * One statement execution, reported once
+     */
+    private static final class Execution {
+        private final ConnectionHandler connection;
+        private final StatementHandler statement;
+        private final String sql;
+        private final String template;
+        private final long connectionWait;
+        private final long startNanos = System.nanoTime();
+        private final QueryEvent event = new QueryEvent();
+        // Time inside execute and next(), without what the caller does while reading the rows
+        private long databaseNanos;
+        private long rows;
+        private boolean finished;
+
+        private Execution(ConnectionHandler connection, StatementHandler statement, String sql, long connectionWait) {
+            this.connection = connection;
+            this.statement = statement;
+            this.sql = sql;
+            this.template = template(sql);
+            this.connectionWait = connectionWait;
+            event.begin();
+        }
+
+        private void finish() {
+            if (finished) {
+                return;
+            }
+            finished = true;
+
+            // The event spans execute to close, so the rows' processing shows under it in a recording
+            event.end();
+            if (event.shouldCommit()) {
+                event.database = connection.database;
+                event.sql = template;
+                event.rows = rows;
+                event.connectionWait = connectionWait;
+                event.commit();
+            }
+
+            connection.queryTimer.record(databaseNanos);
+            connection.rowsHistogram.record(rows);
+            MetricsRegistry.getInstance().timer("sql." + connection.database + ": " + template).record(databaseNanos);
+
+            SlowQueryLog slowLog = SlowQueryLog.getInstance();
+            if (slowLog.isSlow(databaseNanos)) {
+                slowLog.record(connection.target, connection.database, template, sql, statement.bindShape(),
+                    databaseNanos, rows);
+            }
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.nasroul.perf;
+
+import com.nasroul.util.ConfigManager;
+import kong.unirest.json.JSONArray;
+import kong.unirest.json.JSONObject;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Statements over perf.slow.query.ms, aggregated per SQL template for a top-N report
+ *
+ * Fed by QueryMonitor. The first time a SQLite template is slow, its EXPLAIN QUERY PLAN is read on
+ * the same connection and full table scans of tables with at least perf.slow.query.scan.rows rows
+ * are flagged. A statement is logged the first time it is slow and whenever it gets slower.
+ */
+public final class SlowQueryLog {
+
+    static final int MAX_ENTRIES = 200;
+
+    // Plan lines without an index: "SCAN members", "SCAN m" (alias), "SCAN TABLE members" before SQLite 3.36
+    private static final Pattern FULL_SCAN = Pattern.compile("^SCAN (?:TABLE )?(\\w+)$");
+    // Table references, to resolve the aliases used in plan lines
+    private static final Pattern TABLE_REFERENCE = Pattern.compile(
+        "\\b(?:FROM|JOIN|UPDATE|INTO)\\s+[\"`]?(\\w+)[\"`]?(?:\\s+(?:AS\\s+)?(\\w+))?", Pattern.CASE_INSENSITIVE);
+    private static final Set<String> KEYWORDS = Set.of("WHERE", "ON", "SET", "LEFT", "RIGHT", "INNER", "OUTER",
+        "CROSS", "JOIN", "ORDER", "GROUP", "LIMIT", "VALUES", "SELECT", "UNION", "HAVING", "USING", "DEFAULT");
+    private static final Set<String> EXPLAINABLE = Set.of("SELECT", "WITH", "UPDATE", "DELETE", "INSERT", "REPLACE");
+
+    private static final SlowQueryLog INSTANCE = new SlowQueryLog();
+
+    private final long thresholdNanos;
+    private final boolean explainEnabled;
+    private final long largeTableRows;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Long> tableSizes = new ConcurrentHashMap<>();
+
+    private SlowQueryLog() {
+        ConfigManager config = ConfigManager.getInstance();
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, config.getSlowQueryThresholdMs()));
+        this.explainEnabled = config.isSlowQueryExplainEnabled();
+        this.largeTableRows = config.getSlowQueryScanRows();
+    }
+
+    public static SlowQueryLog getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isEnabled() {
+        return thresholdNanos > 0;
+    }
+
+    public long getThresholdMs() {
+        return TimeUnit.NANOSECONDS.toMillis(thresholdNanos);
+    }
+
+    boolean isSlow(long elapsedNanos) {
+        return thresholdNanos > 0 && elapsedNanos >= thresholdNanos;
+    }
+
+    /**
+     * @param connection unwrapped connection the statement ran on, used for its query plan
+     * @param sql statement text, null for a batch of statements
+     * @param bindShape types of the bound parameters, e.g. (String, Int, null)
+     */
+    void record(Connection connection, String database, String template, String sql, String bindShape,
+                long elapsedNanos, long rows) {
+        MetricsRegistry.getInstance().counter("db." + database + ".slow").increment();
+
+        String key = database + ": " + template;
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            if (entries.size() >= MAX_ENTRIES) {
+                return;
+            }
+            entry = entries.computeIfAbsent(key, k -> new Entry(database, template));
+        }
+
+        boolean first;
+        boolean slower;
+        synchronized (entry) {
+            first = entry.count == 0;
+            slower = elapsedNanos > entry.maxNanos;
+            entry.count++;
+            entry.totalNanos += elapsedNanos;
+            entry.maxNanos = Math.max(entry.maxNanos, elapsedNanos);
+            entry.maxRows = Math.max(entry.maxRows, rows);
+            entry.bindShape = bindShape;
+        }
+
+        if (first && explainEnabled && "sqlite".equals(database) && isExplainable(sql)) {
+            explain(connection, sql, entry);
+        }
+        if (first || slower) {
+            log(entry, elapsedNanos, rows);
+        }
+    }
+
+    private static boolean isExplainable(String sql) {
+        if (sql == null) {
+            return false;
+        }
+        String trimmed = sql.stripLeading();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+            end++;
+        }
+        return EXPLAINABLE.contains(trimmed.substring(0, end).toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Read the query plan and flag full scans of large tables; parameters are left unbound,
+     * SQLite plans them the same way
+     */
+    private void explain(Connection connection, String sql, Entry entry) {
+        List<String> plan = new ArrayList<>();
+        List<String> fullScans = new ArrayList<>();
+        try (PreparedStatement ps = connection.prepareStatement("EXPLAIN QUERY PLAN " + sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                String detail = rs.getString("detail");
+                plan.add(detail);
+
+                Matcher matcher = FULL_SCAN.matcher(detail);
+                if (matcher.matches()) {
+                    String table = resolveTable(matcher.group(1), sql);
+                    long size = tableSize(connection, table);
+                    if (size >= largeTableRows) {
+                        fullScans.add(table + " (" + size + " rows)");
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            plan.add("EXPLAIN failed: " + e.getMessage());
+        }
+        synchronized (entry) {
+            entry.plan = plan;
+            entry.fullScans = fullScans;
+        }
+    }
+
+    /**
+     * Plan lines name the alias when the statement uses one
+     */
+    private static String resolveTable(String name, String sql) {
+        Map<String, String> aliases = new HashMap<>();
+        Matcher matcher = TABLE_REFERENCE.matcher(sql);
+        while (matcher.find()) {
+            String table = matcher.group(1);
+            String alias = matcher.group(2);
+            aliases.put(table, table);
+            if (alias != null && !KEYWORDS.contains(alias.toUpperCase(Locale.ROOT))) {
+                aliases.put(alias, table);
+            }
+        }
+        return aliases.getOrDefault(name, name);
+    }
+
+    /**
+     * Row count of a table, read once; -1 when it cannot be counted (view, subquery)
+     */
+    private long tableSize(Connection connection, String table) {
+        Long size = tableSizes.get(table);
+        if (size != null) {
+            return size;
+        }
+        long count = -1;
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM \"" + table.replace("\"", "\"\"") + "\"")) {
+            if (rs.next()) {
+                count = rs.getLong(1);
+            }
+        } catch (SQLException e) {
+            // Not a table
+        }
+        tableSizes.put(table, count);
+        return count;
+    }
+
+    private static void log(Entry entry, long elapsedNanos, long rows) {
+        StringBuilder message = new StringBuilder()
+            .append("Slow query (").append(entry.database).append(", ")
+            .append(TimeUnit.NANOSECONDS.toMillis(elapsedNanos)).append(" ms, ")
+            .append(rows).append(" rows): ").append(entry.template);
+        String bindShape = entry.getBindShape();
+        if (!bindShape.isEmpty()) {
+            message.append(' ').append(bindShape);
+        }
+        List<String> fullScans = entry.getFullScans();
+        if (!fullScans.isEmpty()) {
+            message.append(System.lineSeparator()).append("  full table scan: ").append(String.join(", ", fullScans));
+        }
+        System.err.println(message);
+    }
+
+    /**
+     * Slowest statements first, by total time spent over the threshold
+     */
+    public List<Entry> getTopQueries(int limit) {
+        List<Entry> top = new ArrayList<>(entries.values());
+        top.sort((a, b) -> Long.compare(b.getTotalNanos(), a.getTotalNanos()));
+        return top.size() > limit ? top.subList(0, limit) : top;
+    }
+
+    public void reset() {
+        entries.clear();
+        tableSizes.clear();
+    }
+
+    JSONArray toJson(int limit) {
+        JSONArray array = new JSONArray();
+        for (Entry entry : getTopQueries(limit)) {
+            JSONObject json = new JSONObject();
+            json.put("database", entry.getDatabase());
+            json.put("sql", entry.getTemplate());
+            json.put("binds", entry.getBindShape());
+            json.put("count", entry.getCount());
+            json.put("totalNs", entry.getTotalNanos());
+            json.put("maxNs", entry.getMaxNanos());
+            json.put("maxRows", entry.getMaxRows());
+            json.put("plan", new JSONArray(entry.getPlan()));
+            json.put("fullScans", new JSONArray(entry.getFullScans()));
+            array.put(json);
+        }
+        return array;
+    }
+
+    /**
+     * One SQL template: how often and how long it was slow, and its plan when it was captured
+     */
+    public static final class Entry {
+        private final String database;
+        private final String template;
+        private String bindShape = "";
+        private long count;
+        private long totalNanos;
+        private long maxNanos;
+        private long maxRows;
+        private List<String> plan = List.of();
+        private List<String> fullScans = List.of();
+
+        private Entry(String database, String template) {
+            this.database = database;
+            this.template = template;
+        }
+
+        public String getDatabase() { return database; }
+        public String getTemplate() { return template; }
+        public synchronized String getBindShape() { return bindShape; }
+        public synchronized long getCount() { return count; }
+        public synchronized long getTotalNanos() { return totalNanos; }
+        public synchronized long getMaxNanos() { return maxNanos; }
+        public synchronized long getMaxRows() { return maxRows; }
+        public synchronized List<String> getPlan() { return Collections.unmodifiableList(plan); }
+        public synchronized List<String> getFullScans() { return Collections.unmodifiableList(fullScans); }
+    }
+}
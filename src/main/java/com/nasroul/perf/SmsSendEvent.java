@@ -0,0 +1,26 @@
+package com.nasroul.perf;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One call to the SMS API; the recipient is not recorded
+ */
+@Name("com.nasroul.SmsSend")
+@Label("SMS Send")
+@Category({"Nasroul", "SMS"})
+@StackTrace(false)
+public class SmsSendEvent extends Event {
+
+    @Label("Message Length")
+    public int messageLength;
+
+    @Label("HTTP Status")
+    public int httpStatus;
+
+    @Label("Success")
+    public boolean success;
+}
@@ -0,0 +1,26 @@
+package com.nasroul.perf;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One chunk of rows pulled or pushed, between two checkpoints of a table
+ */
+@Name("com.nasroul.SyncChunk")
+@Label("Sync Chunk")
+@Category({"Nasroul", "Sync"})
+@StackTrace(false)
+public class SyncChunkEvent extends Event {
+
+    @Label("Direction")
+    public String direction;
+
+    @Label("Table")
+    public String table;
+
+    @Label("Rows")
+    public long rows;
+}
@@ -0,0 +1,32 @@
+package com.nasroul.perf;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Pull or push of one table during a sync session
+ */
+@Name("com.nasroul.SyncPhase")
+@Label("Sync Phase")
+@Category({"Nasroul", "Sync"})
+@StackTrace(false)
+public class SyncPhaseEvent extends Event {
+
+    @Label("Session")
+    public String session;
+
+    @Label("Direction")
+    public String direction;
+
+    @Label("Table")
+    public String table;
+
+    @Label("Rows")
+    public long rows;
+
+    @Label("Success")
+    public boolean success;
+}
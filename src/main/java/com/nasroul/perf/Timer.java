@@ -0,0 +1,46 @@
+package com.nasroul.perf;
+
+/**
+ * Durations of an operation, kept in nanoseconds in a Histogram
+ */
+public class Timer {
+
+    private final Histogram durations = new Histogram();
+
+    public void record(long nanos) {
+        durations.record(nanos);
+    }
+
+    /**
+     * Start timing; close the sample (try-with-resources) to record the elapsed time
+     */
+    public Sample start() {
+        return new Sample(this);
+    }
+
+    public Histogram getDurations() {
+        return durations;
+    }
+
+    public void reset() {
+        durations.reset();
+    }
+
+    public static final class Sample implements AutoCloseable {
+        private final Timer timer;
+        private final long startNanos = System.nanoTime();
+
+        private Sample(Timer timer) {
+            this.timer = timer;
+        }
+
+        public long elapsedNanos() {
+            return System.nanoTime() - startNanos;
+        }
+
+        @Override
+        public void close() {
+            timer.record(elapsedNanos());
+        }
+    }
+}
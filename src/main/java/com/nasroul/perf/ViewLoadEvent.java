@@ -0,0 +1,26 @@
+package com.nasroul.perf;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A view brought on screen: FXML parsed on first use, or taken from the cache (and refreshed if stale)
+ */
+@Name("com.nasroul.ViewLoad")
+@Label("View Load")
+@Category({"Nasroul", "UI"})
+@StackTrace(false)
+public class ViewLoadEvent extends Event {
+
+    @Label("View")
+    public String view;
+
+    @Label("Cached")
+    public boolean cached;
+
+    @Label("Refreshed")
+    public boolean refreshed;
+}
@@ -0,0 +1,113 @@
+package com.nasroul.service;
+
+import com.nasroul.dao.BulkInsertListener;
+import com.nasroul.dao.BulkInsertSession;
+import com.nasroul.util.ExcelImporter;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+/**
+ * Feeds a DAO bulk insert session from a list or from the streaming Excel import
+ * Rows are validated with the service rules first; the whole import is committed once
+ */
+class BulkImporter<T> implements ExcelImporter.BatchWriter<T> {
+
+    @FunctionalInterface
+    interface SessionOpener<T> {
+        BulkInsertSession<T> open() throws SQLException;
+    }
+
+    private final SessionOpener<T> opener;
+    private final Consumer<T> validator;
+    private final IntConsumer progress;
+    private BulkInsertSession<T> session;
+    private int processed;
+
+    BulkImporter(SessionOpener<T> opener, Consumer<T> validator, IntConsumer progress) {
+        this.opener = opener;
+        this.validator = validator;
+        this.progress = progress;
+    }
+
+    /**
+     * Insert every item in one transaction, logging rejected items, and return how many were inserted
+     */
+    static <T> int insertAll(List<T> items, SessionOpener<T> opener, Consumer<T> validator,
+                             IntConsumer progress, Function<T, String> describe) throws SQLException {
+        List<T> valid = new ArrayList<>(items.size());
+        for (T item : items) {
+            try {
+                validator.accept(item);
+                valid.add(item);
+            } catch (IllegalArgumentException e) {
+                System.err.println("Failed to import " + describe.apply(item) + " - " + e.getMessage());
+            }
+        }
+
+        int rejected = items.size() - valid.size();
+        try (BulkInsertSession<T> session = opener.open()) {
+            int inserted = session.insert(valid, new BulkInsertListener<>() {
+                @Override
+                public void onFailure(int index, T item, String message) {
+                    System.err.println("Failed to import " + describe.apply(item) + " - " + message);
+                }
+
+                @Override
+                public void onProgress(int done) {
+                    if (progress != null) {
+                        progress.accept(rejected + done);
+                    }
+                }
+            });
+            session.commit();
+            return inserted;
+        }
+    }
+
+    @Override
+    public void write(List<ExcelImporter.ParsedRow<T>> batch, ExcelImporter.ImportResult result) throws SQLException {
+        if (session == null) {
+            session = opener.open();
+        }
+
+        List<T> valid = new ArrayList<>(batch.size());
+        List<Integer> rowNumbers = new ArrayList<>(batch.size());
+        for (ExcelImporter.ParsedRow<T> row : batch) {
+            try {
+                validator.accept(row.getValue());
+                valid.add(row.getValue());
+                rowNumbers.add(row.getRowNumber());
+            } catch (IllegalArgumentException e) {
+                result.addError(row.getRowNumber(), e.getMessage());
+            }
+        }
+
+        int inserted = session.insert(valid, (index, item, message) -> result.addError(rowNumbers.get(index), message));
+        result.addImported(inserted);
+
+        processed += batch.size();
+        if (progress != null) {
+            progress.accept(processed);
+        }
+    }
+
+    @Override
+    public void finish(boolean success) throws SQLException {
+        if (session == null) {
+            return;
+        }
+        try {
+            if (success) {
+                session.commit();
+            }
+        } finally {
+            session.close();
+            session = null;
+        }
+    }
+}
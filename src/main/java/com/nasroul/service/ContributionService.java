@@ -1,10 +1,14 @@
 package com.nasroul.service;
 
 import com.nasroul.dao.ContributionDAO;
+import com.nasroul.dao.Page;
+import com.nasroul.dao.PageRequest;
 import com.nasroul.model.Contribution;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public class ContributionService {
     private final ContributionDAO contributionDAO;
@@ -33,6 +37,18 @@ public class ContributionService {
         return contributionDAO.findAll();
     }
 
+    public Page<Contribution> findContributionPage(PageRequest request) throws SQLException {
+        return contributionDAO.findPage(request);
+    }
+
+    public int countContributions(PageRequest request) throws SQLException {
+        return contributionDAO.count(request);
+    }
+
+    public void forEachContribution(Consumer<Contribution> consumer) throws SQLException {
+        contributionDAO.forEach(consumer);
+    }
+
     public void updateContribution(Contribution contribution) throws SQLException {
         contributionDAO.update(contribution);
     }
@@ -45,6 +61,10 @@ public class ContributionService {
         return contributionDAO.getTotalByEntity(entityType, entityId);
     }
 
+    public Map<Integer, Double> getTotalsByEntityType(String entityType) throws SQLException {
+        return contributionDAO.getTotalsByEntityType(entityType);
+    }
+
     public Double getTotalContributions() throws SQLException {
         List<Contribution> contributions = contributionDAO.findAll();
         return contributions.stream()
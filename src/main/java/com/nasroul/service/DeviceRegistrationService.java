@@ -53,8 +53,8 @@ public class DeviceRegistrationService {
      * Register device in MySQL (for cross-device sync)
      */
     public void registerDeviceMySQL() throws SQLException {
-        // Check if MySQL is available
-        if (!dbManager.isMySQLAvailable()) {
+        // Check if MySQL is available (waits for the remote schema if startup is still creating it)
+        if (!dbManager.initializeRemote()) {
             return; // Skip if MySQL not available
         }
 
@@ -2,9 +2,12 @@ package com.nasroul.service;
 
 import com.nasroul.dao.EventDAO;
 import com.nasroul.model.Event;
+import com.nasroul.util.ExcelImporter;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 public class EventService {
     private final EventDAO eventDAO;
@@ -26,6 +29,10 @@ public class EventService {
         return eventDAO.findAll();
     }
 
+    public void forEachEvent(Consumer<Event> consumer) throws SQLException {
+        eventDAO.forEach(consumer);
+    }
+
     public void updateEvent(Event event) throws SQLException {
         validateEvent(event);
         eventDAO.update(event);
@@ -36,13 +43,23 @@ public class EventService {
     }
 
     public void bulkCreate(List<Event> events) throws SQLException {
-        for (Event event : events) {
-            try {
-                createEvent(event);
-            } catch (SQLException | IllegalArgumentException e) {
-                System.err.println("Failed to import event: " + event.getName() + " - " + e.getMessage());
-            }
-        }
+        bulkCreate(events, null);
+    }
+
+    /**
+     * Insert all events in one transaction using JDBC batches, invalid rows are skipped and logged
+     * Progress receives the number of rows processed so far
+     */
+    public int bulkCreate(List<Event> events, IntConsumer progress) throws SQLException {
+        return BulkImporter.insertAll(events, eventDAO::openBulkSession, this::validateEvent, progress,
+            event -> "event " + event.getName());
+    }
+
+    /**
+     * Writer for the streaming Excel import, the whole file is committed in one transaction
+     */
+    public ExcelImporter.BatchWriter<Event> newImportWriter(IntConsumer progress) {
+        return new BulkImporter<>(eventDAO::openBulkSession, this::validateEvent, progress);
     }
 
     private void validateEvent(Event event) {
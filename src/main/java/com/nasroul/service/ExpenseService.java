@@ -1,10 +1,15 @@
 package com.nasroul.service;
 
 import com.nasroul.dao.ExpenseDAO;
+import com.nasroul.dao.Page;
+import com.nasroul.dao.PageRequest;
 import com.nasroul.model.Expense;
+import com.nasroul.util.ExcelImporter;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 public class ExpenseService {
     private final ExpenseDAO expenseDAO;
@@ -26,6 +31,18 @@ public class ExpenseService {
         return expenseDAO.findAll();
     }
 
+    public Page<Expense> findExpensePage(PageRequest request) throws SQLException {
+        return expenseDAO.findPage(request);
+    }
+
+    public int countExpenses(PageRequest request) throws SQLException {
+        return expenseDAO.count(request);
+    }
+
+    public void forEachExpense(Consumer<Expense> consumer) throws SQLException {
+        expenseDAO.forEach(consumer);
+    }
+
     public List<Expense> getExpensesByEntity(String entityType, int entityId) throws SQLException {
         return expenseDAO.findByEntity(entityType, entityId);
     }
@@ -40,13 +57,23 @@ public class ExpenseService {
     }
 
     public void bulkCreate(List<Expense> expenses) throws SQLException {
-        for (Expense expense : expenses) {
-            try {
-                createExpense(expense);
-            } catch (SQLException | IllegalArgumentException e) {
-                System.err.println("Failed to import expense: " + expense.getDescription() + " - " + e.getMessage());
-            }
-        }
+        bulkCreate(expenses, null);
+    }
+
+    /**
+     * Insert all expenses in one transaction using JDBC batches, invalid rows are skipped and logged
+     * Progress receives the number of rows processed so far
+     */
+    public int bulkCreate(List<Expense> expenses, IntConsumer progress) throws SQLException {
+        return BulkImporter.insertAll(expenses, expenseDAO::openBulkSession, this::validateExpense, progress,
+            expense -> "expense " + expense.getDescription());
+    }
+
+    /**
+     * Writer for the streaming Excel import, the whole file is committed in one transaction
+     */
+    public ExcelImporter.BatchWriter<Expense> newImportWriter(IntConsumer progress) {
+        return new BulkImporter<>(expenseDAO::openBulkSession, this::validateExpense, progress);
     }
 
     private void validateExpense(Expense expense) {
@@ -1,16 +1,24 @@
 package com.nasroul.service;
 
 import com.nasroul.dao.MemberDAO;
+import com.nasroul.dao.Page;
+import com.nasroul.dao.PageRequest;
+import com.nasroul.dao.RecipientDAO;
 import com.nasroul.model.Member;
+import com.nasroul.util.ExcelImporter;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 public class MemberService {
     private final MemberDAO memberDAO;
+    private final RecipientDAO recipientDAO;
 
     public MemberService() {
         this.memberDAO = new MemberDAO();
+        this.recipientDAO = new RecipientDAO();
     }
 
     public void createMember(Member member) throws SQLException {
@@ -26,10 +34,33 @@ public class MemberService {
         return memberDAO.findAll();
     }
 
+    public Page<Member> findMemberPage(PageRequest request) throws SQLException {
+        return memberDAO.findPage(request);
+    }
+
+    public int countMembers(PageRequest request) throws SQLException {
+        return memberDAO.count(request);
+    }
+
+    public List<Member> searchMembers(String text) throws SQLException {
+        if (text == null || text.trim().isEmpty()) {
+            return memberDAO.findAll();
+        }
+        return memberDAO.search(text);
+    }
+
+    public void forEachMember(Consumer<Member> consumer) throws SQLException {
+        memberDAO.forEach(consumer);
+    }
+
     public List<Member> getActiveMembers() throws SQLException {
         return memberDAO.findActive();
     }
 
+    public List<RecipientDAO.Recipient> findRecipients(RecipientDAO.Criteria criteria) throws SQLException {
+        return recipientDAO.find(criteria);
+    }
+
     public void updateMember(Member member) throws SQLException {
         validateMember(member);
         memberDAO.update(member);
@@ -40,13 +71,23 @@ public class MemberService {
     }
 
     public void bulkCreate(List<Member> members) throws SQLException {
-        for (Member member : members) {
-            try {
-                createMember(member);
-            } catch (SQLException e) {
-                System.err.println("Failed to import member: " + member.getFullName() + " - " + e.getMessage());
-            }
-        }
+        bulkCreate(members, null);
+    }
+
+    /**
+     * Insert all members in one transaction using JDBC batches, invalid rows are skipped and logged
+     * Progress receives the number of rows processed so far
+     */
+    public int bulkCreate(List<Member> members, IntConsumer progress) throws SQLException {
+        return BulkImporter.insertAll(members, memberDAO::openBulkSession, this::validateMember, progress,
+            member -> "member " + member.getFullName());
+    }
+
+    /**
+     * Writer for the streaming Excel import, the whole file is committed in one transaction
+     */
+    public ExcelImporter.BatchWriter<Member> newImportWriter(IntConsumer progress) {
+        return new BulkImporter<>(memberDAO::openBulkSession, this::validateMember, progress);
     }
 
     private void validateMember(Member member) {
@@ -7,6 +7,7 @@ import com.nasroul.model.Contribution;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class PaymentGroupService {
     private final PaymentGroupDAO paymentGroupDAO;
@@ -30,6 +31,10 @@ public class PaymentGroupService {
         return paymentGroupDAO.findAll();
     }
 
+    public void forEachPaymentGroup(Consumer<PaymentGroup> consumer) throws SQLException {
+        paymentGroupDAO.forEach(consumer);
+    }
+
     public List<PaymentGroup> getPaymentGroupsByGroup(int groupId) throws SQLException {
         return paymentGroupDAO.findByGroup(groupId);
     }
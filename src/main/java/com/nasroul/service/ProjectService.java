@@ -2,9 +2,12 @@ package com.nasroul.service;
 
 import com.nasroul.dao.ProjectDAO;
 import com.nasroul.model.Project;
+import com.nasroul.util.ExcelImporter;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 public class ProjectService {
     private final ProjectDAO projectDAO;
@@ -26,6 +29,10 @@ public class ProjectService {
         return projectDAO.findAll();
     }
 
+    public void forEachProject(Consumer<Project> consumer) throws SQLException {
+        projectDAO.forEach(consumer);
+    }
+
     public void updateProject(Project project) throws SQLException {
         validateProject(project);
         projectDAO.update(project);
@@ -36,13 +43,23 @@ public class ProjectService {
     }
 
     public void bulkCreate(List<Project> projects) throws SQLException {
-        for (Project project : projects) {
-            try {
-                createProject(project);
-            } catch (SQLException | IllegalArgumentException e) {
-                System.err.println("Failed to import project: " + project.getName() + " - " + e.getMessage());
-            }
-        }
+        bulkCreate(projects, null);
+    }
+
+    /**
+     * Insert all projects in one transaction using JDBC batches, invalid rows are skipped and logged
+     * Progress receives the number of rows processed so far
+     */
+    public int bulkCreate(List<Project> projects, IntConsumer progress) throws SQLException {
+        return BulkImporter.insertAll(projects, projectDAO::openBulkSession, this::validateProject, progress,
+            project -> "project " + project.getName());
+    }
+
+    /**
+     * Writer for the streaming Excel import, the whole file is committed in one transaction
+     */
+    public ExcelImporter.BatchWriter<Project> newImportWriter(IntConsumer progress) {
+        return new BulkImporter<>(projectDAO::openBulkSession, this::validateProject, progress);
     }
 
     private void validateProject(Project project) {
@@ -1,5 +1,7 @@
 package com.nasroul.service;
 
+import com.nasroul.perf.MetricsRegistry;
+import com.nasroul.perf.SmsSendEvent;
 import com.nasroul.util.ConfigManager;
 import kong.unirest.HttpResponse;
 import kong.unirest.Unirest;
@@ -13,6 +15,7 @@ public class SMSService {
     private final String API_URL;
     private final String CREDITS_URL;
     private String lastErrorMessage = null;
+    private int lastHttpStatus;
 
     public SMSService() {
         this.config = ConfigManager.getInstance();
@@ -161,7 +164,28 @@ public class SMSService {
      * @return true if sent successfully, false otherwise
      */
     public boolean sendSMS(String phoneNumber, String message) {
+        SmsSendEvent event = new SmsSendEvent();
+        event.begin();
+        long startNanos = System.nanoTime();
+
+        boolean sent = send(phoneNumber, message);
+
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        metrics.timer("sms.send").record(System.nanoTime() - startNanos);
+        metrics.counter(sent ? "sms.sent" : "sms.failed").increment();
+        event.end();
+        if (event.shouldCommit()) {
+            event.messageLength = message != null ? message.length() : 0;
+            event.httpStatus = lastHttpStatus;
+            event.success = sent;
+            event.commit();
+        }
+        return sent;
+    }
+
+    private boolean send(String phoneNumber, String message) {
         lastErrorMessage = null;
+        lastHttpStatus = 0;
         try {
             // Format phone number
             String formattedPhone = formatPhoneNumber(phoneNumber);
@@ -177,6 +201,7 @@ public class SMSService {
                 .header("Content-Type", "application/json")
                 .body(requestBody.toString())
                 .asString();
+            lastHttpStatus = response.getStatus();
 
             if (response.isSuccess()) {
                 System.out.println("SMS sent successfully to " + formattedPhone);
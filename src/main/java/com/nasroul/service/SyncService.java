@@ -1,38 +1,78 @@
 package com.nasroul.service;
 
+import com.nasroul.dao.DataChangeBatch;
+import com.nasroul.dao.DataChangeBus;
+import com.nasroul.dao.DataChangeEvent;
 import com.nasroul.dao.SyncLogDAO;
+import com.nasroul.sync.CancellationToken;
+import com.nasroul.sync.RangeHashReconciler;
+import com.nasroul.sync.SyncProgress;
 import com.nasroul.sync.SyncManager;
+import com.nasroul.util.ConfigManager;
 import com.nasroul.util.DeviceIdGenerator;
 import javafx.application.Platform;
 import javafx.concurrent.Task;
 
 import java.sql.SQLException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * High-level synchronization service
  * Provides simple API for UI components to trigger sync operations
+ *
+ * Only one sync runs at a time: every entry point (button, auto-sync, integrity check) must move
+ * the run state from IDLE to RUNNING first. With auto-sync enabled, a sync is also scheduled every
+ * sync.auto.interval minutes and after local edits, debounced so a burst of edits gives one sync.
+ * While MySQL is unreachable, automatic attempts back off exponentially.
  */
 public class SyncService {
 
+    // Cap on the debounce: edits arriving continuously still sync this often
+    private static final long MAX_DEBOUNCE_MS = 120_000;
+    private static final long BACKOFF_BASE_MS = 30_000;
+    // Delay before a scheduled integrity check tries again when a sync is running
+    private static final long INTEGRITY_RETRY_MINUTES = 15;
+
     private static SyncService instance;
     private final SyncManager syncManager;
     private final SyncLogDAO syncLogDAO;
-    private final ExecutorService executorService;
-
-    private boolean isSyncing = false;
-    private LocalDateTime lastSyncTime = null;
-    private SyncManager.SyncResult lastSyncResult = null;
-    private SyncStatusListener statusListener;
+    private final ScheduledExecutorService executorService;
+
+    // State and token change together, so a cancel always reaches the token of the run it saw
+    private final AtomicReference<Run> run = new AtomicReference<>(Run.IDLE);
+    private volatile LocalDateTime lastSyncTime = null;
+    private volatile SyncManager.SyncResult lastSyncResult = null;
+    private volatile SyncStatusListener statusListener;
+    private volatile SyncProgress.Listener progressListener;
+    // Progress sink of the running synchronizeAsync task, if any
+    private volatile SyncProgress.Listener taskProgress;
+
+    // Auto-sync state, guarded by this
+    private boolean autoSyncStarted;
+    private ScheduledFuture<?> pendingRun;
+    private long pendingRunAt;
+    private long firstRequestAt;
+    private boolean rerunRequested;
+    private int consecutiveFailures;
+    private long backoffUntil;
+    private Runnable changeSubscription;
+    private boolean integrityCheckStarted;
 
     private SyncService() {
         this.syncManager = new SyncManager();
         this.syncLogDAO = new SyncLogDAO();
-        this.executorService = Executors.newSingleThreadExecutor(r -> {
+        this.syncManager.setProgressListener(this::onProgress);
+        this.executorService = Executors.newSingleThreadScheduledExecutor(r -> {
             Thread t = new Thread(r);
             t.setDaemon(true);
             t.setName("SyncService-Thread");
@@ -54,6 +94,24 @@ public class SyncService {
         this.statusListener = listener;
     }
 
+    /**
+     * Set listener for detailed progress of running syncs, called on the JavaFX thread
+     */
+    public void setProgressListener(SyncProgress.Listener listener) {
+        this.progressListener = listener;
+    }
+
+    private void onProgress(SyncProgress progress) {
+        SyncProgress.Listener task = taskProgress;
+        if (task != null) {
+            task.onProgress(progress);
+        }
+        SyncProgress.Listener listener = progressListener;
+        if (listener != null) {
+            Platform.runLater(() -> listener.onProgress(progress));
+        }
+    }
+
     /**
      * Perform synchronization asynchronously
      *
@@ -66,36 +124,36 @@ public class SyncService {
                 updateMessage("Démarrage de la synchronisation...");
                 updateProgress(0, 100);
 
+                CancellationToken token = acquire();
                 try {
-                    isSyncing = true;
-                    notifyStatusChange(SyncStatus.SYNCING);
-
                     updateMessage("Connexion au serveur MySQL...");
-                    updateProgress(10, 100);
+                    updateProgress(-1, 1);
+                    // Task updates are coalesced by JavaFX, they can be sent at any rate
+                    taskProgress = progress -> {
+                        updateMessage(progress.toStatusText());
+                        if (progress.getRowsEstimated() > 0) {
+                            updateProgress(progress.getRowsDone(), progress.getRowsEstimated());
+                        }
+                    };
 
                     // Perform synchronization
-                    SyncManager.SyncResult result = syncManager.synchronize();
+                    SyncManager.SyncResult result = runSync(token);
 
                     if (result.isSuccess()) {
                         updateMessage("Synchronisation réussie!");
                         updateProgress(100, 100);
-
-                        lastSyncTime = LocalDateTime.now();
-                        lastSyncResult = result;
-                        notifyStatusChange(SyncStatus.SUCCESS);
                     } else {
                         updateMessage("Synchronisation échouée: " + result.getErrorMessage());
-                        notifyStatusChange(SyncStatus.FAILED);
                     }
 
                     return result;
 
                 } catch (SQLException e) {
                     updateMessage("Erreur: " + e.getMessage());
-                    notifyStatusChange(SyncStatus.FAILED);
                     throw e;
                 } finally {
-                    isSyncing = false;
+                    taskProgress = null;
+                    release();
                 }
             }
         };
@@ -108,29 +166,256 @@ public class SyncService {
      * Perform synchronization synchronously (blocking)
      */
     public SyncManager.SyncResult synchronize() throws SQLException {
-        if (isSyncing) {
-            throw new IllegalStateException("Synchronisation déjà en cours");
+        CancellationToken token = acquire();
+        try {
+            return runSync(token);
+        } finally {
+            release();
         }
+    }
 
+    /**
+     * Run one sync with the run state already acquired, and record its outcome
+     */
+    private SyncManager.SyncResult runSync(CancellationToken token) throws SQLException {
+        notifyStatusChange(SyncStatus.SYNCING);
         try {
-            isSyncing = true;
-            notifyStatusChange(SyncStatus.SYNCING);
-
-            SyncManager.SyncResult result = syncManager.synchronize();
+            SyncManager.SyncResult result = syncManager.synchronize(token);
 
             lastSyncTime = LocalDateTime.now();
             lastSyncResult = result;
 
             if (result.isSuccess()) {
+                recordSuccess();
                 notifyStatusChange(SyncStatus.SUCCESS);
             } else {
-                notifyStatusChange(SyncStatus.FAILED);
+                // Not connected: the local data is intact, retry later
+                recordFailure();
+                notifyStatusChange(SyncStatus.OFFLINE);
             }
 
             return result;
 
+        } catch (SQLException e) {
+            recordFailure();
+            notifyStatusChange(SyncStatus.FAILED);
+            throw e;
+        } catch (CancellationException e) {
+            notifyStatusChange(SyncStatus.IDLE);
+            throw e;
+        }
+    }
+
+    /**
+     * Move the run state from IDLE to RUNNING, the only way to start a sync
+     *
+     * @return token that cancels this run
+     * @throws IllegalStateException when a sync is already running
+     */
+    private CancellationToken acquire() {
+        CancellationToken token = new CancellationToken();
+        if (!run.compareAndSet(Run.IDLE, new Run(RunState.RUNNING, token))) {
+            throw new IllegalStateException("Synchronisation déjà en cours");
+        }
+        return token;
+    }
+
+    private void release() {
+        run.set(Run.IDLE);
+
+        boolean rerun;
+        synchronized (this) {
+            rerun = rerunRequested;
+            rerunRequested = false;
+        }
+        if (rerun) {
+            // Edits made during the sync were not necessarily pushed
+            requestSync();
+        }
+    }
+
+    /**
+     * Ask the running sync to stop at its next check
+     * Work already committed is kept and the next sync resumes from its checkpoint
+     *
+     * @return false when no sync was running
+     */
+    public boolean cancelSync() {
+        Run current = run.get();
+        while (current.state == RunState.RUNNING) {
+            if (run.compareAndSet(current, new Run(RunState.CANCELLING, current.token))) {
+                current.token.cancel();
+                return true;
+            }
+            current = run.get();
+        }
+        return false;
+    }
+
+    /**
+     * Start auto-sync if enabled in the configuration: periodic runs, and debounced runs after local edits
+     * Calling it again has no effect
+     */
+    public synchronized void startAutoSync() {
+        ConfigManager config = ConfigManager.getInstance();
+        if (autoSyncStarted || !config.isSyncAutoEnabled() || config.isOfflineModeEnabled()) {
+            return;
+        }
+        autoSyncStarted = true;
+
+        long intervalMs = TimeUnit.MINUTES.toMillis(Math.max(1, config.getSyncAutoInterval()));
+        executorService.scheduleWithFixedDelay(() -> scheduleRun(0), intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+
+        // Changes pulled by the sync itself do not trigger another sync
+        changeSubscription = DataChangeBus.getInstance().subscribe(this::onLocalChanges);
+
+        if (config.isSyncOnStartup()) {
+            scheduleRun(0);
+        }
+    }
+
+    /**
+     * Schedule the daily integrity check at sync.integrity.check.hour, if set
+     * Calling it again has no effect
+     */
+    public synchronized void startIntegrityCheck() {
+        ConfigManager config = ConfigManager.getInstance();
+        int hour = config.getSyncIntegrityCheckHour();
+        if (integrityCheckStarted || hour < 0 || hour > 23 || config.isOfflineModeEnabled()) {
+            return;
+        }
+        integrityCheckStarted = true;
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime next = now.toLocalDate().atTime(hour, 0);
+        if (!next.isAfter(now)) {
+            next = next.plusDays(1);
+        }
+        long delayMs = Duration.between(now, next).toMillis();
+        executorService.scheduleAtFixedRate(this::runIntegrityCheck, delayMs, TimeUnit.DAYS.toMillis(1),
+                TimeUnit.MILLISECONDS);
+    }
+
+    private void runIntegrityCheck() {
+        try {
+            List<RangeHashReconciler.TableReport> reports = verifyIntegrity(true);
+            if (reports.stream().anyMatch(report -> !report.isConsistent())) {
+                // Repairs queued local rows for push
+                requestSync();
+            }
+        } catch (IllegalStateException e) {
+            // A sync is running, try again once it is likely done
+            executorService.schedule(this::runIntegrityCheck, INTEGRITY_RETRY_MINUTES, TimeUnit.MINUTES);
+        } catch (Exception e) {
+            System.err.println("Integrity check failed: " + e.getMessage());
+        }
+    }
+
+    private void onLocalChanges(DataChangeBatch batch) {
+        boolean local = batch.getEvents().stream()
+            .anyMatch(event -> event.getSource() != DataChangeEvent.Source.SYNC);
+        if (local) {
+            requestSync();
+        }
+    }
+
+    /**
+     * Request a sync after local edits
+     * Each request pushes the run back by the debounce delay, up to MAX_DEBOUNCE_MS after the first one
+     */
+    public synchronized void requestSync() {
+        if (!autoSyncStarted) {
+            return;
+        }
+        if (run.get().state != RunState.IDLE) {
+            rerunRequested = true;
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        if (pendingRun == null || pendingRun.isDone()) {
+            firstRequestAt = now;
+        }
+        long debounceMs = TimeUnit.SECONDS.toMillis(ConfigManager.getInstance().getSyncDebounceSeconds());
+        long runAt = Math.min(now + debounceMs, firstRequestAt + MAX_DEBOUNCE_MS);
+        scheduleRun(runAt - now);
+    }
+
+    /**
+     * Schedule the single pending automatic run, never earlier than the current backoff allows
+     */
+    private synchronized void scheduleRun(long delayMs) {
+        long now = System.currentTimeMillis();
+        long runAt = Math.max(now + delayMs, backoffUntil);
+
+        if (pendingRun != null && !pendingRun.isDone()) {
+            if (pendingRun.getDelay(TimeUnit.MILLISECONDS) <= 0 || pendingRunAt == runAt) {
+                return;
+            }
+            pendingRun.cancel(false);
+        }
+        pendingRunAt = runAt;
+        pendingRun = executorService.schedule(this::runAutoSync, runAt - now, TimeUnit.MILLISECONDS);
+    }
+
+    private void runAutoSync() {
+        CancellationToken token;
+        try {
+            token = acquire();
+        } catch (IllegalStateException e) {
+            // A manual sync is running, sync again once it is done
+            synchronized (this) {
+                rerunRequested = true;
+            }
+            return;
+        }
+
+        try {
+            runSync(token);
+        } catch (CancellationException e) {
+            System.out.println("Auto-sync cancelled");
+        } catch (Exception e) {
+            System.err.println("Auto-sync failed: " + e.getMessage());
         } finally {
-            isSyncing = false;
+            release();
+        }
+    }
+
+    private synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        backoffUntil = 0;
+    }
+
+    /**
+     * Exponential backoff with jitter: 30 s, 1 min, 2 min... up to sync.backoff.max.minutes
+     */
+    private synchronized void recordFailure() {
+        consecutiveFailures++;
+        long maxMs = TimeUnit.MINUTES.toMillis(ConfigManager.getInstance().getSyncBackoffMaxMinutes());
+        long delayMs = Math.min(maxMs, BACKOFF_BASE_MS << Math.min(consecutiveFailures - 1, 16));
+        delayMs += ThreadLocalRandom.current().nextLong(delayMs / 10 + 1);
+        backoffUntil = System.currentTimeMillis() + delayMs;
+
+        if (autoSyncStarted) {
+            System.out.println("Sync failed " + consecutiveFailures + " time(s), next automatic attempt in "
+                    + delayMs / 1000 + " s");
+            scheduleRun(delayMs);
+        }
+    }
+
+    /**
+     * Compare the local database with MySQL table by table, without a full pull
+     * With repair, diverging rows are pulled again or queued for the next push. The reports are
+     * logged as a sync session (direction VERIFY).
+     *
+     * @throws IllegalStateException when a sync is already running
+     */
+    public List<RangeHashReconciler.TableReport> verifyIntegrity(boolean repair) throws SQLException {
+        acquire();
+        try {
+            return syncManager.verifyIntegrity(repair);
+        } finally {
+            release();
         }
     }
 
@@ -138,7 +423,7 @@ public class SyncService {
      * Check if synchronization is currently running
      */
     public boolean isSyncing() {
-        return isSyncing;
+        return run.get().state != RunState.IDLE;
     }
 
     /**
@@ -228,7 +513,38 @@ public class SyncService {
      * Shutdown service and cleanup resources
      */
     public void shutdown() {
-        executorService.shutdown();
+        synchronized (this) {
+            if (changeSubscription != null) {
+                changeSubscription.run();
+                changeSubscription = null;
+            }
+        }
+        cancelSync();
+        executorService.shutdownNow();
+    }
+
+    /**
+     * Run state of the service: IDLE -> RUNNING -> (CANCELLING) -> IDLE
+     */
+    private enum RunState {
+        IDLE,
+        RUNNING,
+        CANCELLING
+    }
+
+    /**
+     * Run state with the token cancelling that run
+     */
+    private static final class Run {
+        private static final Run IDLE = new Run(RunState.IDLE, CancellationToken.NONE);
+
+        private final RunState state;
+        private final CancellationToken token;
+
+        private Run(RunState state, CancellationToken token) {
+            this.state = state;
+            this.token = token;
+        }
     }
 
     /**
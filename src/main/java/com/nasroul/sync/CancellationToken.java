@@ -0,0 +1,36 @@
+package com.nasroul.sync;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Cooperative cancellation of a running sync
+ *
+ * SyncManager checks the token between tables, chunks and rows. Everything committed before the
+ * check is kept: the session checkpoint is left in place, so the next sync resumes from there.
+ */
+public class CancellationToken {
+
+    // Token of runs that cannot be cancelled
+    public static final CancellationToken NONE = new CancellationToken();
+
+    private volatile boolean cancelled;
+
+    public void cancel() {
+        if (this != NONE) {
+            cancelled = true;
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @throws CancellationException when the sync has been cancelled
+     */
+    public void throwIfCancelled() {
+        if (cancelled) {
+            throw new CancellationException("Synchronisation annulée");
+        }
+    }
+}
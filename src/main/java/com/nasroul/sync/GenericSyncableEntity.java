@@ -3,61 +3,42 @@ package com.nasroul.sync;
 import com.nasroul.model.SyncableEntity;
 
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
-import java.util.HashMap;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 /**
  * Generic implementation of SyncableEntity for sync operations
- * Represents any table row as a Map of column name -> value
+ * Represents any table row as column name -> value, stored as an array of values in column order
+ * next to the column names shared by every row decoded with the same RowCodec
  */
 public class GenericSyncableEntity extends SyncableEntity {
 
     private final String tableName;
-    private final Map<String, Object> fields;
+    private RowCodec.Columns columns;
+    private Object[] values;
 
     public GenericSyncableEntity(String tableName) {
+        this(tableName, RowCodec.Columns.EMPTY, new Object[0]);
+    }
+
+    GenericSyncableEntity(String tableName, RowCodec.Columns columns, Object[] values) {
         this.tableName = tableName;
-        this.fields = new HashMap<>();
+        this.columns = columns;
+        this.values = values;
     }
 
     /**
      * Create from ResultSet
+     * Reading many rows, RowCodec.forResultSet(tableName, rs).decode(rs) skips the metadata check per row
      */
     public static GenericSyncableEntity fromResultSet(String tableName, ResultSet rs) throws SQLException {
-        GenericSyncableEntity entity = new GenericSyncableEntity(tableName);
-
-        ResultSetMetaData metaData = rs.getMetaData();
-        int columnCount = metaData.getColumnCount();
-
-        for (int i = 1; i <= columnCount; i++) {
-            String columnName = metaData.getColumnName(i);
-            int columnType = metaData.getColumnType(i);
-
-            Object value;
-            // Handle BLOB type specially to avoid driver-specific issues
-            if (columnType == java.sql.Types.BLOB || columnType == java.sql.Types.BINARY ||
-                columnType == java.sql.Types.VARBINARY || columnType == java.sql.Types.LONGVARBINARY) {
-                byte[] bytes = rs.getBytes(i);
-                value = rs.wasNull() ? null : bytes;
-            } else {
-                value = rs.getObject(i);
-            }
-
-            entity.fields.put(columnName, value);
-        }
-
-        // Set sync metadata from parent class
-        entity.setCreatedAt(parseLocalDateTime(rs, "created_at"));
-        entity.setUpdatedAt(parseLocalDateTime(rs, "updated_at"));
-        entity.setDeletedAt(parseLocalDateTime(rs, "deleted_at"));
-        entity.setLastModifiedBy(getString(rs, "last_modified_by"));
-        entity.setSyncStatus(getString(rs, "sync_status"));
-        entity.setSyncVersion(getInteger(rs, "sync_version"));
-        entity.setLastSyncAt(parseLocalDateTime(rs, "last_sync_at"));
-
-        return entity;
+        return RowCodec.forResultSet(tableName, rs).decode(rs);
     }
 
     public String getTableName() {
@@ -65,69 +46,108 @@ public class GenericSyncableEntity extends SyncableEntity {
     }
 
     public Object getField(String name) {
-        return fields.get(name);
+        int index = columns.indexOf(name);
+        return index >= 0 ? values[index] : null;
     }
 
     public void setField(String name, Object value) {
-        fields.put(name, value);
+        int index = columns.indexOf(name);
+        if (index < 0) {
+            // Rows decoded together share their columns, widen a private copy
+            index = columns.names.length;
+            columns = columns.with(name);
+            values = Arrays.copyOf(values, index + 1);
+        }
+        values[index] = value;
     }
 
+    /**
+     * Read-only view of the fields in column order, backed by this entity
+     */
     public Map<String, Object> getAllFields() {
-        return new HashMap<>(fields);
+        return new FieldMap(false);
     }
 
     public Integer getId() {
-        Object id = fields.get("id");
+        Object id = getField("id");
         return id != null ? (Integer) id : null;
     }
 
     @Override
     public Map<String, Object> getFieldValuesForHash() {
-        // Return all non-sync fields for hashing
-        Map<String, Object> hashFields = new HashMap<>();
-
-        for (Map.Entry<String, Object> entry : fields.entrySet()) {
-            String key = entry.getKey();
-            // Exclude sync metadata fields from hash
-            if (!key.equals("created_at") && !key.equals("updated_at") &&
-                !key.equals("deleted_at") && !key.equals("last_modified_by") &&
-                !key.equals("sync_status") && !key.equals("sync_version") &&
-                !key.equals("last_sync_at")) {
-                hashFields.put(key, entry.getValue());
-            }
+        // All non-sync fields, sync metadata is excluded from the hash
+        return new FieldMap(true);
+    }
+
+    /**
+     * The fields as a map without copying them, optionally leaving out the sync metadata columns
+     */
+    private final class FieldMap extends AbstractMap<String, Object> {
+        private final boolean contentOnly;
+
+        private FieldMap(boolean contentOnly) {
+            this.contentOnly = contentOnly;
         }
 
-        return hashFields;
-    }
+        private boolean includes(int index) {
+            return !columns.shadowed[index] && !(contentOnly && columns.syncMetadata[index]);
+        }
 
-    // Helper methods to safely extract values from ResultSet
-    private static String getString(ResultSet rs, String columnName) {
-        try {
-            return rs.getString(columnName);
-        } catch (SQLException e) {
-            return null;
+        @Override
+        public Object get(Object key) {
+            int index = key instanceof String ? columns.indexOf((String) key) : -1;
+            return index >= 0 && includes(index) ? values[index] : null;
         }
-    }
 
-    private static Integer getInteger(ResultSet rs, String columnName) {
-        try {
-            int value = rs.getInt(columnName);
-            return rs.wasNull() ? null : value;
-        } catch (SQLException e) {
-            return null;
+        @Override
+        public boolean containsKey(Object key) {
+            int index = key instanceof String ? columns.indexOf((String) key) : -1;
+            return index >= 0 && includes(index);
         }
-    }
 
-    private static java.time.LocalDateTime parseLocalDateTime(ResultSet rs, String columnName) {
-        try {
-            String dateStr = rs.getString(columnName);
-            if (dateStr != null && !dateStr.isEmpty()) {
-                // Parse SQLite datetime format: 'YYYY-MM-DD HH:MM:SS'
-                return java.time.LocalDateTime.parse(dateStr.replace(" ", "T"));
-            }
-        } catch (Exception e) {
-            // Ignore parsing errors
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return new Iterator<>() {
+                        private int next = advance(0);
+
+                        private int advance(int from) {
+                            while (from < columns.names.length && !includes(from)) {
+                                from++;
+                            }
+                            return from;
+                        }
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < columns.names.length;
+                        }
+
+                        @Override
+                        public Entry<String, Object> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            int index = next;
+                            next = advance(index + 1);
+                            return new SimpleImmutableEntry<>(columns.names[index], values[index]);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    int size = 0;
+                    for (int i = 0; i < columns.names.length; i++) {
+                        if (includes(i)) {
+                            size++;
+                        }
+                    }
+                    return size;
+                }
+            };
         }
-        return null;
     }
 }
@@ -0,0 +1,329 @@
+package com.nasroul.sync;
+
+import com.nasroul.dao.DatabaseManager;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Compares a table between SQLite and MySQL without transferring it
+ *
+ * Each synced row is reduced to a signature "remoteId:syncVersion:deleted" and its CRC32. Rows are
+ * grouped in remote id ranges; a range digest is the row count and the XOR of the row CRCs. MySQL
+ * computes its digests with one GROUP BY query per level, the local side from the sync_metadata
+ * mapping. Ranges are compared top-down (BUCKET_WIDTHS) and only the leaf ranges that differ have
+ * their row signatures read, so a table that agrees costs a single aggregate query.
+ *
+ * Content hashes cannot be compared here: they include local ids and foreign keys, which differ
+ * between the two databases. Rows with pending local changes (change_log) are expected to differ
+ * and are not reported.
+ */
+public class RangeHashReconciler {
+
+    // Remote id range width per level, the last level is read row by row
+    private static final int[] BUCKET_WIDTHS = {4096, 64};
+
+    private final DatabaseManager dbManager;
+
+    public RangeHashReconciler() {
+        this.dbManager = DatabaseManager.getInstance();
+    }
+
+    /**
+     * Compare one table and list the rows that differ
+     */
+    public TableReport compare(String tableName) throws SQLException {
+        TableReport report = new TableReport(tableName);
+        TreeMap<Integer, RowSignature> localRows = loadLocalSignatures(tableName);
+        Set<Integer> pendingLocalIds = loadPendingLocalIds(tableName);
+
+        try (Connection remoteConn = dbManager.getMySQLConnection()) {
+            compareRange(remoteConn, report, localRows, pendingLocalIds, 0, Integer.MAX_VALUE, 0);
+        }
+
+        return report;
+    }
+
+    private void compareRange(Connection remoteConn, TableReport report, TreeMap<Integer, RowSignature> localRows,
+                              Set<Integer> pendingLocalIds, int fromId, int toId, int level) throws SQLException {
+        if (level == BUCKET_WIDTHS.length) {
+            compareRows(remoteConn, report, localRows, pendingLocalIds, fromId, toId);
+            return;
+        }
+
+        int width = BUCKET_WIDTHS[level];
+        Map<Long, Digest> remoteBuckets = loadRemoteDigests(remoteConn, report.getTableName(), width, fromId, toId);
+        Map<Long, Digest> localBuckets = new HashMap<>();
+        for (RowSignature row : localRows.subMap(fromId, true, toId, true).values()) {
+            localBuckets.computeIfAbsent((long) row.remoteId / width, b -> new Digest()).add(row.crc());
+        }
+
+        Set<Long> buckets = new TreeSet<>(remoteBuckets.keySet());
+        buckets.addAll(localBuckets.keySet());
+        for (Long bucket : buckets) {
+            report.bucketsCompared++;
+            Digest remote = remoteBuckets.getOrDefault(bucket, Digest.EMPTY);
+            Digest local = localBuckets.getOrDefault(bucket, Digest.EMPTY);
+            if (!remote.equals(local)) {
+                report.bucketsDiffering++;
+                int bucketFrom = (int) (bucket * width);
+                int bucketTo = (int) Math.min((long) Integer.MAX_VALUE, bucket * width + width - 1);
+                compareRange(remoteConn, report, localRows, pendingLocalIds, bucketFrom, bucketTo, level + 1);
+            }
+        }
+    }
+
+    /**
+     * Leaf level: read the remote signatures of the range and compare them row by row
+     */
+    private void compareRows(Connection remoteConn, TableReport report, TreeMap<Integer, RowSignature> localRows,
+                             Set<Integer> pendingLocalIds, int fromId, int toId) throws SQLException {
+        Map<Integer, RowSignature> remoteRows = new HashMap<>();
+        String sql = "SELECT id, COALESCE(sync_version, 1) AS sync_version, deleted_at IS NOT NULL AS deleted " +
+                     "FROM `" + report.getTableName() + "` WHERE id BETWEEN ? AND ?";
+
+        try (PreparedStatement pstmt = remoteConn.prepareStatement(sql)) {
+            pstmt.setInt(1, fromId);
+            pstmt.setInt(2, toId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    int remoteId = rs.getInt("id");
+                    remoteRows.put(remoteId, new RowSignature(remoteId, null, rs.getInt("sync_version"), rs.getBoolean("deleted")));
+                }
+            }
+        }
+
+        Set<Integer> ids = new TreeSet<>(remoteRows.keySet());
+        ids.addAll(localRows.subMap(fromId, true, toId, true).keySet());
+        for (Integer remoteId : ids) {
+            report.rowsCompared++;
+            RowSignature remote = remoteRows.get(remoteId);
+            RowSignature local = localRows.get(remoteId);
+            if (local != null && pendingLocalIds.contains(local.localId)) {
+                continue;
+            }
+
+            DivergenceType type = null;
+            if (local == null) {
+                // A row deleted before this device ever pulled it is not missing
+                type = remote.deleted ? null : DivergenceType.MISSING_LOCAL;
+            } else if (remote == null) {
+                type = DivergenceType.MISSING_REMOTE;
+            } else if (remote.syncVersion > local.syncVersion) {
+                type = DivergenceType.LOCAL_BEHIND;
+            } else if (remote.syncVersion < local.syncVersion) {
+                type = DivergenceType.REMOTE_BEHIND;
+            } else if (remote.deleted != local.deleted) {
+                type = DivergenceType.DELETE_MISMATCH;
+            }
+
+            if (type != null) {
+                report.divergences.add(new Divergence(report.getTableName(), remoteId,
+                    local != null ? local.localId : null, type));
+            }
+        }
+    }
+
+    private Map<Long, Digest> loadRemoteDigests(Connection remoteConn, String tableName, int width,
+                                                int fromId, int toId) throws SQLException {
+        Map<Long, Digest> digests = new HashMap<>();
+        String sql = """
+            SELECT FLOOR(id / ?) AS bucket, COUNT(*) AS row_count,
+                   BIT_XOR(CRC32(CONCAT(id, ':', COALESCE(sync_version, 1), ':', deleted_at IS NOT NULL))) AS row_xor
+            FROM `%s`
+            WHERE id BETWEEN ? AND ?
+            GROUP BY bucket
+            """.formatted(tableName);
+
+        try (PreparedStatement pstmt = remoteConn.prepareStatement(sql)) {
+            pstmt.setInt(1, width);
+            pstmt.setInt(2, fromId);
+            pstmt.setInt(3, toId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    digests.put(rs.getLong("bucket"), new Digest(rs.getInt("row_count"), rs.getLong("row_xor")));
+                }
+            }
+        }
+
+        return digests;
+    }
+
+    /**
+     * Signatures of the local rows that are mapped to a remote row, keyed by remote id
+     * Rows never pushed have no remote id and are left to PUSH
+     */
+    private TreeMap<Integer, RowSignature> loadLocalSignatures(String tableName) throws SQLException {
+        TreeMap<Integer, RowSignature> rows = new TreeMap<>();
+        String sql = """
+            SELECT m.remote_id, t.id, COALESCE(t.sync_version, 1) AS sync_version, t.deleted_at IS NOT NULL AS deleted
+            FROM `%s` t
+            JOIN sync_metadata m ON m.table_name = ? AND m.record_id = t.id
+            WHERE m.remote_id IS NOT NULL
+            """.formatted(tableName);
+
+        try (Connection conn = dbManager.getSQLiteConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, tableName);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    int remoteId = rs.getInt("remote_id");
+                    rows.put(remoteId, new RowSignature(remoteId, rs.getInt("id"),
+                        rs.getInt("sync_version"), rs.getBoolean("deleted")));
+                }
+            }
+        }
+
+        return rows;
+    }
+
+    private Set<Integer> loadPendingLocalIds(String tableName) throws SQLException {
+        Set<Integer> ids = new HashSet<>();
+
+        try (Connection conn = dbManager.getSQLiteConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT DISTINCT record_id FROM change_log WHERE table_name = ?")) {
+
+            pstmt.setString(1, tableName);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
+            }
+        }
+
+        return ids;
+    }
+
+    /**
+     * How a row differs between the two databases
+     */
+    public enum DivergenceType {
+        MISSING_LOCAL,    // On MySQL, not mapped locally
+        MISSING_REMOTE,   // Mapped locally, gone from MySQL
+        LOCAL_BEHIND,     // MySQL has a higher sync_version
+        REMOTE_BEHIND,    // SQLite has a higher sync_version
+        DELETE_MISMATCH   // Same version, deleted on one side only
+    }
+
+    /**
+     * Inner class representing one row that differs
+     */
+    public static class Divergence {
+        private final String tableName;
+        private final int remoteId;
+        private final Integer localId;
+        private final DivergenceType type;
+
+        private Divergence(String tableName, int remoteId, Integer localId, DivergenceType type) {
+            this.tableName = tableName;
+            this.remoteId = remoteId;
+            this.localId = localId;
+            this.type = type;
+        }
+
+        public String getTableName() { return tableName; }
+        public int getRemoteId() { return remoteId; }
+        public Integer getLocalId() { return localId; }
+        public DivergenceType getType() { return type; }
+
+        /**
+         * True when the remote row should be pulled, false when the local row should be pushed
+         */
+        public boolean isRepairedByPull() {
+            return type != DivergenceType.MISSING_REMOTE && type != DivergenceType.REMOTE_BEHIND;
+        }
+
+        @Override
+        public String toString() {
+            return type + " " + tableName + " remote#" + remoteId + (localId != null ? " local#" + localId : "");
+        }
+    }
+
+    /**
+     * Inner class representing the comparison of one table
+     */
+    public static class TableReport {
+        private final String tableName;
+        private final List<Divergence> divergences = new ArrayList<>();
+        private int bucketsCompared;
+        private int bucketsDiffering;
+        private int rowsCompared;
+
+        private TableReport(String tableName) {
+            this.tableName = tableName;
+        }
+
+        public String getTableName() { return tableName; }
+        public List<Divergence> getDivergences() { return divergences; }
+        public int getBucketsCompared() { return bucketsCompared; }
+        public int getBucketsDiffering() { return bucketsDiffering; }
+        public int getRowsCompared() { return rowsCompared; }
+        public boolean isConsistent() { return divergences.isEmpty(); }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d divergences (%d/%d buckets differ, %d rows compared)",
+                tableName, divergences.size(), bucketsDiffering, bucketsCompared, rowsCompared);
+        }
+    }
+
+    private static final class RowSignature {
+        private final int remoteId;
+        private final Integer localId;
+        private final int syncVersion;
+        private final boolean deleted;
+
+        private RowSignature(int remoteId, Integer localId, int syncVersion, boolean deleted) {
+            this.remoteId = remoteId;
+            this.localId = localId;
+            this.syncVersion = syncVersion;
+            this.deleted = deleted;
+        }
+
+        /**
+         * Same bytes as MySQL CRC32(CONCAT(id, ':', sync_version, ':', deleted))
+         */
+        private long crc() {
+            CRC32 crc = new CRC32();
+            crc.update((remoteId + ":" + syncVersion + ":" + (deleted ? 1 : 0)).getBytes(StandardCharsets.US_ASCII));
+            return crc.getValue();
+        }
+    }
+
+    private static final class Digest {
+        private static final Digest EMPTY = new Digest();
+
+        private int rowCount;
+        private long rowXor;
+
+        private Digest() {
+        }
+
+        private Digest(int rowCount, long rowXor) {
+            this.rowCount = rowCount;
+            this.rowXor = rowXor;
+        }
+
+        private void add(long rowCrc) {
+            rowCount++;
+            rowXor ^= rowCrc;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Digest)) {
+                return false;
+            }
+            Digest other = (Digest) o;
+            return rowCount == other.rowCount && rowXor == other.rowXor;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(rowCount, rowXor);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.nasroul.sync;
+
+import com.nasroul.dao.DatabaseManager;
+import com.nasroul.perf.MetricsRegistry;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rows of a remote query, read and decoded on their own thread and handed over through a bounded queue
+ *
+ * Connector/J reads a whole result set into memory by default. The reader fetches it as a stream
+ * (row by row from the socket for MySQL, fetchSize rows at a time for drivers with cursors), and
+ * blocks when the applier is queueSize rows behind: at most that many decoded rows are held,
+ * whatever the size of the table. Reading from the network and applying rows locally overlap.
+ *
+ * Metrics: sync.pull.reader.blocked (time the reader waited for the applier) and
+ * sync.pull.applier.waiting (time the applier waited for rows), per stream.
+ */
+final class RemoteRowStream implements AutoCloseable {
+
+    /**
+     * Binds the parameters of the query
+     */
+    @FunctionalInterface
+    interface Binder {
+        void bind(PreparedStatement pstmt) throws SQLException;
+    }
+
+    // Marks the end of the rows in the queue
+    private static final GenericSyncableEntity END = new GenericSyncableEntity("");
+
+    private final DatabaseManager dbManager;
+    private final String tableName;
+    private final String sql;
+    private final Binder binder;
+    private final int fetchSize;
+    private final BlockingQueue<GenericSyncableEntity> queue;
+    private final Thread thread;
+
+    private volatile boolean cancelled;
+    private volatile SQLException failure;
+    // Set once the last row has been read, a stream ending without it is truncated
+    private volatile boolean complete;
+    // Statement of the running query, cancelled when the stream is closed early
+    private volatile PreparedStatement running;
+    // Read after join()
+    private long readerBlockedNanos;
+    private long applierWaitingNanos;
+    private boolean ended;
+
+    /**
+     * Start reading the rows of a query on tableName
+     */
+    RemoteRowStream(DatabaseManager dbManager, String tableName, String sql, Binder binder,
+                    int fetchSize, int queueSize) {
+        this.dbManager = dbManager;
+        this.tableName = tableName;
+        this.sql = sql;
+        this.binder = binder;
+        this.fetchSize = fetchSize;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+
+        this.thread = new Thread(this::read, "sync-pull-reader");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void read() {
+        try (Connection conn = dbManager.getMySQLConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                                                             ResultSet.CONCUR_READ_ONLY)) {
+            pstmt.setFetchSize(streamingFetchSize(conn));
+            binder.bind(pstmt);
+            running = pstmt;
+            if (cancelled) {
+                return;
+            }
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                RowCodec codec = RowCodec.forResultSet(tableName, rs);
+                while (!cancelled && rs.next()) {
+                    if (!enqueue(codec.decode(rs))) {
+                        break;
+                    }
+                }
+                complete = !cancelled;
+            }
+        } catch (SQLException e) {
+            failure = e;
+        } catch (Throwable e) {
+            // Errors too (OutOfMemoryError on large rows): the applier must not take a truncated stream as complete
+            failure = new SQLException("Failed to read " + tableName + ": " + e, e);
+        } finally {
+            running = null;
+            enqueueEnd();
+        }
+    }
+
+    /**
+     * Connector/J only streams with Integer.MIN_VALUE, unless the URL asks for server cursors;
+     * other drivers (the benchmark's stand-in) fetch fetchSize rows per round trip
+     */
+    private int streamingFetchSize(Connection conn) throws SQLException {
+        String url = conn.getMetaData().getURL();
+        if (url != null && url.startsWith("jdbc:mysql:") && !url.contains("useCursorFetch=true")) {
+            return Integer.MIN_VALUE;
+        }
+        return fetchSize;
+    }
+
+    /**
+     * @return false when the stream was closed while waiting for a free slot
+     */
+    private boolean enqueue(GenericSyncableEntity row) {
+        if (queue.offer(row)) {
+            return true;
+        }
+        long startNanos = System.nanoTime();
+        try {
+            while (!queue.offer(row, 100, TimeUnit.MILLISECONDS)) {
+                if (cancelled) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            readerBlockedNanos += System.nanoTime() - startNanos;
+        }
+    }
+
+    private void enqueueEnd() {
+        try {
+            while (!cancelled && !queue.offer(END, 100, TimeUnit.MILLISECONDS)) {
+                // Wait for the applier to free a slot
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Next row, waiting for the reader if needed
+     *
+     * @return null after the last row
+     * @throws SQLException when reading failed; the rows before the failure have been returned
+     */
+    GenericSyncableEntity next() throws SQLException {
+        if (ended) {
+            return null;
+        }
+
+        GenericSyncableEntity row = queue.poll();
+        if (row == null) {
+            long startNanos = System.nanoTime();
+            try {
+                row = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Pull of " + tableName + " interrupted", e);
+            } finally {
+                applierWaitingNanos += System.nanoTime() - startNanos;
+            }
+        }
+
+        if (row == END) {
+            ended = true;
+            if (failure != null) {
+                throw failure;
+            }
+            if (!complete) {
+                throw new SQLException("Pull of " + tableName + " stopped before its last row");
+            }
+            return null;
+        }
+        return row;
+    }
+
+    /**
+     * Stop the reader if rows are left (failure or cancellation while applying) and wait for it
+     * Closing a Connector/J streaming result set reads every remaining row off the socket, so the
+     * query is cancelled (KILL QUERY) first
+     */
+    @Override
+    public void close() {
+        cancelled = true;
+        queue.clear();
+        PreparedStatement pstmt = running;
+        if (pstmt != null && !ended) {
+            try {
+                pstmt.cancel();
+            } catch (SQLException e) {
+                System.err.println("Failed to cancel the pull of " + tableName + ": " + e.getMessage());
+            }
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        metrics.timer("sync.pull.reader.blocked").record(readerBlockedNanos);
+        metrics.timer("sync.pull.applier.waiting").record(applierWaitingNanos);
+    }
+}
@@ -0,0 +1,247 @@
+package com.nasroul.sync;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Decodes the rows of one table read with one column list into GenericSyncableEntity
+ *
+ * Compiled from the result set metadata once per table and shape (a table is read from SQLite and
+ * from MySQL, with different column types): column names, a reader per column and the indexes of
+ * the sync metadata columns are resolved up front, so decoding a row is one read per column into
+ * an array. Callers reading many rows take the codec once with forResultSet() and call decode()
+ * for each row.
+ */
+final class RowCodec {
+
+    // Sync metadata columns, kept out of the content hash
+    static final Set<String> SYNC_COLUMNS = Set.of("created_at", "updated_at", "deleted_at",
+        "last_modified_by", "sync_status", "sync_version", "last_sync_at");
+
+    private static final int MAX_SHAPES_PER_TABLE = 8;
+
+    private static final Map<String, List<RowCodec>> codecs = new ConcurrentHashMap<>();
+
+    private final String tableName;
+    private final Columns columns;
+    private final int[] types;
+    private final ColumnReader[] readers;
+
+    // 1-based result set indexes of the sync metadata columns, 0 when the query does not return it
+    private final int createdAt;
+    private final int updatedAt;
+    private final int deletedAt;
+    private final int lastModifiedBy;
+    private final int syncStatus;
+    private final int syncVersion;
+    private final int lastSyncAt;
+
+    private RowCodec(String tableName, String[] names, int[] types) {
+        this.tableName = tableName;
+        this.columns = new Columns(names);
+        this.types = types;
+        this.readers = new ColumnReader[names.length];
+        for (int i = 0; i < names.length; i++) {
+            readers[i] = ColumnReader.forType(types[i]);
+        }
+
+        this.createdAt = indexOf(names, "created_at");
+        this.updatedAt = indexOf(names, "updated_at");
+        this.deletedAt = indexOf(names, "deleted_at");
+        this.lastModifiedBy = indexOf(names, "last_modified_by");
+        this.syncStatus = indexOf(names, "sync_status");
+        this.syncVersion = indexOf(names, "sync_version");
+        this.lastSyncAt = indexOf(names, "last_sync_at");
+    }
+
+    /**
+     * Codec for the rows of this result set, compiled the first time its shape is seen
+     */
+    static RowCodec forResultSet(String tableName, ResultSet rs) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        List<RowCodec> shapes = codecs.computeIfAbsent(tableName, key -> new CopyOnWriteArrayList<>());
+        for (RowCodec codec : shapes) {
+            if (codec.matches(metaData)) {
+                return codec;
+            }
+        }
+
+        int columnCount = metaData.getColumnCount();
+        String[] names = new String[columnCount];
+        int[] types = new int[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            names[i] = metaData.getColumnName(i + 1);
+            types[i] = metaData.getColumnType(i + 1);
+        }
+        RowCodec codec = new RowCodec(tableName, names, types);
+        if (shapes.size() < MAX_SHAPES_PER_TABLE) {
+            shapes.add(codec);
+        }
+        return codec;
+    }
+
+    private boolean matches(ResultSetMetaData metaData) throws SQLException {
+        if (metaData.getColumnCount() != types.length) {
+            return false;
+        }
+        for (int i = 0; i < types.length; i++) {
+            if (metaData.getColumnType(i + 1) != types[i]
+                    || !metaData.getColumnName(i + 1).equals(columns.names[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Lookups by name are case-insensitive in the drivers, resolve the same way
+     */
+    private static int indexOf(String[] names, String column) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equalsIgnoreCase(column)) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Decode the current row
+     */
+    GenericSyncableEntity decode(ResultSet rs) throws SQLException {
+        Object[] values = new Object[readers.length];
+        for (int i = 0; i < readers.length; i++) {
+            values[i] = readers[i].read(rs, i + 1);
+        }
+
+        GenericSyncableEntity entity = new GenericSyncableEntity(tableName, columns, values);
+        entity.setCreatedAt(readDateTime(rs, values, createdAt));
+        entity.setUpdatedAt(readDateTime(rs, values, updatedAt));
+        entity.setDeletedAt(readDateTime(rs, values, deletedAt));
+        entity.setLastModifiedBy(readString(rs, values, lastModifiedBy));
+        entity.setSyncStatus(readString(rs, values, syncStatus));
+        entity.setSyncVersion(readInteger(rs, syncVersion));
+        entity.setLastSyncAt(readDateTime(rs, values, lastSyncAt));
+        return entity;
+    }
+
+    /**
+     * Text of a column already read: SQLite returns text as a String, other values are read again
+     * with getString for the driver's formatting
+     */
+    private static String readString(ResultSet rs, Object[] values, int index) throws SQLException {
+        if (index == 0 || values[index - 1] == null) {
+            return null;
+        }
+        Object value = values[index - 1];
+        return value instanceof String ? (String) value : rs.getString(index);
+    }
+
+    private static Integer readInteger(ResultSet rs, int index) throws SQLException {
+        if (index == 0) {
+            return null;
+        }
+        int value = rs.getInt(index);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static LocalDateTime readDateTime(ResultSet rs, Object[] values, int index) throws SQLException {
+        String dateStr = readString(rs, values, index);
+        if (dateStr != null && !dateStr.isEmpty()) {
+            try {
+                // Parse SQLite datetime format: 'YYYY-MM-DD HH:MM:SS'
+                return LocalDateTime.parse(dateStr.replace(" ", "T"));
+            } catch (Exception e) {
+                // Ignore parsing errors
+            }
+        }
+        return null;
+    }
+
+    /**
+     * How one column is read, chosen from its JDBC type
+     */
+    private enum ColumnReader {
+        // Handle BLOB type specially to avoid driver-specific issues
+        BYTES {
+            @Override
+            Object read(ResultSet rs, int index) throws SQLException {
+                byte[] bytes = rs.getBytes(index);
+                return rs.wasNull() ? null : bytes;
+            }
+        },
+        OBJECT {
+            @Override
+            Object read(ResultSet rs, int index) throws SQLException {
+                Object value = rs.getObject(index);
+                // Same type whatever the driver returns for DATETIME; SQLite stores it as text
+                return value instanceof Timestamp ? ((Timestamp) value).toLocalDateTime() : value;
+            }
+        };
+
+        abstract Object read(ResultSet rs, int index) throws SQLException;
+
+        static ColumnReader forType(int type) {
+            return switch (type) {
+                case Types.BLOB, Types.BINARY, Types.VARBINARY, Types.LONGVARBINARY -> BYTES;
+                default -> OBJECT;
+            };
+        }
+    }
+
+    /**
+     * Column names of a shape and their positions, shared by all the entities decoded with it
+     */
+    static final class Columns {
+        static final Columns EMPTY = new Columns(new String[0]);
+
+        final String[] names;
+        // Excluded from the content hash
+        final boolean[] syncMetadata;
+        // A later column has the same name and replaces it, as in a map filled column by column
+        final boolean[] shadowed;
+        private final Map<String, Integer> indexes;
+
+        Columns(String[] names) {
+            this.names = names;
+            this.syncMetadata = new boolean[names.length];
+            this.shadowed = new boolean[names.length];
+            this.indexes = new HashMap<>(names.length * 2);
+            for (int i = 0; i < names.length; i++) {
+                syncMetadata[i] = SYNC_COLUMNS.contains(names[i]);
+                Integer previous = indexes.put(names[i], i);
+                if (previous != null) {
+                    shadowed[previous] = true;
+                }
+            }
+        }
+
+        /**
+         * 0-based position of a column, -1 when the shape does not have it
+         */
+        int indexOf(String name) {
+            Integer index = indexes.get(name);
+            return index != null ? index : -1;
+        }
+
+        /**
+         * This shape with one more column at the end
+         */
+        Columns with(String name) {
+            String[] widened = Arrays.copyOf(names, names.length + 1);
+            widened[names.length] = name;
+            return new Columns(widened);
+        }
+    }
+}
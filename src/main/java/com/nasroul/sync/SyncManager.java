@@ -2,16 +2,25 @@ package com.nasroul.sync;
 
 import com.nasroul.dao.*;
 import com.nasroul.model.SyncableEntity;
+import com.nasroul.perf.MetricsRegistry;
+import com.nasroul.perf.SyncChunkEvent;
+import com.nasroul.perf.SyncPhaseEvent;
 import com.nasroul.sync.ConflictDetector.ConflictType;
 import com.nasroul.sync.ConflictResolver.Resolution;
 import com.nasroul.sync.ConflictResolver.ResolutionAction;
+import com.nasroul.util.ConfigManager;
+import com.nasroul.util.DeviceIdGenerator;
 import java.util.Map;
 
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
 
 /**
  * Main synchronization orchestrator
@@ -19,34 +28,76 @@ import java.util.Map;
  */
 public class SyncManager {
 
+    // Rows read per IN query when pushing or pulling by id, also the acknowledgement batch
+    private static final int ROW_CHUNK_SIZE = 500;
+
     private final DatabaseManager dbManager;
     private final SyncMetadataDAO syncMetadataDAO;
     private final SyncLogDAO syncLogDAO;
+    private final ChangeLogDAO changeLogDAO;
+    private final ChangeFeedDAO changeFeedDAO;
+    private final SyncCheckpointDAO checkpointDAO;
     private final ConflictDetector conflictDetector;
     private final ConflictResolver conflictResolver;
 
     private String currentSyncSession;
+    private SyncLogAppender logAppender;
+    // Position of the running session, null outside synchronize(); held once a table or a pulled row fails
+    private SyncCheckpointDAO.Checkpoint checkpoint;
+    private boolean checkpointHeld;
+    // Remote rows that failed on an earlier pull (see SyncCheckpointDAO.getPullFailures), and the
+    // rows of this session skipped after failing too many times
+    private Set<String> pullFailures = new HashSet<>();
+    private final List<String> skippedPullRows = new ArrayList<>();
+    private volatile CancellationToken cancellation = CancellationToken.NONE;
+    private volatile SyncProgress.Listener progressListener;
+    private SyncProgressTracker progress = new SyncProgressTracker(null);
 
     public SyncManager() {
         this.dbManager = DatabaseManager.getInstance();
         this.syncMetadataDAO = new SyncMetadataDAO();
         this.syncLogDAO = new SyncLogDAO();
+        this.changeLogDAO = new ChangeLogDAO();
+        this.changeFeedDAO = new ChangeFeedDAO();
+        this.checkpointDAO = new SyncCheckpointDAO();
         this.conflictDetector = new ConflictDetector();
         this.conflictResolver = new ConflictResolver();
     }
 
+    /**
+     * Receive progress events of the following syncs, called on the sync thread
+     */
+    public void setProgressListener(SyncProgress.Listener progressListener) {
+        this.progressListener = progressListener;
+    }
+
     /**
      * Perform full synchronization: PULL then PUSH
      *
      * @return SyncResult with statistics
      */
     public SyncResult synchronize() throws SQLException {
+        return synchronize(CancellationToken.NONE);
+    }
+
+    /**
+     * Perform full synchronization, stopping early once the token is cancelled
+     *
+     * @throws java.util.concurrent.CancellationException when cancelled, work committed so far is kept
+     */
+    public SyncResult synchronize(CancellationToken cancellation) throws SQLException {
+        this.cancellation = cancellation;
         currentSyncSession = syncLogDAO.startSyncSession();
+        logAppender = syncLogDAO.openAppender(currentSyncSession);
+        progress = new SyncProgressTracker(progressListener);
         SyncResult result = new SyncResult();
+        String outcome = "FAILED";
+        long sessionStartNanos = System.nanoTime();
 
         try {
-            // Check if MySQL is available
-            if (!dbManager.isMySQLAvailable()) {
+            // Check if MySQL is available (also creates the remote schema on first use)
+            if (!dbManager.initializeRemote()) {
+                outcome = "OFFLINE";
                 result.setSuccess(false);
                 result.setErrorMessage("Impossible de se connecter au serveur.\n\n" +
                     "L'application continue de fonctionner en mode hors ligne.\n" +
@@ -58,176 +109,543 @@ public class SyncManager {
                 return result;
             }
 
+            // Resume an interrupted session where its last checkpoint left it
+            SyncCheckpointDAO.Checkpoint resume = checkpointDAO.get();
+            if (resume != null) {
+                System.out.println("Resuming interrupted sync at " + resume);
+            }
+            checkpointHeld = false;
+
             // PHASE 1: PULL - Get changes from remote (MySQL) to local (SQLite)
-            SyncResult pullResult = pullFromRemote();
+            SyncResult pullResult = pullFromRemote(resume);
             result.merge(pullResult);
 
             // PHASE 2: PUSH - Send local changes to remote (MySQL)
             SyncResult pushResult = pushToRemote();
             result.merge(pushResult);
 
+            // Every table went through: the next session starts from the beginning
+            if (!checkpointHeld) {
+                checkpointDAO.clear();
+            }
+
             result.setSuccess(true);
             result.setSyncSessionId(currentSyncSession);
+            outcome = checkpointHeld ? "PARTIAL" : "SUCCESS";
 
+        } catch (CancellationException e) {
+            outcome = "CANCELLED";
+            throw e;
         } catch (SQLException e) {
             result.setSuccess(false);
             // Provide user-friendly error messages
             String userMessage = getUserFriendlyErrorMessage(e);
             result.setErrorMessage(userMessage);
             throw e;
+        } finally {
+            progress.finish();
+            saveSessionMetrics(outcome, result);
+            MetricsRegistry metrics = MetricsRegistry.getInstance();
+            metrics.timer("sync.session").record(System.nanoTime() - sessionStartNanos);
+            metrics.counter("sync.session." + outcome.toLowerCase()).increment();
+            checkpoint = null;
+            this.cancellation = CancellationToken.NONE;
+            // The session log must be complete before the caller reads it
+            logAppender.close();
+            applyLogRetention();
         }
 
         return result;
     }
 
+    /**
+     * Compare every syncable table with MySQL using range digests (see RangeHashReconciler)
+     *
+     * With repair, diverging rows are pulled again from MySQL, or queued in change_log for the next
+     * push when MySQL is the side missing them or behind. Repairs are logged as their own sync session.
+     */
+    public List<RangeHashReconciler.TableReport> verifyIntegrity(boolean repair) throws SQLException {
+        if (!dbManager.initializeRemote()) {
+            throw new SQLException("Impossible de se connecter au serveur pour vérifier l'intégrité");
+        }
+
+        // The check is logged as its own session, so it shows in the sync history
+        currentSyncSession = syncLogDAO.startSyncSession();
+        logAppender = syncLogDAO.openAppender(currentSyncSession);
+
+        String[] tables = {"groups", "members", "events", "projects", "expenses", "contributions", "payment_groups"};
+        RangeHashReconciler reconciler = new RangeHashReconciler();
+        List<RangeHashReconciler.TableReport> reports = new ArrayList<>();
+        try {
+            for (String tableName : tables) {
+                long startNanos = System.nanoTime();
+                RangeHashReconciler.TableReport report = reconciler.compare(tableName);
+                reports.add(report);
+                logAppender.log(currentSyncSession, tableName, 0, "CHECK", "VERIFY",
+                        report.isConsistent() ? "SUCCESS" : "FAILED", report.toString());
+                for (RangeHashReconciler.Divergence divergence : report.getDivergences()) {
+                    logAppender.log(currentSyncSession, tableName, divergence.getRemoteId(), "CHECK", "VERIFY",
+                            "FAILED", divergence.toString());
+                }
+                logAppender.recordPhase(tableName, "VERIFY", (System.nanoTime() - startNanos) / 1_000_000);
+            }
+
+            if (repair && reports.stream().anyMatch(report -> !report.isConsistent())) {
+                repairDivergences(reports);
+            }
+        } finally {
+            logAppender.close();
+        }
+
+        return reports;
+    }
+
+    private void repairDivergences(List<RangeHashReconciler.TableReport> reports) throws SQLException {
+        for (RangeHashReconciler.TableReport report : reports) {
+            if (report.isConsistent()) {
+                continue;
+            }
+            List<Integer> toPull = new ArrayList<>();
+            List<Integer> toPush = new ArrayList<>();
+            for (RangeHashReconciler.Divergence divergence : report.getDivergences()) {
+                if (divergence.isRepairedByPull()) {
+                    toPull.add(divergence.getRemoteId());
+                } else {
+                    if (divergence.getType() == RangeHashReconciler.DivergenceType.MISSING_REMOTE) {
+                        // The mapped remote row is gone: push it as a new row
+                        syncMetadataDAO.clearRemoteId(report.getTableName(), divergence.getLocalId());
+                    }
+                    toPush.add(divergence.getLocalId());
+                }
+            }
+
+            int pulled = pullRowsFromRemote(report.getTableName(), toPull);
+            changeLogDAO.enqueue(report.getTableName(), toPush, "UPDATE");
+            logAppender.log(currentSyncSession, report.getTableName(), 0, "REPAIR", "VERIFY", "SUCCESS",
+                    pulled + " rows pulled, " + toPush.size() + " rows queued for push");
+        }
+    }
+
+    private void saveSessionMetrics(String outcome, SyncResult result) {
+        try {
+            syncLogDAO.saveSessionMetrics(progress.toMetrics(currentSyncSession, outcome,
+                    result.getRecordsPulled(), result.getRecordsPushed()));
+        } catch (SQLException e) {
+            System.err.println("Failed to save sync session metrics: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Drop log detail past the configured retention, on both databases, and old change feed entries
+     * Session rollups are kept longer so the history still lists old sessions
+     */
+    private void applyLogRetention() {
+        ConfigManager config = ConfigManager.getInstance();
+        int detailDays = config.getSyncLogRetentionDays();
+        try {
+            int deleted = syncLogDAO.applyRetention(detailDays, config.getSyncSummaryRetentionDays());
+            if (deleted > 0) {
+                System.out.println("Sync log retention: deleted " + deleted + " local entries older than " + detailDays + " days");
+            }
+            if (dbManager.isRemoteInitialized()) {
+                syncLogDAO.applyRetentionMySQL(detailDays);
+                changeFeedDAO.prune(config.getSyncFeedRetentionDays());
+            }
+        } catch (SQLException e) {
+            System.err.println("Sync log retention failed: " + e.getMessage());
+        }
+    }
+
     /**
      * PULL: Download changes from remote MySQL to local SQLite
+     *
+     * @param resume checkpoint of an interrupted session, or null
      */
-    private SyncResult pullFromRemote() throws SQLException {
+    private SyncResult pullFromRemote(SyncCheckpointDAO.Checkpoint resume) throws SQLException {
         SyncResult result = new SyncResult();
 
         // List of tables to sync
         String[] tables = {"groups", "members", "events", "projects", "expenses", "contributions", "payment_groups"};
 
-        for (String tableName : tables) {
+        if (resume != null && SyncCheckpointDAO.Checkpoint.PHASE_PUSH.equals(resume.getPhase())) {
+            // The interrupted session had finished pulling
+            checkpoint = resume;
+            return result;
+        }
+
+        // Read the feed head first: changes pushed while this pull runs are picked up next time
+        // The head stops before any seq a running push may still commit, so the saved cursor skips nothing
+        // A resumed session keeps the head and mode it started with
+        ChangeFeedDAO.FeedCursor cursor = changeFeedDAO.getCursor();
+        boolean feedUsable = cursor != null && !cursor.isExpired(ConfigManager.getInstance().getSyncFeedRetentionDays());
+        if (resume != null && (feedUsable || SyncCheckpointDAO.Checkpoint.MODE_FULL.equals(resume.getPullMode()))) {
+            checkpoint = resume;
+        } else {
+            checkpoint = new SyncCheckpointDAO.Checkpoint(currentSyncSession, SyncCheckpointDAO.Checkpoint.PHASE_PULL,
+                    tables[0], 0, feedUsable ? SyncCheckpointDAO.Checkpoint.MODE_FEED : SyncCheckpointDAO.Checkpoint.MODE_FULL,
+                    changeFeedDAO.getSettledHead(ConfigManager.getInstance().getSyncFeedSettleSeconds()));
+            checkpointDAO.save(checkpoint);
+        }
+        long feedHead = checkpoint.getFeedHead();
+
+        int resumeIndex = Math.max(0, Arrays.asList(tables).indexOf(checkpoint.getTableName()));
+        int resumeAfterId = checkpoint.getLastKey();
+
+        // Remote ids to pull per table in feed mode, null for a full pull
+        Map<String, List<Integer>> feedIds = null;
+        if (SyncCheckpointDAO.Checkpoint.MODE_FEED.equals(checkpoint.getPullMode())) {
+            feedIds = new java.util.HashMap<>();
+            Map<String, List<ChangeFeedDAO.FeedEntry>> feed =
+                    changeFeedDAO.readSince(cursor.getLastSeq(), feedHead, DeviceIdGenerator.getDeviceId());
+            int estimated = 0;
+            for (int i = resumeIndex; i < tables.length; i++) {
+                int afterId = i == resumeIndex ? resumeAfterId : 0;
+                List<Integer> ids = feed.getOrDefault(tables[i], List.of()).stream()
+                        .map(ChangeFeedDAO.FeedEntry::getRemoteId).filter(id -> id > afterId).sorted().toList();
+                feedIds.put(tables[i], ids);
+                estimated += ids.size();
+            }
+            progress.startPhase("PULL", estimated);
+        } else {
+            System.out.println("No usable change feed position - pulling all rows");
+            progress.startPhase("PULL", countRemoteRows(tables, resumeIndex, resumeAfterId));
+        }
+
+        pullFailures = checkpointDAO.getPullFailures();
+        skippedPullRows.clear();
+        for (int i = resumeIndex; i < tables.length; i++) {
+            cancellation.throwIfCancelled();
+            String tableName = tables[i];
+            int afterId = i == resumeIndex ? resumeAfterId : 0;
+            long startNanos = System.nanoTime();
+            SyncPhaseEvent phaseEvent = new SyncPhaseEvent();
+            phaseEvent.begin();
+            progress.startTable(tableName);
+            int pulled = 0;
+            boolean tableSucceeded = true;
             try {
-                int pulled = pullTableFromRemote(tableName);
+                advanceCheckpoint(SyncCheckpointDAO.Checkpoint.PHASE_PULL, tableName, afterId);
+                pulled = feedIds != null
+                    ? pullRowsFromRemote(tableName, feedIds.get(tableName))
+                    : pullTableFromRemote(tableName, afterId);
                 result.addPulled(tableName, pulled);
             } catch (SQLException e) {
+                tableSucceeded = false;
+                checkpointHeld = true;
                 result.addError(tableName + " pull failed: " + e.getMessage());
-                syncLogDAO.log(currentSyncSession, tableName, 0, "PULL", "PULL",
+                logAppender.log(currentSyncSession, tableName, 0, "PULL", "PULL",
                         "FAILED", e.getMessage());
             }
+            long elapsedNanos = System.nanoTime() - startNanos;
+            logAppender.recordPhase(tableName, "PULL", elapsedNanos / 1_000_000);
+            recordPhase(phaseEvent, "PULL", tableName, pulled, tableSucceeded, elapsedNanos);
+        }
+
+        skippedPullRows.forEach(result::addError);
+
+        // Only move past entries that were all applied, otherwise the same window is read again
+        // A held checkpoint means a table or a row failed, in this session or in the one it resumes
+        if (!checkpointHeld) {
+            changeFeedDAO.saveCursor(feedHead);
         }
+        advanceCheckpoint(SyncCheckpointDAO.Checkpoint.PHASE_PUSH, tables[0], 0);
 
         return result;
     }
 
     /**
-     * Pull a specific table from remote
+     * Remote row count of the tables a full pull will read, for the progress estimate
+     * One UNION query, so the estimate costs a single round trip
+     */
+    private int countRemoteRows(String[] tables, int fromIndex, int afterId) {
+        StringBuilder sql = new StringBuilder();
+        for (int i = fromIndex; i < tables.length; i++) {
+            if (sql.length() > 0) {
+                sql.append(" UNION ALL ");
+            }
+            sql.append("SELECT COUNT(*) FROM `").append(tables[i]).append("` WHERE id > ?");
+        }
+
+        int total = 0;
+        try (Connection conn = dbManager.getMySQLConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            for (int i = fromIndex; i < tables.length; i++) {
+                pstmt.setInt(i - fromIndex + 1, i == fromIndex ? afterId : 0);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    total += rs.getInt(1);
+                }
+            }
+        } catch (SQLException e) {
+            // Progress stays indeterminate, the pull itself reports real errors
+            System.err.println("Failed to count remote rows: " + e.getMessage());
+        }
+        return total;
+    }
+
+    /**
+     * Pull a specific table from remote, in id order from afterId
+     * Rows are streamed and applied as they arrive, so the table is never held in memory whole
      */
-    private int pullTableFromRemote(String tableName) throws SQLException {
+    private int pullTableFromRemote(String tableName, int afterId) throws SQLException {
         int pulledCount = 0;
 
         // IMPORTANT: Get ALL records, including soft-deleted ones (deleted_at IS NOT NULL)
         // This ensures soft deletes propagate between devices
         // Fetch ALL records to enable cross-device synchronization
-        String sql = "SELECT * FROM `" + tableName + "`";
-
-        try (Connection remoteConn = dbManager.getMySQLConnection();
-             Statement stmt = remoteConn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-
-            while (rs.next()) {
-                    int remoteId = rs.getInt("id");
-                    String remoteDeletedAt = rs.getString("deleted_at");
+        String sql = "SELECT * FROM `" + tableName + "` WHERE id > ? ORDER BY id";
+
+        ConfigManager config = ConfigManager.getInstance();
+        try (RemoteRowStream rows = new RemoteRowStream(dbManager, tableName, sql,
+                pstmt -> pstmt.setInt(1, afterId), config.getSyncPullFetchSize(), config.getSyncPullQueueSize())) {
+
+            int applied = 0;
+            long chunkStartNanos = System.nanoTime();
+            SyncChunkEvent chunkEvent = new SyncChunkEvent();
+            chunkEvent.begin();
+            GenericSyncableEntity remoteEntity;
+            while ((remoteEntity = rows.next()) != null) {
+                cancellation.throwIfCancelled();
+                if (applyRemoteRow(tableName, remoteEntity)) {
+                    pulledCount++;
+                }
+                if (++applied % ROW_CHUNK_SIZE == 0) {
+                    advanceCheckpoint(SyncCheckpointDAO.Checkpoint.PHASE_PULL, tableName, remoteEntity.getId());
+                    recordChunk(chunkEvent, "PULL", tableName, ROW_CHUNK_SIZE, chunkStartNanos);
+                    chunkStartNanos = System.nanoTime();
+                    chunkEvent = new SyncChunkEvent();
+                    chunkEvent.begin();
+                }
+            }
+            if (applied % ROW_CHUNK_SIZE != 0) {
+                recordChunk(chunkEvent, "PULL", tableName, applied % ROW_CHUNK_SIZE, chunkStartNanos);
+            }
+        }
 
-                    try {
-                        // Find local ID for this remote ID
-                        Integer localId = syncMetadataDAO.getLocalIdByRemoteId(tableName, remoteId);
+        return pulledCount;
+    }
 
-                        SyncableEntity remoteEntity = extractEntity(tableName, rs);
+    /**
+     * Pull only the given remote rows (listed in the change feed, or found diverging)
+     */
+    private int pullRowsFromRemote(String tableName, List<Integer> remoteIds) throws SQLException {
+        int pulledCount = 0;
 
-                        if (localId != null) {
-                            // Mapping exists - update local record
-                            SyncableEntity localEntity = getLocalEntity(tableName, localId);
+        try (Connection remoteConn = dbManager.getMySQLConnection()) {
+            for (int from = 0; from < remoteIds.size(); from += ROW_CHUNK_SIZE) {
+                cancellation.throwIfCancelled();
+                List<Integer> chunk = remoteIds.subList(from, Math.min(from + ROW_CHUNK_SIZE, remoteIds.size()));
+                long chunkStartNanos = System.nanoTime();
+                SyncChunkEvent chunkEvent = new SyncChunkEvent();
+                chunkEvent.begin();
+
+                StringBuilder sql = new StringBuilder("SELECT * FROM `").append(tableName).append("` WHERE id IN (");
+                for (int i = 0; i < chunk.size(); i++) {
+                    sql.append(i == 0 ? "?" : ", ?");
+                }
+                sql.append(")");
 
-                            // CRITICAL: Propagate soft delete
-                            if (remoteDeletedAt != null && !remoteDeletedAt.isEmpty()) {
-                                // Remote was deleted - mark local as deleted too
-                                softDeleteLocal(tableName, localId);
-                                pulledCount++;
-                                System.out.println("Propagated soft delete: " + tableName + " local ID " + localId);
-                            } else if (localEntity == null || !localEntity.calculateHash().equals(remoteEntity.calculateHash())) {
-                                // Update local with remote changes
-                                updateLocalEntity(tableName, remoteEntity);
+                try (PreparedStatement pstmt = remoteConn.prepareStatement(sql.toString())) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        pstmt.setInt(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        RowCodec codec = RowCodec.forResultSet(tableName, rs);
+                        while (rs.next()) {
+                            if (applyRemoteRow(tableName, codec.decode(rs))) {
                                 pulledCount++;
                             }
+                        }
+                    }
+                }
+                advanceCheckpoint(SyncCheckpointDAO.Checkpoint.PHASE_PULL, tableName, chunk.get(chunk.size() - 1));
+                recordChunk(chunkEvent, "PULL", tableName, chunk.size(), chunkStartNanos);
+            }
+        }
 
-                            // Update sync metadata
-                            String hash = remoteEntity.calculateHash();
-                            syncMetadataDAO.save(tableName, localId,
-                                    remoteEntity.getSyncVersion(),
-                                    hash, hash, "SYNCED");
+        return pulledCount;
+    }
 
-                            syncLogDAO.log(currentSyncSession, tableName, localId,
-                                    "UPDATE", "PULL", "SUCCESS", null);
+    /**
+     * Record that the session has committed everything up to this point
+     * Nothing is saved outside synchronize() or after a table or row failed, so a resume retries from there
+     */
+    private void advanceCheckpoint(String phase, String tableName, int lastKey) throws SQLException {
+        if (checkpoint == null || checkpointHeld) {
+            return;
+        }
+        checkpoint = checkpoint.at(phase, tableName, lastKey);
+        checkpointDAO.save(checkpoint);
+    }
 
-                        } else {
-                            // No mapping - could be new record from another device OR existing record without mapping
-                            if (remoteDeletedAt == null || remoteDeletedAt.isEmpty()) {
-                                // Check if we already have this entity by content hash
-                                String hash = remoteEntity.calculateHash();
-                                Integer existingLocalId = findLocalEntityByHash(tableName, hash);
-
-                                if (existingLocalId != null) {
-                                    // Found existing local entity with same content - just create the mapping
-                                    syncMetadataDAO.setRemoteId(tableName, existingLocalId, remoteId);
-                                    System.out.println("Linked existing local record to remote: " + tableName + " local ID " + existingLocalId + " ← remote ID " + remoteId);
-
-                                    // Update sync metadata
-                                    syncMetadataDAO.save(tableName, existingLocalId,
-                                            remoteEntity.getSyncVersion(),
-                                            hash, hash, "SYNCED");
-
-                                    syncLogDAO.log(currentSyncSession, tableName, existingLocalId,
-                                            "LINK", "PULL", "SUCCESS", null);
-                                } else {
-                                    // Truly new record - create it
-                                    int newLocalId = insertLocalEntity(tableName, remoteEntity);
-                                    syncMetadataDAO.setRemoteId(tableName, newLocalId, remoteId);
-                                    pulledCount++;
-                                    System.out.println("Created local record from remote: " + tableName + " local ID " + newLocalId + " ← remote ID " + remoteId);
-
-                                    // Update sync metadata
-                                    syncMetadataDAO.save(tableName, newLocalId,
-                                            remoteEntity.getSyncVersion(),
-                                            hash, hash, "SYNCED");
-
-                                    syncLogDAO.log(currentSyncSession, tableName, newLocalId,
-                                            "INSERT", "PULL", "SUCCESS", null);
-                                }
-                            }
-                        }
+    /**
+     * Apply one remote row to the local database
+     *
+     * @return true when the local database changed
+     */
+    private boolean applyRemoteRow(String tableName, GenericSyncableEntity remoteEntity) throws SQLException {
+        boolean pulled = false;
+        int remoteId = remoteEntity.getId();
+        Object deletedAtValue = remoteEntity.getField("deleted_at");
+        String remoteDeletedAt = deletedAtValue != null ? deletedAtValue.toString() : null;
 
-                        // CRITICAL: Also save to MySQL so other devices can see sync state
-                        String hash = remoteEntity.calculateHash();
-                        syncMetadataDAO.saveMySQLMetadata(tableName, remoteId,
+        try {
+            // Find local ID for this remote ID
+            Integer localId = syncMetadataDAO.getLocalIdByRemoteId(tableName, remoteId);
+
+            if (localId != null) {
+                // Mapping exists - update local record
+                SyncableEntity localEntity = getLocalEntity(tableName, localId);
+
+                // CRITICAL: Propagate soft delete
+                if (remoteDeletedAt != null && !remoteDeletedAt.isEmpty()) {
+                    // Remote was deleted - mark local as deleted too
+                    softDeleteLocal(tableName, localId);
+                    pulled = true;
+                    System.out.println("Propagated soft delete: " + tableName + " local ID " + localId);
+                } else if (localEntity == null || !localEntity.calculateHash().equals(remoteEntity.calculateHash())) {
+                    // Update local with remote changes
+                    updateLocalEntity(tableName, remoteEntity);
+                    pulled = true;
+                }
+
+                // Update sync metadata
+                String hash = remoteEntity.calculateHash();
+                syncMetadataDAO.save(tableName, localId,
+                        remoteEntity.getSyncVersion(),
+                        hash, hash, "SYNCED");
+
+                logAppender.log(currentSyncSession, tableName, localId,
+                        "UPDATE", "PULL", "SUCCESS", null);
+
+            } else {
+                // No mapping - could be new record from another device OR existing record without mapping
+                if (remoteDeletedAt == null || remoteDeletedAt.isEmpty()) {
+                    // Check if we already have this entity by content hash
+                    String hash = remoteEntity.calculateHash();
+                    Integer existingLocalId = findLocalEntityByHash(tableName, hash);
+
+                    if (existingLocalId != null) {
+                        // Found existing local entity with same content - just create the mapping
+                        syncMetadataDAO.setRemoteId(tableName, existingLocalId, remoteId);
+                        System.out.println("Linked existing local record to remote: " + tableName + " local ID " + existingLocalId + " ← remote ID " + remoteId);
+
+                        // Update sync metadata
+                        syncMetadataDAO.save(tableName, existingLocalId,
                                 remoteEntity.getSyncVersion(),
                                 hash, hash, "SYNCED");
 
-                        // Also log to MySQL
-                        syncLogDAO.logMySQL(currentSyncSession, tableName, remoteId,
-                                "UPDATE", "PULL", "SUCCESS", null);
+                        logAppender.log(currentSyncSession, tableName, existingLocalId,
+                                "LINK", "PULL", "SUCCESS", null);
+                    } else {
+                        // Truly new record - create it
+                        int newLocalId = insertLocalEntity(tableName, remoteEntity);
+                        pulled = true;
+                        System.out.println("Created local record from remote: " + tableName + " local ID " + newLocalId + " ← remote ID " + remoteId);
 
-                    } catch (Exception e) {
-                        syncLogDAO.log(currentSyncSession, tableName, remoteId,
-                                "UPDATE", "PULL", "FAILED", e.getMessage());
+                        // Update sync metadata, then map it (setRemoteId only updates an existing row)
+                        syncMetadataDAO.save(tableName, newLocalId,
+                                remoteEntity.getSyncVersion(),
+                                hash, hash, "SYNCED");
+                        syncMetadataDAO.setRemoteId(tableName, newLocalId, remoteId);
+
+                        logAppender.log(currentSyncSession, tableName, newLocalId,
+                                "INSERT", "PULL", "SUCCESS", null);
                     }
                 }
+            }
+
+            // CRITICAL: Also save to MySQL so other devices can see sync state
+            String hash = remoteEntity.calculateHash();
+            syncMetadataDAO.saveMySQLMetadata(tableName, remoteId,
+                    remoteEntity.getSyncVersion(),
+                    hash, hash, "SYNCED");
+
+            // Also log to MySQL
+            logAppender.logMySQL(currentSyncSession, tableName, remoteId,
+                    "UPDATE", "PULL", "SUCCESS", null);
+
+            if (pullFailures.remove(SyncCheckpointDAO.pullFailureKey(tableName, remoteId))) {
+                checkpointDAO.clearPullFailure(tableName, remoteId);
+            }
+
+        } catch (Exception e) {
+            handlePullFailure(tableName, remoteId, e);
         }
 
-        return pulledCount;
+        progress.rowDone();
+        return pulled;
+    }
+
+    /**
+     * Hold the checkpoint before a row that failed to apply, so a resumed session pulls it again
+     * and the feed cursor is not saved past it; once it has failed on max attempts, skip it instead
+     * so one bad row cannot stop the pull from moving forward
+     */
+    private void handlePullFailure(String tableName, int remoteId, Exception e) {
+        int maxAttempts = ConfigManager.getInstance().getSyncPullMaxRowAttempts();
+        int attempts;
+        try {
+            attempts = checkpointDAO.recordPullFailure(tableName, remoteId, e.getMessage());
+            pullFailures.add(SyncCheckpointDAO.pullFailureKey(tableName, remoteId));
+        } catch (SQLException recordError) {
+            System.err.println("Failed to record pull failure: " + recordError.getMessage());
+            attempts = 0;
+        }
+
+        if (attempts >= maxAttempts) {
+            String message = "skipped after " + attempts + " failed attempts: " + e.getMessage();
+            skippedPullRows.add(tableName + " remote ID " + remoteId + " " + message);
+            logAppender.log(currentSyncSession, tableName, remoteId,
+                    "UPDATE", "PULL", "FAILED", message);
+        } else {
+            checkpointHeld = true;
+            logAppender.log(currentSyncSession, tableName, remoteId,
+                    "UPDATE", "PULL", "FAILED", e.getMessage());
+        }
     }
 
     /**
      * PUSH: Upload local changes to remote MySQL
+     * Pushed changes are acknowledged chunk by chunk, so a resumed session goes through every table
+     * again and only finds what is left in change_log
      */
     private SyncResult pushToRemote() throws SQLException {
         SyncResult result = new SyncResult();
 
-        // Get all entities with PENDING sync status
+        // Tables in dependency order, so parents get their remote id before their children
         String[] tables = {"groups", "members", "events", "projects", "expenses", "contributions", "payment_groups"};
 
+        // Always every table in order: rows left in a parent table must reach MySQL before its children
+        Map<String, Integer> pending = changeLogDAO.countPendingRowsByTable();
+        int estimated = 0;
         for (String tableName : tables) {
+            estimated += pending.getOrDefault(tableName, 0);
+        }
+        progress.startPhase("PUSH", estimated);
+
+        for (String tableName : tables) {
+            cancellation.throwIfCancelled();
+            long startNanos = System.nanoTime();
+            SyncPhaseEvent phaseEvent = new SyncPhaseEvent();
+            phaseEvent.begin();
+            progress.startTable(tableName);
+            int pushed = 0;
+            boolean tableSucceeded = true;
             try {
-                int pushed = pushTableToRemote(tableName);
+                pushed = pushTableToRemote(tableName);
                 result.addPushed(tableName, pushed);
             } catch (SQLException e) {
+                tableSucceeded = false;
+                checkpointHeld = true;
                 result.addError(tableName + " push failed: " + e.getMessage());
-                syncLogDAO.log(currentSyncSession, tableName, 0, "PUSH", "PUSH",
+                logAppender.log(currentSyncSession, tableName, 0, "PUSH", "PUSH",
                         "FAILED", e.getMessage());
             }
+            long elapsedNanos = System.nanoTime() - startNanos;
+            logAppender.recordPhase(tableName, "PUSH", elapsedNanos / 1_000_000);
+            recordPhase(phaseEvent, "PUSH", tableName, pushed, tableSucceeded, elapsedNanos);
         }
 
         return result;
@@ -235,22 +653,43 @@ public class SyncManager {
 
     /**
      * Push a specific table to remote
+     * Work comes from change_log (one coalesced change per row, in order of first change), so the
+     * cost follows the number of local changes rather than the table size
      */
     private int pushTableToRemote(String tableName) throws SQLException {
         int pushedCount = 0;
 
-        // Get all pending records from local SQLite
-        String sql = "SELECT * FROM `" + tableName + "` WHERE sync_status = 'PENDING'";
-
-        try (Connection localConn = dbManager.getSQLiteConnection();
-             Statement stmt = localConn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        List<ChangeLogDAO.Change> changes = changeLogDAO.getPendingChanges(tableName);
+        if (changes.isEmpty()) {
+            return 0;
+        }
 
-            while (rs.next()) {
-                int recordId = rs.getInt("id");
+        for (int from = 0; from < changes.size(); from += ROW_CHUNK_SIZE) {
+            cancellation.throwIfCancelled();
+            List<ChangeLogDAO.Change> chunk = changes.subList(from, Math.min(from + ROW_CHUNK_SIZE, changes.size()));
+            long chunkStartNanos = System.nanoTime();
+            SyncChunkEvent chunkEvent = new SyncChunkEvent();
+            chunkEvent.begin();
+            Map<Integer, SyncableEntity> localRows = getLocalEntities(tableName, chunk);
+            List<ChangeLogDAO.Change> acknowledged = new ArrayList<>();
+
+            for (ChangeLogDAO.Change change : chunk) {
+                if (cancellation.isCancelled()) {
+                    // Acknowledge what was pushed, the next chunk check stops the sync
+                    break;
+                }
+                progress.rowDone();
+                int recordId = change.getRecordId();
+                SyncableEntity localEntity = localRows.get(recordId);
+
+                if (localEntity == null) {
+                    // Hard-deleted locally: nothing left to send
+                    System.out.println("Skipped push of missing row: " + tableName + " local ID " + recordId);
+                    acknowledged.add(change);
+                    continue;
+                }
 
                 try {
-                    SyncableEntity localEntity = extractEntity(tableName, rs);
                     SyncableEntity remoteEntity = getRemoteEntity(tableName, recordId);
 
                     // Check if remote was modified
@@ -269,7 +708,9 @@ public class SyncManager {
                                 updateRemoteEntity(tableName, localEntity);
                                 pushedCount++;
                             } else if (resolution.getAction() == ResolutionAction.MANUAL_RESOLUTION) {
+                                // The row keeps sync_status CONFLICT until resolved, like before
                                 markConflict(tableName, recordId, "Manual resolution required");
+                                acknowledged.add(change);
                                 continue;
                             }
                             // If TAKE_REMOTE, update local instead
@@ -301,19 +742,26 @@ public class SyncManager {
                             localEntity.getSyncVersion(),
                             hash, hash, "SYNCED");
 
-                    syncLogDAO.log(currentSyncSession, tableName, recordId,
-                            "UPDATE", "PUSH", "SUCCESS", null);
+                    acknowledged.add(change);
+
+                    logAppender.log(currentSyncSession, tableName, recordId,
+                            change.getOperation(), "PUSH", "SUCCESS", null);
 
                     // Also log to MySQL
-                    syncLogDAO.logMySQL(currentSyncSession, tableName, recordId,
-                            "UPDATE", "PUSH", "SUCCESS", null);
+                    logAppender.logMySQL(currentSyncSession, tableName, recordId,
+                            change.getOperation(), "PUSH", "SUCCESS", null);
 
                 } catch (Exception e) {
-                    syncLogDAO.log(currentSyncSession, tableName, recordId,
-                            "UPDATE", "PUSH", "FAILED", e.getMessage());
+                    // Not acknowledged: the change stays in change_log and is retried next sync
+                    logAppender.log(currentSyncSession, tableName, recordId,
+                            change.getOperation(), "PUSH", "FAILED", e.getMessage());
                 }
             }
+
+            changeLogDAO.acknowledge(acknowledged);
+            recordChunk(chunkEvent, "PUSH", tableName, acknowledged.size(), chunkStartNanos);
         }
+        cancellation.throwIfCancelled();
 
         return pushedCount;
     }
@@ -337,6 +785,35 @@ public class SyncManager {
         return null;
     }
 
+    /**
+     * Read the current local rows of a chunk of changes in one query, keyed by id
+     */
+    private Map<Integer, SyncableEntity> getLocalEntities(String tableName, List<ChangeLogDAO.Change> changes) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT * FROM `").append(tableName).append("` WHERE id IN (");
+        for (int i = 0; i < changes.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(")");
+
+        Map<Integer, SyncableEntity> entities = new java.util.HashMap<>();
+        try (Connection conn = dbManager.getSQLiteConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+
+            for (int i = 0; i < changes.size(); i++) {
+                pstmt.setInt(i + 1, changes.get(i).getRecordId());
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                RowCodec codec = RowCodec.forResultSet(tableName, rs);
+                while (rs.next()) {
+                    GenericSyncableEntity entity = codec.decode(rs);
+                    entities.put(entity.getId(), entity);
+                }
+            }
+        }
+
+        return entities;
+    }
+
     private SyncableEntity getRemoteEntity(String tableName, int recordId) throws SQLException {
         String sql = "SELECT * FROM `" + tableName + "` WHERE id = ?";
 
@@ -354,10 +831,6 @@ public class SyncManager {
         return null;
     }
 
-    private SyncableEntity extractEntity(String tableName, ResultSet rs) throws SQLException {
-        return GenericSyncableEntity.fromResultSet(tableName, rs);
-    }
-
     /**
      * Find a local entity by its content hash to detect duplicates
      * This prevents creating duplicate records when pulling from remote
@@ -407,17 +880,19 @@ public class SyncManager {
         sql.append(String.join(", ", setClauses));
         sql.append(", sync_status = 'SYNCED', last_sync_at = datetime('now') WHERE id = ?");
 
-        try (Connection conn = dbManager.getSQLiteConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+        changeLogDAO.applyWithoutCapture(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+                int paramIndex = 1;
+                for (Object value : values) {
+                    pstmt.setObject(paramIndex++, value);
+                }
+                pstmt.setInt(paramIndex, genericEntity.getId());
 
-            int paramIndex = 1;
-            for (Object value : values) {
-                pstmt.setObject(paramIndex++, value);
+                return pstmt.executeUpdate();
             }
-            pstmt.setInt(paramIndex, genericEntity.getId());
+        });
 
-            pstmt.executeUpdate();
-        }
+        publishLocalChange(tableName, genericEntity.getId(), DataChangeEvent.Operation.UPDATE);
     }
 
     private void updateRemoteEntity(String tableName, SyncableEntity entity) throws SQLException {
@@ -457,17 +932,26 @@ public class SyncManager {
         sql.append(String.join(", ", setClauses));
         sql.append(" WHERE id = ?");
 
-        try (Connection conn = dbManager.getMySQLConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+        try (Connection conn = dbManager.getMySQLConnection()) {
+            // The row and its change feed entry commit together
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
 
-            int paramIndex = 1;
-            for (Object value : values) {
-                pstmt.setObject(paramIndex++, value);
-            }
-            // Use REMOTE ID in WHERE clause, not local ID!
-            pstmt.setInt(paramIndex, remoteId);
+                int paramIndex = 1;
+                for (Object value : values) {
+                    pstmt.setObject(paramIndex++, value);
+                }
+                // Use REMOTE ID in WHERE clause, not local ID!
+                pstmt.setInt(paramIndex, remoteId);
 
-            pstmt.executeUpdate();
+                pstmt.executeUpdate();
+                publishRemoteChange(conn, tableName, remoteId, genericEntity,
+                        genericEntity.getField("deleted_at") != null ? "DELETE" : "UPDATE");
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
         }
     }
 
@@ -502,49 +986,71 @@ public class SyncManager {
         sql.append(String.join(", ", placeholders));
         sql.append(")");
 
-        try (Connection conn = dbManager.getMySQLConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql.toString(),
-                                                             Statement.RETURN_GENERATED_KEYS)) {
+        Integer remoteId = null;
+        try (Connection conn = dbManager.getMySQLConnection()) {
+            // The row and its change feed entry commit together
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql.toString(),
+                                                                 Statement.RETURN_GENERATED_KEYS)) {
 
-            int paramIndex = 1;
-            for (Object value : values) {
-                pstmt.setObject(paramIndex++, value);
-            }
+                int paramIndex = 1;
+                for (Object value : values) {
+                    pstmt.setObject(paramIndex++, value);
+                }
 
-            pstmt.executeUpdate();
+                pstmt.executeUpdate();
 
-            // CRITICAL: Capture MySQL generated ID and save mapping
-            try (ResultSet rs = pstmt.getGeneratedKeys()) {
-                if (rs.next()) {
-                    int remoteId = rs.getInt(1);
-                    syncMetadataDAO.setRemoteId(tableName, localId, remoteId);
-                    System.out.println("Mapped " + tableName + " local ID " + localId + " → remote ID " + remoteId);
+                try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                    if (rs.next()) {
+                        remoteId = rs.getInt(1);
+                        publishRemoteChange(conn, tableName, remoteId, genericEntity, "INSERT");
+                    }
                 }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
             }
         }
+
+        // CRITICAL: Capture MySQL generated ID and save mapping
+        if (remoteId != null) {
+            syncMetadataDAO.setRemoteId(tableName, localId, remoteId);
+            System.out.println("Mapped " + tableName + " local ID " + localId + " → remote ID " + remoteId);
+        }
+    }
+
+    /**
+     * Record a pushed row in the MySQL change feed so other devices pull only what changed
+     */
+    private void publishRemoteChange(Connection mysqlConn, String tableName, int remoteId,
+                                     GenericSyncableEntity entity, String operation) throws SQLException {
+        Integer version = entity.getSyncVersion();
+        changeFeedDAO.append(mysqlConn, tableName, remoteId, version != null ? version : 1,
+                operation, DeviceIdGenerator.getDeviceId());
     }
 
     private void markAsSynced(String tableName, int recordId) throws SQLException {
         // Use SQLite's datetime('now') function instead of setObject with LocalDateTime
         String sql = "UPDATE `" + tableName + "` SET sync_status = 'SYNCED', last_sync_at = datetime('now') WHERE id = ?";
 
-        try (Connection conn = dbManager.getSQLiteConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setInt(1, recordId);
-            pstmt.executeUpdate();
-        }
+        changeLogDAO.applyWithoutCapture(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, recordId);
+                return pstmt.executeUpdate();
+            }
+        });
     }
 
     private void markConflict(String tableName, int recordId, String reason) throws SQLException {
         String sql = "UPDATE `" + tableName + "` SET sync_status = 'CONFLICT' WHERE id = ?";
 
-        try (Connection conn = dbManager.getSQLiteConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setInt(1, recordId);
-            pstmt.executeUpdate();
-        }
+        changeLogDAO.applyWithoutCapture(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, recordId);
+                return pstmt.executeUpdate();
+            }
+        });
     }
 
     /**
@@ -554,12 +1060,14 @@ public class SyncManager {
         String sql = "UPDATE `" + tableName + "` SET deleted_at = datetime('now'), " +
                      "sync_status = 'SYNCED' WHERE id = ?";
 
-        try (Connection conn = dbManager.getSQLiteConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        changeLogDAO.applyWithoutCapture(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, localId);
+                return pstmt.executeUpdate();
+            }
+        });
 
-            pstmt.setInt(1, localId);
-            pstmt.executeUpdate();
-        }
+        publishLocalChange(tableName, localId, DataChangeEvent.Operation.DELETE);
     }
 
     /**
@@ -595,26 +1103,37 @@ public class SyncManager {
         sql.append(String.join(", ", placeholders));
         sql.append(")");
 
-        try (Connection conn = dbManager.getSQLiteConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql.toString(),
-                                                             Statement.RETURN_GENERATED_KEYS)) {
+        int localId = changeLogDAO.applyWithoutCapture(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
 
-            int paramIndex = 1;
-            for (Object value : values) {
-                pstmt.setObject(paramIndex++, value);
-            }
+                int paramIndex = 1;
+                for (Object value : values) {
+                    pstmt.setObject(paramIndex++, value);
+                }
 
-            pstmt.executeUpdate();
+                pstmt.executeUpdate();
+            }
 
-            // Return the generated local ID
-            try (ResultSet rs = pstmt.getGeneratedKeys()) {
+            // Return the generated local ID (the SQLite driver does not implement getGeneratedKeys)
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT last_insert_rowid()")) {
                 if (rs.next()) {
                     return rs.getInt(1);
                 }
+
+                throw new SQLException("Failed to get generated ID for inserted local entity");
             }
+        });
 
-            throw new SQLException("Failed to get generated ID for inserted local entity");
-        }
+        publishLocalChange(tableName, localId, DataChangeEvent.Operation.INSERT);
+        return localId;
+    }
+
+    /**
+     * Tell open views and caches that a pulled change was applied to the local database
+     */
+    private void publishLocalChange(String tableName, int localId, DataChangeEvent.Operation operation) {
+        DataChangeBus.getInstance().publish(tableName, localId, operation, DataChangeEvent.Source.SYNC);
     }
 
     private LocalDateTime getLastSyncTime(String tableName) throws SQLException {
@@ -642,6 +1161,40 @@ public class SyncManager {
         return null;
     }
 
+    /**
+     * Report the pull or push of one table to Flight Recorder and the metrics registry
+     */
+    private void recordPhase(SyncPhaseEvent event, String direction, String tableName, int rows,
+                             boolean success, long elapsedNanos) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.session = currentSyncSession;
+            event.direction = direction;
+            event.table = tableName;
+            event.rows = rows;
+            event.success = success;
+            event.commit();
+        }
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        metrics.timer("sync." + direction.toLowerCase() + "." + tableName).record(elapsedNanos);
+        metrics.counter("sync.rows." + direction.toLowerCase()).add(rows);
+    }
+
+    /**
+     * Report a chunk of rows (ROW_CHUNK_SIZE at most) pulled or pushed since chunkStartNanos
+     */
+    private void recordChunk(SyncChunkEvent event, String direction, String tableName, int rows, long chunkStartNanos) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.direction = direction;
+            event.table = tableName;
+            event.rows = rows;
+            event.commit();
+        }
+        MetricsRegistry.getInstance().timer("sync.chunk." + direction.toLowerCase())
+            .record(System.nanoTime() - chunkStartNanos);
+    }
+
     /**
      * Get foreign key mappings for a table
      * Returns Map of: FK column name → referenced table name
@@ -688,7 +1241,7 @@ public class SyncManager {
      * Convert local FK IDs to remote FK IDs before PUSH
      * CRITICAL: This ensures relationships are preserved when syncing to MySQL
      */
-    private Map<String, Object> convertForeignKeysForPush(String tableName, Map<String, Object> fields) throws SQLException {
+    Map<String, Object> convertForeignKeysForPush(String tableName, Map<String, Object> fields) throws SQLException {
         Map<String, Object> converted = new java.util.HashMap<>(fields);
         Map<String, String> fkMappings = getForeignKeyMappings(tableName);
 
@@ -737,7 +1290,7 @@ public class SyncManager {
      * Convert remote FK IDs to local FK IDs after PULL
      * CRITICAL: This ensures relationships work correctly in local SQLite
      */
-    private Map<String, Object> convertForeignKeysForPull(String tableName, Map<String, Object> fields) throws SQLException {
+    Map<String, Object> convertForeignKeysForPull(String tableName, Map<String, Object> fields) throws SQLException {
         Map<String, Object> converted = new java.util.HashMap<>(fields);
         Map<String, String> fkMappings = getForeignKeyMappings(tableName);
 
@@ -0,0 +1,101 @@
+package com.nasroul.sync;
+
+import java.util.Locale;
+
+/**
+ * Progress of a running sync, emitted by SyncManager a few times per second
+ *
+ * Row counts are per phase (PULL or PUSH). The estimate comes from the change feed, the remote row
+ * counts or change_log, and is raised if more rows turn up. Traffic counters cover the whole session.
+ */
+public class SyncProgress {
+
+    @FunctionalInterface
+    public interface Listener {
+        void onProgress(SyncProgress progress);
+    }
+
+    private final String phase;
+    private final String tableName;
+    private final int rowsDone;
+    private final int rowsEstimated;
+    private final double rowsPerSecond;
+    private final long bytesTransferred;
+    private final long roundTrips;
+    private final long elapsedMs;
+    private final long etaMs;
+
+    SyncProgress(String phase, String tableName, int rowsDone, int rowsEstimated, double rowsPerSecond,
+                 long bytesTransferred, long roundTrips, long elapsedMs, long etaMs) {
+        this.phase = phase;
+        this.tableName = tableName;
+        this.rowsDone = rowsDone;
+        this.rowsEstimated = rowsEstimated;
+        this.rowsPerSecond = rowsPerSecond;
+        this.bytesTransferred = bytesTransferred;
+        this.roundTrips = roundTrips;
+        this.elapsedMs = elapsedMs;
+        this.etaMs = etaMs;
+    }
+
+    public String getPhase() { return phase; }
+    public String getTableName() { return tableName; }
+    public int getRowsDone() { return rowsDone; }
+    public int getRowsEstimated() { return rowsEstimated; }
+    public double getRowsPerSecond() { return rowsPerSecond; }
+    public long getBytesTransferred() { return bytesTransferred; }
+    public long getRoundTrips() { return roundTrips; }
+    public long getElapsedMs() { return elapsedMs; }
+    // Remaining time for the phase, -1 while unknown
+    public long getEtaMs() { return etaMs; }
+
+    /**
+     * Fraction of the phase done, -1 when nothing is known yet (indeterminate)
+     */
+    public double getFraction() {
+        return rowsEstimated > 0 ? Math.min(1.0, (double) rowsDone / rowsEstimated) : -1;
+    }
+
+    /**
+     * One-line status for the UI
+     */
+    public String toStatusText() {
+        StringBuilder text = new StringBuilder("PUSH".equals(phase) ? "Envoi" : "Réception");
+        if (tableName != null) {
+            text.append(" · ").append(tableName);
+        }
+        text.append(" · ").append(rowsDone);
+        if (rowsEstimated > 0) {
+            text.append("/").append(rowsEstimated);
+        }
+        text.append(String.format(Locale.FRENCH, " · %.0f lignes/s · %s · %d échanges",
+            rowsPerSecond, formatBytes(bytesTransferred), roundTrips));
+        if (etaMs >= 0) {
+            text.append(" · reste ").append(formatDuration(etaMs));
+        }
+        return text.toString();
+    }
+
+    public static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " o";
+        }
+        if (bytes < 1024 * 1024) {
+            return String.format(Locale.FRENCH, "%.1f Ko", bytes / 1024.0);
+        }
+        return String.format(Locale.FRENCH, "%.1f Mo", bytes / (1024.0 * 1024));
+    }
+
+    private static String formatDuration(long ms) {
+        long seconds = Math.round(ms / 1000.0);
+        if (seconds < 60) {
+            return seconds + " s";
+        }
+        return String.format("%d min %02d s", seconds / 60, seconds % 60);
+    }
+
+    @Override
+    public String toString() {
+        return toStatusText();
+    }
+}
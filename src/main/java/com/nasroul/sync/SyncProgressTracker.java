@@ -0,0 +1,98 @@
+package com.nasroul.sync;
+
+import com.nasroul.dao.RemoteTrafficMeter;
+import com.nasroul.dao.SyncLogDAO;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts the rows of a sync session and emits SyncProgress events to a listener
+ *
+ * Row updates are cheap; an event is built at most every EMIT_INTERVAL_MS, and always when the
+ * phase or table changes. The rate and ETA of a phase use the rows done since the phase started.
+ */
+class SyncProgressTracker {
+
+    static final long EMIT_INTERVAL_MS = 250;
+
+    private final SyncProgress.Listener listener;
+    private final RemoteTrafficMeter.Snapshot startTraffic = RemoteTrafficMeter.snapshot();
+    private final long startNanos = System.nanoTime();
+
+    private String phase;
+    private String tableName;
+    private long phaseStartNanos;
+    private int phaseRowsDone;
+    private int phaseRowsEstimated;
+    private int totalRowsDone;
+    private long lastEmitNanos;
+
+    SyncProgressTracker(SyncProgress.Listener listener) {
+        this.listener = listener;
+    }
+
+    void startPhase(String phase, int rowsEstimated) {
+        this.phase = phase;
+        this.tableName = null;
+        this.phaseStartNanos = System.nanoTime();
+        this.phaseRowsDone = 0;
+        this.phaseRowsEstimated = rowsEstimated;
+        emit();
+    }
+
+    void startTable(String tableName) {
+        this.tableName = tableName;
+        emit();
+    }
+
+    void rowDone() {
+        phaseRowsDone++;
+        totalRowsDone++;
+        if (phaseRowsDone > phaseRowsEstimated) {
+            phaseRowsEstimated = phaseRowsDone;
+        }
+        if (System.nanoTime() - lastEmitNanos >= TimeUnit.MILLISECONDS.toNanos(EMIT_INTERVAL_MS)) {
+            emit();
+        }
+    }
+
+    /**
+     * Send the final state of the session
+     */
+    void finish() {
+        emit();
+    }
+
+    /**
+     * Totals of the session, persisted for trend analysis
+     */
+    SyncLogDAO.SessionMetrics toMetrics(String syncSessionId, String status, int rowsPulled, int rowsPushed) {
+        RemoteTrafficMeter.Snapshot traffic = RemoteTrafficMeter.snapshot().since(startTraffic);
+        return new SyncLogDAO.SessionMetrics(syncSessionId, status, totalRowsDone, rowsPulled, rowsPushed,
+            traffic.getBytesSent(), traffic.getBytesReceived(), traffic.getRoundTrips(), elapsedMs());
+    }
+
+    private long elapsedMs() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private void emit() {
+        lastEmitNanos = System.nanoTime();
+        if (listener == null || phase == null) {
+            return;
+        }
+
+        double phaseSeconds = (lastEmitNanos - phaseStartNanos) / 1_000_000_000.0;
+        double rate = phaseSeconds > 0 ? phaseRowsDone / phaseSeconds : 0;
+        long eta = rate > 0 ? Math.round((phaseRowsEstimated - phaseRowsDone) / rate * 1000) : -1;
+        RemoteTrafficMeter.Snapshot traffic = RemoteTrafficMeter.snapshot().since(startTraffic);
+
+        try {
+            listener.onProgress(new SyncProgress(phase, tableName, phaseRowsDone, phaseRowsEstimated, rate,
+                traffic.getBytesSent() + traffic.getBytesReceived(), traffic.getRoundTrips(), elapsedMs(), eta));
+        } catch (Exception e) {
+            // A failing listener must not fail the sync
+            System.err.println("Sync progress listener failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.nasroul.util;
+
+import javafx.application.Platform;
+import javafx.scene.Cursor;
+import javafx.scene.Node;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.TableView;
+import javafx.scene.layout.VBox;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Runs controller queries off the JavaFX Application Thread
+ * Each new request supersedes the previous one: a query that has not started yet is dropped,
+ * and the result of a query already running is discarded instead of being applied to the view
+ */
+public class AsyncLoader {
+
+    // Shared by every view; daemon threads so a pending query never keeps the application alive
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(new Threads());
+
+    private final AtomicLong generation = new AtomicLong();
+    private final Consumer<Boolean> loadingListener;
+    // Volatile: the first load of a preloaded view runs on the preload thread
+    private volatile Future<?> current;
+
+    /**
+     * @param loadingListener called on the FX thread with true when a request starts
+     *                        and false once the latest request has been applied, may be null
+     */
+    public AsyncLoader(Consumer<Boolean> loadingListener) {
+        this.loadingListener = loadingListener;
+    }
+
+    /**
+     * Loader showing a progress placeholder in the table while a request is running
+     */
+    public static AsyncLoader forTable(TableView<?> table) {
+        Node emptyPlaceholder = table.getPlaceholder();
+
+        ProgressIndicator indicator = new ProgressIndicator();
+        indicator.setMaxSize(40, 40);
+        VBox loadingPlaceholder = new VBox(8, indicator, new Label("Chargement..."));
+        loadingPlaceholder.setStyle("-fx-alignment: center;");
+
+        return new AsyncLoader(loading -> {
+            table.setPlaceholder(loading ? loadingPlaceholder : emptyPlaceholder);
+            table.setCursor(loading ? Cursor.WAIT : Cursor.DEFAULT);
+        });
+    }
+
+    /**
+     * Run the query in the background and hand its result to onSuccess on the FX thread
+     * Must be called on the FX thread, or on the thread building a view that is not shown yet
+     * (ViewRegistry.preload runs controller initialize() off the FX thread)
+     */
+    public <T> void load(Callable<T> query, Consumer<T> onSuccess, Consumer<Exception> onError) {
+        long requestGeneration = generation.incrementAndGet();
+        Future<?> previous = current;
+        if (previous != null) {
+            // No interruption: the SQLite driver does not support aborting a running statement
+            previous.cancel(false);
+        }
+        if (Platform.isFxApplicationThread()) {
+            notifyLoading(true);
+        } else {
+            // Posted before the query is submitted, so it runs before the result is applied
+            Platform.runLater(() -> {
+                if (!isSuperseded(requestGeneration)) {
+                    notifyLoading(true);
+                }
+            });
+        }
+
+        current = EXECUTOR.submit(() -> {
+            if (isSuperseded(requestGeneration)) {
+                return;
+            }
+            try {
+                T result = query.call();
+                // One runLater per request, the whole result is applied at once
+                Platform.runLater(() -> {
+                    if (!isSuperseded(requestGeneration)) {
+                        notifyLoading(false);
+                        onSuccess.accept(result);
+                    }
+                });
+            } catch (Exception e) {
+                Platform.runLater(() -> {
+                    if (!isSuperseded(requestGeneration)) {
+                        notifyLoading(false);
+                        onError.accept(e);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Drop the pending request, if any, without applying its result
+     */
+    public void cancel() {
+        generation.incrementAndGet();
+        Future<?> previous = current;
+        if (previous != null) {
+            previous.cancel(false);
+            current = null;
+        }
+        notifyLoading(false);
+    }
+
+    private boolean isSuperseded(long requestGeneration) {
+        return requestGeneration != generation.get();
+    }
+
+    private void notifyLoading(boolean loading) {
+        if (loadingListener != null) {
+            loadingListener.accept(loading);
+        }
+    }
+
+    private static class Threads implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "async-loader-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
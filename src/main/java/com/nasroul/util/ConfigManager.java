@@ -93,12 +93,16 @@ public class ConfigManager {
         }
     }
 
+    /**
+     * Get a setting; a JVM system property of the same name (-Dkey=value) overrides config.properties
+     */
     public String getProperty(String key) {
-        return properties.getProperty(key);
+        return System.getProperty(key, properties.getProperty(key));
     }
 
     public String getProperty(String key, String defaultValue) {
-        return properties.getProperty(key, defaultValue);
+        String value = getProperty(key);
+        return value != null ? value : defaultValue;
     }
 
     // Database Configuration getters
@@ -137,6 +141,11 @@ public class ConfigManager {
     public String getSQLitePath() {
         String configuredPath = getProperty("db.sqlite.path", "association.db");
 
+        // SQLite URI filename (e.g. file:bench?mode=memory&cache=shared), passed to the driver as-is
+        if (configuredPath.startsWith("file:")) {
+            return configuredPath;
+        }
+
         // Check if path is absolute
         File file = new File(configuredPath);
         if (file.isAbsolute()) {
@@ -159,8 +168,30 @@ public class ConfigManager {
         }
     }
 
+    /**
+     * Number of idle SQLite connections kept open between database calls
+     */
+    public int getSQLitePoolSize() {
+        return Integer.parseInt(getProperty("db.sqlite.pool.size", "4"));
+    }
+
+    /**
+     * Prepared statements cached per SQLite connection, 0 disables the cache
+     */
+    public int getSQLiteStatementCacheSize() {
+        return Integer.parseInt(getProperty("db.sqlite.statement.cache.size", "128"));
+    }
+
+    /**
+     * Get the JDBC URL of the sync server
+     * db.mysql.url replaces the URL built from host, port and database (e.g. a local stand-in server)
+     */
     public String getMySQLConnectionUrl() {
-        return String.format("jdbc:mysql://%s:%s/%s?useSSL=%s&serverTimezone=%s&allowPublicKeyRetrieval=true",
+        String url = getProperty("db.mysql.url");
+        if (url != null && !url.isBlank()) {
+            return url;
+        }
+        return String.format("jdbc:mysql://%s:%s/%s?useSSL=%s&serverTimezone=%s&allowPublicKeyRetrieval=true&rewriteBatchedStatements=true",
             getMySQLHost(),
             getMySQLPort(),
             getMySQLDatabase(),
@@ -206,6 +237,21 @@ public class ConfigManager {
         return Integer.parseInt(getProperty("sync.auto.interval", "30"));
     }
 
+    /**
+     * Get the delay in seconds between a local edit and the automatic sync it triggers
+     * Further edits within the delay push the sync back
+     */
+    public int getSyncDebounceSeconds() {
+        return Integer.parseInt(getProperty("sync.auto.debounce.seconds", "10"));
+    }
+
+    /**
+     * Get the longest wait in minutes between automatic attempts while the server is unreachable
+     */
+    public int getSyncBackoffMaxMinutes() {
+        return Integer.parseInt(getProperty("sync.backoff.max.minutes", "30"));
+    }
+
     /**
      * Get sync conflict resolution strategy
      * Options: LAST_WRITE_WINS, LOCAL_WINS, REMOTE_WINS, MANUAL, HIGHER_VERSION_WINS
@@ -221,6 +267,13 @@ public class ConfigManager {
         return Boolean.parseBoolean(getProperty("sync.on.startup", "false"));
     }
 
+    /**
+     * Get hour of the day (0-23) of the nightly integrity check, -1 when disabled
+     */
+    public int getSyncIntegrityCheckHour() {
+        return Integer.parseInt(getProperty("sync.integrity.check.hour", "-1"));
+    }
+
     /**
      * Get number of days to keep sync logs
      */
@@ -228,6 +281,51 @@ public class ConfigManager {
         return Integer.parseInt(getProperty("sync.log.retention.days", "30"));
     }
 
+    /**
+     * Get number of days to keep the per-session sync summaries (kept longer than the detail logs)
+     */
+    public int getSyncSummaryRetentionDays() {
+        return Integer.parseInt(getProperty("sync.summary.retention.days", "365"));
+    }
+
+    /**
+     * Get number of days the MySQL change feed is kept
+     * A device that has not synced for longer does a full pull
+     */
+    public int getSyncFeedRetentionDays() {
+        return Integer.parseInt(getProperty("sync.feed.retention.days", "30"));
+    }
+
+    /**
+     * Get number of seconds after which a missing change feed seq is taken as a rolled back push
+     * Must be longer than a push transaction; the feed cursor waits behind a gap until then
+     */
+    public int getSyncFeedSettleSeconds() {
+        return Integer.parseInt(getProperty("sync.feed.settle.seconds", "60"));
+    }
+
+    /**
+     * Rows fetched per round trip when pulling a table, for drivers that fetch with a cursor
+     * (Connector/J streams rows instead, unless db.mysql.url sets useCursorFetch=true)
+     */
+    public int getSyncPullFetchSize() {
+        return Integer.parseInt(getProperty("sync.pull.fetch.size", "500"));
+    }
+
+    /**
+     * Number of syncs a remote row failing to apply holds the pull before it is skipped
+     */
+    public int getSyncPullMaxRowAttempts() {
+        return Integer.parseInt(getProperty("sync.pull.max.row.attempts", "3"));
+    }
+
+    /**
+     * Decoded remote rows waiting to be applied at most; the reader waits when the queue is full
+     */
+    public int getSyncPullQueueSize() {
+        return Integer.parseInt(getProperty("sync.pull.queue.size", "256"));
+    }
+
     /**
      * Check if offline mode is enabled (only use SQLite)
      */
@@ -248,4 +346,32 @@ public class ConfigManager {
     public boolean isSyncNotificationsEnabled() {
         return Boolean.parseBoolean(getProperty("sync.notifications.enabled", "true"));
     }
+
+    /**
+     * Check if SQL statements are timed for the Performance view and Flight Recorder
+     */
+    public boolean isQueryMonitorEnabled() {
+        return Boolean.parseBoolean(getProperty("perf.query.monitor", "true"));
+    }
+
+    /**
+     * Statements slower than this are kept in the slow query log, 0 disables it
+     */
+    public int getSlowQueryThresholdMs() {
+        return Integer.parseInt(getProperty("perf.slow.query.ms", "200"));
+    }
+
+    /**
+     * Check if the query plan of slow SQLite statements is captured
+     */
+    public boolean isSlowQueryExplainEnabled() {
+        return Boolean.parseBoolean(getProperty("perf.slow.query.explain", "true"));
+    }
+
+    /**
+     * Row count from which a full table scan in a slow query plan is flagged
+     */
+    public int getSlowQueryScanRows() {
+        return Integer.parseInt(getProperty("perf.slow.query.scan.rows", "1000"));
+    }
 }
@@ -30,7 +30,10 @@ public class DataHashCalculator {
         for (Map.Entry<String, Object> entry : sortedFields.entrySet()) {
             sb.append(entry.getKey()).append("=");
             Object value = entry.getValue();
-            if (value != null) {
+            if (value instanceof byte[]) {
+                // Content, not the array identity (avatars)
+                sb.append(DigestUtils.sha256Hex((byte[]) value));
+            } else if (value != null) {
                 sb.append(value.toString());
             }
             sb.append("|");
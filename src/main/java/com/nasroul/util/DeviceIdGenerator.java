@@ -11,26 +11,40 @@ import java.util.Enumeration;
  */
 public class DeviceIdGenerator {
 
-    private static String deviceId = null;
+    private static volatile String deviceId = null;
 
     /**
      * Get the current device ID (cached after first call)
+     * Thread-safe: startup probes it in the background while DAOs may already ask for it
      *
      * @return Unique device identifier
      */
     public static String getDeviceId() {
-        if (deviceId == null) {
-            deviceId = generateDeviceId();
+        String id = deviceId;
+        if (id == null) {
+            synchronized (DeviceIdGenerator.class) {
+                id = deviceId;
+                if (id == null) {
+                    id = generateDeviceId();
+                    deviceId = id;
+                }
+            }
         }
-        return deviceId;
+        return id;
     }
 
     /**
-     * Generate a device ID based on hostname and MAC address
+     * Generate a device ID based on hostname and MAC address, unless the sync.device.id system property is set
      *
      * @return Generated device ID
      */
     private static String generateDeviceId() {
+        // Fixed id, e.g. to run several devices from one machine
+        String configured = System.getProperty("sync.device.id");
+        if (configured != null && !configured.isBlank()) {
+            return configured;
+        }
+
         StringBuilder id = new StringBuilder();
 
         // Try to get hostname
@@ -80,7 +94,7 @@ public class DeviceIdGenerator {
     /**
      * Force regeneration of device ID (for testing)
      */
-    public static void reset() {
+    public static synchronized void reset() {
         deviceId = null;
     }
 }
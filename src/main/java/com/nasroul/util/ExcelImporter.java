@@ -0,0 +1,508 @@
+package com.nasroul.util;
+
+import com.nasroul.perf.ExcelEvent;
+import com.nasroul.perf.MetricsRegistry;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming Excel import based on the XSSF SAX event API
+ * The first sheet is parsed row by row on a reader thread, parsed rows go through a bounded
+ * queue and are handed in batches to a writer, so heap usage does not depend on the file size
+ */
+public class ExcelImporter {
+
+    public static final int QUEUE_CAPACITY = 1000;
+    public static final int BATCH_SIZE = 500;
+
+    private static final ParsedRow<?> END_OF_SHEET = new ParsedRow<>(-1, null);
+
+    /**
+     * Turns the cells of one data row into an entity
+     * Throws IllegalArgumentException when the row is invalid; it is reported with the row number
+     */
+    @FunctionalInterface
+    public interface RowParser<T> {
+        T parse(RowCells cells);
+    }
+
+    /**
+     * Persists a batch of parsed rows and records imported rows or failures in the result
+     */
+    @FunctionalInterface
+    public interface BatchWriter<T> {
+        void write(List<ParsedRow<T>> batch, ImportResult result) throws SQLException;
+
+        /**
+         * Called once after the last batch; success is false when reading or writing failed
+         */
+        default void finish(boolean success) throws SQLException {
+        }
+    }
+
+    private ExcelImporter() {
+    }
+
+    /**
+     * Import the first sheet of the file, skipping the header row
+     */
+    public static <T> ImportResult importFile(File file, RowParser<T> parser, BatchWriter<T> writer)
+            throws IOException, SQLException {
+        ExcelEvent event = new ExcelEvent();
+        event.begin();
+        long startNanos = System.nanoTime();
+        ImportResult result = null;
+        try {
+            result = read(file, parser, writer);
+            return result;
+        } finally {
+            boolean success = result != null && !result.hasErrors();
+            int rows = result != null ? result.getTotalRows() : 0;
+            MetricsRegistry metrics = MetricsRegistry.getInstance();
+            metrics.timer("excel.import").record(System.nanoTime() - startNanos);
+            metrics.histogram("excel.import.rows").record(rows);
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = "import";
+                event.file = file.getName();
+                event.rows = rows;
+                event.fileSize = file.length();
+                event.success = success;
+                event.commit();
+            }
+        }
+    }
+
+    private static <T> ImportResult read(File file, RowParser<T> parser, BatchWriter<T> writer)
+            throws IOException, SQLException {
+        ImportResult result = new ImportResult();
+        BlockingQueue<ParsedRow<T>> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        ReaderTask<T> reader = new ReaderTask<>(file, parser, queue, result);
+
+        Thread readerThread = new Thread(reader, "excel-import-reader");
+        readerThread.setDaemon(true);
+        readerThread.start();
+
+        boolean completed = false;
+        try {
+            List<ParsedRow<T>> batch = new ArrayList<>(BATCH_SIZE);
+            while (true) {
+                ParsedRow<T> row = queue.take();
+                if (row == END_OF_SHEET) {
+                    break;
+                }
+                batch.add(row);
+                if (batch.size() >= BATCH_SIZE) {
+                    writer.write(batch, result);
+                    batch = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+            if (!batch.isEmpty()) {
+                writer.write(batch, result);
+            }
+
+            if (reader.failure != null) {
+                throw new IOException("Impossible de lire le fichier Excel: " + reader.failure.getMessage(), reader.failure);
+            }
+
+            writer.finish(true);
+            completed = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", e);
+        } finally {
+            if (!completed) {
+                try {
+                    writer.finish(false);
+                } catch (SQLException e) {
+                    System.err.println("Failed to abort import: " + e.getMessage());
+                }
+            }
+
+            // Stop the reader if the writer failed before the end of the sheet
+            reader.cancel();
+            try {
+                readerThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Parse the whole first sheet into a list, failing on the first invalid row
+     * Kept for callers that need every row in memory
+     */
+    public static <T> List<T> readAll(File file, RowParser<T> parser) throws IOException {
+        List<T> values = new ArrayList<>();
+        ImportResult result;
+        try {
+            result = importFile(file, parser, (batch, r) -> {
+                for (ParsedRow<T> row : batch) {
+                    values.add(row.getValue());
+                }
+            });
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+        if (result.hasErrors()) {
+            throw new IOException(result.getErrors().get(0).toString());
+        }
+        return values;
+    }
+
+    private static class ReaderTask<T> implements Runnable {
+        private final File file;
+        private final RowParser<T> parser;
+        private final BlockingQueue<ParsedRow<T>> queue;
+        private final ImportResult result;
+        private volatile boolean cancelled;
+        private volatile Exception failure;
+
+        ReaderTask(File file, RowParser<T> parser, BlockingQueue<ParsedRow<T>> queue, ImportResult result) {
+            this.file = file;
+            this.parser = parser;
+            this.queue = queue;
+            this.result = result;
+        }
+
+        void cancel() {
+            cancelled = true;
+        }
+
+        @Override
+        public void run() {
+            try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+                XSSFReader xssfReader = new XSSFReader(pkg);
+                ReadOnlySharedStringsTable sharedStrings = new ReadOnlySharedStringsTable(pkg);
+                StylesTable styles = xssfReader.getStylesTable();
+
+                Iterator<InputStream> sheets = xssfReader.getSheetsData();
+                if (sheets.hasNext()) {
+                    try (InputStream sheet = sheets.next()) {
+                        XMLReader xmlReader = XMLHelper.newXMLReader();
+                        xmlReader.setContentHandler(new XSSFSheetXMLHandler(
+                            styles, null, sharedStrings, new RowCollector(), new IsoDataFormatter(), false));
+                        xmlReader.parse(new InputSource(sheet));
+                    }
+                }
+            } catch (CancelledException e) {
+                // Writer stopped early, nothing left to do
+            } catch (IOException | OpenXML4JException | SAXException | ParserConfigurationException e) {
+                failure = e;
+            } catch (RuntimeException e) {
+                failure = e;
+            } finally {
+                enqueueEnd();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void enqueueEnd() {
+            try {
+                while (!cancelled && !queue.offer((ParsedRow<T>) END_OF_SHEET, 100, TimeUnit.MILLISECONDS)) {
+                    // Wait for the writer to free a slot
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void enqueue(ParsedRow<T> row) {
+            try {
+                while (!queue.offer(row, 100, TimeUnit.MILLISECONDS)) {
+                    if (cancelled) {
+                        throw new CancelledException();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancelledException();
+            }
+        }
+
+        /**
+         * Collects the cells of each row and parses it once the row ends
+         */
+        private class RowCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+            private final List<String> cells = new ArrayList<>();
+            private int rowIndex;
+
+            @Override
+            public void startRow(int rowNum) {
+                rowIndex = rowNum;
+                cells.clear();
+            }
+
+            @Override
+            public void endRow(int rowNum) {
+                // Row 0 is the header
+                if (rowIndex == 0 || cells.stream().allMatch(c -> c == null || c.isBlank())) {
+                    return;
+                }
+
+                int excelRowNumber = rowIndex + 1;
+                result.incrementTotalRows();
+                try {
+                    T value = parser.parse(new RowCells(cells.toArray(new String[0])));
+                    enqueue(new ParsedRow<>(excelRowNumber, value));
+                } catch (IllegalArgumentException | DateTimeParseException e) {
+                    result.addError(excelRowNumber, e.getMessage());
+                }
+            }
+
+            @Override
+            public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+                int column = new CellReference(cellReference).getCol();
+                while (cells.size() < column) {
+                    cells.add(null);
+                }
+                cells.add(formattedValue);
+            }
+        }
+    }
+
+    private static class CancelledException extends RuntimeException {
+    }
+
+    /**
+     * Formats dates as ISO strings and numbers without grouping or exponent,
+     * so parsed values match what the templates ask users to type
+     */
+    private static class IsoDataFormatter extends DataFormatter {
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString) {
+            if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+                LocalDateTime dateTime = DateUtil.getLocalDateTime(value);
+                return dateTime.toLocalTime().equals(LocalTime.MIDNIGHT)
+                    ? dateTime.toLocalDate().toString()
+                    : dateTime.toString();
+            }
+            if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+                return String.valueOf((long) value);
+            }
+            return BigDecimal.valueOf(value).toPlainString();
+        }
+    }
+
+    /**
+     * Typed access to the cells of one row, values are validated on read
+     */
+    public static class RowCells {
+        private final String[] values;
+
+        RowCells(String[] values) {
+            this.values = values;
+        }
+
+        public String getText(int column) {
+            if (column >= values.length || values[column] == null) {
+                return null;
+            }
+            String value = values[column].trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        public String getRequiredText(int column, String label) {
+            String value = getText(column);
+            if (value == null) {
+                throw new IllegalArgumentException(label + " is required");
+            }
+            return value;
+        }
+
+        public LocalDate getDate(int column, String label) {
+            String value = getText(column);
+            if (value == null) {
+                return null;
+            }
+            try {
+                // Accept date-time cells for date columns
+                return LocalDate.parse(value.length() > 10 ? value.substring(0, 10) : value);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException(label + " must be a date (YYYY-MM-DD): " + value);
+            }
+        }
+
+        public LocalDateTime getDateTime(int column, String label) {
+            String value = getText(column);
+            if (value == null) {
+                return null;
+            }
+            try {
+                return value.length() == 10
+                    ? LocalDate.parse(value).atStartOfDay()
+                    : LocalDateTime.parse(value.replace(" ", "T"));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException(label + " must be a date-time (YYYY-MM-DDTHH:MM:SS): " + value);
+            }
+        }
+
+        public Integer getInteger(int column, String label) {
+            String value = getText(column);
+            if (value == null) {
+                return null;
+            }
+            try {
+                return Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(label + " must be an integer: " + value);
+            }
+        }
+
+        public Double getDouble(int column, String label) {
+            String value = getText(column);
+            if (value == null) {
+                return null;
+            }
+            try {
+                return Double.parseDouble(value.replace(',', '.'));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(label + " must be a number: " + value);
+            }
+        }
+
+        /**
+         * Anything but "false" counts as true, an empty cell uses the default
+         */
+        public boolean getBoolean(int column, boolean defaultValue) {
+            String value = getText(column);
+            return value == null ? defaultValue : !value.equalsIgnoreCase("false");
+        }
+
+        public List<Integer> getIntegerList(int column, String label) {
+            String value = getText(column);
+            List<Integer> ids = new ArrayList<>();
+            if (value == null) {
+                return ids;
+            }
+            for (String id : value.split(",")) {
+                id = id.trim();
+                if (!id.isEmpty()) {
+                    try {
+                        ids.add(Integer.parseInt(id));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException(label + " must be comma-separated integers: " + value);
+                    }
+                }
+            }
+            return ids;
+        }
+    }
+
+    /**
+     * Parsed entity with the Excel row number it came from
+     */
+    public static class ParsedRow<T> {
+        private final int rowNumber;
+        private final T value;
+
+        ParsedRow(int rowNumber, T value) {
+            this.rowNumber = rowNumber;
+            this.value = value;
+        }
+
+        public int getRowNumber() { return rowNumber; }
+        public T getValue() { return value; }
+    }
+
+    /**
+     * Error attached to an Excel row number
+     */
+    public static class RowError {
+        private final int rowNumber;
+        private final String message;
+
+        public RowError(int rowNumber, String message) {
+            this.rowNumber = rowNumber;
+            this.message = message;
+        }
+
+        public int getRowNumber() { return rowNumber; }
+        public String getMessage() { return message; }
+
+        @Override
+        public String toString() {
+            return "Ligne " + rowNumber + " : " + message;
+        }
+    }
+
+    /**
+     * Outcome of an import, shared by the reader and writer threads
+     */
+    public static class ImportResult {
+        private int totalRows;
+        private int importedCount;
+        private final List<RowError> errors = new ArrayList<>();
+
+        public synchronized void incrementTotalRows() {
+            totalRows++;
+        }
+
+        public synchronized void addImported(int count) {
+            importedCount += count;
+        }
+
+        public synchronized void addError(int rowNumber, String message) {
+            errors.add(new RowError(rowNumber, message));
+        }
+
+        public synchronized int getTotalRows() { return totalRows; }
+        public synchronized int getImportedCount() { return importedCount; }
+        public synchronized boolean hasErrors() { return !errors.isEmpty(); }
+
+        /**
+         * Errors sorted by row number
+         */
+        public synchronized List<RowError> getErrors() {
+            List<RowError> sorted = new ArrayList<>(errors);
+            sorted.sort(Comparator.comparingInt(RowError::getRowNumber));
+            return sorted;
+        }
+
+        /**
+         * First errors, one per line, for display in a dialog
+         */
+        public String formatErrors(int maxErrors) {
+            List<RowError> sorted = getErrors();
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < Math.min(maxErrors, sorted.size()); i++) {
+                sb.append(sorted.get(i)).append("\n");
+            }
+            if (sorted.size() > maxErrors) {
+                sb.append("... et ").append(sorted.size() - maxErrors).append(" autres erreurs");
+            }
+            return sb.toString().trim();
+        }
+    }
+}
@@ -5,13 +5,22 @@ import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 import java.io.*;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class ExcelUtil {
 
+    /**
+     * Source of rows for an export, typically a DAO method streaming a forward-only cursor
+     */
+    @FunctionalInterface
+    public interface RowSource<T> {
+        void forEach(Consumer<T> consumer) throws SQLException;
+    }
+
     public static void generateMemberTemplate(File file) throws IOException {
         try (Workbook workbook = new XSSFWorkbook()) {
             Sheet sheet = workbook.createSheet("Members");
@@ -21,15 +30,7 @@ public class ExcelUtil {
                               "Address", "Join Date (YYYY-MM-DD)*", "Role", "Active (true/false)",
                               "Group IDs (comma-separated)"};
 
-            for (int i = 0; i < headers.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                CellStyle style = workbook.createCellStyle();
-                Font font = workbook.createFont();
-                font.setBold(true);
-                style.setFont(font);
-                cell.setCellStyle(style);
-            }
+            writeHeaderRow(workbook, headerRow, headers);
 
             try (FileOutputStream fos = new FileOutputStream(file)) {
                 workbook.write(fos);
@@ -46,15 +47,7 @@ public class ExcelUtil {
                               "End Date (YYYY-MM-DDTHH:MM:SS)", "Location", "Status", "Organizer ID",
                               "Max Capacity", "Active (true/false)", "Contribution Target"};
 
-            for (int i = 0; i < headers.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                CellStyle style = workbook.createCellStyle();
-                Font font = workbook.createFont();
-                font.setBold(true);
-                style.setFont(font);
-                cell.setCellStyle(style);
-            }
+            writeHeaderRow(workbook, headerRow, headers);
 
             try (FileOutputStream fos = new FileOutputStream(file)) {
                 workbook.write(fos);
@@ -71,15 +64,7 @@ public class ExcelUtil {
                               "End Date (YYYY-MM-DD)", "Status", "Budget", "Target Budget",
                               "Manager ID", "Contribution Target"};
 
-            for (int i = 0; i < headers.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                CellStyle style = workbook.createCellStyle();
-                Font font = workbook.createFont();
-                font.setBold(true);
-                style.setFont(font);
-                cell.setCellStyle(style);
-            }
+            writeHeaderRow(workbook, headerRow, headers);
 
             try (FileOutputStream fos = new FileOutputStream(file)) {
                 workbook.write(fos);
@@ -95,15 +80,7 @@ public class ExcelUtil {
             String[] headers = {"Description*", "Amount*", "Date (YYYY-MM-DD)*",
                               "Category", "Entity Type (EVENT/PROJECT)*", "Entity ID*", "Member ID"};
 
-            for (int i = 0; i < headers.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                CellStyle style = workbook.createCellStyle();
-                Font font = workbook.createFont();
-                font.setBold(true);
-                style.setFont(font);
-                cell.setCellStyle(style);
-            }
+            writeHeaderRow(workbook, headerRow, headers);
 
             try (FileOutputStream fos = new FileOutputStream(file)) {
                 workbook.write(fos);
@@ -112,222 +89,271 @@ public class ExcelUtil {
     }
 
     public static List<Member> importMembers(File file) throws IOException {
-        List<Member> members = new ArrayList<>();
-
-        try (FileInputStream fis = new FileInputStream(file);
-             Workbook workbook = new XSSFWorkbook(fis)) {
-
-            Sheet sheet = workbook.getSheetAt(0);
-
-            for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-                Row row = sheet.getRow(i);
-                if (row == null) continue;
-
-                Member member = new Member();
-                member.setFirstName(getCellValueAsString(row.getCell(0)));
-                member.setLastName(getCellValueAsString(row.getCell(1)));
-                member.setEmail(getCellValueAsString(row.getCell(2)));
-                member.setPhone(getCellValueAsString(row.getCell(3)));
-
-                String birthDate = getCellValueAsString(row.getCell(4));
-                if (birthDate != null && !birthDate.isEmpty()) {
-                    member.setBirthDate(LocalDate.parse(birthDate));
-                }
-
-                member.setAddress(getCellValueAsString(row.getCell(5)));
-
-                String joinDate = getCellValueAsString(row.getCell(6));
-                if (joinDate != null && !joinDate.isEmpty()) {
-                    member.setJoinDate(LocalDate.parse(joinDate));
-                }
-
-                member.setRole(getCellValueAsString(row.getCell(7)));
-
-                String active = getCellValueAsString(row.getCell(8));
-                member.setActive(active == null || !active.equalsIgnoreCase("false"));
-
-                // Group IDs (comma-separated)
-                String groupIds = getCellValueAsString(row.getCell(9));
-                if (groupIds != null && !groupIds.isEmpty()) {
-                    List<Integer> groupIdList = new ArrayList<>();
-                    for (String id : groupIds.split(",")) {
-                        id = id.trim();
-                        if (!id.isEmpty()) {
-                            groupIdList.add(Integer.parseInt(id));
-                        }
-                    }
-                    member.setGroupIds(groupIdList);
-                }
-
-                members.add(member);
-            }
-        }
+        return ExcelImporter.readAll(file, ExcelUtil::parseMemberRow);
+    }
 
-        return members;
+    /**
+     * Stream members from the file to the writer in batches, invalid rows are reported by row number
+     */
+    public static ExcelImporter.ImportResult importMembers(File file, ExcelImporter.BatchWriter<Member> writer)
+            throws IOException, SQLException {
+        return ExcelImporter.importFile(file, ExcelUtil::parseMemberRow, writer);
     }
 
     public static List<Event> importEvents(File file) throws IOException {
-        List<Event> events = new ArrayList<>();
-
-        try (FileInputStream fis = new FileInputStream(file);
-             Workbook workbook = new XSSFWorkbook(fis)) {
-
-            Sheet sheet = workbook.getSheetAt(0);
-
-            for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-                Row row = sheet.getRow(i);
-                if (row == null) continue;
-
-                Event event = new Event();
-                event.setName(getCellValueAsString(row.getCell(0)));
-                event.setDescription(getCellValueAsString(row.getCell(1)));
-
-                String startDate = getCellValueAsString(row.getCell(2));
-                if (startDate != null && !startDate.isEmpty()) {
-                    event.setStartDate(LocalDateTime.parse(startDate));
-                }
-
-                String endDate = getCellValueAsString(row.getCell(3));
-                if (endDate != null && !endDate.isEmpty()) {
-                    event.setEndDate(LocalDateTime.parse(endDate));
-                }
-
-                event.setLocation(getCellValueAsString(row.getCell(4)));
-                event.setStatus(getCellValueAsString(row.getCell(5)));
-
-                String organizerId = getCellValueAsString(row.getCell(6));
-                if (organizerId != null && !organizerId.isEmpty()) {
-                    event.setOrganizerId(Integer.parseInt(organizerId));
-                }
-
-                String maxCapacity = getCellValueAsString(row.getCell(7));
-                if (maxCapacity != null && !maxCapacity.isEmpty()) {
-                    event.setMaxCapacity(Integer.parseInt(maxCapacity));
-                }
-
-                String active = getCellValueAsString(row.getCell(8));
-                event.setActive(active == null || !active.equalsIgnoreCase("false"));
-
-                String contributionTarget = getCellValueAsString(row.getCell(9));
-                if (contributionTarget != null && !contributionTarget.isEmpty()) {
-                    event.setContributionTarget(Double.parseDouble(contributionTarget));
-                }
-
-                events.add(event);
-            }
-        }
+        return ExcelImporter.readAll(file, ExcelUtil::parseEventRow);
+    }
 
-        return events;
+    public static ExcelImporter.ImportResult importEvents(File file, ExcelImporter.BatchWriter<Event> writer)
+            throws IOException, SQLException {
+        return ExcelImporter.importFile(file, ExcelUtil::parseEventRow, writer);
     }
 
     public static List<Project> importProjects(File file) throws IOException {
-        List<Project> projects = new ArrayList<>();
-
-        try (FileInputStream fis = new FileInputStream(file);
-             Workbook workbook = new XSSFWorkbook(fis)) {
-
-            Sheet sheet = workbook.getSheetAt(0);
-
-            for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-                Row row = sheet.getRow(i);
-                if (row == null) continue;
-
-                Project project = new Project();
-                project.setName(getCellValueAsString(row.getCell(0)));
-                project.setDescription(getCellValueAsString(row.getCell(1)));
-
-                String startDate = getCellValueAsString(row.getCell(2));
-                if (startDate != null && !startDate.isEmpty()) {
-                    project.setStartDate(LocalDate.parse(startDate));
-                }
+        return ExcelImporter.readAll(file, ExcelUtil::parseProjectRow);
+    }
 
-                String endDate = getCellValueAsString(row.getCell(3));
-                if (endDate != null && !endDate.isEmpty()) {
-                    project.setEndDate(LocalDate.parse(endDate));
-                }
+    public static ExcelImporter.ImportResult importProjects(File file, ExcelImporter.BatchWriter<Project> writer)
+            throws IOException, SQLException {
+        return ExcelImporter.importFile(file, ExcelUtil::parseProjectRow, writer);
+    }
 
-                project.setStatus(getCellValueAsString(row.getCell(4)));
+    public static List<Expense> importExpenses(File file) throws IOException {
+        return ExcelImporter.readAll(file, ExcelUtil::parseExpenseRow);
+    }
 
-                String budget = getCellValueAsString(row.getCell(5));
-                if (budget != null && !budget.isEmpty()) {
-                    project.setBudget(Double.parseDouble(budget));
-                }
+    public static ExcelImporter.ImportResult importExpenses(File file, ExcelImporter.BatchWriter<Expense> writer)
+            throws IOException, SQLException {
+        return ExcelImporter.importFile(file, ExcelUtil::parseExpenseRow, writer);
+    }
 
-                String targetBudget = getCellValueAsString(row.getCell(6));
-                if (targetBudget != null && !targetBudget.isEmpty()) {
-                    project.setTargetBudget(Double.parseDouble(targetBudget));
-                }
+    private static Member parseMemberRow(ExcelImporter.RowCells cells) {
+        Member member = new Member();
+        member.setFirstName(cells.getRequiredText(0, "First name"));
+        member.setLastName(cells.getRequiredText(1, "Last name"));
+        member.setEmail(cells.getText(2));
+        member.setPhone(cells.getText(3));
+        member.setBirthDate(cells.getDate(4, "Birth date"));
+        member.setAddress(cells.getText(5));
+
+        LocalDate joinDate = cells.getDate(6, "Join date");
+        if (joinDate == null) {
+            throw new IllegalArgumentException("Join date is required");
+        }
+        member.setJoinDate(joinDate);
 
-                String managerId = getCellValueAsString(row.getCell(7));
-                if (managerId != null && !managerId.isEmpty()) {
-                    project.setManagerId(Integer.parseInt(managerId));
-                }
+        member.setRole(cells.getText(7));
+        member.setActive(cells.getBoolean(8, true));
+        member.setGroupIds(cells.getIntegerList(9, "Group IDs"));
+        return member;
+    }
 
-                String contributionTarget = getCellValueAsString(row.getCell(8));
-                if (contributionTarget != null && !contributionTarget.isEmpty()) {
-                    project.setContributionTarget(Double.parseDouble(contributionTarget));
-                }
+    private static Event parseEventRow(ExcelImporter.RowCells cells) {
+        Event event = new Event();
+        event.setName(cells.getRequiredText(0, "Event name"));
+        event.setDescription(cells.getText(1));
 
-                projects.add(project);
-            }
+        LocalDateTime startDate = cells.getDateTime(2, "Start date");
+        if (startDate == null) {
+            throw new IllegalArgumentException("Start date is required");
         }
+        event.setStartDate(startDate);
+        event.setEndDate(cells.getDateTime(3, "End date"));
+
+        event.setLocation(cells.getText(4));
+        event.setStatus(cells.getText(5));
+        event.setOrganizerId(cells.getInteger(6, "Organizer ID"));
+        event.setMaxCapacity(cells.getInteger(7, "Max capacity"));
+        event.setActive(cells.getBoolean(8, true));
+        event.setContributionTarget(cells.getDouble(9, "Contribution target"));
+        return event;
+    }
 
-        return projects;
+    private static Project parseProjectRow(ExcelImporter.RowCells cells) {
+        Project project = new Project();
+        project.setName(cells.getRequiredText(0, "Project name"));
+        project.setDescription(cells.getText(1));
+        project.setStartDate(cells.getDate(2, "Start date"));
+        project.setEndDate(cells.getDate(3, "End date"));
+        project.setStatus(cells.getText(4));
+        project.setBudget(cells.getDouble(5, "Budget"));
+        project.setTargetBudget(cells.getDouble(6, "Target budget"));
+        project.setManagerId(cells.getInteger(7, "Manager ID"));
+        project.setContributionTarget(cells.getDouble(8, "Contribution target"));
+        return project;
     }
 
-    public static List<Expense> importExpenses(File file) throws IOException {
-        List<Expense> expenses = new ArrayList<>();
+    private static Expense parseExpenseRow(ExcelImporter.RowCells cells) {
+        Expense expense = new Expense();
+        expense.setDescription(cells.getRequiredText(0, "Description"));
 
-        try (FileInputStream fis = new FileInputStream(file);
-             Workbook workbook = new XSSFWorkbook(fis)) {
+        Double amount = cells.getDouble(1, "Amount");
+        if (amount == null || amount <= 0) {
+            throw new IllegalArgumentException("Amount must be greater than 0");
+        }
+        expense.setAmount(amount);
 
-            Sheet sheet = workbook.getSheetAt(0);
+        LocalDate date = cells.getDate(2, "Date");
+        if (date == null) {
+            throw new IllegalArgumentException("Date is required");
+        }
+        expense.setDate(date);
 
-            for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-                Row row = sheet.getRow(i);
-                if (row == null) continue;
+        expense.setCategory(cells.getText(3));
 
-                Expense expense = new Expense();
-                expense.setDescription(getCellValueAsString(row.getCell(0)));
+        String entityType = cells.getRequiredText(4, "Entity type");
+        if (!entityType.equalsIgnoreCase("EVENT") && !entityType.equalsIgnoreCase("PROJECT")) {
+            throw new IllegalArgumentException("Entity type must be EVENT or PROJECT: " + entityType);
+        }
+        expense.setEntityType(entityType.toUpperCase());
 
-                String amount = getCellValueAsString(row.getCell(1));
-                if (amount != null && !amount.isEmpty()) {
-                    expense.setAmount(Double.parseDouble(amount));
-                }
+        Integer entityId = cells.getInteger(5, "Entity ID");
+        if (entityId == null) {
+            throw new IllegalArgumentException("Entity ID is required");
+        }
+        expense.setEntityId(entityId);
 
-                String date = getCellValueAsString(row.getCell(2));
-                if (date != null && !date.isEmpty()) {
-                    expense.setDate(LocalDate.parse(date));
-                }
+        expense.setMemberId(cells.getInteger(6, "Member ID"));
+        return expense;
+    }
 
-                expense.setCategory(getCellValueAsString(row.getCell(3)));
-                expense.setEntityType(getCellValueAsString(row.getCell(4)));
+    public static int exportMembers(File file, RowSource<Member> source) throws IOException, SQLException {
+        String[] headers = {"ID", "Prénom", "Nom", "Email", "Téléphone", "Date de naissance", "Adresse",
+                            "Date d'adhésion", "Rôle", "Actif", "Groupes"};
+
+        try (ExcelExporter exporter = new ExcelExporter()) {
+            exporter.startSheet("Membres", headers);
+            source.forEach(member -> exporter.nextRow()
+                .number(member.getId())
+                .text(member.getFirstName())
+                .text(member.getLastName())
+                .text(member.getEmail())
+                .text(member.getPhone())
+                .date(member.getBirthDate())
+                .text(member.getAddress())
+                .date(member.getJoinDate())
+                .text(member.getRole())
+                .bool(member.isActive())
+                .text(member.getGroupNames() != null ? String.join(", ", member.getGroupNames()) : null));
+            exporter.writeTo(file);
+            return exporter.getRowCount();
+        }
+    }
 
-                String entityId = getCellValueAsString(row.getCell(5));
-                if (entityId != null && !entityId.isEmpty()) {
-                    expense.setEntityId(Integer.parseInt(entityId));
-                }
+    public static int exportContributions(File file, RowSource<Contribution> source) throws IOException, SQLException {
+        String[] headers = {"ID", "Membre", "Type", "Événement/Projet", "Montant", "Date", "Statut",
+                            "Mode de paiement", "Notes"};
+
+        try (ExcelExporter exporter = new ExcelExporter()) {
+            exporter.startSheet("Cotisations", headers);
+            source.forEach(contribution -> exporter.nextRow()
+                .number(contribution.getId())
+                .text(contribution.getMemberName())
+                .text(contribution.getEntityType())
+                .text(contribution.getEntityName())
+                .amount(contribution.getAmount())
+                .date(contribution.getDate())
+                .text(contribution.getStatus())
+                .text(contribution.getPaymentMethod())
+                .text(contribution.getNotes()));
+            exporter.writeTo(file);
+            return exporter.getRowCount();
+        }
+    }
 
-                String memberId = getCellValueAsString(row.getCell(6));
-                if (memberId != null && !memberId.isEmpty()) {
-                    expense.setMemberId(Integer.parseInt(memberId));
-                }
+    public static int exportExpenses(File file, RowSource<Expense> source) throws IOException, SQLException {
+        String[] headers = {"ID", "Description", "Montant", "Date", "Catégorie", "Type", "Événement/Projet",
+                            "Payé par"};
+
+        try (ExcelExporter exporter = new ExcelExporter()) {
+            exporter.startSheet("Dépenses", headers);
+            source.forEach(expense -> exporter.nextRow()
+                .number(expense.getId())
+                .text(expense.getDescription())
+                .amount(expense.getAmount())
+                .date(expense.getDate())
+                .text(expense.getCategory())
+                .text(expense.getEntityType())
+                .text(expense.getEntityName())
+                .text(expense.getMemberName()));
+            exporter.writeTo(file);
+            return exporter.getRowCount();
+        }
+    }
 
-                expenses.add(expense);
-            }
+    public static int exportEvents(File file, RowSource<Event> source) throws IOException, SQLException {
+        String[] headers = {"ID", "Nom", "Description", "Début", "Fin", "Lieu", "Statut", "Organisateur",
+                            "Capacité max", "Actif", "Objectif de cotisation"};
+
+        try (ExcelExporter exporter = new ExcelExporter()) {
+            exporter.startSheet("Événements", headers);
+            source.forEach(event -> exporter.nextRow()
+                .number(event.getId())
+                .text(event.getName())
+                .text(event.getDescription())
+                .dateTime(event.getStartDate())
+                .dateTime(event.getEndDate())
+                .text(event.getLocation())
+                .text(event.getStatus())
+                .text(event.getOrganizerName())
+                .number(event.getMaxCapacity())
+                .bool(event.isActive())
+                .amount(event.getContributionTarget()));
+            exporter.writeTo(file);
+            return exporter.getRowCount();
         }
+    }
 
-        return expenses;
+    public static int exportProjects(File file, RowSource<Project> source) throws IOException, SQLException {
+        String[] headers = {"ID", "Nom", "Description", "Début", "Fin", "Statut", "Budget", "Budget cible",
+                            "Responsable"};
+
+        try (ExcelExporter exporter = new ExcelExporter()) {
+            exporter.startSheet("Projets", headers);
+            source.forEach(project -> exporter.nextRow()
+                .number(project.getId())
+                .text(project.getName())
+                .text(project.getDescription())
+                .date(project.getStartDate())
+                .date(project.getEndDate())
+                .text(project.getStatus())
+                .amount(project.getBudget())
+                .amount(project.getTargetBudget())
+                .text(project.getManagerName()));
+            exporter.writeTo(file);
+            return exporter.getRowCount();
+        }
     }
 
-    private static String getCellValueAsString(Cell cell) {
-        if (cell == null) return null;
+    public static int exportPaymentGroups(File file, RowSource<PaymentGroup> source) throws IOException, SQLException {
+        String[] headers = {"ID", "Groupe", "Type", "Événement/Projet", "Montant par membre"};
+
+        try (ExcelExporter exporter = new ExcelExporter()) {
+            exporter.startSheet("Objectifs", headers);
+            source.forEach(paymentGroup -> exporter.nextRow()
+                .number(paymentGroup.getId())
+                .text(paymentGroup.getGroupName())
+                .text(paymentGroup.getEntityType())
+                .text(paymentGroup.getEntityName())
+                .amount(paymentGroup.getAmount()));
+            exporter.writeTo(file);
+            return exporter.getRowCount();
+        }
+    }
 
-        return switch (cell.getCellType()) {
-            case STRING -> cell.getStringCellValue();
-            case NUMERIC -> String.valueOf((long) cell.getNumericCellValue());
-            case BOOLEAN -> String.valueOf(cell.getBooleanCellValue());
-            default -> null;
-        };
+    /**
+     * Write a bold header row sharing a single style for every cell
+     */
+    private static void writeHeaderRow(Workbook workbook, Row headerRow, String[] headers) {
+        CellStyle style = workbook.createCellStyle();
+        Font font = workbook.createFont();
+        font.setBold(true);
+        style.setFont(font);
+
+        for (int i = 0; i < headers.length; i++) {
+            Cell cell = headerRow.createCell(i);
+            cell.setCellValue(headers[i]);
+            cell.setCellStyle(style);
+        }
     }
 }
@@ -1,6 +1,5 @@
 package com.nasroul.util;
 
-import javafx.embed.swing.SwingFXUtils;
 import javafx.scene.image.Image;
 
 import javax.imageio.ImageIO;
@@ -17,9 +16,8 @@ public class ImageUtil {
     }
 
     public static byte[] resizeImage(BufferedImage originalImage) throws IOException {
-        Image fxImage = SwingFXUtils.toFXImage(originalImage, null);
-        double width = fxImage.getWidth();
-        double height = fxImage.getHeight();
+        double width = originalImage.getWidth();
+        double height = originalImage.getHeight();
 
         double scaleFactor = Math.min(AVATAR_SIZE / width, AVATAR_SIZE / height);
         int newWidth = (int) (width * scaleFactor);
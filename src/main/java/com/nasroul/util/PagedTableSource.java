@@ -0,0 +1,236 @@
+package com.nasroul.util;
+
+import com.nasroul.dao.Page;
+import com.nasroul.dao.PageCursor;
+import com.nasroul.dao.PageRequest;
+import javafx.application.Platform;
+import javafx.collections.ObservableListBase;
+
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Read-only list for a TableView that fetches rows page by page as the user scrolls
+ *
+ * The list reports the total row count up front, so the scroll bar covers the whole result, but only
+ * the pages around the visible window are kept in memory. Rows not loaded yet read as null: cell value
+ * factories must accept a null row. Pages are read with keyset cursors; a jump far ahead seeks the first
+ * page with an OFFSET query, and the following pages continue from its cursor.
+ *
+ * Must only be used from the FX thread. Sorting the table must go through setRequest, not the list.
+ */
+public class PagedTableSource<T> extends ObservableListBase<T> {
+
+    public static final int MAX_CACHED_PAGES = 8;
+
+    @FunctionalInterface
+    public interface PageFetcher<T> {
+        Page<T> fetch(PageRequest request) throws SQLException;
+    }
+
+    @FunctionalInterface
+    public interface RowCounter {
+        int count(PageRequest request) throws SQLException;
+    }
+
+    private final PageFetcher<T> fetcher;
+    private final RowCounter counter;
+    private final AsyncLoader loader;
+    private final ExecutorService pageExecutor;
+
+    // Access-ordered so the least recently read page is evicted first
+    private final Map<Integer, List<T>> pages = new LinkedHashMap<>(16, 0.75f, true);
+    // Cursor after the last row of each page read so far, kept after the page itself is evicted
+    private final Map<Integer, PageCursor> pageEnds = new HashMap<>();
+    private final Set<Integer> pendingPages = new HashSet<>();
+
+    private PageRequest request;
+    private int size;
+    private volatile long generation;
+    private volatile int lastReadPage;
+    // Set from reload() until the first page of the new request is applied: the pages and cursors
+    // still held belong to the previous request, no other page is read meanwhile
+    private boolean reloading;
+
+    public PagedTableSource(PageRequest request, PageFetcher<T> fetcher, RowCounter counter, AsyncLoader loader) {
+        this.request = request;
+        this.fetcher = fetcher;
+        this.counter = counter;
+        this.loader = loader;
+        this.pageExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "paged-table-source");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public PageRequest getRequest() {
+        return request;
+    }
+
+    /**
+     * Switch to another sort or filter and reload from the first page
+     */
+    public void setRequest(PageRequest request) {
+        this.request = request;
+        reload();
+    }
+
+    /**
+     * Count the rows and read the first page in the background, then replace the whole list at once
+     * Rows already shown stay visible until the new result is ready
+     */
+    public void reload() {
+        long requestGeneration = ++generation;
+        PageRequest firstPage = request;
+        // Cursors of the previous request must not be used to page the new one
+        pageEnds.clear();
+        pendingPages.clear();
+        reloading = true;
+
+        loader.load(() -> {
+            int total = counter.count(firstPage);
+            Page<T> page = fetcher.fetch(firstPage);
+            return new FirstPage<>(total, page);
+        }, result -> {
+            if (requestGeneration != generation) {
+                return;
+            }
+            pages.clear();
+            pageEnds.clear();
+            pendingPages.clear();
+            lastReadPage = 0;
+            reloading = false;
+
+            int oldSize = size;
+            storePage(0, result.page);
+            // The count is an estimate: rows may change between the two queries
+            size = result.page.hasNext() ? Math.max(result.total, result.page.getItems().size() + 1)
+                                         : result.page.getItems().size();
+
+            beginChange();
+            nextReplace(0, size, Collections.nCopies(oldSize, null));
+            endChange();
+        }, e -> System.err.println("Failed to load page: " + e.getMessage()));
+    }
+
+    @Override
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        int pageSize = request.getPageSize();
+        int pageIndex = index / pageSize;
+        lastReadPage = pageIndex;
+
+        List<T> rows = pages.get(pageIndex);
+        if (rows == null) {
+            requestPage(pageIndex);
+            return null;
+        }
+        int offset = index % pageSize;
+        return offset < rows.size() ? rows.get(offset) : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private void requestPage(int pageIndex) {
+        if (reloading || !pendingPages.add(pageIndex)) {
+            return;
+        }
+
+        long requestGeneration = generation;
+        PageCursor previousEnd = pageEnds.get(pageIndex - 1);
+        PageRequest pageRequest = previousEnd != null
+            ? request.after(previousEnd)
+            : request.atOffset(pageIndex * request.getPageSize());
+
+        pageExecutor.execute(() -> {
+            // Skip pages the user already scrolled away from
+            if (requestGeneration != generation || Math.abs(pageIndex - lastReadPage) > MAX_CACHED_PAGES / 2) {
+                Platform.runLater(() -> pendingPages.remove(pageIndex));
+                return;
+            }
+            try {
+                Page<T> page = fetcher.fetch(pageRequest);
+                Platform.runLater(() -> applyPage(requestGeneration, pageIndex, page));
+            } catch (Exception e) {
+                System.err.println("Failed to load page " + pageIndex + ": " + e.getMessage());
+                Platform.runLater(() -> pendingPages.remove(pageIndex));
+            }
+        });
+    }
+
+    private void applyPage(long requestGeneration, int pageIndex, Page<T> page) {
+        if (requestGeneration != generation) {
+            return;
+        }
+        pendingPages.remove(pageIndex);
+        storePage(pageIndex, page);
+
+        int pageSize = request.getPageSize();
+        int from = pageIndex * pageSize;
+        int loaded = page.getItems().size();
+        int oldSize = size;
+
+        // Correct the estimated size once the real end of the result is known or passed
+        int newSize = oldSize;
+        if (!page.hasNext()) {
+            newSize = from + loaded;
+        } else if (from + loaded >= oldSize) {
+            newSize = from + loaded + 1;
+        }
+
+        size = newSize;
+        beginChange();
+        for (int i = from; i < Math.min(from + loaded, Math.min(oldSize, newSize)); i++) {
+            nextSet(i, null);
+        }
+        if (newSize > oldSize) {
+            nextAdd(oldSize, newSize);
+        } else if (newSize < oldSize) {
+            nextRemove(newSize, Collections.nCopies(oldSize - newSize, null));
+        }
+        evictPages();
+        endChange();
+    }
+
+    private void storePage(int pageIndex, Page<T> page) {
+        pages.put(pageIndex, page.getItems());
+        if (page.getNextCursor() != null) {
+            pageEnds.put(pageIndex, page.getNextCursor());
+        }
+    }
+
+    /**
+     * Drop the least recently read pages, their rows read as null again until scrolled back to
+     */
+    private void evictPages() {
+        Iterator<Map.Entry<Integer, List<T>>> it = pages.entrySet().iterator();
+        while (pages.size() > MAX_CACHED_PAGES && it.hasNext()) {
+            Map.Entry<Integer, List<T>> eldest = it.next();
+            int from = eldest.getKey() * request.getPageSize();
+            int to = Math.min(from + eldest.getValue().size(), size);
+            List<T> rows = eldest.getValue();
+            it.remove();
+            for (int i = from; i < to; i++) {
+                nextSet(i, rows.get(i - from));
+            }
+        }
+    }
+
+    private static class FirstPage<T> {
+        private final int total;
+        private final Page<T> page;
+
+        private FirstPage(int total, Page<T> page) {
+            this.total = total;
+            this.page = page;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.nasroul.util;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Records startup phase timings
+ * Phases are always recorded (cheap); the report is only printed with --startup-profile
+ */
+public final class StartupProfiler {
+
+    public static final String PROFILE_FLAG = "--startup-profile";
+
+    private static final StartupProfiler INSTANCE = new StartupProfiler();
+
+    private final long originNanos = System.nanoTime();
+    private final List<Phase> phases = new ArrayList<>();
+    private volatile boolean enabled;
+
+    private StartupProfiler() {
+    }
+
+    public static StartupProfiler getInstance() {
+        return INSTANCE;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Start a phase; close it (try-with-resources) to record its duration
+     */
+    public Phase start(String name) {
+        return new Phase(name, System.nanoTime(), Thread.currentThread().getName());
+    }
+
+    /**
+     * Print every completed phase, ordered by start time
+     */
+    public void printReport() {
+        if (!enabled) {
+            return;
+        }
+
+        List<Phase> snapshot;
+        synchronized (phases) {
+            snapshot = new ArrayList<>(phases);
+        }
+        snapshot.sort(Comparator.comparingLong(p -> p.startNanos));
+
+        StringBuilder report = new StringBuilder("\n=== Startup profile ===\n");
+        processUptime().ifPresent(uptime ->
+            report.append(String.format("JVM uptime at report: %d ms%n", uptime)));
+        report.append(String.format("%-28s %10s %10s  %s%n", "Phase", "Start(ms)", "Time(ms)", "Thread"));
+        for (Phase phase : snapshot) {
+            report.append(String.format("%-28s %10d %10d  %s%n",
+                phase.name, toMillis(phase.startNanos - originNanos), toMillis(phase.durationNanos), phase.threadName));
+        }
+        System.out.print(report);
+    }
+
+    private void record(Phase phase) {
+        synchronized (phases) {
+            phases.add(phase);
+        }
+        // Background phases may finish after the report was printed
+        if (enabled && phase.late) {
+            System.out.printf("[startup] %s finished after %d ms (%s)%n",
+                phase.name, toMillis(phase.durationNanos), phase.threadName);
+        }
+    }
+
+    private static long toMillis(long nanos) {
+        return nanos / 1_000_000;
+    }
+
+    private static java.util.Optional<Long> processUptime() {
+        return ProcessHandle.current().info().startInstant()
+            .map(start -> Duration.between(start, Instant.now()).toMillis());
+    }
+
+    /**
+     * A running or completed startup phase
+     */
+    public final class Phase implements AutoCloseable {
+        private final String name;
+        private final long startNanos;
+        private final String threadName;
+        private long durationNanos;
+        private boolean late;
+
+        private Phase(String name, long startNanos, String threadName) {
+            this.name = name;
+            this.startNanos = startNanos;
+            this.threadName = threadName;
+        }
+
+        /**
+         * Mark this phase as running outside the startup path, it is reported when it ends
+         */
+        public Phase background() {
+            this.late = true;
+            return this;
+        }
+
+        @Override
+        public void close() {
+            durationNanos = System.nanoTime() - startNanos;
+            record(this);
+        }
+    }
+}